@@ -40,6 +40,23 @@ public interface Database<Z> extends Comparable<Database<Z>>
 
 	Locality getLocality();
 
+	/**
+	 * Counts a read-only transaction pinned to this database.
+	 * By default, read-only transactions are not counted.
+	 */
+	default void incrementReadOnlyTransactions()
+	{
+	}
+
+	/**
+	 * Returns the number of read-only transactions pinned to this database.
+	 * @return a transaction count
+	 */
+	default long getReadOnlyTransactions()
+	{
+		return 0;
+	}
+
 	Connection connect(Decoder decoder) throws SQLException;
 
 	String getLocation();
@@ -22,9 +22,11 @@ import java.util.concurrent.ThreadFactory;
 
 import net.sf.hajdbc.balancer.Balancer;
 import net.sf.hajdbc.cache.DatabaseMetaDataCache;
+import net.sf.hajdbc.cache.SQLAnalysisCache;
 import net.sf.hajdbc.codec.Decoder;
 import net.sf.hajdbc.dialect.Dialect;
 import net.sf.hajdbc.durability.Durability;
+import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.io.InputSinkStrategy;
 import net.sf.hajdbc.lock.LockManager;
 import net.sf.hajdbc.state.StateManager;
@@ -101,6 +103,12 @@ public interface DatabaseCluster<Z, D extends Database<Z>> extends Lifecycle
 	 */
 	DatabaseMetaDataCache<Z, D> getDatabaseMetaDataCache();
 	
+	/**
+	 * Returns the cache of SQL analysis results.
+	 * @return a SQL analysis cache
+	 */
+	SQLAnalysisCache getSQLAnalysisCache();
+	
 	/**
 	 * Indicates whether or not sequence detection is enabled for this cluster.
 	 * @return true, if sequence detection is enabled, false otherwise.
@@ -137,6 +145,30 @@ public interface DatabaseCluster<Z, D extends Database<Z>> extends Lifecycle
 	 */
 	boolean isRandEvaluationEnabled();
 	
+	/**
+	 * Returns the number of batched statements sent to each database per chunk when executing a batch.
+	 * @return a chunk size, where 0 indicates that batches are not chunked.
+	 */
+	int getBatchChunkSize();
+	
+	/**
+	 * Indicates whether or not statements are created against a single database, and only created against other databases on first use.
+	 * @return true, if lazy statement creation is enabled, false otherwise.
+	 */
+	boolean isLazyStatementCreationEnabled();
+	
+	/**
+	 * Returns the maximum number of closed prepared statements cached per connection for reuse.
+	 * @return a cache size, where 0 disables prepared statement caching.
+	 */
+	int getPreparedStatementCacheSize();
+	
+	/**
+	 * Returns the strategy used to execute read-only queries against a single database.
+	 * @return an invocation strategy
+	 */
+	InvocationStrategy getReadInvocationStrategy();
+	
 	/**
 	 * Indicates whether or not this cluster is active, i.e. started, but not yet stopped.
 	 * @return true, if this cluster is active, false otherwise.
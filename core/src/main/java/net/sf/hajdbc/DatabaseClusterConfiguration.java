@@ -79,6 +79,36 @@ public interface DatabaseClusterConfiguration<Z, D extends Database<Z>>
 	 */
 	DatabaseMetaDataCacheFactory getDatabaseMetaDataCacheFactory();
 
+	/**
+	 * Returns the maximum number of SQL statements whose analysis is cached.
+	 * @return a cache size, where 0 disables caching
+	 */
+	int getSQLAnalysisCacheSize();
+
+	/**
+	 * Returns the number of batched statements sent to each database per chunk when executing a batch.
+	 * @return a chunk size, where 0 disables chunking
+	 */
+	int getBatchChunkSize();
+
+	/**
+	 * Returns the maximum number of milliseconds to wait for a read-only query against a single database before hedging it against another database.
+	 * @return a delay in milliseconds, where 0 disables hedging
+	 */
+	int getHedgedReadDelay();
+
+	/**
+	 * Indicates whether or not statements are created against a single database, and only created against other databases on first use.
+	 * @return true, if lazy statement creation is enabled, false otherwise.
+	 */
+	boolean isLazyStatementCreationEnabled();
+
+	/**
+	 * Returns the maximum number of closed prepared statements cached per connection for reuse.
+	 * @return a cache size, where 0 disables prepared statement caching.
+	 */
+	int getPreparedStatementCacheSize();
+
 	DurabilityFactory getDurabilityFactory();
 
 	LockManagerFactory getLockManagerFactory();
@@ -78,7 +78,7 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 	private volatile Builder<DecoderFactory> decoderFactoryBuilder = new SimpleBuilder<>(new MultiplexingDecoderFactory());
 	private volatile Builder<MBeanRegistrarFactory> mbeanRegistrarFactoryBuilder = new SimpleBuilder<>(new DefaultMBeanRegistrarFactory());
 	private volatile Builder<ThreadFactory> threadFactoryBuilder = new SimpleBuilder<>(Executors.defaultThreadFactory());
-	private volatile Builder<ExecutorServiceProvider> executorProviderBuilder = new SimpleBuilder<>(new DefaultExecutorServiceProvider());
+	private volatile Builder<? extends ExecutorServiceProvider> executorProviderBuilder = new SimpleBuilder<>(new DefaultExecutorServiceProvider());
 
 	private volatile CronExpressionBuilder autoActivateScheduleBuilder = new CronExpressionBuilder();
 	private volatile CronExpressionBuilder failureDetectScheduleBuilder = new CronExpressionBuilder();
@@ -92,6 +92,11 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 	private volatile boolean detectIdentityColumns = false;
 	private volatile boolean detectSequences = false;
 	private volatile boolean allowEmptyCluster = false;
+	private volatile int sqlAnalysisCacheSize = 1000;
+	private volatile int batchChunkSize = 0;
+	private volatile int hedgedReadDelay = 0;
+	private volatile boolean lazyStatements = false;
+	private volatile int preparedStatementCacheSize = 0;
 	
 	protected DatabaseClusterConfigurationBuilder(DatabaseBuilderFactory<Z, D, B> factory)
 	{
@@ -213,6 +218,13 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 		return builder;
 	}
 	
+	public ServiceBuilder<IdentifiableExecutorServiceProvider> executor(String id)
+	{
+		ServiceBuilder<IdentifiableExecutorServiceProvider> builder = new ServiceBuilder<>(IdentifiableExecutorServiceProvider.class, id);
+		this.executorProviderBuilder = builder;
+		return builder;
+	}
+
 	public <T extends Builder<ExecutorServiceProvider>> T executor(Class<T> builderClass)
 	{
 		try
@@ -317,6 +329,36 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 		return this;
 	}
 
+	public DatabaseClusterConfigurationBuilder<Z, D, B> sqlAnalysisCacheSize(int size)
+	{
+		this.sqlAnalysisCacheSize = size;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> batchChunkSize(int size)
+	{
+		this.batchChunkSize = size;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> hedgedReadDelay(int delay)
+	{
+		this.hedgedReadDelay = delay;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> lazyStatements(boolean enabled)
+	{
+		this.lazyStatements = enabled;
+		return this;
+	}
+
+	public DatabaseClusterConfigurationBuilder<Z, D, B> preparedStatementCacheSize(int size)
+	{
+		this.preparedStatementCacheSize = size;
+		return this;
+	}
+
 	public DatabaseClusterConfigurationBuilder<Z, D, B> autoActivateSchedule(String schedule)
 	{
 		this.autoActivateScheduleBuilder.expression(schedule);
@@ -404,6 +446,11 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 		final boolean detectIdentityColumns = this.detectIdentityColumns;
 		final boolean detectSequences = this.detectSequences;
 		final boolean allowEmptyCluster = this.allowEmptyCluster;
+		final int sqlAnalysisCacheSize = this.sqlAnalysisCacheSize;
+		final int batchChunkSize = this.batchChunkSize;
+		final int hedgedReadDelay = this.hedgedReadDelay;
+		final boolean lazyStatements = this.lazyStatements;
+		final int preparedStatementCacheSize = this.preparedStatementCacheSize;
 		
 		if (this.synchronizationStrategyBuilders.isEmpty())
 		{
@@ -496,6 +543,36 @@ public class DatabaseClusterConfigurationBuilder<Z, D extends Database<Z>, B ext
 				return metaDataCacheFactory;
 			}
 
+			@Override
+			public int getSQLAnalysisCacheSize()
+			{
+				return sqlAnalysisCacheSize;
+			}
+
+			@Override
+			public int getBatchChunkSize()
+			{
+				return batchChunkSize;
+			}
+
+			@Override
+			public int getHedgedReadDelay()
+			{
+				return hedgedReadDelay;
+			}
+
+			@Override
+			public boolean isLazyStatementCreationEnabled()
+			{
+				return lazyStatements;
+			}
+
+			@Override
+			public int getPreparedStatementCacheSize()
+			{
+				return preparedStatementCacheSize;
+			}
+
 			@Override
 			public DurabilityFactory getDurabilityFactory()
 			{
@@ -21,6 +21,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
 
 /**
+ * Provides the executor used to invoke statements against the databases of a cluster.
  * @author Paul Ferraro
  */
 public interface ExecutorServiceProvider
@@ -18,53 +18,36 @@
 package net.sf.hajdbc.balancer;
 
 import java.util.Collection;
-import java.util.NoSuchElementException;
+import java.util.Collections;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.invocation.Invoker;
-import net.sf.hajdbc.util.Collections;
 
 /**
  * Abstract set-based {@link Balancer} implementation.
+ * The databases of this balancer are stored as an immutable {@link DatabaseSnapshot}, which is replaced atomically on modification.
+ * Consequently, {@link #primary()}, {@link #backups()}, {@link #next()}, and iteration never block, while concurrent modifications simply retry.
  * @author Paul Ferraro
  */
 public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends AbstractBalancer<Z, D>
 {
-	private final Lock lock = new ReentrantLock();
-
-	private volatile SortedSet<D> databaseSet;
+	private final AtomicReference<DatabaseSnapshot<Z, D>> snapshot;
 
 	protected AbstractSetBalancer(Set<D> databases)
 	{
-		if (databases.isEmpty())
-		{
-			this.databaseSet = Collections.emptySortedSet();
-		}
-		else if (databases.size() == 1)
-		{
-			this.databaseSet = Collections.singletonSortedSet(databases.iterator().next());
-		}
-		else
-		{
-			SortedSet<D> set = new TreeSet<>();
-			
-			for (D database: databases)
-			{
-				set.add(database);
-			}
-			
-			this.databaseSet = set;
-		}
+		this.snapshot = new AtomicReference<>(DatabaseSnapshot.<Z, D>of(databases));
 	}
 
-	protected Lock getLock()
+	/**
+	 * Returns the current snapshot of the databases of this balancer.
+	 * @return an immutable snapshot
+	 */
+	protected DatabaseSnapshot<Z, D> getSnapshot()
 	{
-		return this.lock;
+		return this.snapshot.get();
 	}
 	
 	/**
@@ -84,72 +67,29 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 	@Override
 	public D primary()
 	{
-		try
-		{
-			return this.databaseSet.first();
-		}
-		catch (NoSuchElementException e)
-		{
-			return null;
-		}
+		return this.snapshot.get().primary();
 	}
 
 	/**
 	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.balancer.AbstractBalancer#getDatabases()
+	 * @see net.sf.hajdbc.balancer.AbstractBalancer#backups()
 	 */
 	@Override
-	protected Set<D> getDatabases()
+	public Iterable<D> backups()
 	{
-		return this.databaseSet;
+		return this.snapshot.get().backups();
 	}
-	
+
 	/**
 	 * {@inheritDoc}
-	 * @see java.util.Set#remove(java.lang.Object)
+	 * @see net.sf.hajdbc.balancer.AbstractBalancer#getDatabases()
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
-	public boolean remove(Object database)
+	protected Set<D> getDatabases()
 	{
-		this.lock.lock();
-		
-		try
-		{
-			boolean remove = this.databaseSet.contains(database);
-
-			if (remove)
-			{
-				if (this.databaseSet.size() == 1)
-				{
-					this.databaseSet = Collections.emptySortedSet();
-				}
-				else
-				{
-					SortedSet<D> set = new TreeSet<>(this.databaseSet);
-					
-					set.remove(database);
-					
-					this.databaseSet = set;
-				}
-				
-				this.removed((D) database);
-			}
-			
-			return remove;
-		}
-		finally
-		{
-			this.lock.unlock();
-		}
+		return this.snapshot.get();
 	}
 	
-	/**
-	 * Called when a database was removed from the set.
-	 * @param database a database descriptor
-	 */
-	protected abstract void removed(D database);
-	
 	/**
 	 * {@inheritDoc}
 	 * @see java.util.Set#add(java.lang.Object)
@@ -157,43 +97,18 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 	@Override
 	public boolean add(D database)
 	{
-		this.lock.lock();
-		
-		try
-		{
-			boolean add = !this.databaseSet.contains(database);
-			
-			if (add)
-			{
-				if (this.databaseSet.isEmpty())
-				{
-					this.databaseSet = Collections.singletonSortedSet(database);
-				}
-				else
-				{
-					SortedSet<D> set = new TreeSet<>(this.databaseSet);
-					
-					set.add(database);
-					
-					this.databaseSet = set;
-				}
-				
-				this.added(database);
-			}
-			
-			return add;
-		}
-		finally
-		{
-			this.lock.unlock();
-		}
+		return this.update(snapshot -> snapshot.with(Collections.singleton(database)));
 	}
-	
+
 	/**
-	 * Called when a database was added to the set.
-	 * @param database a database descriptor
+	 * {@inheritDoc}
+	 * @see java.util.Set#remove(java.lang.Object)
 	 */
-	protected abstract void added(D database);
+	@Override
+	public boolean remove(Object database)
+	{
+		return this.update(snapshot -> snapshot.without(Collections.singleton(database)));
+	}
 
 	/**
 	 * {@inheritDoc}
@@ -202,34 +117,7 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 	@Override
 	public boolean addAll(Collection<? extends D> databases)
 	{
-		this.lock.lock();
-		
-		try
-		{
-			SortedSet<D> addSet = new TreeSet<>(this.databaseSet);
-
-			boolean added = addSet.addAll(databases);
-			
-			if (added)
-			{
-				Set<D> removeSet = new TreeSet<>(addSet);
-				
-				removeSet.removeAll(this.databaseSet);
-				
-				this.databaseSet = addSet;
-				
-				for (D database: removeSet)
-				{
-					this.added(database);
-				}
-			}
-			
-			return added;
-		}
-		finally
-		{
-			this.lock.unlock();
-		}
+		return this.update(snapshot -> snapshot.with(databases));
 	}
 
 	/**
@@ -239,34 +127,7 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 	@Override
 	public boolean removeAll(Collection<?> databases)
 	{
-		this.lock.lock();
-		
-		try
-		{
-			SortedSet<D> removeSet = new TreeSet<>(this.databaseSet);
-
-			boolean removed = removeSet.removeAll(databases);
-			
-			if (removed)
-			{
-				Set<D> retainSet = new TreeSet<>(this.databaseSet);
-				
-				retainSet.retainAll(databases);
-				
-				this.databaseSet = removeSet;
-				
-				for (D database: retainSet)
-				{
-					this.removed(database);
-				}
-			}
-			
-			return removed;
-		}
-		finally
-		{
-			this.lock.unlock();
-		}
+		return this.update(snapshot -> snapshot.without(databases));
 	}
 
 	/**
@@ -276,34 +137,7 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 	@Override
 	public boolean retainAll(Collection<?> databases)
 	{
-		this.lock.lock();
-		
-		try
-		{
-			SortedSet<D> retainSet = new TreeSet<>(this.databaseSet);
-
-			boolean retained = retainSet.retainAll(databases);
-			
-			if (retained)
-			{
-				Set<D> removeSet = new TreeSet<>(this.databaseSet);
-				
-				removeSet.removeAll(databases);
-				
-				this.databaseSet = retainSet;
-				
-				for (D database: removeSet)
-				{
-					this.removed(database);
-				}
-			}
-			
-			return retained;
-		}
-		finally
-		{
-			this.lock.unlock();
-		}
+		return this.update(snapshot -> snapshot.retain(databases));
 	}
 
 	/**
@@ -313,25 +147,24 @@ public abstract class AbstractSetBalancer<Z, D extends Database<Z>> extends Abst
 	@Override
 	public void clear()
 	{
-		this.lock.lock();
-		
-		try
-		{
-			if (!this.databaseSet.isEmpty())
-			{
-				this.databaseSet = Collections.emptySortedSet();
-				
-				this.cleared();
-			}
-		}
-		finally
-		{
-			this.lock.unlock();
-		}
+		this.snapshot.set(DatabaseSnapshot.<Z, D>empty());
 	}
 	
 	/**
-	 * Called when the set was cleared.
+	 * Atomically replaces the current snapshot with the result of the specified operation, retrying if the snapshot was concurrently replaced.
+	 * @param operation a function returning a modified snapshot, or the same snapshot if no modification is necessary
+	 * @return true, if the snapshot was modified, false otherwise
 	 */
-	protected abstract void cleared();
+	private boolean update(UnaryOperator<DatabaseSnapshot<Z, D>> operation)
+	{
+		while (true)
+		{
+			DatabaseSnapshot<Z, D> current = this.snapshot.get();
+			DatabaseSnapshot<Z, D> updated = operation.apply(current);
+			
+			if (updated == current) return false;
+			
+			if (this.snapshot.compareAndSet(current, updated)) return true;
+		}
+	}
 }
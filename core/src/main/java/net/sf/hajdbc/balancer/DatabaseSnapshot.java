@@ -0,0 +1,343 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.balancer;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import net.sf.hajdbc.Database;
+
+/**
+ * Immutable, sorted set of databases backed by an array, along with the cumulative database weights used for weighted selection.
+ * Modifications return a new snapshot, leaving this snapshot untouched, so that readers never need to synchronize.
+ * @author Paul Ferraro
+ * @param <Z> database connection source
+ * @param <D> database descriptor
+ */
+public class DatabaseSnapshot<Z, D extends Database<Z>> extends AbstractSet<D>
+{
+	private static final DatabaseSnapshot<?, ?> EMPTY = new DatabaseSnapshot<>(new Database<?>[0]);
+	
+	@SuppressWarnings("unchecked")
+	public static <Z, D extends Database<Z>> DatabaseSnapshot<Z, D> empty()
+	{
+		return (DatabaseSnapshot<Z, D>) EMPTY;
+	}
+	
+	/**
+	 * Creates a snapshot of the specified databases.
+	 * @param databases a collection of databases
+	 * @return a new snapshot
+	 */
+	public static <Z, D extends Database<Z>> DatabaseSnapshot<Z, D> of(Collection<? extends D> databases)
+	{
+		return databases.isEmpty() ? DatabaseSnapshot.<Z, D>empty() : new DatabaseSnapshot<Z, D>(distinct(databases.toArray(new Database<?>[databases.size()])));
+	}
+	
+	private final D[] databases;
+	private final int[] cumulativeWeights;
+	private final int totalWeight;
+	private final D heaviest;
+	private final List<D> backups;
+	
+	@SuppressWarnings("unchecked")
+	private DatabaseSnapshot(Database<?>[] databases)
+	{
+		this.databases = (D[]) databases;
+		this.cumulativeWeights = new int[databases.length];
+		
+		int total = 0;
+		D heaviest = null;
+		
+		for (int i = 0; i < databases.length; ++i)
+		{
+			D database = this.databases[i];
+			int weight = database.getWeight();
+			
+			if ((heaviest == null) || (weight > heaviest.getWeight()))
+			{
+				heaviest = database;
+			}
+			
+			total += Math.max(weight, 0);
+			
+			this.cumulativeWeights[i] = total;
+		}
+		
+		this.totalWeight = total;
+		this.heaviest = heaviest;
+		this.backups = (databases.length > 1) ? new Backups() : Collections.<D>emptyList();
+	}
+	
+	/**
+	 * Returns the first database of this snapshot.
+	 * @return a database, or null if this snapshot is empty
+	 */
+	public D primary()
+	{
+		return (this.databases.length > 0) ? this.databases[0] : null;
+	}
+	
+	/**
+	 * Returns all but the first database of this snapshot.
+	 * @return an immutable list of databases
+	 */
+	public List<D> backups()
+	{
+		return this.backups;
+	}
+	
+	/**
+	 * Returns the database with the highest weight.
+	 * In the event of a tie, the first such database is returned.
+	 * @return a database, or null if this snapshot is empty
+	 */
+	public D heaviest()
+	{
+		return this.heaviest;
+	}
+	
+	/**
+	 * Returns the sum of the weights of the databases of this snapshot.
+	 * @return a total weight
+	 */
+	public int getTotalWeight()
+	{
+		return this.totalWeight;
+	}
+	
+	/**
+	 * Returns the database whose weight range contains the specified value.
+	 * Each database occupies a range of values proportional to its weight, thus a uniformly distributed value selects a database with probability: <em>weight / total-weight</em>.
+	 * @param value a value between 0 (inclusive) and {@link #getTotalWeight()} (exclusive)
+	 * @return a database
+	 */
+	public D select(int value)
+	{
+		int low = 0;
+		int high = this.cumulativeWeights.length - 1;
+		
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			
+			if (this.cumulativeWeights[middle] > value)
+			{
+				high = middle;
+			}
+			else
+			{
+				low = middle + 1;
+			}
+		}
+		
+		return this.databases[low];
+	}
+	
+	/**
+	 * Returns a snapshot containing the databases of this snapshot and the specified databases.
+	 * @param databases a collection of databases
+	 * @return a new snapshot, or this snapshot, if unchanged
+	 */
+	public DatabaseSnapshot<Z, D> with(Collection<? extends D> databases)
+	{
+		if (this.containsAll(databases)) return this;
+		
+		Database<?>[] result = Arrays.copyOf(this.databases, this.databases.length + databases.size(), Database[].class);
+		
+		int index = this.databases.length;
+		
+		for (D database: databases)
+		{
+			result[index++] = database;
+		}
+		
+		return new DatabaseSnapshot<>(distinct(result));
+	}
+	
+	/**
+	 * Returns a snapshot containing the databases of this snapshot, excluding the specified databases.
+	 * @param databases a collection of databases
+	 * @return a new snapshot, or this snapshot, if unchanged
+	 */
+	public DatabaseSnapshot<Z, D> without(Collection<?> databases)
+	{
+		return this.filter(databases, false);
+	}
+	
+	/**
+	 * Returns a snapshot containing only those databases of this snapshot that are also contained in the specified collection.
+	 * @param databases a collection of databases
+	 * @return a new snapshot, or this snapshot, if unchanged
+	 */
+	public DatabaseSnapshot<Z, D> retain(Collection<?> databases)
+	{
+		return this.filter(databases, true);
+	}
+	
+	private DatabaseSnapshot<Z, D> filter(Collection<?> databases, boolean retain)
+	{
+		Database<?>[] result = new Database<?>[this.databases.length];
+		int size = 0;
+		
+		for (D database: this.databases)
+		{
+			if (databases.contains(database) == retain)
+			{
+				result[size++] = database;
+			}
+		}
+		
+		if (size == this.databases.length) return this;
+		
+		return (size == 0) ? DatabaseSnapshot.<Z, D>empty() : new DatabaseSnapshot<Z, D>(Arrays.copyOf(result, size));
+	}
+	
+	/**
+	 * Sorts the specified array and removes any duplicates.
+	 */
+	private static Database<?>[] distinct(Database<?>[] databases)
+	{
+		Arrays.sort(databases);
+		
+		int size = 0;
+		
+		for (int i = 0; i < databases.length; ++i)
+		{
+			if ((size == 0) || (compare(databases[size - 1], databases[i]) != 0))
+			{
+				databases[size++] = databases[i];
+			}
+		}
+		
+		return (size < databases.length) ? Arrays.copyOf(databases, size) : databases;
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compare(Database database1, Database database2)
+	{
+		return database1.compareTo(database2);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.AbstractCollection#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object object)
+	{
+		return (object instanceof Database) && (Arrays.binarySearch(this.databases, object) >= 0);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.AbstractCollection#iterator()
+	 */
+	@Override
+	public Iterator<D> iterator()
+	{
+		return new ArrayIterator(0);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size()
+	{
+		return this.databases.length;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.AbstractCollection#isEmpty()
+	 */
+	@Override
+	public boolean isEmpty()
+	{
+		return this.databases.length == 0;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.AbstractCollection#toArray()
+	 */
+	@Override
+	public Object[] toArray()
+	{
+		return Arrays.copyOf(this.databases, this.databases.length, Object[].class);
+	}
+	
+	private class ArrayIterator implements Iterator<D>
+	{
+		private int index;
+		
+		ArrayIterator(int index)
+		{
+			this.index = index;
+		}
+		
+		@Override
+		public boolean hasNext()
+		{
+			return this.index < DatabaseSnapshot.this.databases.length;
+		}
+
+		@Override
+		public D next()
+		{
+			if (!this.hasNext()) throw new NoSuchElementException();
+			
+			return DatabaseSnapshot.this.databases[this.index++];
+		}
+	}
+	
+	private class Backups extends AbstractList<D>
+	{
+		Backups()
+		{
+		}
+		
+		@Override
+		public D get(int index)
+		{
+			if ((index < 0) || (index >= this.size())) throw new IndexOutOfBoundsException(Integer.toString(index));
+			
+			return DatabaseSnapshot.this.databases[index + 1];
+		}
+
+		@Override
+		public int size()
+		{
+			return DatabaseSnapshot.this.databases.length - 1;
+		}
+		
+		@Override
+		public Iterator<D> iterator()
+		{
+			return new ArrayIterator(1);
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.balancer.latency;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.balancer.AbstractSetBalancer;
+import net.sf.hajdbc.balancer.DatabaseSnapshot;
+import net.sf.hajdbc.invocation.Invoker;
+
+/**
+ * Balancer implementation whose {@link #next()} implementation uses the "power of two choices" algorithm.
+ * Two candidate databases are chosen at random, where the probability that a given database will be chosen is: <em>weight / total-weight</em>.
+ * Of these candidates, the database with the lowest expected latency wins, i.e. the exponentially decayed average response time, scaled by the number of concurrent requests.
+ *
+ * @author  Paul Ferraro
+ * @param <D> either java.sql.Driver or javax.sql.DataSource
+ */
+public class LatencyBalancer<Z, D extends Database<Z>> extends AbstractSetBalancer<Z, D>
+{
+	private final Map<D, Latency> latencies = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs a new LatencyBalancer
+	 * @param databases
+	 */
+	public LatencyBalancer(Set<D> databases)
+	{
+		super(databases);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.balancer.Balancer#next()
+	 */
+	@Override
+	public D next()
+	{
+		DatabaseSnapshot<Z, D> snapshot = this.getSnapshot();
+		int total = snapshot.getTotalWeight();
+		
+		// If no database has any weight, fall back to the primary database
+		if (total == 0) return snapshot.primary();
+		
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		
+		D database1 = snapshot.select(random.nextInt(total));
+		D database2 = snapshot.select(random.nextInt(total));
+		
+		if (database1 == database2) return database1;
+		
+		return (this.cost(database2) < this.cost(database1)) ? database2 : database1;
+	}
+	
+	private long cost(D database)
+	{
+		Latency latency = this.latencies.get(database);
+		
+		return (latency != null) ? latency.cost() : 0L;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#invoke(net.sf.hajdbc.invocation.Invoker, net.sf.hajdbc.Database, java.lang.Object)
+	 */
+	@Override
+	public <T, R, E extends Exception> R invoke(Invoker<Z, D, T, R, E> invoker, D database, T object) throws E
+	{
+		if (!this.getSnapshot().contains(database))
+		{
+			return invoker.invoke(database, object);
+		}
+		
+		Latency latency = this.latencies.computeIfAbsent(database, key -> new Latency());
+		
+		latency.begin();
+		
+		long start = System.nanoTime();
+		
+		try
+		{
+			return invoker.invoke(database, object);
+		}
+		finally
+		{
+			latency.end(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#remove(java.lang.Object)
+	 */
+	@Override
+	public boolean remove(Object database)
+	{
+		return this.purge(super.remove(database));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#removeAll(java.util.Collection)
+	 */
+	@Override
+	public boolean removeAll(Collection<?> databases)
+	{
+		return this.purge(super.removeAll(databases));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#retainAll(java.util.Collection)
+	 */
+	@Override
+	public boolean retainAll(Collection<?> databases)
+	{
+		return this.purge(super.retainAll(databases));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#clear()
+	 */
+	@Override
+	public void clear()
+	{
+		super.clear();
+		this.latencies.clear();
+	}
+	
+	/**
+	 * Discards the latency statistics of removed databases, so that a reactivated database starts afresh.
+	 */
+	private boolean purge(boolean removed)
+	{
+		if (removed)
+		{
+			this.latencies.keySet().retainAll(this.getSnapshot());
+		}
+		return removed;
+	}
+
+	/**
+	 * Tracks the exponentially decayed average latency and the number of concurrent requests of a database.
+	 */
+	private static class Latency
+	{
+		// Each new sample contributes 1/2^DECAY_SHIFT of the updated average
+		private static final int DECAY_SHIFT = 3;
+		
+		// Average response time, in nanoseconds, where 0 indicates no samples yet
+		private final AtomicLong average = new AtomicLong(0);
+		private final AtomicInteger active = new AtomicInteger(0);
+		
+		Latency()
+		{
+		}
+		
+		void begin()
+		{
+			this.active.incrementAndGet();
+		}
+		
+		void end(long elapsed)
+		{
+			this.active.decrementAndGet();
+			
+			long sample = Math.max(elapsed, 1L);
+			
+			this.average.getAndUpdate(average -> (average == 0) ? sample : average + ((sample - average) >> DECAY_SHIFT));
+		}
+		
+		/**
+		 * Returns the expected cost of sending a request to this database.
+		 * Databases without any samples yet are preferred, so that their latency gets measured.
+		 * @return an expected latency
+		 */
+		long cost()
+		{
+			int active = this.active.get();
+			
+			return this.average.get() * (active + 1) + active;
+		}
+	}
+}
@@ -17,14 +17,12 @@
  */
 package net.sf.hajdbc.balancer.random;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.balancer.AbstractSetBalancer;
+import net.sf.hajdbc.balancer.DatabaseSnapshot;
 
 /**
  * Balancer implementation whose {@link #next()} implementation returns a random database.
@@ -35,10 +33,6 @@ import net.sf.hajdbc.balancer.AbstractSetBalancer;
  */
 public class RandomBalancer<P, D extends Database<P>> extends AbstractSetBalancer<P, D>
 {
-	private volatile List<D> databaseList;
-
-	private Random random = new Random();
-
 	/**
 	 * Constructs a new RandomBalancer
 	 * @param databases
@@ -46,26 +40,6 @@ public class RandomBalancer<P, D extends Database<P>> extends AbstractSetBalance
 	public RandomBalancer(Set<D> databases)
 	{
 		super(databases);
-		
-		int total = 0;
-		
-		for (D database: databases)
-		{
-			total += database.getWeight();
-		}
-		
-		List<D> list = new ArrayList<>(total);
-		
-		for (D database: databases)
-		{
-			int weight = database.getWeight();
-			for (int i = 0; i < weight; ++i)
-			{
-				list.add(database);
-			}
-		}
-		
-		this.databaseList = list;
 	}
 	
 	/**
@@ -75,64 +49,9 @@ public class RandomBalancer<P, D extends Database<P>> extends AbstractSetBalance
 	@Override
 	public D next()
 	{
-		List<D> list = this.databaseList;
-		
-		return !list.isEmpty() ? list.get(this.random.nextInt(list.size())) : this.primary();
-	}
-	
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#added(net.sf.hajdbc.Database)
-	 */
-	@Override
-	protected void added(D database)
-	{
-		int weight = database.getWeight();
+		DatabaseSnapshot<P, D> snapshot = this.getSnapshot();
+		int total = snapshot.getTotalWeight();
 		
-		if (weight > 0)
-		{
-			List<D> list = new ArrayList<>(this.databaseList.size() + weight);
-			
-			list.addAll(this.databaseList);
-			
-			for (int i = 0; i < weight; ++i)
-			{
-				list.add(database);
-			}
-			
-			this.databaseList = list;
-		}
-	}
-
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#removed(net.sf.hajdbc.Database)
-	 */
-	@Override
-	protected void removed(D database)
-	{
-		int weight = database.getWeight();
-
-		if (weight > 0)
-		{
-			List<D> list = new ArrayList<>(this.databaseList.size() - weight);
-			
-			int index = this.databaseList.indexOf(database);
-			
-			list.addAll(this.databaseList.subList(0, index));
-			list.addAll(this.databaseList.subList(index + weight, this.databaseList.size()));
-			
-			this.databaseList = list;
-		}
-	}
-
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#cleared()
-	 */
-	@Override
-	protected void cleared()
-	{
-		this.databaseList = Collections.emptyList();
+		return (total > 0) ? snapshot.select(ThreadLocalRandom.current().nextInt(total)) : snapshot.primary();
 	}
 }
@@ -17,22 +17,23 @@
  */
 package net.sf.hajdbc.balancer.roundrobin;
 
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.balancer.AbstractSetBalancer;
+import net.sf.hajdbc.balancer.DatabaseSnapshot;
 
 /**
- * Balancer implementation whose {@link #next()} implementation uses a circular FIFO queue.
+ * Balancer implementation whose {@link #next()} implementation cycles through the databases, such that a database of weight <em>n</em> is returned <em>n</em> times in succession.
+ * Uses an atomic cursor into the weight ranges of the current database snapshot, rather than a shared queue.
  * 
  * @author  Paul Ferraro
  * @param <D> either java.sql.Driver or javax.sql.DataSource
  */
 public class RoundRobinBalancer<P, D extends Database<P>> extends AbstractSetBalancer<P, D>
 {
-	private Queue<D> databaseQueue = new LinkedList<>();
+	private final AtomicLong cursor = new AtomicLong(0);
 
 	/**
 	 * Constructs a new RoundRobinBalancer
@@ -41,43 +42,8 @@ public class RoundRobinBalancer<P, D extends Database<P>> extends AbstractSetBal
 	public RoundRobinBalancer(Set<D> databases)
 	{
 		super(databases);
-		
-		for (D database: databases)
-		{
-			this.added(database);
-		}
-	}
-	
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#added(net.sf.hajdbc.Database)
-	 */
-	@Override
-	protected void added(D database)
-	{
-		int weight = database.getWeight();
-		
-		for (int i = 0; i < weight; ++i)
-		{
-			this.databaseQueue.add(database);
-		}
 	}
 
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#removed(net.sf.hajdbc.Database)
-	 */
-	@Override
-	protected void removed(D database)
-	{
-		int weight = database.getWeight();
-		
-		for (int i = 0; i < weight; ++i)
-		{
-			this.databaseQueue.remove(database);
-		}
-	}
-	
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.balancer.Balancer#next()
@@ -85,39 +51,11 @@ public class RoundRobinBalancer<P, D extends Database<P>> extends AbstractSetBal
 	@Override
 	public D next()
 	{
-		this.getLock().lock();
+		DatabaseSnapshot<P, D> snapshot = this.getSnapshot();
+		int total = snapshot.getTotalWeight();
 		
-		try
-		{
-			if (this.databaseQueue.isEmpty())
-			{
-				return this.primary();
-			}
-			
-			if (this.databaseQueue.size() == 1)
-			{
-				return this.databaseQueue.element();
-			}
-			
-			D database = this.databaseQueue.remove();
-			
-			this.databaseQueue.add(database);
-			
-			return database;
-		}
-		finally
-		{
-			this.getLock().unlock();
-		}
-	}
-
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#cleared()
-	 */
-	@Override
-	protected void cleared()
-	{
-		this.databaseQueue.clear();
+		if (total == 0) return snapshot.primary();
+		
+		return snapshot.select((int) ((this.cursor.getAndIncrement() & Long.MAX_VALUE) % total));
 	}
 }
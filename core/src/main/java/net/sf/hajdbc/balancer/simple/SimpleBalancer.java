@@ -17,8 +17,6 @@
  */
 package net.sf.hajdbc.balancer.simple;
 
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Set;
 
 import net.sf.hajdbc.Database;
@@ -32,17 +30,6 @@ import net.sf.hajdbc.balancer.AbstractSetBalancer;
  */
 public class SimpleBalancer<Z, D extends Database<Z>> extends AbstractSetBalancer<Z, D>
 {
-	private volatile D nextDatabase = null;
-	
-	private Comparator<D> comparator = new Comparator<D>()
-	{
-		@Override
-		public int compare(D database1, D database2)
-		{
-			return database1.getWeight() - database2.getWeight();
-		}
-	};
-
 	/**
 	 * Constructs a new SimpleBalancer
 	 * @param databases
@@ -50,8 +37,6 @@ public class SimpleBalancer<Z, D extends Database<Z>> extends AbstractSetBalance
 	public SimpleBalancer(Set<D> databases)
 	{
 		super(databases);
-		
-		this.reset();
 	}
 	
 	/**
@@ -61,43 +46,6 @@ public class SimpleBalancer<Z, D extends Database<Z>> extends AbstractSetBalance
 	@Override
 	public D next()
 	{
-		return this.nextDatabase;
-	}
-
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#added(net.sf.hajdbc.Database)
-	 */
-	@Override
-	protected void added(D database)
-	{
-		this.reset();
-	}
-
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#removed(net.sf.hajdbc.Database)
-	 */
-	@Override
-	protected void removed(D database)
-	{
-		this.reset();
-	}
-	
-	private void reset()
-	{
-		Set<D> databaseSet = this.getDatabases();
-		
-		this.nextDatabase = databaseSet.isEmpty() ? null : Collections.max(databaseSet, this.comparator);
-	}
-
-	/**
-	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.balancer.AbstractSetBalancer#cleared()
-	 */
-	@Override
-	protected void cleared()
-	{
-		this.nextDatabase = null;
+		return this.getSnapshot().heaviest();
 	}
 }
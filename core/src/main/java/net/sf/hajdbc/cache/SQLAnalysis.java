@@ -0,0 +1,82 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.cache;
+
+import java.util.Set;
+
+import net.sf.hajdbc.dialect.LexicalAnalysis;
+
+/**
+ * The cacheable result of analyzing a SQL statement.
+ * @author Paul Ferraro
+ */
+public class SQLAnalysis
+{
+	private final Set<String> identifiers;
+	private final boolean selectForUpdate;
+	private final LexicalAnalysis evaluableAnalysis;
+
+	/**
+	 * Constructs a new SQL analysis.
+	 * @param identifiers the sequence and identity table identifiers referenced by the statement
+	 * @param selectForUpdate indicates whether the statement is a SELECT...FOR UPDATE
+	 * @param evaluableAnalysis the lexical analysis of the statement, if it contains temporal or rand functions that require client-side evaluation, or null otherwise
+	 */
+	public SQLAnalysis(Set<String> identifiers, boolean selectForUpdate, LexicalAnalysis evaluableAnalysis)
+	{
+		this.identifiers = identifiers;
+		this.selectForUpdate = selectForUpdate;
+		this.evaluableAnalysis = evaluableAnalysis;
+	}
+
+	/**
+	 * Returns the identifiers of the sequences and identity tables referenced by the statement.
+	 * @return a set of identifiers
+	 */
+	public Set<String> getIdentifiers()
+	{
+		return this.identifiers;
+	}
+
+	/**
+	 * Indicates whether the statement is a SELECT...FOR UPDATE, irrespective of database support.
+	 * @return true, if the statement selects for update, false otherwise
+	 */
+	public boolean isSelectForUpdate()
+	{
+		return this.selectForUpdate;
+	}
+
+	/**
+	 * Indicates whether the statement needs to be evaluated prior to execution.
+	 * @return true, if the statement contains functions to evaluate, false otherwise
+	 */
+	public boolean isEvaluationRequired()
+	{
+		return this.evaluableAnalysis != null;
+	}
+
+	/**
+	 * Returns the lexical analysis used to evaluate the statement.
+	 * @return a lexical analysis, or null if the statement does not need to be evaluated
+	 */
+	public LexicalAnalysis getEvaluableAnalysis()
+	{
+		return this.evaluableAnalysis;
+	}
+}
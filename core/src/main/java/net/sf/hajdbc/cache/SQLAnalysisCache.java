@@ -0,0 +1,225 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded, least-recently-used cache of SQL analysis results, keyed by SQL text.
+ * To limit lock contention, the cache is striped into segments, each of which evicts its own least-recently-used entries.
+ * Analyzing a statement that modifies the schema flushes the cache.
+ * @author Paul Ferraro
+ */
+public class SQLAnalysisCache
+{
+	private static final Pattern DEFINITION_PATTERN = Pattern.compile("^\\s*(?:CREATE|ALTER|DROP|RENAME|TRUNCATE)\\b", Pattern.CASE_INSENSITIVE);
+	private static final int MAX_SEGMENTS = 16;
+	private static final int MIN_SEGMENT_SIZE = 16;
+
+	private final int maxSize;
+	private final Segment[] segments;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * Constructs a new SQL analysis cache.
+	 * @param maxSize the maximum number of cached statements, or 0 to disable caching
+	 */
+	public SQLAnalysisCache(int maxSize)
+	{
+		this.maxSize = maxSize;
+		// Power of 2, so that a segment can be selected by masking the hash code
+		int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_SEGMENT_SIZE)));
+		this.segments = new Segment[count];
+		for (int i = 0; i < count; ++i)
+		{
+			// Distribute the remainder, such that segment sizes total the maximum size
+			this.segments[i] = new Segment((maxSize / count) + ((i < (maxSize % count)) ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Indicates whether this cache retains any analyses.
+	 * @return true, if the maximum size of this cache is positive, false otherwise
+	 */
+	public boolean isEnabled()
+	{
+		return this.maxSize > 0;
+	}
+
+	/**
+	 * Returns the cached analysis of the specified statement.
+	 * @param sql a SQL statement
+	 * @return a cached analysis, or null if the statement was not yet analyzed
+	 */
+	public SQLAnalysis get(String sql)
+	{
+		SQLAnalysis analysis = null;
+		if (this.maxSize > 0)
+		{
+			Segment segment = this.segment(sql);
+			synchronized (segment)
+			{
+				analysis = segment.get(sql);
+			}
+		}
+		((analysis != null) ? this.hits : this.misses).incrementAndGet();
+		return analysis;
+	}
+
+	/**
+	 * Caches the analysis of the specified statement.
+	 * If the statement modifies the schema, it is not cached, and the cache is flushed instead.
+	 * @param sql a SQL statement
+	 * @param analysis the analysis of the statement
+	 */
+	public void put(String sql, SQLAnalysis analysis)
+	{
+		if (isDefinition(sql))
+		{
+			this.flush();
+		}
+		else if (this.maxSize > 0)
+		{
+			Segment segment = this.segment(sql);
+			synchronized (segment)
+			{
+				segment.put(sql, analysis);
+			}
+		}
+	}
+
+	/**
+	 * Flushes this cache if the specified statement modifies the schema.
+	 * @param sql a SQL statement
+	 */
+	public void invalidate(String sql)
+	{
+		if (isDefinition(sql))
+		{
+			this.flush();
+		}
+	}
+
+	/**
+	 * Flushes this cache.
+	 */
+	public void flush()
+	{
+		this.generation.incrementAndGet();
+		for (Segment segment: this.segments)
+		{
+			synchronized (segment)
+			{
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of times this cache was flushed.
+	 * Analyses retained outside of this cache are stale if the generation has since changed.
+	 * @return a generation number
+	 */
+	public long getGeneration()
+	{
+		return this.generation.get();
+	}
+
+	/**
+	 * Returns the number of statements in this cache.
+	 * @return the cache size
+	 */
+	public int size()
+	{
+		int size = 0;
+		for (Segment segment: this.segments)
+		{
+			synchronized (segment)
+			{
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the maximum number of statements in this cache.
+	 * @return the maximum cache size
+	 */
+	public int getMaxSize()
+	{
+		return this.maxSize;
+	}
+
+	/**
+	 * Returns the number of lookups that found a cached analysis.
+	 * @return a hit count
+	 */
+	public long getHits()
+	{
+		return this.hits.get();
+	}
+
+	/**
+	 * Returns the number of lookups that did not find a cached analysis.
+	 * @return a miss count
+	 */
+	public long getMisses()
+	{
+		return this.misses.get();
+	}
+
+	private Segment segment(String sql)
+	{
+		int hash = sql.hashCode();
+		return this.segments[(hash ^ (hash >>> 16)) & (this.segments.length - 1)];
+	}
+
+	private static boolean isDefinition(String sql)
+	{
+		return DEFINITION_PATTERN.matcher(sql).find();
+	}
+
+	/**
+	 * Access-ordered map that evicts its eldest entry once its maximum size is exceeded.
+	 * Guarded by its own monitor.
+	 */
+	private static class Segment extends LinkedHashMap<String, SQLAnalysis>
+	{
+		private static final long serialVersionUID = -1497312931216420449L;
+
+		private final int maxSize;
+
+		Segment(int maxSize)
+		{
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, SQLAnalysis> entry)
+		{
+			return this.size() > this.maxSize;
+		}
+	}
+}
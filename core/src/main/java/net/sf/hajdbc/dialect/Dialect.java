@@ -20,9 +20,11 @@ package net.sf.hajdbc.dialect;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.transaction.xa.XAException;
 
@@ -60,6 +62,17 @@ public interface Dialect
 	 */
 	String getTruncateTableSQL(TableProperties properties) throws SQLException;
 	
+	/**
+	 * Returns an aggregate SQL expression that computes a numeric checksum of the specified columns over a set of rows.
+	 * The checksum must not depend on the order of the rows.
+	 * @param columns a list of column names
+	 * @return a SQL expression, or null, if this dialect does not support checksums.
+	 */
+	default String getChecksumSQL(List<String> columns)
+	{
+		return null;
+	}
+	
 	/**
 	 * Returns a SQL statement used to create a foreign key constraint.
 	 * @param constraint foreign key constraint meta data
@@ -157,6 +170,69 @@ public interface Dialect
 	 */
 	String evaluateRand(String sql);
 	
+	/**
+	 * Analyzes the specified SQL statement in a single pass, ignoring the contents of literals, quoted identifiers, and comments.
+	 * By default, the analysis is assembled from {@link #isSelectForUpdate(String)} and the parse methods of the sequence and identity column support,
+	 * and reports every function type as present, since function positions are unknown.
+	 * @param sql an SQL statement
+	 * @return the lexical analysis of the statement
+	 * @since 4.0
+	 */
+	default LexicalAnalysis analyze(String sql)
+	{
+		try
+		{
+			SequenceSupport sequenceSupport = this.getSequenceSupport();
+			IdentityColumnSupport identityColumnSupport = this.getIdentityColumnSupport();
+			String sequence = (sequenceSupport != null) ? sequenceSupport.parseSequence(sql) : null;
+			String insertTable = (identityColumnSupport != null) ? identityColumnSupport.parseInsertTable(sql) : null;
+			SQLFunction.Type[] types = SQLFunction.Type.values();
+			int[] positions = new int[types.length];
+			Arrays.fill(positions, -1);
+			return new LexicalAnalysis(sql, this.isSelectForUpdate(sql), insertTable, sequence, types, positions, positions);
+		}
+		catch (SQLException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Replaces the specified non-deterministic functions of an analyzed statement with deterministic static values.
+	 * By default, this delegates to the individual evaluate methods.
+	 * @param analysis the lexical analysis of an SQL statement
+	 * @param functions the types of functions to evaluate
+	 * @param time the replacement time, in milliseconds since the epoch
+	 * @return an equivalent deterministic SQL statement
+	 * @since 4.0
+	 */
+	default String evaluate(LexicalAnalysis analysis, Set<SQLFunction.Type> functions, long time)
+	{
+		String sql = analysis.getSQL();
+		
+		if (functions.contains(SQLFunction.Type.CURRENT_TIMESTAMP))
+		{
+			sql = this.evaluateCurrentTimestamp(sql, new java.sql.Timestamp(time));
+		}
+		
+		if (functions.contains(SQLFunction.Type.CURRENT_DATE))
+		{
+			sql = this.evaluateCurrentDate(sql, new java.sql.Date(time));
+		}
+		
+		if (functions.contains(SQLFunction.Type.CURRENT_TIME))
+		{
+			sql = this.evaluateCurrentTime(sql, new java.sql.Time(time));
+		}
+		
+		if (functions.contains(SQLFunction.Type.RAND))
+		{
+			sql = this.evaluateRand(sql);
+		}
+		
+		return sql;
+	}
+	
 	/**
 	 * Determines whether the specified exception indicates a catastrophic error.
 	 * @param e an exception
@@ -0,0 +1,116 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.dialect;
+
+import java.util.Set;
+
+/**
+ * The facts gathered by a single lexical pass over a SQL statement.
+ * @author Paul Ferraro
+ */
+public class LexicalAnalysis
+{
+	private final String sql;
+	private final boolean selectForUpdate;
+	private final String insertTable;
+	private final String sequence;
+	private final SQLFunction.Type[] functionTypes;
+	private final int[] functionStarts;
+	private final int[] functionEnds;
+
+	LexicalAnalysis(String sql, boolean selectForUpdate, String insertTable, String sequence, SQLFunction.Type[] functionTypes, int[] functionStarts, int[] functionEnds)
+	{
+		this.sql = sql;
+		this.selectForUpdate = selectForUpdate;
+		this.insertTable = insertTable;
+		this.sequence = sequence;
+		this.functionTypes = functionTypes;
+		this.functionStarts = functionStarts;
+		this.functionEnds = functionEnds;
+	}
+
+	/**
+	 * Returns the analyzed SQL statement.
+	 * @return a SQL statement
+	 */
+	public String getSQL()
+	{
+		return this.sql;
+	}
+
+	/**
+	 * Indicates whether the statement is a SELECT...FOR UPDATE statement.
+	 * @return true, if the statement selects for update, false otherwise
+	 */
+	public boolean isSelectForUpdate()
+	{
+		return this.selectForUpdate;
+	}
+
+	/**
+	 * Returns the table targeted by an INSERT statement.
+	 * @return a table name, or null if this is not an INSERT statement
+	 */
+	public String getInsertTable()
+	{
+		return this.insertTable;
+	}
+
+	/**
+	 * Returns the first sequence referenced by the statement.
+	 * @return a sequence name, or null if the statement does not reference a sequence
+	 */
+	public String getSequence()
+	{
+		return this.sequence;
+	}
+
+	/**
+	 * Indicates whether the statement contains any of the specified non-deterministic functions.
+	 * @param types a set of function types
+	 * @return true, if the statement contains one of the specified functions, false otherwise
+	 */
+	public boolean contains(Set<SQLFunction.Type> types)
+	{
+		for (SQLFunction.Type type: this.functionTypes)
+		{
+			if (types.contains(type)) return true;
+		}
+		return false;
+	}
+
+	int getFunctionCount()
+	{
+		return this.functionTypes.length;
+	}
+
+	SQLFunction.Type getFunctionType(int index)
+	{
+		return this.functionTypes[index];
+	}
+
+	int getFunctionStart(int index)
+	{
+		return this.functionStarts[index];
+	}
+
+	int getFunctionEnd(int index)
+	{
+		return this.functionEnds[index];
+	}
+}
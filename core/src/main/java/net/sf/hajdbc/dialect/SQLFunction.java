@@ -0,0 +1,116 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.dialect;
+
+/**
+ * Keyword table entry describing the syntax of a non-deterministic SQL function, e.g. CURRENT_TIMESTAMP or RAND().
+ * @author Paul Ferraro
+ */
+public final class SQLFunction
+{
+	/**
+	 * The non-deterministic functions that HA-JDBC can evaluate on the client.
+	 */
+	public enum Type
+	{
+		CURRENT_DATE, CURRENT_TIME, CURRENT_TIMESTAMP, RAND;
+	}
+
+	enum Parentheses
+	{
+		NONE, OPTIONAL, REQUIRED;
+	}
+
+	/**
+	 * A function invoked via keywords only, e.g. CURRENT_DATE or CURRENT DATE.
+	 * @param keywords whitespace delimited keywords
+	 * @return a function
+	 */
+	public static SQLFunction keyword(String keywords)
+	{
+		return new SQLFunction(keywords, Parentheses.NONE, null);
+	}
+
+	/**
+	 * A function invoked via keywords, optionally followed by a parenthesized precision, e.g. CURRENT_TIME or CURRENT_TIME(2).
+	 * @param keywords whitespace delimited keywords
+	 * @return a function
+	 */
+	public static SQLFunction keywordWithPrecision(String keywords)
+	{
+		return new SQLFunction(keywords, Parentheses.OPTIONAL, null);
+	}
+
+	/**
+	 * A function call with no arguments, e.g. NOW() or RAND().
+	 * @param name a function name
+	 * @return a function
+	 */
+	public static SQLFunction call(String name)
+	{
+		return new SQLFunction(name, Parentheses.REQUIRED, "");
+	}
+
+	/**
+	 * A function call with no arguments, or a single numeric argument, e.g. NOW() or NOW(3).
+	 * @param name a function name
+	 * @return a function
+	 */
+	public static SQLFunction callWithPrecision(String name)
+	{
+		return new SQLFunction(name, Parentheses.REQUIRED, null);
+	}
+
+	/**
+	 * A function call with the specified constant argument, e.g. DATE('TODAY') or NOW(*).
+	 * @param name a function name
+	 * @param argument the argument of the function, matched case-insensitively
+	 * @return a function
+	 */
+	public static SQLFunction call(String name, String argument)
+	{
+		return new SQLFunction(name, Parentheses.REQUIRED, argument);
+	}
+
+	private final String[] keywords;
+	private final Parentheses parentheses;
+	// Empty for no arguments, null for an optional numeric argument
+	private final String argument;
+
+	private SQLFunction(String keywords, Parentheses parentheses, String argument)
+	{
+		this.keywords = keywords.trim().split("\\s+");
+		this.parentheses = parentheses;
+		this.argument = argument;
+	}
+
+	String[] getKeywords()
+	{
+		return this.keywords;
+	}
+
+	Parentheses getParentheses()
+	{
+		return this.parentheses;
+	}
+
+	String getArgument()
+	{
+		return this.argument;
+	}
+}
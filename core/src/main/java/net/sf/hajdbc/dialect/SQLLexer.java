@@ -0,0 +1,524 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.dialect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass SQL lexer that gathers all statement facts required by HA-JDBC, i.e. select-for-update, insert table, sequence, and non-deterministic functions.
+ * The contents of string literals, quoted identifiers, and comments are never mistaken for keywords.
+ * Dialects extend the lexer via keyword tables, rather than regular expressions.
+ * Vendor-specific string literal syntax, i.e. backslash escapes and dollar quoting, is enabled per dialect.
+ * @author Paul Ferraro
+ */
+public class SQLLexer
+{
+	private static final byte WORD = 0;
+	private static final byte QUOTED_IDENTIFIER = 1;
+	private static final byte STRING = 2;
+	private static final byte NUMBER = 3;
+	private static final byte SYMBOL = 4;
+
+	private static final String[] SELECT = new String[] { "SELECT" };
+	private static final String[] INSERT = new String[] { "INSERT" };
+	private static final String[] INTO = new String[] { "INTO" };
+
+	private static class FunctionEntry
+	{
+		final SQLFunction.Type type;
+		final SQLFunction function;
+
+		FunctionEntry(SQLFunction.Type type, SQLFunction function)
+		{
+			this.type = type;
+			this.function = function;
+		}
+	}
+
+	// Keyword tables, indexed by the upper case first character of the first keyword
+	private final Map<Character, List<String[]>> selectForUpdateClauses = new HashMap<>();
+	private final Map<Character, List<SequenceSyntax>> sequenceSyntaxes = new HashMap<>();
+	private final Map<Character, List<SequenceSyntax>> sequenceSuffixes = new HashMap<>();
+	private final Map<Character, List<FunctionEntry>> functions = new HashMap<>();
+	private final boolean backslashEscapes;
+	private final boolean dollarQuotes;
+
+	/**
+	 * Constructs a new lexer from the specified keyword tables, using standard string literal syntax.
+	 * @param selectForUpdateClauses whitespace delimited keywords of clauses that lock selected rows, e.g. "FOR UPDATE"
+	 * @param sequenceSyntaxes the syntaxes used to reference sequences
+	 * @param currentDateFunctions functions that return the current date
+	 * @param currentTimeFunctions functions that return the current time
+	 * @param currentTimestampFunctions functions that return the current timestamp
+	 * @param randomFunctions functions that return a random number
+	 */
+	public SQLLexer(List<String> selectForUpdateClauses, List<SequenceSyntax> sequenceSyntaxes, List<SQLFunction> currentDateFunctions, List<SQLFunction> currentTimeFunctions, List<SQLFunction> currentTimestampFunctions, List<SQLFunction> randomFunctions)
+	{
+		this(selectForUpdateClauses, sequenceSyntaxes, currentDateFunctions, currentTimeFunctions, currentTimestampFunctions, randomFunctions, false, false);
+	}
+
+	/**
+	 * Constructs a new lexer from the specified keyword tables and string literal syntax.
+	 * @param selectForUpdateClauses whitespace delimited keywords of clauses that lock selected rows, e.g. "FOR UPDATE"
+	 * @param sequenceSyntaxes the syntaxes used to reference sequences
+	 * @param currentDateFunctions functions that return the current date
+	 * @param currentTimeFunctions functions that return the current time
+	 * @param currentTimestampFunctions functions that return the current timestamp
+	 * @param randomFunctions functions that return a random number
+	 * @param backslashEscapes indicates whether a backslash escapes the next character of a quoted string, e.g. 'O\'Brien'
+	 * @param dollarQuotes indicates whether strings may be dollar quoted, e.g. $$O'Brien$$ or $tag$O'Brien$tag$
+	 */
+	public SQLLexer(List<String> selectForUpdateClauses, List<SequenceSyntax> sequenceSyntaxes, List<SQLFunction> currentDateFunctions, List<SQLFunction> currentTimeFunctions, List<SQLFunction> currentTimestampFunctions, List<SQLFunction> randomFunctions, boolean backslashEscapes, boolean dollarQuotes)
+	{
+		this.backslashEscapes = backslashEscapes;
+		this.dollarQuotes = dollarQuotes;
+		for (String clause: selectForUpdateClauses)
+		{
+			String[] keywords = clause.trim().split("\\s+");
+			index(this.selectForUpdateClauses, keywords[0], keywords);
+		}
+		for (SequenceSyntax syntax: sequenceSyntaxes)
+		{
+			String keyword = syntax.getKeywords()[0];
+			index((syntax.getForm() == SequenceSyntax.Form.SUFFIX) ? this.sequenceSuffixes : this.sequenceSyntaxes, keyword, syntax);
+		}
+		this.index(SQLFunction.Type.CURRENT_DATE, currentDateFunctions);
+		this.index(SQLFunction.Type.CURRENT_TIME, currentTimeFunctions);
+		this.index(SQLFunction.Type.CURRENT_TIMESTAMP, currentTimestampFunctions);
+		this.index(SQLFunction.Type.RAND, randomFunctions);
+	}
+
+	private void index(SQLFunction.Type type, List<SQLFunction> functions)
+	{
+		for (SQLFunction function: functions)
+		{
+			index(this.functions, function.getKeywords()[0], new FunctionEntry(type, function));
+		}
+	}
+
+	private static <T> void index(Map<Character, List<T>> map, String keyword, T value)
+	{
+		Character key = Character.valueOf(Character.toUpperCase(keyword.charAt(0)));
+		List<T> list = map.get(key);
+		if (list == null)
+		{
+			list = new ArrayList<>(1);
+			map.put(key, list);
+		}
+		list.add(value);
+	}
+
+	/**
+	 * Analyzes the specified SQL statement.
+	 * @param sql a SQL statement
+	 * @return the lexical analysis of the statement
+	 */
+	public LexicalAnalysis analyze(String sql)
+	{
+		Tokens tokens = new Tokens(sql, this.backslashEscapes, this.dollarQuotes);
+		int count = tokens.size();
+
+		boolean select = false;
+		boolean selectForUpdate = false;
+		String insertTable = null;
+		String sequence = null;
+		List<SQLFunction.Type> functionTypes = null;
+		int[] functionStarts = null;
+		int[] functionEnds = null;
+
+		for (int i = 0; i < count; ++i)
+		{
+			if (tokens.type(i) != WORD) continue;
+
+			Character key = Character.valueOf(Character.toUpperCase(sql.charAt(tokens.start(i))));
+
+			if (!select)
+			{
+				select = tokens.matches(i, SELECT);
+			}
+			else if (!selectForUpdate)
+			{
+				List<String[]> clauses = this.selectForUpdateClauses.get(key);
+				if (clauses != null)
+				{
+					for (String[] clause: clauses)
+					{
+						if (tokens.matches(i, clause))
+						{
+							selectForUpdate = true;
+							break;
+						}
+					}
+				}
+			}
+
+			if ((insertTable == null) && tokens.matches(i, INSERT))
+			{
+				int index = tokens.matches(i + 1, INTO) ? i + 2 : i + 1;
+				insertTable = tokens.qualifiedName(index);
+			}
+
+			if (sequence == null)
+			{
+				sequence = this.parseSequence(tokens, i, key);
+			}
+
+			List<FunctionEntry> entries = this.functions.get(key);
+			if (entries != null)
+			{
+				for (FunctionEntry entry: entries)
+				{
+					int end = tokens.matches(i, entry.function);
+					if (end >= 0)
+					{
+						if (functionTypes == null)
+						{
+							functionTypes = new ArrayList<>(4);
+							functionStarts = new int[4];
+							functionEnds = new int[4];
+						}
+						else if (functionTypes.size() == functionStarts.length)
+						{
+							functionStarts = Arrays.copyOf(functionStarts, functionStarts.length * 2);
+							functionEnds = Arrays.copyOf(functionEnds, functionEnds.length * 2);
+						}
+						functionStarts[functionTypes.size()] = tokens.start(i);
+						functionEnds[functionTypes.size()] = tokens.end(end);
+						functionTypes.add(entry.type);
+						i = end;
+						break;
+					}
+				}
+			}
+		}
+
+		if (functionTypes == null)
+		{
+			return new LexicalAnalysis(sql, selectForUpdate, insertTable, sequence, new SQLFunction.Type[0], new int[0], new int[0]);
+		}
+
+		int size = functionTypes.size();
+		return new LexicalAnalysis(sql, selectForUpdate, insertTable, sequence, functionTypes.toArray(new SQLFunction.Type[size]), Arrays.copyOf(functionStarts, size), Arrays.copyOf(functionEnds, size));
+	}
+
+	private String parseSequence(Tokens tokens, int index, Character key)
+	{
+		List<SequenceSyntax> syntaxes = this.sequenceSyntaxes.get(key);
+		if (syntaxes != null)
+		{
+			for (SequenceSyntax syntax: syntaxes)
+			{
+				String[] keywords = syntax.getKeywords();
+				if (tokens.matches(index, keywords))
+				{
+					int next = index + keywords.length;
+					if (syntax.getForm() == SequenceSyntax.Form.PREFIX)
+					{
+						String sequence = tokens.qualifiedName(next);
+						if (sequence != null) return sequence;
+					}
+					else if (tokens.isSymbol(next, '('))
+					{
+						String sequence = (tokens.type(next + 1) == STRING) ? tokens.unquote(next + 1) : tokens.qualifiedName(next + 1);
+						if (sequence != null) return sequence;
+					}
+				}
+			}
+		}
+		List<SequenceSyntax> suffixes = this.sequenceSuffixes.get(key);
+		if ((suffixes != null) && tokens.isSymbol(index - 1, '.') && tokens.isIdentifier(index - 2))
+		{
+			for (SequenceSyntax syntax: suffixes)
+			{
+				if (tokens.matches(index, syntax.getKeywords()))
+				{
+					return tokens.text(index - 2);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The tokens of a SQL statement, stored as parallel arrays.
+	 */
+	private static class Tokens
+	{
+		private final String sql;
+		private byte[] types;
+		private int[] starts;
+		private int[] ends;
+		private int size = 0;
+
+		Tokens(String sql, boolean backslashEscapes, boolean dollarQuotes)
+		{
+			this.sql = sql;
+			int capacity = Math.max(8, sql.length() / 4);
+			this.types = new byte[capacity];
+			this.starts = new int[capacity];
+			this.ends = new int[capacity];
+
+			int length = sql.length();
+			int i = 0;
+			while (i < length)
+			{
+				char c = sql.charAt(i);
+				char next = (i + 1 < length) ? sql.charAt(i + 1) : 0;
+				if (Character.isWhitespace(c))
+				{
+					i += 1;
+				}
+				else if ((c == '-') && (next == '-'))
+				{
+					int end = sql.indexOf('\n', i + 2);
+					i = (end < 0) ? length : end + 1;
+				}
+				else if ((c == '/') && (next == '*'))
+				{
+					int end = sql.indexOf("*/", i + 2);
+					i = (end < 0) ? length : end + 2;
+				}
+				else if (c == '\'')
+				{
+					i = this.add(STRING, i, skipQuoted(sql, i, c, backslashEscapes));
+				}
+				else if (c == '"')
+				{
+					i = this.add(QUOTED_IDENTIFIER, i, skipQuoted(sql, i, c, backslashEscapes));
+				}
+				else if (c == '`')
+				{
+					i = this.add(QUOTED_IDENTIFIER, i, skipQuoted(sql, i, c, false));
+				}
+				else if (Character.isLetter(c) || (c == '_'))
+				{
+					int end = i + 1;
+					while ((end < length) && isWordPart(sql.charAt(end))) end += 1;
+					i = this.add(WORD, i, end);
+				}
+				else if (Character.isDigit(c) || ((c == '.') && Character.isDigit(next)))
+				{
+					int end = i + 1;
+					while ((end < length) && (isWordPart(sql.charAt(end)) || (sql.charAt(end) == '.'))) end += 1;
+					i = this.add(NUMBER, i, end);
+				}
+				else
+				{
+					int end = (dollarQuotes && (c == '$')) ? skipDollarQuoted(sql, i) : i;
+					i = (end > i) ? this.add(STRING, i, end) : this.add(SYMBOL, i, i + 1);
+				}
+			}
+		}
+
+		private static boolean isWordPart(char c)
+		{
+			return Character.isLetterOrDigit(c) || (c == '_') || (c == '$') || (c == '#');
+		}
+
+		private static int skipQuoted(String sql, int start, char quote, boolean backslashEscapes)
+		{
+			int length = sql.length();
+			int index = start + 1;
+			while (index < length)
+			{
+				char c = sql.charAt(index);
+				if (backslashEscapes && (c == '\\'))
+				{
+					index += 2;
+				}
+				else if (c == quote)
+				{
+					// A doubled quote is an escaped quote
+					if ((index + 1 < length) && (sql.charAt(index + 1) == quote))
+					{
+						index += 2;
+					}
+					else
+					{
+						return index + 1;
+					}
+				}
+				else
+				{
+					index += 1;
+				}
+			}
+			return length;
+		}
+
+		/**
+		 * Skips a dollar quoted string, e.g. $$...$$ or $tag$...$tag$.
+		 * @return the end of the string, or the specified start, if the dollar sign does not open a dollar quoted string, e.g. a positional parameter
+		 */
+		private static int skipDollarQuoted(String sql, int start)
+		{
+			int length = sql.length();
+			int index = start + 1;
+			if ((index < length) && Character.isDigit(sql.charAt(index))) return start;
+			while ((index < length) && (Character.isLetterOrDigit(sql.charAt(index)) || (sql.charAt(index) == '_'))) index += 1;
+			if ((index == length) || (sql.charAt(index) != '$')) return start;
+			String delimiter = sql.substring(start, index + 1);
+			int end = sql.indexOf(delimiter, index + 1);
+			return (end < 0) ? length : end + delimiter.length();
+		}
+
+		private int add(byte type, int start, int end)
+		{
+			if (this.size == this.types.length)
+			{
+				int capacity = this.size * 2;
+				this.types = Arrays.copyOf(this.types, capacity);
+				this.starts = Arrays.copyOf(this.starts, capacity);
+				this.ends = Arrays.copyOf(this.ends, capacity);
+			}
+			this.types[this.size] = type;
+			this.starts[this.size] = start;
+			this.ends[this.size] = end;
+			this.size += 1;
+			return end;
+		}
+
+		int size()
+		{
+			return this.size;
+		}
+
+		byte type(int index)
+		{
+			return ((index >= 0) && (index < this.size)) ? this.types[index] : -1;
+		}
+
+		int start(int index)
+		{
+			return this.starts[index];
+		}
+
+		int end(int index)
+		{
+			return this.ends[index];
+		}
+
+		String text(int index)
+		{
+			return this.sql.substring(this.starts[index], this.ends[index]);
+		}
+
+		String unquote(int index)
+		{
+			return this.sql.substring(this.starts[index] + 1, Math.max(this.starts[index] + 1, this.ends[index] - 1));
+		}
+
+		boolean isIdentifier(int index)
+		{
+			byte type = this.type(index);
+			return (type == WORD) || (type == QUOTED_IDENTIFIER);
+		}
+
+		boolean isSymbol(int index, char symbol)
+		{
+			return (this.type(index) == SYMBOL) && (this.sql.charAt(this.starts[index]) == symbol);
+		}
+
+		/**
+		 * Indicates whether the tokens at the specified index match the specified keywords, ignoring case.
+		 */
+		boolean matches(int index, String[] keywords)
+		{
+			for (int i = 0; i < keywords.length; ++i)
+			{
+				int token = index + i;
+				if (this.type(token) != WORD) return false;
+				String keyword = keywords[i];
+				int start = this.starts[token];
+				if ((this.ends[token] - start != keyword.length()) || !this.sql.regionMatches(true, start, keyword, 0, keyword.length())) return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Matches the specified function at the specified index.
+		 * @return the index of the last token of the function, or -1 if the function does not match
+		 */
+		int matches(int index, SQLFunction function)
+		{
+			String[] keywords = function.getKeywords();
+			if (!this.matches(index, keywords)) return -1;
+			int last = index + keywords.length - 1;
+			switch (function.getParentheses())
+			{
+				case NONE:
+				{
+					return last;
+				}
+				case OPTIONAL:
+				{
+					return this.isSymbol(last + 1, '(') ? this.matchArguments(last + 1, function.getArgument()) : last;
+				}
+				case REQUIRED:
+				{
+					return this.isSymbol(last + 1, '(') ? this.matchArguments(last + 1, function.getArgument()) : -1;
+				}
+				default:
+				{
+					return -1;
+				}
+			}
+		}
+
+		/**
+		 * Matches the arguments of a function, starting at the specified opening parenthesis.
+		 * @return the index of the closing parenthesis, or -1 if the arguments do not match
+		 */
+		private int matchArguments(int index, String argument)
+		{
+			if (argument == null)
+			{
+				// Either no arguments, or a single numeric argument
+				if (this.isSymbol(index + 1, ')')) return index + 1;
+				return ((this.type(index + 1) == NUMBER) && this.isSymbol(index + 2, ')')) ? index + 2 : -1;
+			}
+			if (argument.isEmpty())
+			{
+				return this.isSymbol(index + 1, ')') ? index + 1 : -1;
+			}
+			int token = index + 1;
+			if ((token >= this.size) || !this.isSymbol(token + 1, ')')) return -1;
+			int start = this.starts[token];
+			return ((this.ends[token] - start == argument.length()) && this.sql.regionMatches(true, start, argument, 0, argument.length())) ? token + 1 : -1;
+		}
+
+		/**
+		 * Returns the possibly qualified name starting at the specified index.
+		 * @return a name, or null if the token at the specified index is not an identifier
+		 */
+		String qualifiedName(int index)
+		{
+			if (!this.isIdentifier(index)) return null;
+			int last = index;
+			while (this.isSymbol(last + 1, '.') && this.isIdentifier(last + 2))
+			{
+				last += 2;
+			}
+			return this.sql.substring(this.starts[index], this.ends[last]);
+		}
+	}
+}
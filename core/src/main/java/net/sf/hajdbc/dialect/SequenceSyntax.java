@@ -0,0 +1,79 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.dialect;
+
+/**
+ * Keyword table entry describing a syntax for referencing the next (or current) value of a sequence.
+ * @author Paul Ferraro
+ */
+public final class SequenceSyntax
+{
+	enum Form
+	{
+		PREFIX, SUFFIX, CALL;
+	}
+
+	/**
+	 * Keywords that precede the sequence name, e.g. NEXT VALUE FOR sequence.
+	 * @param keywords whitespace delimited keywords
+	 * @return a sequence syntax
+	 */
+	public static SequenceSyntax prefix(String keywords)
+	{
+		return new SequenceSyntax(Form.PREFIX, keywords);
+	}
+
+	/**
+	 * A pseudo-column qualified by the sequence name, e.g. sequence.NEXTVAL.
+	 * @param keyword a pseudo-column name
+	 * @return a sequence syntax
+	 */
+	public static SequenceSyntax suffix(String keyword)
+	{
+		return new SequenceSyntax(Form.SUFFIX, keyword);
+	}
+
+	/**
+	 * A function whose first argument is the sequence name, e.g. NEXTVAL('sequence') or GEN_ID(sequence, 1).
+	 * @param name a function name
+	 * @return a sequence syntax
+	 */
+	public static SequenceSyntax call(String name)
+	{
+		return new SequenceSyntax(Form.CALL, name);
+	}
+
+	private final Form form;
+	private final String[] keywords;
+
+	private SequenceSyntax(Form form, String keywords)
+	{
+		this.form = form;
+		this.keywords = keywords.trim().split("\\s+");
+	}
+
+	Form getForm()
+	{
+		return this.form;
+	}
+
+	String[] getKeywords()
+	{
+		return this.keywords;
+	}
+}
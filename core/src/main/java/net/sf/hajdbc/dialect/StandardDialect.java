@@ -29,9 +29,11 @@ import java.sql.SQLTransientConnectionException;
 import java.sql.Statement;
 import java.text.MessageFormat;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -100,13 +102,7 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 		"YEAR",
 	};
 	
-	private final Pattern selectForUpdatePattern = compile(this.selectForUpdatePattern());
-	private final Pattern insertIntoTablePattern = compile(this.insertIntoTablePattern());
-	private final Pattern sequencePattern = compile(this.sequencePattern());
-	private final Pattern currentTimestampPattern = compile(this.currentTimestampPattern());
-	private final Pattern currentDatePattern = compile(this.currentDatePattern());
-	private final Pattern currentTimePattern = compile(this.currentTimePattern());
-	private final Pattern randomPattern = compile(this.randomPattern());
+	private final SQLLexer lexer = new SQLLexer(this.selectForUpdateClauses(), this.sequenceSyntaxes(), this.currentDateFunctions(), this.currentTimeFunctions(), this.currentTimestampFunctions(), this.randomFunctions(), this.backslashEscapes(), this.dollarQuotes());
 	private final Pattern urlPattern = Pattern.compile(String.format("jdbc\\:%s\\:%s", this.vendorPattern(), this.locatorPattern()));
 	
 	protected String vendorPattern()
@@ -119,44 +115,56 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 		return "(?://(?<host>[^\\:/]+)(?:\\:(?<port>\\d+))?/)?(?<database>[^\\?]+)";
 	}
 	
-	private static Pattern compile(String pattern)
+	/**
+	 * Returns the clauses that lock the rows selected by a SELECT statement.
+	 * @return a list of whitespace delimited keywords
+	 */
+	protected List<String> selectForUpdateClauses()
 	{
-		return Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+		return Collections.singletonList("FOR UPDATE");
 	}
-	
-	protected String selectForUpdatePattern()
+
+	protected List<SequenceSyntax> sequenceSyntaxes()
 	{
-		return "SELECT\\s+.+\\s+FOR\\s+UPDATE";
+		return Collections.singletonList(SequenceSyntax.prefix("NEXT VALUE FOR"));
 	}
 
-	protected String insertIntoTablePattern()
+	/**
+	 * Indicates whether a backslash escapes the next character of a quoted string.
+	 * @return false, per the SQL standard
+	 */
+	protected boolean backslashEscapes()
 	{
-		return "INSERT\\s+(?:INTO\\s+)?'?([^'\\s\\(]+)";
+		return false;
 	}
 
-	protected String sequencePattern()
+	/**
+	 * Indicates whether strings may be dollar quoted, e.g. $$...$$.
+	 * @return false, per the SQL standard
+	 */
+	protected boolean dollarQuotes()
 	{
-		return "NEXT\\s+VALUE\\s+FOR\\s+'?([^',\\s\\(\\)]+)";
+		return false;
 	}
 	
-	protected String currentDatePattern()
+	protected List<SQLFunction> currentDateFunctions()
 	{
-		return "(?<=\\W)CURRENT_DATE(?=\\W)";
+		return Collections.singletonList(SQLFunction.keyword("CURRENT_DATE"));
 	}
 	
-	protected String currentTimePattern()
+	protected List<SQLFunction> currentTimeFunctions()
 	{
-		return "(?<=\\W)CURRENT_TIME(?:\\s*\\(\\s*\\d+\\s*\\))?(?=\\W)|(?<=\\W)LOCALTIME(?:\\s*\\(\\s*\\d+\\s*\\))?(?=\\W)";
+		return Arrays.asList(SQLFunction.keywordWithPrecision("CURRENT_TIME"), SQLFunction.keywordWithPrecision("LOCALTIME"));
 	}
 
-	protected String currentTimestampPattern()
+	protected List<SQLFunction> currentTimestampFunctions()
 	{
-		return "(?<=\\W)CURRENT_TIMESTAMP(?:\\s*\\(\\s*\\d+\\s*\\))?(?=\\W)|(?<=\\W)LOCALTIMESTAMP(?:\\s*\\(\\s*\\d+\\s*\\))?(?=\\W)";
+		return Arrays.asList(SQLFunction.keywordWithPrecision("CURRENT_TIMESTAMP"), SQLFunction.keywordWithPrecision("LOCALTIMESTAMP"));
 	}
 	
-	protected String randomPattern()
+	protected List<SQLFunction> randomFunctions()
 	{
-		return "(?<=\\W)RAND\\s*\\(\\s*\\)";
+		return Collections.singletonList(SQLFunction.call("RAND"));
 	}
 
 	@SuppressWarnings("unused")
@@ -203,6 +211,43 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 		return "DELETE FROM {0}";
 	}
 
+	/**
+	 * @see net.sf.hajdbc.dialect.Dialect#getChecksumSQL(java.util.List)
+	 */
+	@Override
+	public String getChecksumSQL(List<String> columns)
+	{
+		String format = this.checksumFormat();
+		
+		if (format == null) return null;
+		
+		List<String> expressions = new ArrayList<>(columns.size());
+		for (String column: columns)
+		{
+			expressions.add(MessageFormat.format(this.checksumColumnFormat(), column));
+		}
+		return MessageFormat.format(format, Strings.join(expressions, this.checksumColumnDelimiter()));
+	}
+	
+	/**
+	 * There is no standard hash function, so checksums are unsupported by default.
+	 * @return a format whose argument is the delimited list of column expressions, or null, if checksums are not supported
+	 */
+	protected String checksumFormat()
+	{
+		return null;
+	}
+	
+	protected String checksumColumnFormat()
+	{
+		return "{0}";
+	}
+	
+	protected String checksumColumnDelimiter()
+	{
+		return Strings.PADDED_COMMA;
+	}
+
 	/**
 	 * @see net.sf.hajdbc.dialect.Dialect#getCreateForeignKeyConstraintSQL(net.sf.hajdbc.ForeignKeyConstraint)
 	 */
@@ -270,7 +315,7 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 	@Override
 	public boolean isSelectForUpdate(String sql)
 	{
-		return this.selectForUpdatePattern.matcher(sql).find();
+		return this.analyze(sql).isSelectForUpdate();
 	}
 
 	/**
@@ -329,7 +374,7 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 	@Override
 	public String parseSequence(String sql)
 	{
-		return this.parse(this.sequencePattern, sql);
+		return this.analyze(sql).getSequence();
 	}
 
 	/**
@@ -407,7 +452,7 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 	@Override
 	public String parseInsertTable(String sql)
 	{
-		return this.parse(this.insertIntoTablePattern, sql);
+		return this.analyze(sql).getInsertTable();
 	}
 
 	@Override
@@ -421,13 +466,6 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 		return "ALTER TABLE {0} ALTER COLUMN {1} RESTART WITH {2}";
 	}
 
-	protected String parse(Pattern pattern, String string)
-	{
-		Matcher matcher = pattern.matcher(string);
-		
-		return matcher.find() ? matcher.group(1) : null;
-	}
-
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.dialect.Dialect#evaluateCurrentDate(java.lang.String, java.sql.Date)
@@ -435,7 +473,7 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 	@Override
 	public String evaluateCurrentDate(String sql, java.sql.Date date)
 	{
-		return evaluateTemporal(sql, this.currentDatePattern, date, this.dateLiteralFormat());
+		return this.evaluate(this.analyze(sql), EnumSet.of(SQLFunction.Type.CURRENT_DATE), date, null, null);
 	}
 	
 	protected String dateLiteralFormat()
@@ -450,7 +488,7 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 	@Override
 	public String evaluateCurrentTime(String sql, java.sql.Time time)
 	{
-		return evaluateTemporal(sql, this.currentTimePattern, time, this.timeLiteralFormat());
+		return this.evaluate(this.analyze(sql), EnumSet.of(SQLFunction.Type.CURRENT_TIME), null, time, null);
 	}
 	
 	protected String timeLiteralFormat()
@@ -465,7 +503,7 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 	@Override
 	public String evaluateCurrentTimestamp(String sql, java.sql.Timestamp timestamp)
 	{
-		return evaluateTemporal(sql, this.currentTimestampPattern, timestamp, this.timestampLiteralFormat());
+		return this.evaluate(this.analyze(sql), EnumSet.of(SQLFunction.Type.CURRENT_TIMESTAMP), null, null, timestamp);
 	}
 	
 	protected String timestampLiteralFormat()
@@ -473,11 +511,6 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 		return "TIMESTAMP ''{0}''";
 	}
 
-	private static String evaluateTemporal(String sql, Pattern pattern, java.util.Date date, String format)
-	{
-		return pattern.matcher(sql).replaceAll(MessageFormat.format(format, date.toString()));
-	}
-
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.dialect.Dialect#evaluateRand(java.lang.String)
@@ -485,15 +518,89 @@ public class StandardDialect implements Dialect, SequenceSupport, IdentityColumn
 	@Override
 	public String evaluateRand(String sql)
 	{	
-		StringBuffer buffer = new StringBuffer();
-		Matcher matcher = this.randomPattern.matcher(sql);
+		return this.evaluate(this.analyze(sql), EnumSet.of(SQLFunction.Type.RAND), null, null, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.Dialect#analyze(java.lang.String)
+	 */
+	@Override
+	public LexicalAnalysis analyze(String sql)
+	{
+		return this.lexer.analyze(sql);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.Dialect#evaluate(net.sf.hajdbc.dialect.LexicalAnalysis, java.util.Set, long)
+	 */
+	@Override
+	public String evaluate(LexicalAnalysis analysis, Set<SQLFunction.Type> functions, long time)
+	{
+		return this.evaluate(analysis, functions, new java.sql.Date(time), new java.sql.Time(time), new java.sql.Timestamp(time));
+	}
+
+	private String evaluate(LexicalAnalysis analysis, Set<SQLFunction.Type> functions, java.sql.Date date, java.sql.Time time, java.sql.Timestamp timestamp)
+	{
+		String sql = analysis.getSQL();
+		StringBuilder builder = null;
+		int index = 0;
+		String dateLiteral = null;
+		String timeLiteral = null;
+		String timestampLiteral = null;
 		
-		while (matcher.find())
+		for (int i = 0; i < analysis.getFunctionCount(); ++i)
 		{
-			matcher.appendReplacement(buffer, Double.toString(Math.random()));
+			SQLFunction.Type type = analysis.getFunctionType(i);
+			
+			if (!functions.contains(type)) continue;
+			
+			if (builder == null)
+			{
+				builder = new StringBuilder(sql.length() + 16);
+			}
+			builder.append(sql, index, analysis.getFunctionStart(i));
+			
+			switch (type)
+			{
+				case CURRENT_DATE:
+				{
+					if (dateLiteral == null)
+					{
+						dateLiteral = MessageFormat.format(this.dateLiteralFormat(), date.toString());
+					}
+					builder.append(dateLiteral);
+					break;
+				}
+				case CURRENT_TIME:
+				{
+					if (timeLiteral == null)
+					{
+						timeLiteral = MessageFormat.format(this.timeLiteralFormat(), time.toString());
+					}
+					builder.append(timeLiteral);
+					break;
+				}
+				case CURRENT_TIMESTAMP:
+				{
+					if (timestampLiteral == null)
+					{
+						timestampLiteral = MessageFormat.format(this.timestampLiteralFormat(), timestamp.toString());
+					}
+					builder.append(timestampLiteral);
+					break;
+				}
+				case RAND:
+				{
+					builder.append(Double.toString(Math.random()));
+					break;
+				}
+			}
+			index = analysis.getFunctionEnd(i);
 		}
 		
-		return matcher.appendTail(buffer).toString();
+		return (builder != null) ? builder.append(sql, index, sql.length()).toString() : sql;
 	}
 
 	/**
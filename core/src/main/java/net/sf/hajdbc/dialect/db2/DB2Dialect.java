@@ -21,6 +21,7 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -29,6 +30,7 @@ import net.sf.hajdbc.IdentityColumnSupport;
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.dialect.SequenceSyntax;
 import net.sf.hajdbc.dialect.StandardDialect;
 
 /**
@@ -98,12 +100,12 @@ public class DB2Dialect extends StandardDialect
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#sequencePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#sequenceSyntaxes()
 	 */
 	@Override
-	protected String sequencePattern()
+	protected List<SequenceSyntax> sequenceSyntaxes()
 	{
-		return "(?:NEXT|PREV)VAL\\s+FOR\\s+'?([^',\\s\\(\\)]+)";
+		return Arrays.asList(SequenceSyntax.prefix("NEXTVAL FOR"), SequenceSyntax.prefix("PREVVAL FOR"));
 	}
 
 	/**
@@ -19,7 +19,10 @@ package net.sf.hajdbc.dialect.derby;
 
 import net.sf.hajdbc.IdentityColumnSupport;
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.dialect.SQLFunction;
 import net.sf.hajdbc.dialect.StandardDialect;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Dialect for <a href="http://db.apache.org/derby">Apache Derby</a>.
@@ -85,30 +88,36 @@ public class DerbyDialect extends StandardDialect
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDatePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDateFunctions()
 	 */
 	@Override
-	protected String currentDatePattern()
+	protected List<SQLFunction> currentDateFunctions()
 	{
-		return super.currentDatePattern() + "|(?<=\\W)CURRENT\\s+DATE(?=\\W)";
+		List<SQLFunction> functions = new ArrayList<>(super.currentDateFunctions());
+		functions.add(SQLFunction.keyword("CURRENT DATE"));
+		return functions;
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimeFunctions()
 	 */
 	@Override
-	protected String currentTimePattern()
+	protected List<SQLFunction> currentTimeFunctions()
 	{
-		return super.currentTimePattern() + "|(?<=\\W)CURRENT\\s+TIME(?=\\W)";
+		List<SQLFunction> functions = new ArrayList<>(super.currentTimeFunctions());
+		functions.add(SQLFunction.keyword("CURRENT TIME"));
+		return functions;
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampPattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampFunctions()
 	 */
 	@Override
-	protected String currentTimestampPattern()
+	protected List<SQLFunction> currentTimestampFunctions()
 	{
-		return super.currentTimestampPattern() + "|(?<=\\W)CURRENT\\s+TIMESTAMP(?=\\W)";
+		List<SQLFunction> functions = new ArrayList<>(super.currentTimestampFunctions());
+		functions.add(SQLFunction.keyword("CURRENT TIMESTAMP"));
+		return functions;
 	}
 
 	/**
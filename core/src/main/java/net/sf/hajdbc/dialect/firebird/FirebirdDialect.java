@@ -22,12 +22,14 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.dialect.SequenceSyntax;
 import net.sf.hajdbc.dialect.StandardDialect;
 
 /**
@@ -97,21 +99,21 @@ public class FirebirdDialect extends StandardDialect
 
 	/**
 	 * Firebird 2.0 will support standard syntax.  Until then...
-	 * @see net.sf.hajdbc.dialect.StandardDialect#sequencePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#sequenceSyntaxes()
 	 */
 	@Override
-	protected String sequencePattern()
+	protected List<SequenceSyntax> sequenceSyntaxes()
 	{
-		return "GEN_ID\\s*\\(\\s*([^\\s,]+)\\s*,\\s*\\d+\\s*\\)";
+		return Collections.singletonList(SequenceSyntax.call("GEN_ID"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#selectForUpdatePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#selectForUpdateClauses()
 	 */
 	@Override
-	protected String selectForUpdatePattern()
+	protected List<String> selectForUpdateClauses()
 	{
-		return "SELECT\\s+.+\\s+WITH\\s+LOCK";
+		return Collections.singletonList("WITH LOCK");
 	}
 
 	/**
@@ -32,6 +32,7 @@ import java.util.Set;
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.dialect.SQLFunction;
 import net.sf.hajdbc.dialect.StandardDialect;
 
 /**
@@ -101,39 +102,39 @@ public class H2Dialect extends StandardDialect
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDatePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDateFunctions()
 	 */
 	@Override
-	protected String currentDatePattern()
+	protected List<SQLFunction> currentDateFunctions()
 	{
-		return "(?<=\\W)CURRENT_DATE(?:\\s*\\(\\s*\\))?(?=\\W)|(?<=\\W)CURDATE\\s*\\(\\s*\\)|(?<=\\W)SYSDATE(?=\\W)|(?<=\\W)TODAY(?=\\W)";
+		return Arrays.asList(SQLFunction.keywordWithPrecision("CURRENT_DATE"), SQLFunction.call("CURDATE"), SQLFunction.keyword("SYSDATE"), SQLFunction.keyword("TODAY"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimeFunctions()
 	 */
 	@Override
-	protected String currentTimePattern()
+	protected List<SQLFunction> currentTimeFunctions()
 	{
-		return "(?<=\\W)CURRENT_TIME(?:\\s*\\(\\s*\\))?(?=\\W)|(?<=\\W)CURTIME\\s*\\(\\s*\\)";
+		return Arrays.asList(SQLFunction.keywordWithPrecision("CURRENT_TIME"), SQLFunction.call("CURTIME"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampPattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampFunctions()
 	 */
 	@Override
-	protected String currentTimestampPattern()
+	protected List<SQLFunction> currentTimestampFunctions()
 	{
-		return "(?<=\\W)CURRENT_TIMESTAMP(?:\\s*\\(\\s*\\d*\\s*\\))?(?=\\W)|(?<=\\W)NOW\\s*\\(\\s*\\d*\\s*\\)";
+		return Arrays.asList(SQLFunction.keywordWithPrecision("CURRENT_TIMESTAMP"), SQLFunction.callWithPrecision("NOW"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#randomPattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#randomFunctions()
 	 */
 	@Override
-	protected String randomPattern()
+	protected List<SQLFunction> randomFunctions()
 	{
-		return "(?<=\\W)RAND\\s*\\(\\s*\\d*\\s*\\)";
+		return Collections.singletonList(SQLFunction.callWithPrecision("RAND"));
 	}
 
 	/**
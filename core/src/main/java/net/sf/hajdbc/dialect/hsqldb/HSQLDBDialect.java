@@ -32,6 +32,7 @@ import java.util.Set;
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.dialect.SQLFunction;
 import net.sf.hajdbc.dialect.StandardDialect;
 
 /**
@@ -109,30 +110,30 @@ public class HSQLDBDialect extends StandardDialect
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDatePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDateFunctions()
 	 */
 	@Override
-	protected String currentDatePattern()
+	protected List<SQLFunction> currentDateFunctions()
 	{
-		return "(?<=\\W)CURRENT_DATE(?=\\W)|(?<=\\W)CURDATE\\s*\\(\\s*\\)";
+		return Arrays.asList(SQLFunction.keyword("CURRENT_DATE"), SQLFunction.call("CURDATE"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimeFunctions()
 	 */
 	@Override
-	protected String currentTimePattern()
+	protected List<SQLFunction> currentTimeFunctions()
 	{
-		return "(?<=\\W)CURRENT_TIME(?=\\W)|(?<=\\W)CURTIME\\s*\\(\\s*\\)";
+		return Arrays.asList(SQLFunction.keyword("CURRENT_TIME"), SQLFunction.call("CURTIME"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampPattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampFunctions()
 	 */
 	@Override
-	protected String currentTimestampPattern()
+	protected List<SQLFunction> currentTimestampFunctions()
 	{
-		return "(?<=\\W)CURRENT_TIMESTAMP(?=\\W)|(?<=\\W)NOW\\s*\\(\\s*\\)";
+		return Arrays.asList(SQLFunction.keyword("CURRENT_TIMESTAMP"), SQLFunction.call("NOW"));
 	}
 
 	@Override
@@ -21,14 +21,17 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.dialect.SQLFunction;
+import net.sf.hajdbc.dialect.SequenceSyntax;
 import net.sf.hajdbc.dialect.StandardDialect;
 
 /**
@@ -38,8 +41,6 @@ import net.sf.hajdbc.dialect.StandardDialect;
  */
 public class IngresDialect extends StandardDialect
 {
-	private final Pattern legacySequencePattern = Pattern.compile("'?(\\w+)'?\\.(?:(?:CURR)|(?:NEXT))VAL", Pattern.CASE_INSENSITIVE);
-	
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.dialect.StandardDialect#vendorPattern()
@@ -80,58 +81,47 @@ public class IngresDialect extends StandardDialect
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#parseSequence(java.lang.String)
+	 * @see net.sf.hajdbc.dialect.StandardDialect#sequenceSyntaxes()
 	 */
 	@Override
-	public String parseSequence(String sql)
+	protected List<SequenceSyntax> sequenceSyntaxes()
 	{
-		String sequence = super.parseSequence(sql);
-		
-		return (sequence != null) ? sequence : this.parse(this.legacySequencePattern, sql);
+		return Arrays.asList(SequenceSyntax.prefix("NEXT VALUE FOR"), SequenceSyntax.prefix("CURRENT VALUE FOR"), SequenceSyntax.suffix("NEXTVAL"), SequenceSyntax.suffix("CURRVAL"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#sequencePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDateFunctions()
 	 */
 	@Override
-	protected String sequencePattern()
+	protected List<SQLFunction> currentDateFunctions()
 	{
-		return "(?:NEXT|CURRENT)\\s+VALUE\\s+FOR\\s+'?([^',\\s\\(\\)]+)";
+		return Arrays.asList(SQLFunction.keyword("CURRENT_DATE"), SQLFunction.call("DATE", "'TODAY'"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDatePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimeFunctions()
 	 */
 	@Override
-	protected String currentDatePattern()
+	protected List<SQLFunction> currentTimeFunctions()
 	{
-		return "(?<=\\W)CURRENT_DATE(?=\\W)|(?<=\\W)DATE\\s*\\(\\s*'TODAY'\\s*\\)";
+		return Arrays.asList(SQLFunction.keyword("CURRENT_TIME"), SQLFunction.keyword("LOCAL_TIME"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampFunctions()
 	 */
 	@Override
-	protected String currentTimePattern()
+	protected List<SQLFunction> currentTimestampFunctions()
 	{
-		return "(?<=\\W)CURRENT_TIME(?=\\W)|(?<=\\W)LOCAL_TIME(?=\\W)";
+		return Arrays.asList(SQLFunction.keyword("CURRENT_TIMESTAMP"), SQLFunction.keyword("LOCAL_TIMESTAMP"), SQLFunction.call("DATE", "'NOW'"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampPattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#randomFunctions()
 	 */
 	@Override
-	protected String currentTimestampPattern()
+	protected List<SQLFunction> randomFunctions()
 	{
-		return "(?<=\\W)CURRENT_TIMESTAMP(?=\\W)|(?<=\\W)LOCAL_TIMESTAMP(?=\\W)|(?<=\\W)DATE\\s*\\(\\s*'NOW'\\s*\\)";
-	}
-
-	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#randomPattern()
-	 */
-	@Override
-	protected String randomPattern()
-	{
-		return "(?<=\\W)RANDOMF\\s*\\(\\s*\\)";
+		return Collections.singletonList(SQLFunction.call("RANDOMF"));
 	}
 }
@@ -21,6 +21,7 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -28,6 +29,7 @@ import java.util.List;
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.dialect.SequenceSyntax;
 import net.sf.hajdbc.dialect.StandardDialect;
 
 /**
@@ -105,12 +107,12 @@ public class MaxDBDialect extends StandardDialect
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#sequencePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#sequenceSyntaxes()
 	 */
 	@Override
-	protected String sequencePattern()
+	protected List<SequenceSyntax> sequenceSyntaxes()
 	{
-		return "'?(\\w+)'?\\.(?:CURR|NEXT)VAL";
+		return Arrays.asList(SequenceSyntax.suffix("CURRVAL"), SequenceSyntax.suffix("NEXTVAL"));
 	}
 
 	/**
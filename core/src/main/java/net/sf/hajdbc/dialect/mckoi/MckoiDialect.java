@@ -18,7 +18,12 @@
 package net.sf.hajdbc.dialect.mckoi;
 
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.dialect.SQLFunction;
+import net.sf.hajdbc.dialect.SequenceSyntax;
 import net.sf.hajdbc.dialect.StandardDialect;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Dialect for <a href="http://mckoi.com">Mckoi</a>.
@@ -49,20 +54,22 @@ public class MckoiDialect extends StandardDialect
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#sequencePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#sequenceSyntaxes()
 	 */
 	@Override
-	protected String sequencePattern()
+	protected List<SequenceSyntax> sequenceSyntaxes()
 	{
-		return "(?:CURR|NEXT)VAL\\s*\\(\\s*'([^']+)'\\s*\\)";
+		return Arrays.asList(SequenceSyntax.call("CURRVAL"), SequenceSyntax.call("NEXTVAL"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampPattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampFunctions()
 	 */
 	@Override
-	protected String currentTimestampPattern()
+	protected List<SQLFunction> currentTimestampFunctions()
 	{
-		return super.currentTimestampPattern() + "|(?<=\\W)DATEOB\\s*\\(\\s*\\)";
+		List<SQLFunction> functions = new ArrayList<>(super.currentTimestampFunctions());
+		functions.add(SQLFunction.call("DATEOB"));
+		return functions;
 	}
 }
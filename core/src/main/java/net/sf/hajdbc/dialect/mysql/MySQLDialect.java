@@ -20,6 +20,7 @@ package net.sf.hajdbc.dialect.mysql;
 import java.io.File;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -30,6 +31,7 @@ import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DumpRestoreSupport;
 import net.sf.hajdbc.codec.Decoder;
 import net.sf.hajdbc.dialect.ConnectionProperties;
+import net.sf.hajdbc.dialect.SQLFunction;
 import net.sf.hajdbc.dialect.StandardDialect;
 import net.sf.hajdbc.util.Processes;
 import net.sf.hajdbc.util.Strings;
@@ -96,6 +98,26 @@ public class MySQLDialect extends StandardDialect implements DumpRestoreSupport
 		return Collections.singletonList(this.executeFunction(metaData.getConnection(), "DATABASE()"));
 	}
 
+	/**
+	 * Sums the leading 60 bits of the MD5 hash of each row.
+	 * @see net.sf.hajdbc.dialect.StandardDialect#checksumFormat()
+	 */
+	@Override
+	protected String checksumFormat()
+	{
+		return "SUM(CAST(CONV(SUBSTRING(MD5(CONCAT_WS('','', {0})), 1, 15), 16, 10) AS UNSIGNED))";
+	}
+
+	/**
+	 * Quoting distinguishes null values from the string 'NULL'.
+	 * @see net.sf.hajdbc.dialect.StandardDialect#checksumColumnFormat()
+	 */
+	@Override
+	protected String checksumColumnFormat()
+	{
+		return "QUOTE({0})";
+	}
+
 	/**
 	 * Deferrability clause is not supported.
 	 * @see net.sf.hajdbc.dialect.StandardDialect#createForeignKeyConstraintFormat()
@@ -143,31 +165,49 @@ public class MySQLDialect extends StandardDialect implements DumpRestoreSupport
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDatePattern()
+	 * MySQL escapes characters of quoted strings using a backslash, unless the NO_BACKSLASH_ESCAPES SQL mode is enabled.
+	 * @see net.sf.hajdbc.dialect.StandardDialect#backslashEscapes()
 	 */
 	@Override
-	protected String currentDatePattern()
+	protected boolean backslashEscapes()
 	{
-		return super.currentDatePattern() + "|(?<=\\W)CURDATE\\s*\\(\\s*\\)";
+		return true;
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDateFunctions()
 	 */
 	@Override
-	protected String currentTimePattern()
+	protected List<SQLFunction> currentDateFunctions()
 	{
-		return super.currentTimePattern() + "|(?<=\\W)CURTIME\\s*\\(\\s*\\)";
+		List<SQLFunction> functions = new ArrayList<>(super.currentDateFunctions());
+		functions.add(SQLFunction.call("CURDATE"));
+		return functions;
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampPattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimeFunctions()
 	 */
 	@Override
-	protected String currentTimestampPattern()
+	protected List<SQLFunction> currentTimeFunctions()
 	{
-		return super.currentTimestampPattern() + "|(?<=\\W)NOW\\s*\\(\\s*\\)|(?<=\\W)SYSDATE\\s*\\(\\s*\\)";
+		List<SQLFunction> functions = new ArrayList<>(super.currentTimeFunctions());
+		functions.add(SQLFunction.call("CURTIME"));
+		return functions;
 	}
+
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampFunctions()
+	 */
+	@Override
+	protected List<SQLFunction> currentTimestampFunctions()
+	{
+		List<SQLFunction> functions = new ArrayList<>(super.currentTimestampFunctions());
+		functions.add(SQLFunction.call("NOW"));
+		functions.add(SQLFunction.call("SYSDATE"));
+		return functions;
+	}
+
 	
 	/**
 	 * @see net.sf.hajdbc.dialect.StandardDialect#dateLiteralFormat()
@@ -21,6 +21,7 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -28,6 +29,7 @@ import java.util.List;
 import net.sf.hajdbc.SequenceProperties;
 import net.sf.hajdbc.SequencePropertiesFactory;
 import net.sf.hajdbc.SequenceSupport;
+import net.sf.hajdbc.dialect.SequenceSyntax;
 import net.sf.hajdbc.dialect.StandardDialect;
 
 /**
@@ -99,6 +101,24 @@ public class OracleDialect extends StandardDialect
 	{
 		return "TRUNCATE TABLE {0}";
 	}
+
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#checksumFormat()
+	 */
+	@Override
+	protected String checksumFormat()
+	{
+		return "SUM(ORA_HASH({0}))";
+	}
+
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#checksumColumnDelimiter()
+	 */
+	@Override
+	protected String checksumColumnDelimiter()
+	{
+		return " || '|' || ";
+	}
 	
 	/**
 	 * ON UPDATE and deferrability clauses are not supported.
@@ -111,12 +131,12 @@ public class OracleDialect extends StandardDialect
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#sequencePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#sequenceSyntaxes()
 	 */
 	@Override
-	protected String sequencePattern()
+	protected List<SequenceSyntax> sequenceSyntaxes()
 	{
-		return "'?(\\w+)'?\\.(?:CURR|NEXT)VAL";
+		return Arrays.asList(SequenceSyntax.suffix("CURRVAL"), SequenceSyntax.suffix("NEXTVAL"));
 	}
 
 	/**
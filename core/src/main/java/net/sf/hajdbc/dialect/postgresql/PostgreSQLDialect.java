@@ -25,6 +25,7 @@ import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -38,6 +39,8 @@ import net.sf.hajdbc.SequenceSupport;
 import net.sf.hajdbc.TriggerSupport;
 import net.sf.hajdbc.codec.Decoder;
 import net.sf.hajdbc.dialect.ConnectionProperties;
+import net.sf.hajdbc.dialect.SQLFunction;
+import net.sf.hajdbc.dialect.SequenceSyntax;
 import net.sf.hajdbc.dialect.StandardDialect;
 import net.sf.hajdbc.util.Processes;
 import net.sf.hajdbc.util.Strings;
@@ -172,12 +175,31 @@ public class PostgreSQLDialect extends StandardDialect implements DumpRestoreSup
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#sequencePattern()
+	 * Sums the leading 60 bits of the MD5 hash of the text form of each row.
+	 * @see net.sf.hajdbc.dialect.StandardDialect#checksumFormat()
 	 */
 	@Override
-	protected String sequencePattern()
+	protected String checksumFormat()
 	{
-		return "(?:CURR|NEXT)VAL\\s*\\(\\s*'([^']+)'\\s*\\)";
+		return "SUM((''x'' || SUBSTR(MD5(ROW({0})::TEXT), 1, 15))::BIT(60)::BIGINT)";
+	}
+
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#dollarQuotes()
+	 */
+	@Override
+	protected boolean dollarQuotes()
+	{
+		return true;
+	}
+
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#sequenceSyntaxes()
+	 */
+	@Override
+	protected List<SequenceSyntax> sequenceSyntaxes()
+	{
+		return Arrays.asList(SequenceSyntax.call("CURRVAL"), SequenceSyntax.call("NEXTVAL"));
 	}
 
 	/**
@@ -199,31 +221,36 @@ public class PostgreSQLDialect extends StandardDialect implements DumpRestoreSup
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampPattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampFunctions()
 	 */
 	@Override
-	protected String currentTimestampPattern()
+	protected List<SQLFunction> currentTimestampFunctions()
 	{
-		return super.currentTimestampPattern() + "|(?<=\\W)NOW\\s*\\(\\s*\\)|(?<=\\W)TRANSACTION_TIMESTAMP\\s*\\(\\s*\\)|(?<=\\W)STATEMENT_TIMESTAMP\\s*\\(\\s*\\)|(?<=\\W)CLOCK_TIMESTAMP\\s*\\(\\s*\\)";
+		List<SQLFunction> functions = new ArrayList<>(super.currentTimestampFunctions());
+		functions.add(SQLFunction.call("NOW"));
+		functions.add(SQLFunction.call("TRANSACTION_TIMESTAMP"));
+		functions.add(SQLFunction.call("STATEMENT_TIMESTAMP"));
+		functions.add(SQLFunction.call("CLOCK_TIMESTAMP"));
+		return functions;
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#randomPattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#randomFunctions()
 	 */
 	@Override
-	protected String randomPattern()
+	protected List<SQLFunction> randomFunctions()
 	{
-		return "(?<=\\W)RANDOM\\s*\\(\\s*\\)";
+		return Collections.singletonList(SQLFunction.call("RANDOM"));
 	}
 
 	/**
 	 * Recognizes FOR SHARE and FOR UPDATE.
-	 * @see net.sf.hajdbc.dialect.StandardDialect#selectForUpdatePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#selectForUpdateClauses()
 	 */
 	@Override
-	protected String selectForUpdatePattern()
+	protected List<String> selectForUpdateClauses()
 	{
-		return "SELECT\\s+.+\\s+FOR\\s+(SHARE|UPDATE)";
+		return Arrays.asList("FOR SHARE", "FOR UPDATE");
 	}
 
 	/**
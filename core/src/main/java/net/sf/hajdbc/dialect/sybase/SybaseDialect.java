@@ -20,8 +20,12 @@ package net.sf.hajdbc.dialect.sybase;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import net.sf.hajdbc.IdentityColumnSupport;
+import net.sf.hajdbc.dialect.SQLFunction;
 import net.sf.hajdbc.dialect.StandardDialect;
 
 /**
@@ -71,30 +75,39 @@ public class SybaseDialect extends StandardDialect
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDatePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentDateFunctions()
 	 */
 	@Override
-	protected String currentDatePattern()
+	protected List<SQLFunction> currentDateFunctions()
 	{
-		return "(?<=\\W)CURRENT\\s+DATE(?=\\W)|(?<=\\W)TODAY\\s*\\(\\s*\\*\\s*\\)";
+		return Arrays.asList(SQLFunction.keyword("CURRENT DATE"), SQLFunction.call("TODAY", "*"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimePattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimeFunctions()
 	 */
 	@Override
-	protected String currentTimePattern()
+	protected List<SQLFunction> currentTimeFunctions()
 	{
-		return "(?<=\\W)CURRENT\\s+TIME(?=\\W)";
+		return Collections.singletonList(SQLFunction.keyword("CURRENT TIME"));
 	}
 
 	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampPattern()
+	 * @see net.sf.hajdbc.dialect.StandardDialect#currentTimestampFunctions()
 	 */
 	@Override
-	protected String currentTimestampPattern()
+	protected List<SQLFunction> currentTimestampFunctions()
 	{
-		return "(?<=\\W)CURRENT\\s+TIMESTAMP(?=\\W)|(?<=\\W)GETDATE\\s*\\(\\s*\\)|(?<=\\W)NOW\\s*\\(\\s*\\*\\s*\\)";
+		return Arrays.asList(SQLFunction.keyword("CURRENT TIMESTAMP"), SQLFunction.call("GETDATE"), SQLFunction.call("NOW", "*"));
+	}
+
+	/**
+	 * @see net.sf.hajdbc.dialect.StandardDialect#randomFunctions()
+	 */
+	@Override
+	protected List<SQLFunction> randomFunctions()
+	{
+		return Collections.singletonList(SQLFunction.callWithPrecision("RAND"));
 	}
 
 	/**
@@ -124,15 +137,6 @@ public class SybaseDialect extends StandardDialect
 		return "''{0}''";
 	}
 	
-	/**
-	 * @see net.sf.hajdbc.dialect.StandardDialect#randomPattern()
-	 */
-	@Override
-	protected String randomPattern()
-	{
-		return "(?<=\\W)RAND\\s*\\(\\s*\\d*\\s*\\)";
-	}
-
 	/**
 	 * jTDS does not implement Connection.isValid(...)
 	 */
@@ -18,16 +18,18 @@
 package net.sf.hajdbc.invocation;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.AbstractMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
@@ -35,6 +37,11 @@ import net.sf.hajdbc.ExceptionFactory;
 import net.sf.hajdbc.messages.Messages;
 import net.sf.hajdbc.messages.MessagesFactory;
 import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.util.ArraySortedMap;
+import net.sf.hajdbc.util.Collections;
+import net.sf.hajdbc.util.concurrent.PartitionedExecutorService;
+import net.sf.hajdbc.util.concurrent.PartitionedTask;
+import net.sf.hajdbc.util.concurrent.SynchronousExecutor;
 
 /**
  * @author Paul Ferraro
@@ -49,10 +56,35 @@ public class AllResultsCollector implements InvokeOnManyInvocationStrategy.Resul
 	}
 	
 	private final ExecutorProvider provider;
+	private final boolean callerRuns;
+	private final boolean existing;
 	
 	public AllResultsCollector(ExecutorProvider provider)
+	{
+		this(provider, false);
+	}
+	
+	/**
+	 * Creates a new results collector
+	 * @param provider provides the executor used to invoke each database
+	 * @param callerRuns indicates whether the primary database should be invoked in the caller thread, while the remaining databases are invoked via the executor
+	 */
+	public AllResultsCollector(ExecutorProvider provider, boolean callerRuns)
+	{
+		this(provider, callerRuns, false);
+	}
+	
+	/**
+	 * Creates a new results collector
+	 * @param provider provides the executor used to invoke each database
+	 * @param callerRuns indicates whether the primary database should be invoked in the caller thread, while the remaining databases are invoked via the executor
+	 * @param existing indicates whether to invoke only those databases for which the proxy factory already has an object, rather than all active databases
+	 */
+	public AllResultsCollector(ExecutorProvider provider, boolean callerRuns, boolean existing)
 	{
 		this.provider = provider;
+		this.callerRuns = callerRuns;
+		this.existing = existing;
 	}
 	
 	/**
@@ -72,19 +104,50 @@ public class AllResultsCollector implements InvokeOnManyInvocationStrategy.Resul
 
 		int size = databaseSet.size();
 		
+		if ((size == 1) && !this.existing)
+		{
+			Iterator<D> databases = databaseSet.iterator();
+			if (databases.hasNext())
+			{
+				D database = databases.next();
+				if (!databases.hasNext())
+				{
+					return collectResult(factory, invoker, database);
+				}
+			}
+		}
+		
+		// Each database requires its own task and future, since databases may execute on separate threads
 		List<Invocation<Z, D, T, R, E>> invocationList = new ArrayList<>(size);
 		
-		for (D database: databaseSet)
+		if (this.existing)
+		{
+			for (Map.Entry<D, T> entry: factory.entries())
+			{
+				invocationList.add(new Invocation<>(invoker, entry.getKey(), entry.getValue()));
+			}
+			
+			if (invocationList.isEmpty())
+			{
+				return new AbstractMap.SimpleImmutableEntry<>(Collections.<D, R>emptySortedMap(), Collections.<D, E>emptySortedMap());
+			}
+		}
+		else
 		{
-			invocationList.add(new Invocation<>(invoker, database, factory.get(database)));
+			for (D database: databaseSet)
+			{
+				invocationList.add(new Invocation<>(invoker, database, factory.get(database)));
+			}
 		}
 		
 		try
 		{
-			List<Future<R>> futureList = this.provider.getExecutor(cluster).invokeAll(invocationList);
+			ExecutorService executor = this.provider.getExecutor(cluster);
+			// A synchronous executor already executes the primary database in the caller thread
+			List<Future<R>> futureList = (this.callerRuns && !(executor instanceof SynchronousExecutor)) ? invokeAll(executor, invocationList) : executor.invokeAll(invocationList);
 			
-			final SortedMap<D, R> resultMap = new TreeMap<>();
-			final SortedMap<D, E> exceptionMap = new TreeMap<>();
+			final SortedMap<D, R> resultMap = new ArraySortedMap<>(invocationList.size());
+			final SortedMap<D, E> exceptionMap = new ArraySortedMap<>(0);
 			
 			for (int i = 0; i < invocationList.size(); ++i)
 			{
@@ -106,6 +169,8 @@ public class AllResultsCollector implements InvokeOnManyInvocationStrategy.Resul
 				{
 					Thread.currentThread().interrupt();
 					
+					futureList.get(i).cancel(true);
+					
 					exceptionMap.put(database, exceptionFactory.createException(e));
 				}
 			}
@@ -118,7 +183,63 @@ public class AllResultsCollector implements InvokeOnManyInvocationStrategy.Resul
 		}
 	}
 	
-	private static class Invocation<Z, D extends Database<Z>, T, R, E extends Exception> implements Callable<R>
+	/**
+	 * Submits all but the first invocation to the specified executor, then executes the first invocation in the caller thread.
+	 * If the executor limits per-database concurrency, the caller thread first acquires a permit for the database of the first invocation.
+	 */
+	private static <R> List<Future<R>> invokeAll(ExecutorService executor, List<? extends Callable<R>> invocationList)
+	{
+		int size = invocationList.size();
+		List<Future<R>> futureList = new ArrayList<>(size);
+		Callable<R> invocation = invocationList.get(0);
+		RunnableFuture<R> primary = new FutureTask<>(invocation);
+		
+		futureList.add(primary);
+		
+		for (int i = 1; i < size; ++i)
+		{
+			futureList.add(executor.submit(invocationList.get(i)));
+		}
+		
+		// Honor any per-database concurrency limit of the executor
+		if ((executor instanceof PartitionedExecutorService) && (invocation instanceof PartitionedTask))
+		{
+			((PartitionedExecutorService) executor).run(primary, ((PartitionedTask) invocation).getPartition());
+		}
+		else
+		{
+			primary.run();
+		}
+		
+		return futureList;
+	}
+	
+	/**
+	 * Degenerate case where the cluster contains only a single database.
+	 * Invokes directly on the calling thread, bypassing the executor.
+	 */
+	private static <Z, D extends Database<Z>, T, R, E extends Exception> Map.Entry<SortedMap<D, R>, SortedMap<D, E>> collectResult(ProxyFactory<Z, D, T, E> factory, Invoker<Z, D, T, R, E> invoker, D database)
+	{
+		try
+		{
+			R result = invoker.invoke(database, factory.get(database));
+			
+			// Result map must remain mutable, since it may back a child proxy factory
+			SortedMap<D, R> resultMap = new ArraySortedMap<>(1);
+			resultMap.put(database, result);
+			
+			return new AbstractMap.SimpleImmutableEntry<>(resultMap, Collections.<D, E>emptySortedMap());
+		}
+		catch (Exception e)
+		{
+			// If this database was concurrently deactivated, just ignore the failure
+			SortedMap<D, E> exceptionMap = factory.getDatabaseCluster().getBalancer().contains(database) ? Collections.singletonSortedMap(database, factory.getExceptionFactory().createException(e)) : Collections.<D, E>emptySortedMap();
+			
+			return new AbstractMap.SimpleImmutableEntry<>(Collections.<D, R>emptySortedMap(), exceptionMap);
+		}
+	}
+	
+	private static class Invocation<Z, D extends Database<Z>, T, R, E extends Exception> implements Callable<R>, PartitionedTask
 	{
 		private final Invoker<Z, D, T, R, E> invoker;
 		private final D database;
@@ -136,6 +257,16 @@ public class AllResultsCollector implements InvokeOnManyInvocationStrategy.Resul
 			return this.database;
 		}
 		
+		/**
+		 * {@inheritDoc}
+		 * @see net.sf.hajdbc.util.concurrent.PartitionedTask#getPartition()
+		 */
+		@Override
+		public Object getPartition()
+		{
+			return this.database;
+		}
+		
 		/**
 		 * {@inheritDoc}
 		 * @see java.util.concurrent.Callable#call()
@@ -20,11 +20,11 @@ package net.sf.hajdbc.invocation;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.AbstractMap;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.util.ArraySortedMap;
 
 /**
  * @author Paul Ferraro
@@ -35,8 +35,8 @@ public class ExistingResultsCollector implements InvokeOnManyInvocationStrategy.
 	@Override
 	public <Z, D extends Database<Z>, T, R, E extends Exception> Entry<SortedMap<D, R>, SortedMap<D, E>> collectResults(ProxyFactory<Z, D, T, E> factory, Invoker<Z, D, T, R, E> invoker)
 	{
-		SortedMap<D, R> resultMap = new TreeMap<>();
-		SortedMap<D, E> exceptionMap = new TreeMap<>();
+		SortedMap<D, R> resultMap = new ArraySortedMap<>();
+		SortedMap<D, E> exceptionMap = new ArraySortedMap<>(0);
 
 		for (Map.Entry<D, T> entry: factory.entries())
 		{
@@ -0,0 +1,379 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.invocation;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.ExceptionFactory;
+import net.sf.hajdbc.balancer.Balancer;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.util.ArraySortedMap;
+
+/**
+ * Invocation strategy for read-only queries that invokes the next database, and, if it has not responded within a given delay, additionally invokes another database.
+ * The result of whichever database responds first is returned, and the other invocation is cancelled.
+ * The hedging delay is the lesser of the configured delay and the 95th percentile latency of the first database, once sufficient latencies were observed.
+ * Latencies are tracked per strategy instance, thus a strategy instance should not be shared between clusters.
+ * @author Paul Ferraro
+ */
+public class HedgedInvocationStrategy implements InvocationStrategy
+{
+	private static final Messages messages = MessagesFactory.getMessages();
+	private static final Logger logger = LoggerFactory.getLogger(HedgedInvocationStrategy.class);
+	
+	private final long delay;
+	private final ConcurrentMap<Database<?>, LatencyTracker> trackers = new ConcurrentHashMap<>();
+	
+	/**
+	 * Creates a new hedged invocation strategy
+	 * @param delay the maximum time to wait for a database before invoking another
+	 * @param unit the unit of the delay
+	 */
+	public HedgedInvocationStrategy(long delay, TimeUnit unit)
+	{
+		this.delay = unit.toNanos(delay);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * Only the result of the winning database is returned.
+	 */
+	@Override
+	public boolean isSingleDatabase()
+	{
+		return true;
+	}
+	
+	@Override
+	public <Z, D extends Database<Z>, T, R, E extends Exception> SortedMap<D, R> invoke(ProxyFactory<Z, D, T, E> factory, Invoker<Z, D, T, R, E> invoker) throws E
+	{
+		DatabaseCluster<Z, D> cluster = factory.getDatabaseCluster();
+		ExceptionFactory<E> exceptionFactory = factory.getExceptionFactory();
+		Balancer<Z, D> balancer = cluster.getBalancer();
+		
+		while (true)
+		{
+			D database = balancer.next();
+			
+			if (database == null)
+			{
+				throw exceptionFactory.createException(messages.noActiveDatabases(cluster));
+			}
+			
+			CompletionService<R> service = new ExecutorCompletionService<>(cluster.getExecutor());
+			Attempt<Z, D, T, R, E> primary = new Attempt<>(factory, invoker, database);
+			Attempt<Z, D, T, R, E> backup = null;
+			Future<R> primaryFuture = service.submit(primary);
+			
+			try
+			{
+				Future<R> future = service.poll(this.getDelay(database), TimeUnit.NANOSECONDS);
+				
+				if (future == null)
+				{
+					D backupDatabase = this.selectBackup(balancer, database);
+					
+					if (backupDatabase != null)
+					{
+						logger.log(Level.DEBUG, "No response from {0} within hedging delay, invoking {1}", database, backupDatabase);
+						backup = new Attempt<>(factory, invoker, backupDatabase);
+						service.submit(backup);
+					}
+					
+					future = service.take();
+				}
+				
+				Attempt<Z, D, T, R, E> winner = (future == primaryFuture) ? primary : backup;
+				Attempt<Z, D, T, R, E> loser = (future == primaryFuture) ? backup : primary;
+				boolean fallback = false;
+				
+				try
+				{
+					R result = future.get();
+					
+					SortedMap<D, R> resultMap = new ArraySortedMap<>(1);
+					resultMap.put(winner.database, result);
+					return resultMap;
+				}
+				catch (ExecutionException e)
+				{
+					this.handleFailure(cluster, exceptionFactory, winner.database, e.getCause());
+					
+					fallback = (loser != null);
+				}
+				finally
+				{
+					// Cancel the other invocation, unless we fall back to it
+					if ((loser != null) && !fallback)
+					{
+						loser.cancel();
+					}
+				}
+				
+				if (fallback)
+				{
+					try
+					{
+						SortedMap<D, R> resultMap = new ArraySortedMap<>(1);
+						resultMap.put(loser.database, service.take().get());
+						return resultMap;
+					}
+					catch (ExecutionException e)
+					{
+						this.handleFailure(cluster, exceptionFactory, loser.database, e.getCause());
+					}
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				primary.cancel();
+				if (backup != null)
+				{
+					backup.cancel();
+				}
+				throw exceptionFactory.createException(e);
+			}
+		}
+	}
+	
+	/**
+	 * Deactivates the specified database if the specified exception indicates a failure, otherwise rethrows it.
+	 */
+	private <Z, D extends Database<Z>, E extends Exception> void handleFailure(DatabaseCluster<Z, D> cluster, ExceptionFactory<E> exceptionFactory, D database, Throwable cause) throws E
+	{
+		E exception = exceptionFactory.createException(cause);
+		
+		// If this database was concurrently deactivated, just ignore the failure
+		if (cluster.getBalancer().contains(database))
+		{
+			if (!exceptionFactory.indicatesFailure(exception, cluster.getDialect()))
+			{
+				throw exception;
+			}
+			
+			if (cluster.deactivate(database, cluster.getStateManager()))
+			{
+				logger.log(Level.ERROR, exception, messages.deactivated(cluster, database));
+			}
+		}
+	}
+	
+	private <Z, D extends Database<Z>> D selectBackup(Balancer<Z, D> balancer, D database)
+	{
+		D backup = balancer.next();
+		
+		if ((backup != null) && !backup.equals(database)) return backup;
+		
+		for (D candidate: balancer)
+		{
+			if (!candidate.equals(database)) return candidate;
+		}
+		return null;
+	}
+	
+	private long getDelay(Database<?> database)
+	{
+		LatencyTracker tracker = this.trackers.get(database);
+		long percentile = (tracker != null) ? tracker.getPercentile() : Long.MAX_VALUE;
+		return Math.min(this.delay, percentile);
+	}
+	
+	void record(Database<?> database, long latency)
+	{
+		LatencyTracker tracker = this.trackers.get(database);
+		if (tracker == null)
+		{
+			tracker = new LatencyTracker();
+			LatencyTracker existing = this.trackers.putIfAbsent(database, tracker);
+			if (existing != null)
+			{
+				tracker = existing;
+			}
+		}
+		tracker.record(latency);
+	}
+	
+	/**
+	 * An invocation against a single database, which can be cancelled via {@link Statement#cancel()}.
+	 * Since the statement is shared with subsequent invocations, it is only cancelled while this invocation is in progress.
+	 * To that end, the invocation state is guarded by the monitor of this attempt.
+	 */
+	private class Attempt<Z, D extends Database<Z>, T, R, E extends Exception> implements Callable<R>
+	{
+		final ProxyFactory<Z, D, T, E> factory;
+		final Invoker<Z, D, T, R, E> invoker;
+		final D database;
+		// The object against which the invocation is in progress, if any
+		private T object;
+		private R result;
+		private boolean cancelled = false;
+		
+		Attempt(ProxyFactory<Z, D, T, E> factory, Invoker<Z, D, T, R, E> invoker, D database)
+		{
+			this.factory = factory;
+			this.invoker = invoker;
+			this.database = database;
+		}
+
+		@Override
+		public R call() throws E
+		{
+			T object = this.factory.get(this.database);
+			
+			synchronized (this)
+			{
+				// Skip an invocation that was cancelled before it started
+				if (this.cancelled) return null;
+				
+				this.object = object;
+			}
+			
+			R result = null;
+			boolean completed = false;
+			long start = System.nanoTime();
+			try
+			{
+				result = this.factory.getDatabaseCluster().getBalancer().invoke(this.invoker, this.database, object);
+				completed = true;
+			}
+			finally
+			{
+				long latency = System.nanoTime() - start;
+				boolean discard = false;
+				
+				// Waits for any concurrent cancel() to complete
+				synchronized (this)
+				{
+					this.object = null;
+					this.result = result;
+					discard = this.cancelled;
+				}
+				
+				if (discard)
+				{
+					// Discard the result of a losing invocation
+					close(result);
+				}
+				else if (completed)
+				{
+					HedgedInvocationStrategy.this.record(this.database, latency);
+				}
+			}
+			
+			return result;
+		}
+		
+		void cancel()
+		{
+			R result = null;
+			
+			synchronized (this)
+			{
+				this.cancelled = true;
+				result = this.result;
+				
+				// Only cancel a statement while our invocation is in progress, lest we cancel some subsequent execution
+				if (this.object instanceof Statement)
+				{
+					try
+					{
+						((Statement) this.object).cancel();
+					}
+					catch (SQLException e)
+					{
+						logger.log(Level.DEBUG, e);
+					}
+				}
+			}
+			
+			// The losing invocation may have already completed
+			close(result);
+		}
+		
+		private void close(R result)
+		{
+			if (result instanceof AutoCloseable)
+			{
+				try
+				{
+					((AutoCloseable) result).close();
+				}
+				catch (Exception e)
+				{
+					logger.log(Level.DEBUG, e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tracks the 95th percentile of a sliding window of latencies.
+	 */
+	private static class LatencyTracker
+	{
+		private static final int WINDOW = 128;
+		private static final int MIN_SAMPLES = 20;
+		private static final int RECOMPUTE_INTERVAL = 16;
+		
+		private final long[] samples = new long[WINDOW];
+		private int index = 0;
+		private int count = 0;
+		private int pending = 0;
+		private volatile long percentile = Long.MAX_VALUE;
+		
+		synchronized void record(long latency)
+		{
+			this.samples[this.index] = latency;
+			this.index = (this.index + 1) % WINDOW;
+			this.count = Math.min(this.count + 1, WINDOW);
+			this.pending += 1;
+			
+			if ((this.count >= MIN_SAMPLES) && (this.pending >= RECOMPUTE_INTERVAL))
+			{
+				this.pending = 0;
+				long[] sorted = Arrays.copyOf(this.samples, this.count);
+				Arrays.sort(sorted);
+				this.percentile = sorted[(sorted.length * 95) / 100];
+			}
+		}
+		
+		long getPercentile()
+		{
+			return this.percentile;
+		}
+	}
+}
@@ -10,13 +10,14 @@ import net.sf.hajdbc.sql.ProxyFactory;
 
 public enum InvocationStrategies implements InvocationStrategy
 {
-	INVOKE_ON_ALL(new InvokeOnManyInvocationStrategy(new AllResultsCollector(new StandardExecutorProvider()))),
+	INVOKE_ON_ALL(new InvokeOnManyInvocationStrategy(new AllResultsCollector(new StandardExecutorProvider(), true))),
 	INVOKE_ON_ANY(new InvokeOnAnyInvocationStrategy(new InvokeOnOneInvocationStrategy(new NextDatabaseSelector()))),
 	INVOKE_ON_EXISTING(new InvokeOnManyInvocationStrategy(new ExistingResultsCollector())),
+	CONCURRENT_INVOKE_ON_EXISTING(new InvokeOnManyInvocationStrategy(new AllResultsCollector(new StandardExecutorProvider(), true, true))),
 	INVOKE_ON_NEXT(new InvokeOnOneInvocationStrategy(new NextDatabaseSelector())),
 	INVOKE_ON_PRIMARY(new InvokeOnOneInvocationStrategy(new PrimaryDatabaseSelector())),
-	TRANSACTION_INVOKE_ON_ALL(new InvokeOnManyInvocationStrategy(new AllResultsCollector(new TransactionalExecutorProvider(false)))),
-	END_TRANSACTION_INVOKE_ON_ALL(new InvokeOnManyInvocationStrategy(new AllResultsCollector(new TransactionalExecutorProvider(true)))),
+	TRANSACTION_INVOKE_ON_ALL(new InvokeOnManyInvocationStrategy(new AllResultsCollector(new TransactionalExecutorProvider(false), true))),
+	END_TRANSACTION_INVOKE_ON_ALL(new InvokeOnManyInvocationStrategy(new AllResultsCollector(new TransactionalExecutorProvider(true), true))),
 	;
 	
 	private static final Logger logger = LoggerFactory.getLogger(SimpleInvoker.class);
@@ -31,7 +32,16 @@ public enum InvocationStrategies implements InvocationStrategy
 	@Override
 	public <Z, D extends Database<Z>, T, R, E extends Exception> SortedMap<D, R> invoke(ProxyFactory<Z, D, T, E> map, Invoker<Z, D, T, R, E> invoker) throws E
 	{
-		logger.log(Level.TRACE, "Invoking {0} using {1} strategy.", invoker, this);
+		if (logger.isEnabled(Level.TRACE))
+		{
+			logger.log(Level.TRACE, "Invoking {0} using {1} strategy.", invoker, this);
+		}
 		return this.strategy.invoke(map, invoker);
 	}
+
+	@Override
+	public boolean isSingleDatabase()
+	{
+		return this.strategy.isSingleDatabase();
+	}
 }
\ No newline at end of file
@@ -8,4 +8,13 @@ import net.sf.hajdbc.sql.ProxyFactory;
 public interface InvocationStrategy
 {
 	<Z, D extends Database<Z>, T, R, E extends Exception> SortedMap<D, R> invoke(ProxyFactory<Z, D, T, E> proxy, Invoker<Z, D, T, R, E> invoker) throws E;
+	
+	/**
+	 * Indicates whether this strategy returns the result of a single database only, e.g. of a read.
+	 * @return true, if the results of this strategy never contain more than one database, false otherwise
+	 */
+	default boolean isSingleDatabase()
+	{
+		return false;
+	}
 }
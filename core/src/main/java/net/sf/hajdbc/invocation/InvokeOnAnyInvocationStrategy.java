@@ -19,7 +19,6 @@ package net.sf.hajdbc.invocation;
 
 import java.util.Map;
 import java.util.SortedMap;
-import java.util.TreeMap;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
@@ -33,6 +32,7 @@ import net.sf.hajdbc.messages.Messages;
 import net.sf.hajdbc.messages.MessagesFactory;
 import net.sf.hajdbc.sql.ProxyFactory;
 import net.sf.hajdbc.state.StateManager;
+import net.sf.hajdbc.util.ArraySortedMap;
 
 /**
  * @author Paul Ferraro
@@ -71,7 +71,7 @@ public class InvokeOnAnyInvocationStrategy implements InvocationStrategy
 				{
 					R result = invoker.invoke(database, entry.getValue());
 					
-					SortedMap<D, R> resultMap = new TreeMap<>();
+					SortedMap<D, R> resultMap = new ArraySortedMap<>(1);
 					resultMap.put(database, result);
 					return resultMap;
 				}
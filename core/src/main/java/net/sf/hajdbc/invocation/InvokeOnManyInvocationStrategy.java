@@ -68,6 +68,12 @@ public class InvokeOnManyInvocationStrategy implements InvocationStrategy
 		
 		if (!exceptionMap.isEmpty())
 		{
+			// If the only database invoked threw an exception, there is nothing to reconcile
+			if (resultMap.isEmpty() && (exceptionMap.size() == 1))
+			{
+				throw exceptionMap.get(exceptionMap.firstKey());
+			}
+			
 			DatabaseCluster<Z, D> cluster = factory.getDatabaseCluster();
 			Dialect dialect = cluster.getDialect();
 			
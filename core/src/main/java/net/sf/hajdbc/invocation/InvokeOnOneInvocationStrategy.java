@@ -18,7 +18,6 @@
 package net.sf.hajdbc.invocation;
 
 import java.util.SortedMap;
-import java.util.TreeMap;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
@@ -32,6 +31,7 @@ import net.sf.hajdbc.messages.Messages;
 import net.sf.hajdbc.messages.MessagesFactory;
 import net.sf.hajdbc.sql.ProxyFactory;
 import net.sf.hajdbc.state.StateManager;
+import net.sf.hajdbc.util.ArraySortedMap;
 
 /**
  * @author paul
@@ -81,7 +81,7 @@ public class InvokeOnOneInvocationStrategy implements InvocationStrategy
 			{
 				R result = balancer.invoke(invoker, database, object);
 				
-				SortedMap<D, R> resultMap = new TreeMap<>();
+				SortedMap<D, R> resultMap = new ArraySortedMap<>(1);
 				resultMap.put(database, result);
 				return resultMap;
 			}
@@ -107,4 +107,10 @@ public class InvokeOnOneInvocationStrategy implements InvocationStrategy
 			}
 		}
 	}
+	
+	@Override
+	public boolean isSingleDatabase()
+	{
+		return true;
+	}
 }
@@ -49,7 +49,10 @@ public class SimpleInvoker<Z, D extends Database<Z>, T, R, E extends Exception>
 	@Override
 	public R invoke(D database, T object) throws E
 	{
-		logger.log(Level.TRACE, "Invoking {0} against {1}", this.method, database);
+		if (logger.isEnabled(Level.TRACE))
+		{
+			logger.log(Level.TRACE, "Invoking {0} against {1}", this.method, database);
+		}
 		return Methods.<R, E>invoke(this.method, this.exceptionFactory, object, this.parameters);
 	}
 
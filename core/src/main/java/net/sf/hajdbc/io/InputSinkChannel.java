@@ -17,6 +17,7 @@
  */
 package net.sf.hajdbc.io;
 
+import java.io.Closeable;
 import java.io.IOException;
 
 /**
@@ -31,5 +32,34 @@ public interface InputSinkChannel<I, S>
 	
 	S write(I input) throws IOException;
 	
+	/**
+	 * Writes the specified input to a new sink, taking ownership of the input, i.e. closing it once it was consumed.
+	 * By default, the input is consumed, then closed, before this method returns.
+	 * @param input an input owned by the caller, e.g. the stream of a LOB
+	 * @return a sink
+	 * @throws IOException if the input could not be written
+	 */
+	default S consume(I input) throws IOException
+	{
+		try
+		{
+			return this.write(input);
+		}
+		finally
+		{
+			if (input instanceof Closeable)
+			{
+				try
+				{
+					((Closeable) input).close();
+				}
+				catch (IOException e)
+				{
+					// Ignore, since the input was already consumed
+				}
+			}
+		}
+	}
+	
 	I read(S sink) throws IOException;
 }
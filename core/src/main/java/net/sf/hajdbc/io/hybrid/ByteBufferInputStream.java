@@ -0,0 +1,114 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.hybrid;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream that reads a sequence of byte buffers.
+ * @author Paul Ferraro
+ */
+class ByteBufferInputStream extends InputStream
+{
+	private ByteBuffer[] buffers;
+	private int index = 0;
+	
+	ByteBufferInputStream(ByteBuffer... buffers)
+	{
+		this.buffers = buffers;
+	}
+
+	/**
+	 * Returns the current buffer, or null if all buffers were read.
+	 */
+	private ByteBuffer current()
+	{
+		while (this.index < this.buffers.length)
+		{
+			ByteBuffer buffer = this.buffers[this.index];
+			if (buffer.hasRemaining()) return buffer;
+			this.index += 1;
+		}
+		return null;
+	}
+	
+	@Override
+	public int read()
+	{
+		ByteBuffer buffer = this.current();
+		return (buffer != null) ? buffer.get() & 0xFF : -1;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length)
+	{
+		if (length == 0) return 0;
+		
+		int read = 0;
+		ByteBuffer buffer = this.current();
+		
+		if (buffer == null) return -1;
+		
+		while ((buffer != null) && (read < length))
+		{
+			int count = Math.min(buffer.remaining(), length - read);
+			buffer.get(bytes, offset + read, count);
+			read += count;
+			buffer = this.current();
+		}
+		
+		return read;
+	}
+
+	@Override
+	public long skip(long bytes)
+	{
+		long skipped = 0;
+		ByteBuffer buffer = this.current();
+		
+		while ((buffer != null) && (skipped < bytes))
+		{
+			int count = (int) Math.min(buffer.remaining(), bytes - skipped);
+			buffer.position(buffer.position() + count);
+			skipped += count;
+			buffer = this.current();
+		}
+		
+		return skipped;
+	}
+
+	@Override
+	public int available()
+	{
+		long available = 0;
+		for (int i = this.index; i < this.buffers.length; ++i)
+		{
+			available += this.buffers[i].remaining();
+		}
+		return (int) Math.min(available, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public void close()
+	{
+		// Drop the buffers, such that this stream no longer accesses them
+		this.buffers = new ByteBuffer[0];
+		this.index = 0;
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.hybrid;
+
+import net.sf.hajdbc.io.InputSinkProvider;
+import net.sf.hajdbc.io.InputSinkStrategy;
+
+/**
+ * Provider of an input sink strategy that buffers small inputs in pooled off-heap memory, and spills large inputs to a memory-mapped file.
+ * @author Paul Ferraro
+ */
+public class HybridInputSinkProvider implements InputSinkProvider
+{
+	@Override
+	public String getId()
+	{
+		return "hybrid";
+	}
+
+	@Override
+	public InputSinkStrategy<? extends Object> createInputSinkStrategy()
+	{
+		return new HybridInputSinkStrategy();
+	}
+}
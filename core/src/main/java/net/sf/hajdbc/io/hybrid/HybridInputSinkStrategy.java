@@ -0,0 +1,148 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.hybrid;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+import net.sf.hajdbc.io.InputSinkStrategy;
+import net.sf.hajdbc.util.SystemProperties;
+
+/**
+ * Input sink strategy that buffers inputs in direct byte buffer segments, drawn from a bounded pool.
+ * Inputs exceeding a threshold are spilled to a temp file, which is memory-mapped when read.
+ * Small inputs thereby avoid both heap allocation and file system calls, while large inputs are not constrained by memory.
+ * The following system properties are supported:
+ * <table>
+ * 	<tr>
+ * 		<th>Property</th>
+ * 		<th>Default</th>
+ * 	</tr>
+ * 	<tr>
+ * 		<td>ha-jdbc.input-sink.hybrid.threshold</td>
+ * 		<td>1048576</td>
+ * 	</tr>
+ * 	<tr>
+ * 		<td>ha-jdbc.input-sink.hybrid.segment-size</td>
+ * 		<td>8192</td>
+ * 	</tr>
+ * 	<tr>
+ * 		<td>ha-jdbc.input-sink.hybrid.pool-size</td>
+ * 		<td>512</td>
+ * 	</tr>
+ * </table>
+ * @author Paul Ferraro
+ */
+public class HybridInputSinkStrategy implements InputSinkStrategy<HybridSink>
+{
+	static final String TEMP_FILE_SUFFIX = ".lob";
+	
+	static final String THRESHOLD = "ha-jdbc.input-sink.hybrid.threshold";
+	static final String SEGMENT_SIZE = "ha-jdbc.input-sink.hybrid.segment-size";
+	static final String POOL_SIZE = "ha-jdbc.input-sink.hybrid.pool-size";
+	
+	private final long threshold;
+	private final int segmentSize;
+	private final int poolSize;
+	private final Queue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pooled = new AtomicInteger();
+	
+	public HybridInputSinkStrategy()
+	{
+		this(Long.parseLong(SystemProperties.getSystemProperty(THRESHOLD, "1048576")), Integer.parseInt(SystemProperties.getSystemProperty(SEGMENT_SIZE, Integer.toString(InputSinkChannel.BUFFER_SIZE))), Integer.parseInt(SystemProperties.getSystemProperty(POOL_SIZE, "512")));
+	}
+	
+	/**
+	 * Creates a new hybrid input sink strategy.
+	 * @param threshold the number of bytes above which an input is spilled to a file
+	 * @param segmentSize the size of each direct buffer segment
+	 * @param poolSize the maximum number of idle segments retained for reuse
+	 */
+	public HybridInputSinkStrategy(long threshold, int segmentSize, int poolSize)
+	{
+		if (segmentSize <= 0)
+		{
+			throw new IllegalArgumentException(Integer.toString(segmentSize));
+		}
+		this.threshold = threshold;
+		this.segmentSize = segmentSize;
+		this.poolSize = poolSize;
+	}
+	
+	@Override
+	public InputSinkChannel<InputStream, HybridSink> createInputStreamChannel()
+	{
+		return new HybridInputStreamSinkChannel(this);
+	}
+
+	@Override
+	public InputSinkChannel<Reader, HybridSink> createReaderChannel()
+	{
+		return new HybridReaderSinkChannel(this);
+	}
+
+	@Override
+	public void close(HybridSink sink)
+	{
+		sink.close(this);
+	}
+
+	long getThreshold()
+	{
+		return this.threshold;
+	}
+
+	int getSegmentSize()
+	{
+		return this.segmentSize;
+	}
+
+	/**
+	 * Acquires an empty segment, allocating a new one if the pool is empty.
+	 */
+	ByteBuffer acquire()
+	{
+		ByteBuffer segment = this.pool.poll();
+		
+		if (segment == null) return ByteBuffer.allocateDirect(this.segmentSize);
+		
+		this.pooled.decrementAndGet();
+		return segment;
+	}
+	
+	/**
+	 * Returns the specified segment to the pool, unless the pool is full.
+	 */
+	void release(ByteBuffer segment)
+	{
+		if (this.pooled.incrementAndGet() <= this.poolSize)
+		{
+			segment.clear();
+			this.pool.offer(segment);
+		}
+		else
+		{
+			this.pooled.decrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.hybrid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+
+/**
+ * Input stream channel for writing to, and reading from, a hybrid sink.
+ * @author Paul Ferraro
+ */
+public class HybridInputStreamSinkChannel implements InputSinkChannel<InputStream, HybridSink>
+{
+	private final HybridInputSinkStrategy strategy;
+	
+	public HybridInputStreamSinkChannel(HybridInputSinkStrategy strategy)
+	{
+		this.strategy = strategy;
+	}
+	
+	@Override
+	public HybridSink write(InputStream input) throws IOException
+	{
+		HybridSinkOutput output = new HybridSinkOutput(this.strategy);
+		try
+		{
+			ReadableByteChannel channel = Channels.newChannel(input);
+			
+			while (channel.read(output.buffer(1)) >= 0)
+			{
+				// Keep reading
+			}
+			
+			return output.finish();
+		}
+		catch (IOException | RuntimeException e)
+		{
+			output.abort();
+			throw e;
+		}
+	}
+
+	@Override
+	public InputStream read(HybridSink sink) throws IOException
+	{
+		return sink.getInputStream();
+	}
+}
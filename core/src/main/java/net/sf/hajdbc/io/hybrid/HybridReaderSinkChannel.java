@@ -0,0 +1,92 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.hybrid;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+
+/**
+ * Reader channel for writing to, and reading from, a hybrid sink.
+ * Characters are encoded as UTF-8 directly into the segments of the sink.
+ * @author Paul Ferraro
+ */
+public class HybridReaderSinkChannel implements InputSinkChannel<Reader, HybridSink>
+{
+	private static final Charset CHARSET = StandardCharsets.UTF_8;
+	// Enough to accommodate any encoded character, including surrogate pairs
+	private static final int MAX_BYTES_PER_CHARACTER = 4;
+	
+	private final HybridInputSinkStrategy strategy;
+	
+	public HybridReaderSinkChannel(HybridInputSinkStrategy strategy)
+	{
+		this.strategy = strategy;
+	}
+	
+	@Override
+	public HybridSink write(Reader reader) throws IOException
+	{
+		CharsetEncoder encoder = CHARSET.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer buffer = CharBuffer.allocate(BUFFER_SIZE);
+		HybridSinkOutput output = new HybridSinkOutput(this.strategy);
+		try
+		{
+			boolean end = false;
+			
+			while (!end)
+			{
+				end = (reader.read(buffer) < 0);
+				buffer.flip();
+				CoderResult result = encoder.encode(buffer, output.buffer(MAX_BYTES_PER_CHARACTER), end);
+				while (result.isOverflow())
+				{
+					result = encoder.encode(buffer, output.buffer(MAX_BYTES_PER_CHARACTER), end);
+				}
+				// Retain any incomplete surrogate pair
+				buffer.compact();
+			}
+			
+			while (encoder.flush(output.buffer(MAX_BYTES_PER_CHARACTER)).isOverflow())
+			{
+				// Keep flushing
+			}
+			
+			return output.finish();
+		}
+		catch (IOException | RuntimeException e)
+		{
+			output.abort();
+			throw e;
+		}
+	}
+
+	@Override
+	public Reader read(HybridSink sink) throws IOException
+	{
+		return new InputStreamReader(sink.getInputStream(), CHARSET);
+	}
+}
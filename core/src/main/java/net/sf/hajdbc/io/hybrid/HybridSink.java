@@ -0,0 +1,180 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.hybrid;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+import net.sf.hajdbc.util.Files;
+
+/**
+ * The sink of a {@link HybridInputSinkStrategy}, backed either by direct byte buffer segments, or by a temp file.
+ * Each reader of a sink reads from its own view of the sink, such that a sink may be read concurrently.
+ * A memory-based sink must not be closed while it is being read, since closing releases its segments.
+ * The memory mapping of a file-based sink is released only once the sink, and all of its readers, are closed.
+ * @author Paul Ferraro
+ */
+public class HybridSink
+{
+	private final List<ByteBuffer> segments;
+	private final File file;
+	private final long size;
+	// Lazily mapped on first read
+	private MappedByteBuffer mapped = null;
+	// The number of open readers of the mapping
+	private int readers = 0;
+	private boolean closed = false;
+	
+	HybridSink(List<ByteBuffer> segments, long size)
+	{
+		this.segments = segments;
+		this.file = null;
+		this.size = size;
+	}
+	
+	HybridSink(File file, long size)
+	{
+		this.segments = null;
+		this.file = file;
+		this.size = size;
+	}
+	
+	/**
+	 * Returns the number of bytes in this sink.
+	 * @return a number of bytes
+	 */
+	public long size()
+	{
+		return this.size;
+	}
+	
+	/**
+	 * Indicates whether this sink was spilled to a file.
+	 * @return true, if this sink is file-based, false if it is memory-based
+	 */
+	public boolean isSpilled()
+	{
+		return this.file != null;
+	}
+	
+	InputStream getInputStream() throws IOException
+	{
+		if (this.file == null)
+		{
+			ByteBuffer[] buffers = new ByteBuffer[this.segments.size()];
+			for (int i = 0; i < buffers.length; ++i)
+			{
+				buffers[i] = this.segments.get(i).asReadOnlyBuffer();
+			}
+			return new ByteBufferInputStream(buffers);
+		}
+		
+		// Mapped buffers are limited to 2GB
+		if (this.size > Integer.MAX_VALUE)
+		{
+			return new BufferedInputStream(new FileInputStream(this.file), InputSinkChannel.BUFFER_SIZE);
+		}
+		
+		return this.createReader();
+	}
+	
+	private synchronized InputStream createReader() throws IOException
+	{
+		if (this.closed)
+		{
+			throw new IOException(this.file.getPath());
+		}
+		if (this.mapped == null)
+		{
+			try (RandomAccessFile file = new RandomAccessFile(this.file, "r"))
+			{
+				// Mapping remains valid after the channel is closed
+				this.mapped = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, this.size);
+			}
+		}
+		this.readers += 1;
+		return new ByteBufferInputStream(this.mapped.asReadOnlyBuffer())
+		{
+			private boolean open = true;
+			
+			@Override
+			public void close()
+			{
+				if (this.open)
+				{
+					this.open = false;
+					super.close();
+					HybridSink.this.closeReader();
+				}
+			}
+		};
+	}
+	
+	synchronized void closeReader()
+	{
+		this.readers -= 1;
+		if (this.closed && (this.readers == 0))
+		{
+			this.unmap();
+		}
+	}
+	
+	private void unmap()
+	{
+		if (this.mapped != null)
+		{
+			Files.unmap(this.mapped);
+			this.mapped = null;
+		}
+	}
+	
+	void close(HybridInputSinkStrategy strategy)
+	{
+		if (this.file != null)
+		{
+			synchronized (this)
+			{
+				this.closed = true;
+				// Release the mapping before deleting its file, unless it is still being read, in which case the last reader releases it
+				if (this.readers == 0)
+				{
+					this.unmap();
+				}
+			}
+			// If still mapped, the file may only be deleted on exit on some platforms
+			Files.delete(this.file);
+		}
+		else
+		{
+			for (ByteBuffer segment: this.segments)
+			{
+				strategy.release(segment);
+			}
+			this.segments.clear();
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.hybrid;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.hajdbc.util.Files;
+
+/**
+ * Accumulates the content of a {@link HybridSink}.
+ * Content is written to pooled segments until the threshold of the strategy is reached, after which all content is spilled to a temp file.
+ * @author Paul Ferraro
+ */
+class HybridSinkOutput
+{
+	private final HybridInputSinkStrategy strategy;
+	private final List<ByteBuffer> segments = new ArrayList<>();
+	private ByteBuffer buffer = null;
+	// Indicates whether the segments reached the threshold, in which case the current buffer is not a segment
+	private boolean overflow = false;
+	private File file = null;
+	private FileChannel channel = null;
+	
+	HybridSinkOutput(HybridInputSinkStrategy strategy)
+	{
+		this.strategy = strategy;
+	}
+	
+	/**
+	 * Returns a buffer into which to write content.
+	 * @param minimum the minimum number of bytes that the returned buffer must be able to accept
+	 * @return a buffer with at least the specified number of bytes remaining
+	 * @throws IOException if content could not be spilled to a file
+	 */
+	ByteBuffer buffer(int minimum) throws IOException
+	{
+		if ((this.buffer != null) && (this.buffer.remaining() >= minimum)) return this.buffer;
+		
+		if (this.overflow)
+		{
+			this.flush();
+		}
+		else if ((this.buffer != null) && ((long) this.segments.size() * this.strategy.getSegmentSize() >= this.strategy.getThreshold()))
+		{
+			// Defer spilling until content is actually written beyond the threshold
+			this.buffer = this.strategy.acquire();
+			this.overflow = true;
+		}
+		else
+		{
+			this.buffer = this.strategy.acquire();
+			this.segments.add(this.buffer);
+		}
+		
+		return this.buffer;
+	}
+	
+	private void spill() throws IOException
+	{
+		this.file = Files.createTempFile(HybridInputSinkStrategy.TEMP_FILE_SUFFIX);
+		this.channel = new FileOutputStream(this.file).getChannel();
+		
+		for (ByteBuffer segment: this.segments)
+		{
+			segment.flip();
+			while (segment.hasRemaining())
+			{
+				this.channel.write(segment);
+			}
+			this.strategy.release(segment);
+		}
+		this.segments.clear();
+	}
+	
+	private void flush() throws IOException
+	{
+		if (this.channel == null)
+		{
+			this.spill();
+		}
+		this.buffer.flip();
+		while (this.buffer.hasRemaining())
+		{
+			this.channel.write(this.buffer);
+		}
+		this.buffer.clear();
+	}
+	
+	/**
+	 * Completes the sink.
+	 * @return a sink containing all written content
+	 * @throws IOException if content could not be written to the file
+	 */
+	HybridSink finish() throws IOException
+	{
+		if (this.overflow)
+		{
+			if ((this.channel != null) || (this.buffer.position() > 0))
+			{
+				this.flush();
+				HybridSink sink = new HybridSink(this.file, this.channel.size());
+				this.strategy.release(this.buffer);
+				this.buffer = null;
+				this.channel.close();
+				this.channel = null;
+				return sink;
+			}
+			
+			// Content did not exceed the threshold
+			this.strategy.release(this.buffer);
+			this.buffer = null;
+		}
+		
+		long size = 0;
+		for (ByteBuffer segment: this.segments)
+		{
+			segment.flip();
+			size += segment.remaining();
+		}
+		return new HybridSink(this.segments, size);
+	}
+	
+	/**
+	 * Discards any written content, following a failure.
+	 */
+	void abort()
+	{
+		if (this.overflow && (this.buffer != null))
+		{
+			this.strategy.release(this.buffer);
+		}
+		if (this.channel != null)
+		{
+			try
+			{
+				this.channel.close();
+			}
+			catch (IOException e)
+			{
+				// Ignore
+			}
+		}
+		if (this.file != null)
+		{
+			Files.delete(this.file);
+		}
+		for (ByteBuffer segment: this.segments)
+		{
+			this.strategy.release(segment);
+		}
+		this.segments.clear();
+		this.buffer = null;
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.tee;
+
+import java.io.InputStream;
+import java.io.Reader;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+import net.sf.hajdbc.io.InputSinkStrategy;
+
+/**
+ * Input sink strategy that fans out each input to its readers as the input is consumed, rather than buffering the entire input up front.
+ * The source is pumped on demand by the furthest reader into a temp file, from which the remaining readers, including those created after the source was exhausted, read at their own pace.
+ * Consequently, the first database receives data immediately, and an input is read only once.
+ * Inputs already held in memory are written eagerly, since there is no latency to hide.
+ * @author Paul Ferraro
+ */
+public class TeeInputSinkStrategy implements InputSinkStrategy<TeeSink>
+{
+	static final String TEMP_FILE_SUFFIX = ".lob";
+	
+	@Override
+	public InputSinkChannel<InputStream, TeeSink> createInputStreamChannel()
+	{
+		return new TeeInputStreamSinkChannel();
+	}
+
+	@Override
+	public InputSinkChannel<Reader, TeeSink> createReaderChannel()
+	{
+		return new TeeReaderSinkChannel();
+	}
+
+	@Override
+	public void close(TeeSink sink)
+	{
+		sink.close();
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.tee;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+
+/**
+ * Input stream channel for writing to, and reading from, a tee sink.
+ * @author Paul Ferraro
+ */
+public class TeeInputStreamSinkChannel implements InputSinkChannel<InputStream, TeeSink>
+{
+	@Override
+	public TeeSink write(InputStream input) throws IOException
+	{
+		return this.write(input, false);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The input is closed by the sink, since the sink consumes it lazily.
+	 */
+	@Override
+	public TeeSink consume(InputStream input) throws IOException
+	{
+		return this.write(input, true);
+	}
+	
+	private TeeSink write(InputStream input, boolean owner) throws IOException
+	{
+		TeeSink sink = new TeeSink(input, owner);
+		
+		// Don't pin in-memory inputs until they are read
+		if (input instanceof ByteArrayInputStream)
+		{
+			drain(sink);
+		}
+		
+		return sink;
+	}
+
+	@Override
+	public InputStream read(TeeSink sink)
+	{
+		return sink.getInputStream();
+	}
+	
+	static void drain(TeeSink sink) throws IOException
+	{
+		try
+		{
+			sink.drain();
+		}
+		catch (IOException e)
+		{
+			sink.close();
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.tee;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+
+/**
+ * Reader channel for writing to, and reading from, a tee sink.
+ * Characters are stored as UTF-16, which is lossless, and trivial to encode incrementally.
+ * @author Paul Ferraro
+ */
+public class TeeReaderSinkChannel implements InputSinkChannel<Reader, TeeSink>
+{
+	static final Charset CHARSET = StandardCharsets.UTF_16BE;
+	
+	@Override
+	public TeeSink write(Reader reader) throws IOException
+	{
+		return this.write(reader, false);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The reader is closed by the sink, since the sink consumes it lazily.
+	 */
+	@Override
+	public TeeSink consume(Reader reader) throws IOException
+	{
+		return this.write(reader, true);
+	}
+	
+	private TeeSink write(Reader reader, boolean owner) throws IOException
+	{
+		TeeSink sink = new TeeSink(new CharacterInputStream(reader), owner);
+		
+		// Don't pin in-memory inputs until they are read
+		if ((reader instanceof CharArrayReader) || (reader instanceof StringReader))
+		{
+			TeeInputStreamSinkChannel.drain(sink);
+		}
+		
+		return sink;
+	}
+
+	@Override
+	public Reader read(TeeSink sink)
+	{
+		return new InputStreamReader(sink.getInputStream(), CHARSET);
+	}
+	
+	/**
+	 * Encodes the characters of a reader as UTF-16BE bytes.
+	 */
+	private static class CharacterInputStream extends InputStream
+	{
+		private final Reader reader;
+		private final char[] chars = new char[BUFFER_SIZE / 2];
+		// Low byte of a partially read character, or -1
+		private int pending = -1;
+		
+		CharacterInputStream(Reader reader)
+		{
+			this.reader = reader;
+		}
+		
+		@Override
+		public int read() throws IOException
+		{
+			if (this.pending >= 0)
+			{
+				int result = this.pending;
+				this.pending = -1;
+				return result;
+			}
+			int c = this.reader.read();
+			if (c < 0) return -1;
+			this.pending = c & 0xFF;
+			return (c >> 8) & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException
+		{
+			if (length == 0) return 0;
+			if ((this.pending >= 0) || (length < 2))
+			{
+				int b = this.read();
+				if (b < 0) return -1;
+				bytes[offset] = (byte) b;
+				return 1;
+			}
+			
+			int count = this.reader.read(this.chars, 0, Math.min(this.chars.length, length / 2));
+			if (count < 0) return -1;
+			
+			for (int i = 0; i < count; ++i)
+			{
+				char c = this.chars[i];
+				bytes[offset + (2 * i)] = (byte) (c >> 8);
+				bytes[offset + (2 * i) + 1] = (byte) c;
+			}
+			return 2 * count;
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			this.reader.close();
+		}
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.tee;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+import net.sf.hajdbc.util.Files;
+
+/**
+ * The sink of a {@link TeeInputSinkStrategy}.
+ * Content is pumped from the source into a temp file, on demand, by whichever reader first requires it.
+ * All readers read from the temp file using positional reads, so content recently pumped is typically served from the page cache.
+ * A failure reading the source is reported to every reader.
+ * If the sink owns its source, the source is closed once exhausted, once it fails, or once the sink is closed, whichever comes first.
+ * @author Paul Ferraro
+ */
+public class TeeSink
+{
+	private final InputStream source;
+	private final boolean owner;
+	// Guarded by this
+	private boolean sourceClosed = false;
+	private final File file;
+	private final FileChannel channel;
+	// Guarded by this
+	private final byte[] buffer = new byte[InputSinkChannel.BUFFER_SIZE];
+	private volatile long size = 0;
+	private volatile boolean complete = false;
+	private volatile IOException failure = null;
+	
+	TeeSink(InputStream source, boolean owner) throws IOException
+	{
+		this.source = source;
+		this.owner = owner;
+		this.file = Files.createTempFile(TeeInputSinkStrategy.TEMP_FILE_SUFFIX);
+		this.channel = new RandomAccessFile(this.file, "rw").getChannel();
+	}
+	
+	/**
+	 * Indicates whether the source was exhausted.
+	 * @return true, if all content was pumped from the source, false otherwise
+	 */
+	public boolean isComplete()
+	{
+		return this.complete;
+	}
+	
+	/**
+	 * Returns the number of bytes pumped from the source so far.
+	 * @return a number of bytes
+	 */
+	public long size()
+	{
+		return this.size;
+	}
+	
+	/**
+	 * Creates a new reader of this sink, starting at the beginning of its content.
+	 * @return an input stream
+	 */
+	InputStream getInputStream()
+	{
+		return new TeeInputStream(this);
+	}
+	
+	/**
+	 * Pumps the remainder of the source.
+	 * @throws IOException if the source could not be read
+	 */
+	void drain() throws IOException
+	{
+		while (this.await(this.size))
+		{
+			// Keep pumping
+		}
+	}
+	
+	/**
+	 * Waits for content at the specified position to become available, pumping the source if necessary.
+	 * @param position a position within this sink
+	 * @return true, if content is available at the specified position, false if the source is exhausted
+	 * @throws IOException if the source could not be read
+	 */
+	boolean await(long position) throws IOException
+	{
+		if (position < this.size) return true;
+		
+		synchronized (this)
+		{
+			while (position >= this.size)
+			{
+				if (this.failure != null)
+				{
+					throw new IOException(this.failure);
+				}
+				if (this.complete) return false;
+				
+				this.pump();
+			}
+			return true;
+		}
+	}
+	
+	private void pump() throws IOException
+	{
+		try
+		{
+			int read = this.source.read(this.buffer);
+			
+			if (read < 0)
+			{
+				this.complete = true;
+				this.closeSource();
+				return;
+			}
+			
+			ByteBuffer bytes = ByteBuffer.wrap(this.buffer, 0, read);
+			long position = this.size;
+			while (bytes.hasRemaining())
+			{
+				position += this.channel.write(bytes, position);
+			}
+			// Publish only after content was written
+			this.size = position;
+		}
+		catch (IOException e)
+		{
+			this.failure = e;
+			this.closeSource();
+			throw e;
+		}
+	}
+	
+	private synchronized void closeSource()
+	{
+		if (this.owner && !this.sourceClosed)
+		{
+			this.sourceClosed = true;
+			try
+			{
+				this.source.close();
+			}
+			catch (IOException e)
+			{
+				// Ignore
+			}
+		}
+	}
+	
+	/**
+	 * Reads content at the specified position, which must already be available.
+	 * @param position a position within this sink
+	 * @param bytes a target buffer
+	 * @param offset the offset of the target buffer
+	 * @param length the maximum number of bytes to read
+	 * @return the number of bytes read
+	 * @throws IOException if the temp file could not be read
+	 */
+	int read(long position, byte[] bytes, int offset, int length) throws IOException
+	{
+		int count = (int) Math.min(length, this.size - position);
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, count);
+		long current = position;
+		while (buffer.hasRemaining())
+		{
+			int read = this.channel.read(buffer, current);
+			if (read < 0)
+			{
+				throw new IOException(this.file.getPath());
+			}
+			current += read;
+		}
+		return count;
+	}
+	
+	void close()
+	{
+		this.closeSource();
+		try
+		{
+			this.channel.close();
+		}
+		catch (IOException e)
+		{
+			// Ignore
+		}
+		Files.delete(this.file);
+	}
+	
+	private static class TeeInputStream extends InputStream
+	{
+		private final TeeSink sink;
+		private final byte[] single = new byte[1];
+		private long position = 0;
+		
+		TeeInputStream(TeeSink sink)
+		{
+			this.sink = sink;
+		}
+		
+		@Override
+		public int read() throws IOException
+		{
+			return (this.read(this.single, 0, 1) > 0) ? this.single[0] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException
+		{
+			if (length == 0) return 0;
+			if (!this.sink.await(this.position)) return -1;
+			
+			int read = this.sink.read(this.position, bytes, offset, length);
+			this.position += read;
+			return read;
+		}
+
+		@Override
+		public long skip(long bytes) throws IOException
+		{
+			long skipped = 0;
+			while ((skipped < bytes) && this.sink.await(this.position))
+			{
+				long count = Math.min(bytes - skipped, this.sink.size() - this.position);
+				this.position += count;
+				skipped += count;
+			}
+			return skipped;
+		}
+
+		@Override
+		public int available()
+		{
+			return (int) Math.min(Math.max(this.sink.size() - this.position, 0), Integer.MAX_VALUE);
+		}
+	}
+}
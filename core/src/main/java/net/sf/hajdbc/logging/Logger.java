@@ -23,6 +23,18 @@ package net.sf.hajdbc.logging;
  */
 public interface Logger
 {
+	/**
+	 * Indicates whether messages of the specified level are logged.
+	 * Used to guard log statements on hot paths, whose varargs would otherwise be allocated regardless of level.
+	 * By default, all levels are assumed to be enabled, so that existing implementations remain compatible.
+	 * @param level a log level
+	 * @return true, if the specified level is enabled, false otherwise
+	 */
+	default boolean isEnabled(Level level)
+	{
+		return true;
+	}
+	
 	void log(Level level, String pattern, Object... args);
 	
 	void log(Level level, Throwable e, String pattern, Object... args);
@@ -46,6 +46,16 @@ public class JDKLogger extends AbstractLogger
 		this.logger = java.util.logging.Logger.getLogger(targetClass.getName());
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.logging.Logger#isEnabled(net.sf.hajdbc.logging.Level)
+	 */
+	@Override
+	public boolean isEnabled(Level level)
+	{
+		return this.logger.isLoggable(levels.get(level));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.logging.Logger#log(net.sf.hajdbc.logging.Level, java.lang.Throwable, java.lang.String, java.lang.Object[])
@@ -80,8 +80,12 @@ public interface Messages
 
 	String noEmbeddedDriverFound();
 
+	String virtualThreadsNotSupported();
+
 	String noDurabilityPhase(Method method);
 
+	String closed(Class<?> proxyClass);
+
 	<Z, D extends Database<Z>> String start(DatabaseCluster<Z, D> cluster);
 	<Z, D extends Database<Z>> String stop(DatabaseCluster<Z, D> cluster);
 	<Z, D extends Database<Z>> String invalidDatabase(DatabaseCluster<Z, D> cluster, String id);
@@ -89,6 +93,7 @@ public interface Messages
 	<Z, D extends Database<Z>> String noActiveDatabases(DatabaseCluster<Z, D> cluster);
 	<Z, D extends Database<Z>> String activated(DatabaseCluster<Z, D> cluster, D database);
 	<Z, D extends Database<Z>> String deactivated(DatabaseCluster<Z, D> cluster, D database);
+	<Z, D extends Database<Z>> String pinnedDatabaseDeactivated(DatabaseCluster<Z, D> cluster, D database);
 	<Z, D extends Database<Z>> String inconsistent(DatabaseCluster<Z, D> cluster, D database, Object actual, Object expected);
 
 	<Z, D extends Database<Z>> String stillActive(DatabaseCluster<Z, D> cluster, D database);
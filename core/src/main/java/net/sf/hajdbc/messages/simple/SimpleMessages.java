@@ -85,6 +85,12 @@ public class SimpleMessages implements Messages
 		return this.tr("{0} has no associated durability phase", method);
 	}
 
+	@Override
+	public String closed(Class<?> proxyClass)
+	{
+		return this.tr("{0} is closed", proxyClass.getSimpleName());
+	}
+
 	@Override
 	public String unsupportedNamespace(XMLStreamReader reader)
 	{
@@ -198,6 +204,12 @@ public class SimpleMessages implements Messages
 		return this.tr("Deactivated database {1} from cluster {0}", cluster, database);
 	}
 
+	@Override
+	public <Z, D extends Database<Z>> String pinnedDatabaseDeactivated(DatabaseCluster<Z, D> cluster, D database)
+	{
+		return this.tr("Read-only transaction failed, since database {1} of cluster {0} was deactivated", cluster, database);
+	}
+
 	@Override
 	public <Z, D extends Database<Z>> String inconsistent(DatabaseCluster<Z, D> cluster, D database, Object expected, Object actual)
 	{
@@ -324,6 +336,12 @@ public class SimpleMessages implements Messages
 		return this.tr("Failed to detect an embedded database driver on the classpath");
 	}
 
+	@Override
+	public String virtualThreadsNotSupported()
+	{
+		return this.tr("Virtual threads are not supported by this JVM, using platform threads instead");
+	}
+
 	@Override
 	public <Z, D extends Database<Z>> String clusterStatePersistence(DatabaseCluster<Z, D> cluster, String url)
 	{
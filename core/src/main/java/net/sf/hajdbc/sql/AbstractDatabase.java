@@ -17,6 +17,8 @@
  */
 package net.sf.hajdbc.sql;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import net.sf.hajdbc.Credentials;
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.Locality;
@@ -34,6 +36,7 @@ public abstract class AbstractDatabase<Z> implements Database<Z>
 	private final Credentials credentials;
 	private final Locality locality;
 	private volatile int weight;
+	private final LongAdder readOnlyTransactions = new LongAdder();
 
 	protected AbstractDatabase(String id, Z connectionSource, Credentials credentials, int weight, Locality locality)
 	{
@@ -88,6 +91,20 @@ public abstract class AbstractDatabase<Z> implements Database<Z>
 		return this.locality;
 	}
 
+	@Override
+	public void incrementReadOnlyTransactions()
+	{
+		this.readOnlyTransactions.increment();
+	}
+
+	@ManagedAttribute
+	@Description("The number of read-only transactions pinned to this database")
+	@Override
+	public long getReadOnlyTransactions()
+	{
+		return this.readOnlyTransactions.sum();
+	}
+
 	@Override
 	public int hashCode()
 	{
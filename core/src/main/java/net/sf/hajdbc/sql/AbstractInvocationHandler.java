@@ -21,11 +21,9 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.SQLException;
 import java.sql.Wrapper;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 
@@ -37,6 +35,7 @@ import net.sf.hajdbc.invocation.InvocationStrategies;
 import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.invocation.SimpleInvoker;
+import net.sf.hajdbc.io.InputSinkRegistry;
 import net.sf.hajdbc.logging.Level;
 import net.sf.hajdbc.logging.Logger;
 import net.sf.hajdbc.logging.LoggerFactory;
@@ -58,6 +57,11 @@ public class AbstractInvocationHandler<Z, D extends Database<Z>, T, E extends Ex
 	private static final Method hashCodeMethod = Methods.getMethod(Object.class, "hashCode");
 	private static final Method toStringMethod = Methods.getMethod(Object.class, "toString");
 	private static final Set<Method> wrapperMethods = Methods.findMethods(Wrapper.class, "isWrapperFor", "unwrap");
+	private static final Set<Method> invokeOnAnyMethods = new HashSet<>(wrapperMethods);
+	static
+	{
+		invokeOnAnyMethods.addAll(Arrays.asList(equalsMethod, hashCodeMethod, toStringMethod));
+	}
 	
 	protected final Logger logger = LoggerFactory.getLogger(this.getClass());
 	private final Class<T> proxyClass;
@@ -94,13 +98,16 @@ public class AbstractInvocationHandler<Z, D extends Database<Z>, T, E extends Ex
 
 		Invoker<Z, D, T, R, E> invoker = this.getInvoker(proxy, method, parameters);
 
-		this.logger.log(Level.TRACE, "Invoking {0} using {1}", method, strategy);
+		if (this.logger.isEnabled(Level.TRACE))
+		{
+			this.logger.log(Level.TRACE, "Invoking {0} using {1}", method, strategy);
+		}
 		SortedMap<D, R> results = strategy.invoke(this.proxyFactory, invoker);
 
 		this.postInvoke(invoker, proxy, method, parameters);
 		
 		@SuppressWarnings("unchecked")
-		ProxyFactoryFactory<Z, D, T, E, R, ? extends Exception> factory = (ProxyFactoryFactory<Z, D, T, E, R, ? extends Exception>) this.getProxyFactoryFactory(proxy, method, parameters);
+		ProxyFactoryFactory<Z, D, T, E, R, ? extends Exception> factory = (ProxyFactoryFactory<Z, D, T, E, R, ? extends Exception>) this.getProxyFactoryFactory(proxy, method, strategy, parameters);
 		InvocationResultFactory<Z, D, R> resultFactory = (factory != null) ? new ProxyInvocationResultFactory<>(factory, proxy, this.getProxyFactory(), invoker) : new SimpleInvocationResultFactory<>();
 		
 		return this.createResult(resultFactory, results);
@@ -114,6 +121,21 @@ public class AbstractInvocationHandler<Z, D extends Database<Z>, T, E extends Ex
 		return null;
 	}
 	
+	/**
+	 * Returns a factory for proxying the results of the specified method, which were produced by the specified strategy.
+	 * By default, delegates to {@link #getProxyFactoryFactory(Object, Method, Object...)}.
+	 * @param object the proxied object
+	 * @param method the invoked method
+	 * @param strategy the strategy that invoked the specified method
+	 * @param parameters the method invocation parameters
+	 * @return a proxy factory factory, or null, if results are not proxied
+	 * @throws E
+	 */
+	protected ProxyFactoryFactory<Z, D, T, E, ?, ? extends Exception> getProxyFactoryFactory(T object, Method method, InvocationStrategy strategy, Object[] parameters) throws E
+	{
+		return this.getProxyFactoryFactory(object, method, parameters);
+	}
+	
 	/**
 	 * Returns the appropriate {@link InvocationStrategy} for the specified method.
 	 * This implementation detects {@link java.sql.Wrapper} methods; and {@link Object#equals}, {@link Object#hashCode()}, and {@link Object#toString()}.
@@ -126,7 +148,7 @@ public class AbstractInvocationHandler<Z, D extends Database<Z>, T, E extends Ex
 	 */
 	protected InvocationStrategy getInvocationStrategy(T object, Method method, Object... parameters) throws E
 	{
-		if (equalsMethod.equals(method) || hashCodeMethod.equals(method) || toStringMethod.equals(method) || wrapperMethods.contains(method))
+		if (invokeOnAnyMethods.contains(method))
 		{
 			return InvocationStrategies.INVOKE_ON_ANY;
 		}
@@ -176,11 +198,12 @@ public class AbstractInvocationHandler<Z, D extends Database<Z>, T, E extends Ex
 						@Override
 						public R invoke(D database, T object) throws E
 						{
-							List<Object> parameterList = new ArrayList<>(Arrays.asList(parameters));
+							// Databases may be invoked concurrently, so each requires its own copy of the parameters
+							Object[] databaseParameters = parameters.clone();
 							
-							parameterList.set(parameterIndex, handler.getProxyFactory().get(database));
+							databaseParameters[parameterIndex] = handler.getProxyFactory().get(database);
 							
-							return Methods.<R, E>invoke(method, exceptionFactory, object, parameterList.toArray());
+							return Methods.<R, E>invoke(method, exceptionFactory, object, databaseParameters);
 						}
 					};
 				}
@@ -191,7 +214,7 @@ public class AbstractInvocationHandler<Z, D extends Database<Z>, T, E extends Ex
 					try
 					{
 						// Create a serial form of the parameter, so it can be used by each database
-						parameters[parameterIndex] = factory.createSerial(parameter);
+						parameters[parameterIndex] = factory.createSerial(parameter, this.getInputSinkRegistry());
 					}
 					catch (SQLException e)
 					{
@@ -204,6 +227,15 @@ public class AbstractInvocationHandler<Z, D extends Database<Z>, T, E extends Ex
 		return this.getInvoker(method, parameters);
 	}
 	
+	/**
+	 * Returns the registry of input sinks into which locator parameters may be streamed.
+	 * @return an input sink registry, or null, if locator parameters must be held in memory
+	 */
+	protected InputSinkRegistry<Object> getInputSinkRegistry()
+	{
+		return null;
+	}
+	
 	private <R> R createResult(InvocationResultFactory<Z, D, R> factory, SortedMap<D, R> resultMap) throws E
 	{
 		DatabaseCluster<Z, D> cluster = this.proxyFactory.getDatabaseCluster();
@@ -213,18 +245,18 @@ public class AbstractInvocationHandler<Z, D extends Database<Z>, T, E extends Ex
 			throw this.proxyFactory.getExceptionFactory().createException(this.messages.noActiveDatabases(cluster));
 		}
 		
-		Iterator<Map.Entry<D, R>> results = resultMap.entrySet().iterator();
-		R primaryResult = results.next().getValue();
+		// Iterate over keys, rather than entries, to avoid entry allocation by array-backed result maps
+		Iterator<D> databases = resultMap.keySet().iterator();
+		R primaryResult = resultMap.get(databases.next());
 		
-		while (results.hasNext())
+		while (databases.hasNext())
 		{
-			Map.Entry<D, R> entry = results.next();
-			R result = entry.getValue();
+			D database = databases.next();
+			R result = resultMap.get(database);
 			
 			if (factory.differs(primaryResult, result))
 			{
-				D database = entry.getKey();
-				results.remove();
+				databases.remove();
 				
 				if (cluster.deactivate(database, cluster.getStateManager()))
 				{
@@ -22,8 +22,11 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
 
 import net.sf.hajdbc.Database;
@@ -31,6 +34,7 @@ import net.sf.hajdbc.invocation.InvocationStrategies;
 import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.invocation.LockingInvocationStrategy;
+import net.sf.hajdbc.util.StaticRegistry;
 import net.sf.hajdbc.util.reflect.Methods;
 
 /**
@@ -43,70 +47,138 @@ public abstract class AbstractPreparedStatementInvocationHandler<Z, D extends Da
 	private static final Set<Method> databaseReadMethodSet = Methods.findMethods(PreparedStatement.class, "getMetaData", "getParameterMetaData");
 	private static final Method executeMethod = Methods.getMethod(PreparedStatement.class, "execute");
 	private static final Method executeUpdateMethod = Methods.getMethod(PreparedStatement.class, "executeUpdate");
+	private static final Method executeLargeUpdateMethod = Methods.getMethod(PreparedStatement.class, "executeLargeUpdate");
 	private static final Method executeQueryMethod = Methods.getMethod(PreparedStatement.class, "executeQuery");
 	private static final Method clearParametersMethod = Methods.getMethod(PreparedStatement.class, "clearParameters");
 	private static final Method addBatchMethod = Methods.getMethod(PreparedStatement.class, "addBatch");
 	
+	private enum PreparedStatementMethod
+	{
+		DATABASE_READ, SET, SET_PARAMETER, CLEAR_PARAMETERS, ADD_BATCH, EXECUTE, EXECUTE_QUERY;
+	}
+	
+	// Set methods, and thus method classifications, are specific to each handler implementation
+	private static final ConcurrentMap<Class<?>, StaticRegistry<Method, PreparedStatementMethod>> preparedStatementMethodRegistries = new ConcurrentHashMap<>();
+	
 	private final Set<Method> setMethods;
+	private final StaticRegistry<Method, PreparedStatementMethod> preparedStatementMethodRegistry;
 	
 	public AbstractPreparedStatementInvocationHandler(Class<S> statementClass, F proxyFactory, Set<Method> setMethods)
 	{
 		super(statementClass, proxyFactory);
 		this.setMethods = setMethods;
+		
+		StaticRegistry<Method, PreparedStatementMethod> registry = preparedStatementMethodRegistries.get(this.getClass());
+		if (registry == null)
+		{
+			registry = Methods.classify(statementClass, this::classify);
+			StaticRegistry<Method, PreparedStatementMethod> existing = preparedStatementMethodRegistries.putIfAbsent(this.getClass(), registry);
+			if (existing != null)
+			{
+				registry = existing;
+			}
+		}
+		this.preparedStatementMethodRegistry = registry;
 	}
 	
-	@Override
-	protected ProxyFactoryFactory<Z, D, S, SQLException, ?, ? extends Exception> getProxyFactoryFactory(S object, Method method, Object... parameters) throws SQLException
+	private PreparedStatementMethod classify(Method method)
 	{
-		if (method.equals(executeQueryMethod))
+		if (databaseReadMethodSet.contains(method)) return PreparedStatementMethod.DATABASE_READ;
+		if (this.setMethods.contains(method))
 		{
-			return new ResultSetProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().getInputSinkRegistry());
+			Class<?>[] types = method.getParameterTypes();
+			// Exclude inherited Statement.set*(...) methods, e.g. setFetchSize(int)
+			return ((types.length > 0) && this.isIndexType(types[0]) && !method.getDeclaringClass().equals(Statement.class)) ? PreparedStatementMethod.SET_PARAMETER : PreparedStatementMethod.SET;
 		}
-		
-		return super.getProxyFactoryFactory(object, method, parameters);
+		if (method.equals(clearParametersMethod)) return PreparedStatementMethod.CLEAR_PARAMETERS;
+		if (method.equals(addBatchMethod)) return PreparedStatementMethod.ADD_BATCH;
+		if (method.equals(executeMethod) || method.equals(executeUpdateMethod) || method.equals(executeLargeUpdateMethod)) return PreparedStatementMethod.EXECUTE;
+		if (method.equals(executeQueryMethod)) return PreparedStatementMethod.EXECUTE_QUERY;
+		return null;
 	}
-
+	
 	/**
-	 * @see net.sf.hajdbc.sql.AbstractStatementInvocationHandler#getInvocationStrategy(java.sql.Statement, java.lang.reflect.Method, java.lang.Object[])
+	 * Parameter bindings are buffered by the proxy factory, and applied to each statement when the statement is executed or batched.
 	 */
+	@SuppressWarnings("unchecked")
 	@Override
-	protected InvocationStrategy getInvocationStrategy(S statement, Method method, Object... parameters) throws SQLException
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
 	{
-		if (databaseReadMethodSet.contains(method))
+		if (this.isSetParameterMethod(method))
 		{
-			return InvocationStrategies.INVOKE_ON_NEXT;
+			Invoker<Z, D, S, Void, SQLException> invoker = this.getInvoker((S) proxy, method, args);
+			
+			this.getProxyFactory().getParameterBindings().bind(args[0], invoker);
+			
+			return null;
 		}
 		
-		if (this.setMethods.contains(method) || method.equals(clearParametersMethod) || method.equals(addBatchMethod))
+		return super.invoke(proxy, method, args);
+	}
+	
+	@Override
+	protected ProxyFactoryFactory<Z, D, S, SQLException, ?, ? extends Exception> getProxyFactoryFactory(S object, Method method, InvocationStrategy strategy, Object[] parameters) throws SQLException
+	{
+		if (this.preparedStatementMethodRegistry.get(method) == PreparedStatementMethod.EXECUTE_QUERY)
 		{
-			return InvocationStrategies.INVOKE_ON_EXISTING;
+			return new ResultSetProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().getInputSinkRegistry(), strategy);
 		}
 		
-		if (method.equals(executeMethod) || method.equals(executeUpdateMethod))
-		{
-			return this.getProxyFactory().getTransactionContext().start(new LockingInvocationStrategy(InvocationStrategies.TRANSACTION_INVOKE_ON_ALL, this.getProxyFactory().getLocks()), this.getProxyFactory().getParentProxy());
-		}
+		return super.getProxyFactoryFactory(object, method, strategy, parameters);
+	}
+
+	/**
+	 * @see net.sf.hajdbc.sql.AbstractStatementInvocationHandler#getInvocationStrategy(java.sql.Statement, java.lang.reflect.Method, java.lang.Object[])
+	 */
+	@Override
+	protected InvocationStrategy getInvocationStrategy(S statement, Method method, Object... parameters) throws SQLException
+	{
+		PreparedStatementMethod type = this.preparedStatementMethodRegistry.get(method);
 		
-		if (method.equals(executeQueryMethod))
+		if (type != null)
 		{
-			List<Lock> locks = this.getProxyFactory().getLocks();
-			int concurrency = statement.getResultSetConcurrency();
-			boolean selectForUpdate = this.getProxyFactory().isSelectForUpdate();
-			
-			if (locks.isEmpty() && (concurrency == ResultSet.CONCUR_READ_ONLY) && !selectForUpdate)
-			{
-				boolean repeatableReadSelect = (statement.getConnection().getTransactionIsolation() >= Connection.TRANSACTION_REPEATABLE_READ);
-				
-				return repeatableReadSelect ? InvocationStrategies.INVOKE_ON_PRIMARY : InvocationStrategies.INVOKE_ON_NEXT;
-			}
-			
-			InvocationStrategy strategy = InvocationStrategies.TRANSACTION_INVOKE_ON_ALL;
-			if (!locks.isEmpty())
+			switch (type)
 			{
-				strategy = new LockingInvocationStrategy(strategy, locks);
+				case DATABASE_READ:
+				{
+					return InvocationStrategies.INVOKE_ON_NEXT;
+				}
+				case SET:
+				case CLEAR_PARAMETERS:
+				case ADD_BATCH:
+				{
+					return InvocationStrategies.INVOKE_ON_EXISTING;
+				}
+				case EXECUTE:
+				{
+					return this.getProxyFactory().getTransactionContext().start(new LockingInvocationStrategy(InvocationStrategies.TRANSACTION_INVOKE_ON_ALL, this.getProxyFactory().getLocks()), this.getProxyFactory().getParentProxy());
+				}
+				case EXECUTE_QUERY:
+				{
+					List<Lock> locks = this.getProxyFactory().getLocks();
+					int concurrency = statement.getResultSetConcurrency();
+					boolean selectForUpdate = this.getProxyFactory().isSelectForUpdate();
+					
+					if (locks.isEmpty() && (concurrency == ResultSet.CONCUR_READ_ONLY) && !selectForUpdate)
+					{
+						if (statement.getConnection().getTransactionIsolation() >= Connection.TRANSACTION_REPEATABLE_READ)
+						{
+							// Repeatable reads use the primary database, unless within a read-only transaction pinned to some other database
+							return this.getProxyFactory().getTransactionContext().read(InvocationStrategies.INVOKE_ON_PRIMARY, this.getProxyFactory().getParentProxy());
+						}
+						
+						return this.getProxyFactory().getDatabaseCluster().getReadInvocationStrategy();
+					}
+					
+					InvocationStrategy strategy = InvocationStrategies.TRANSACTION_INVOKE_ON_ALL;
+					if (!locks.isEmpty())
+					{
+						strategy = new LockingInvocationStrategy(strategy, locks);
+					}
+					
+					return selectForUpdate ? this.getProxyFactory().getTransactionContext().start(strategy, this.getProxyFactory().getParentProxy()) : strategy;
+				}
 			}
-			
-			return selectForUpdate ? this.getProxyFactory().getTransactionContext().start(strategy, this.getProxyFactory().getParentProxy()) : strategy;
 		}
 		
 		return super.getInvocationStrategy(statement, method, parameters);
@@ -115,25 +187,56 @@ public abstract class AbstractPreparedStatementInvocationHandler<Z, D extends Da
 	@Override
 	protected <R> Invoker<Z, D, S, R, SQLException> getInvoker(S statement, final Method method, final Object... parameters) throws SQLException
 	{
-		if (this.isSetParameterMethod(method) && (parameters.length > 1))
+		PreparedStatementMethod type = this.preparedStatementMethodRegistry.get(method);
+		
+		if (type == PreparedStatementMethod.SET_PARAMETER)
 		{
-			return this.getInvoker(method.getParameterTypes()[1], 1, statement, method, parameters);
+			if (parameters.length > 1)
+			{
+				return this.getInvoker(method.getParameterTypes()[1], 1, statement, method, parameters);
+			}
+		}
+		else if ((type == PreparedStatementMethod.EXECUTE) || (type == PreparedStatementMethod.EXECUTE_QUERY) || (type == PreparedStatementMethod.ADD_BATCH))
+		{
+			// Apply buffered parameter bindings prior to execution
+			return this.getProxyFactory().getParameterBindings().bindTo(super.<R>getInvoker(statement, method, parameters));
 		}
 		
 		return super.getInvoker(statement, method, parameters);
 	}
 	
+	@Override
+	protected <R> void postInvoke(Invoker<Z, D, S, R, SQLException> invoker, S statement, Method method, Object... parameters)
+	{
+		if (this.preparedStatementMethodRegistry.get(method) == PreparedStatementMethod.CLEAR_PARAMETERS)
+		{
+			this.getProxyFactory().getParameterBindings().clear();
+		}
+		
+		super.postInvoke(invoker, statement, method, parameters);
+	}
+	
 	@Override
 	protected boolean isBatchMethod(Method method)
 	{
-		return method.equals(addBatchMethod) || method.equals(clearParametersMethod) || this.isSetParameterMethod(method) || super.isBatchMethod(method);
+		// Parameter bindings are captured by each recorded addBatch() invoker
+		return (this.preparedStatementMethodRegistry.get(method) == PreparedStatementMethod.ADD_BATCH) || super.isBatchMethod(method);
+	}
+
+	@Override
+	protected boolean recordBatchStatement(Invoker<Z, D, S, ?, SQLException> invoker, Method method, Object... parameters)
+	{
+		if (this.preparedStatementMethodRegistry.get(method) == PreparedStatementMethod.ADD_BATCH)
+		{
+			this.getProxyFactory().getBatch().addRow(this.getProxyFactory().getParameterBindings(), invoker);
+			return true;
+		}
+		return super.recordBatchStatement(invoker, method, parameters);
 	}
 
 	private boolean isSetParameterMethod(Method method)
 	{
-		Class<?>[] types = method.getParameterTypes();
-		
-		return this.setMethods.contains(method) && (types.length > 0) && this.isIndexType(types[0]);
+		return this.preparedStatementMethodRegistry.get(method) == PreparedStatementMethod.SET_PARAMETER;
 	}
 	
 	protected boolean isIndexType(Class<?> type)
@@ -35,6 +35,7 @@ public abstract class AbstractPreparedStatementProxyFactory<Z, D extends Databas
 {
 	private final List<Lock> locks;
 	private final boolean selectForUpdate;
+	private final ParameterBindings<Z, D, S> parameterBindings = new ParameterBindings<>();
 	
 	protected AbstractPreparedStatementProxyFactory(Connection parent, ProxyFactory<Z, D, Connection, SQLException> parentFactory, Invoker<Z, D, Connection, S, SQLException> invoker, Map<D, S> map, TransactionContext<Z, D> context, List<Lock> locks, boolean selectForUpdate)
 	{
@@ -52,4 +53,17 @@ public abstract class AbstractPreparedStatementProxyFactory<Z, D extends Databas
 	{
 		return this.selectForUpdate;
 	}
+	
+	public ParameterBindings<Z, D, S> getParameterBindings()
+	{
+		return this.parameterBindings;
+	}
+	
+	@Override
+	public void replay(D database, S statement) throws SQLException
+	{
+		super.replay(database, statement);
+		
+		this.parameterBindings.apply(database, statement);
+	}
 }
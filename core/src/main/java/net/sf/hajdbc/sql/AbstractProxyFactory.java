@@ -17,11 +17,11 @@
  */
 package net.sf.hajdbc.sql;
 
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
@@ -33,6 +33,7 @@ import net.sf.hajdbc.logging.Logger;
 import net.sf.hajdbc.logging.LoggerFactory;
 import net.sf.hajdbc.messages.Messages;
 import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.util.ref.ConcurrentWeakSet;
 
 /**
  * 
@@ -44,9 +45,14 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 	protected Logger logger = LoggerFactory.getLogger(this.getClass());
 	
 	private final DatabaseCluster<Z, D> cluster;
-	private final Map<D, T> map;
-	private final Set<ChildProxyFactory<Z, D, T, E, ?, ? extends Exception>> children = Collections.newSetFromMap(new WeakHashMap<ChildProxyFactory<Z, D, T, E, ?, ? extends Exception>, Boolean>());
-	private final Set<Invoker<Z, D, T, ?, E>> invokers = new HashSet<>();
+	// Copy-on-write, so that lookups and iteration need not lock the factory
+	// The map is never modified once published, only replaced
+	private volatile Map<D, T> map;
+	private final Object mapLock = new Object();
+	// Proxy factories do not override equals/hashCode, so identity comparison matches that of the previous WeakHashMap-backed set
+	private final Set<ChildProxyFactory<Z, D, T, E, ?, ? extends Exception>> children = new ConcurrentWeakSet<>();
+	// Keyed by invoker, where invokers of the same method are equal
+	private final ConcurrentMap<Invoker<Z, D, T, ?, E>, Invoker<Z, D, T, ?, E>> invokers = new ConcurrentHashMap<>();
 	private final ExceptionFactory<E> exceptionFactory;
 	
 	/**
@@ -57,6 +63,7 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 	protected AbstractProxyFactory(DatabaseCluster<Z, D> cluster, Map<D, T> map, Class<E> exceptionClass)
 	{
 		this.cluster = cluster;
+		// Adopt the map, which belongs to this factory
 		this.map = map;
 		this.exceptionFactory = ExceptionType.valueOf(exceptionClass).getExceptionFactory();
 	}
@@ -69,7 +76,15 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 
 	protected T remove(D database)
 	{
-		return this.map.remove(database);
+		synchronized (this.mapLock)
+		{
+			if (!this.map.containsKey(database)) return null;
+			
+			Map<D, T> map = new TreeMap<>(this.map);
+			T object = map.remove(database);
+			this.map = map;
+			return object;
+		}
 	}
 
 	/**
@@ -81,40 +96,45 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 		return this.map.entrySet();
 	}
 
-	protected synchronized Iterable<ChildProxyFactory<Z, D, T, E, ?, ? extends Exception>> children()
+	protected Iterable<ChildProxyFactory<Z, D, T, E, ?, ? extends Exception>> children()
 	{
 		return this.children;
 	}
 	
 	@Override
-	public synchronized void addChild(ChildProxyFactory<Z, D, T, E, ?, ? extends Exception> child)
+	public void addChild(ChildProxyFactory<Z, D, T, E, ?, ? extends Exception> child)
 	{
 		this.children.add(child);
 	}
 
 	@Override
-	public synchronized void removeChild(ChildProxyFactory<Z, D, T, E, ?, ? extends Exception> child)
+	public void removeChild(ChildProxyFactory<Z, D, T, E, ?, ? extends Exception> child)
 	{
 		this.children.remove(child);
 	}
 
 	@Override
-	public synchronized final void removeChildren()
+	public final void removeChildren()
 	{
 		this.children.clear();
 	}
 
 	/**
 	 * Returns the underlying SQL object for the specified database.
-	 * If the sql object does not exist (this might be the case if the database was newly activated), it will be created from the stored operation.
+	 * If the sql object does not exist (this might be the case if the database was newly activated, or if statements are created lazily), it will be created from the stored operation.
 	 * Any recorded operations are also executed. If the object could not be created, or if any of the executed operations failed, then the specified database is deactivated.
+	 * Lookups of existing objects do not lock.
 	 * @param database a database descriptor.
 	 * @return an underlying SQL object
 	 */
 	@Override
 	public T get(D database)
 	{
-		synchronized (this.map)
+		T existing = this.map.get(database);
+		
+		if (existing != null) return existing;
+		
+		synchronized (this.mapLock)
 		{
 			T object = this.map.get(database);
 			
@@ -126,7 +146,9 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 					
 					this.replay(database, object);
 					
-					this.map.put(database, object);
+					Map<D, T> map = new TreeMap<>(this.map);
+					map.put(database, object);
+					this.map = map;
 				}
 				catch (Throwable e)
 				{
@@ -147,11 +169,16 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 	public void record(Invoker<Z, D, T, ?, E> invoker)
 	{
 		// Record only the last invocation of a given set*(...) method
-		synchronized (this.invokers)
-		{
-			this.invokers.remove(invoker);
-			this.invokers.add(invoker);
-		}
+		this.invokers.put(invoker, invoker);
+	}
+	
+	/**
+	 * Indicates whether any invocations were recorded for replay against new SQL objects.
+	 * @return true, if invocations were recorded, false otherwise
+	 */
+	protected boolean isRecorded()
+	{
+		return !this.invokers.isEmpty();
 	}
 	
 	/**
@@ -160,20 +187,20 @@ public abstract class AbstractProxyFactory<Z, D extends Database<Z>, TE extends
 	@Override
 	public void replay(D database, T object) throws E
 	{
-		synchronized (this.invokers)
+		for (Invoker<Z, D, T, ?, E> invoker: this.invokers.values())
 		{
-			for (Invoker<Z, D, T, ?, E> invoker: this.invokers)
+			if (this.logger.isEnabled(Level.TRACE))
 			{
 				this.logger.log(Level.TRACE, "Replaying {1}.{2} against database {0}", database, object.getClass().getName(), invoker);
+			}
 
-				try
-				{
-					invoker.invoke(database, object);
-				}
-				catch (Throwable e)
-				{
-					this.exceptionFactory.createException(e);
-				}
+			try
+			{
+				invoker.invoke(database, object);
+			}
+			catch (Throwable e)
+			{
+				this.exceptionFactory.createException(e);
 			}
 		}
 	}
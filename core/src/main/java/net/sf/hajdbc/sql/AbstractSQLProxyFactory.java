@@ -21,6 +21,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,10 +31,12 @@ import java.util.concurrent.locks.Lock;
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
 import net.sf.hajdbc.DatabaseProperties;
-import net.sf.hajdbc.IdentityColumnSupport;
-import net.sf.hajdbc.SequenceSupport;
 import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.cache.SQLAnalysis;
+import net.sf.hajdbc.cache.SQLAnalysisCache;
 import net.sf.hajdbc.dialect.Dialect;
+import net.sf.hajdbc.dialect.LexicalAnalysis;
+import net.sf.hajdbc.dialect.SQLFunction;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.lock.LockManager;
 
@@ -43,6 +46,9 @@ import net.sf.hajdbc.lock.LockManager;
  */
 public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> extends AbstractTransactionalProxyFactory<Z, D, P, T> implements SQLProxyFactory<Z, D, P, T>
 {
+	// The most recent analysis, so that the lock extraction, select-for-update detection, and evaluation of a single execution consult the cache only once
+	private volatile RecentAnalysis recentAnalysis;
+
 	protected AbstractSQLProxyFactory(P parent, ProxyFactory<Z, D, P, SQLException> parentMap, Invoker<Z, D, P, T, SQLException> invoker, Map<D, T> map, TransactionContext<Z, D> context)
 	{
 		super(parent, parentMap, invoker, map, context);
@@ -51,34 +57,46 @@ public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> ex
 	@Override
 	public String evaluate(final String rawSQL)
 	{
-		String sql = rawSQL;
+		Set<SQLFunction.Type> functions = this.getEvaluatedFunctions();
+		
+		if (functions.isEmpty()) return rawSQL;
 		
-		long now = System.currentTimeMillis();
+		Dialect dialect = this.getDatabaseCluster().getDialect();
+		SQLAnalysis analysis = this.getDatabaseCluster().getSQLAnalysisCache().isEnabled() ? this.findAnalysis(rawSQL) : null;
+		LexicalAnalysis lexicalAnalysis = (analysis != null) ? analysis.getEvaluableAnalysis() : dialect.analyze(rawSQL);
 		
+		return (lexicalAnalysis != null) ? dialect.evaluate(lexicalAnalysis, functions, System.currentTimeMillis()) : rawSQL;
+	}
+	
+	/**
+	 * Returns the set of functions for which client-side evaluation is enabled.
+	 */
+	private Set<SQLFunction.Type> getEvaluatedFunctions()
+	{
 		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
-		Dialect dialect = cluster.getDialect();
+		Set<SQLFunction.Type> functions = EnumSet.noneOf(SQLFunction.Type.class);
 		
 		if (cluster.isCurrentTimestampEvaluationEnabled())
 		{
-			sql = dialect.evaluateCurrentTimestamp(sql, new java.sql.Timestamp(now));
+			functions.add(SQLFunction.Type.CURRENT_TIMESTAMP);
 		}
 		
 		if (cluster.isCurrentDateEvaluationEnabled())
 		{
-			sql = dialect.evaluateCurrentDate(sql, new java.sql.Date(now));
+			functions.add(SQLFunction.Type.CURRENT_DATE);
 		}
 		
 		if (cluster.isCurrentTimeEvaluationEnabled())
 		{
-			sql = dialect.evaluateCurrentTime(sql, new java.sql.Time(now));
+			functions.add(SQLFunction.Type.CURRENT_TIME);
 		}
 		
 		if (cluster.isRandEvaluationEnabled())
 		{
-			sql = dialect.evaluateRand(sql);
+			functions.add(SQLFunction.Type.RAND);
 		}
 		
-		return sql;
+		return functions;
 	}
 	
 	@Override
@@ -90,48 +108,20 @@ public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> ex
 	protected List<Lock> extractLocks(Collection<String> statements) throws SQLException
 	{
 		Set<String> identifierSet = new TreeSet<>();
-		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
 		
-		for (String sql: statements)
+		if (this.getDatabaseCluster().getSQLAnalysisCache().isEnabled())
 		{
-			if (cluster.isSequenceDetectionEnabled())
+			for (String sql: statements)
 			{
-				SequenceSupport support = cluster.getDialect().getSequenceSupport();
-				
-				if (support != null)
-				{
-					String sequence = support.parseSequence(sql);
-					
-					if (sequence != null)
-					{
-						identifierSet.add(sequence);
-					}
-				}
+				identifierSet.addAll(this.analyze(sql).getIdentifiers());
 			}
-			
-			if (cluster.isIdentityColumnDetectionEnabled())
+		}
+		else if (this.isIdentifierDetectionEnabled())
+		{
+			Dialect dialect = this.getDatabaseCluster().getDialect();
+			for (String sql: statements)
 			{
-				IdentityColumnSupport support = cluster.getDialect().getIdentityColumnSupport();
-				
-				if (support != null)
-				{
-					String table = support.parseInsertTable(sql);
-					
-					if (table != null)
-					{
-						TableProperties tableProperties = this.getDatabaseProperties().findTable(table);
-						
-						if (tableProperties == null)
-						{
-							throw new SQLException(this.messages.schemaLookupFailed(cluster, table));
-						}
-						
-						if (!tableProperties.getIdentityColumns().isEmpty())
-						{
-							identifierSet.add(tableProperties.getName().getDMLName());
-						}
-					}
-				}
+				identifierSet.addAll(this.parseIdentifiers(dialect.analyze(sql)));
 			}
 		}
 		
@@ -139,7 +129,7 @@ public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> ex
 		
 		if (!identifierSet.isEmpty())
 		{
-			LockManager lockManager = cluster.getLockManager();
+			LockManager lockManager = this.getDatabaseCluster().getLockManager();
 			
 			for (String identifier: identifierSet)
 			{
@@ -150,6 +140,106 @@ public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> ex
 		return lockList;
 	}
 
+	/**
+	 * Returns the analysis of the specified statement, consulting the most recent analysis, then the cluster's SQL analysis cache.
+	 */
+	private SQLAnalysis analyze(String sql) throws SQLException
+	{
+		SQLAnalysis analysis = this.findAnalysis(sql);
+		
+		if (analysis == null)
+		{
+			SQLAnalysisCache cache = this.getDatabaseCluster().getSQLAnalysisCache();
+			long generation = cache.getGeneration();
+			LexicalAnalysis lexicalAnalysis = this.getDatabaseCluster().getDialect().analyze(sql);
+			
+			analysis = new SQLAnalysis(this.parseIdentifiers(lexicalAnalysis), lexicalAnalysis.isSelectForUpdate(), lexicalAnalysis.contains(this.getEvaluatedFunctions()) ? lexicalAnalysis : null);
+			
+			cache.put(sql, analysis);
+			this.recentAnalysis = new RecentAnalysis(sql, generation, analysis);
+		}
+		
+		return analysis;
+	}
+	
+	/**
+	 * Returns the existing analysis of the specified statement, or null if the statement has not been analyzed, or its analysis was evicted.
+	 */
+	private SQLAnalysis findAnalysis(String sql)
+	{
+		SQLAnalysisCache cache = this.getDatabaseCluster().getSQLAnalysisCache();
+		long generation = cache.getGeneration();
+		RecentAnalysis recent = this.recentAnalysis;
+		
+		if ((recent != null) && (recent.generation == generation) && recent.sql.equals(sql))
+		{
+			return recent.analysis;
+		}
+		
+		SQLAnalysis analysis = cache.get(sql);
+		
+		if (analysis != null)
+		{
+			this.recentAnalysis = new RecentAnalysis(sql, generation, analysis);
+		}
+		
+		return analysis;
+	}
+	
+	/**
+	 * Indicates whether any locks may need to be extracted from a statement, i.e. whether sequence or identity column detection is both enabled and supported.
+	 */
+	private boolean isIdentifierDetectionEnabled()
+	{
+		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
+		Dialect dialect = cluster.getDialect();
+		return (cluster.isSequenceDetectionEnabled() && (dialect.getSequenceSupport() != null)) || (cluster.isIdentityColumnDetectionEnabled() && (dialect.getIdentityColumnSupport() != null));
+	}
+	
+	private Set<String> parseIdentifiers(LexicalAnalysis lexicalAnalysis) throws SQLException
+	{
+		Set<String> identifierSet = new TreeSet<>();
+		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
+		
+		if (cluster.isSequenceDetectionEnabled())
+		{
+			if (cluster.getDialect().getSequenceSupport() != null)
+			{
+				String sequence = lexicalAnalysis.getSequence();
+				
+				if (sequence != null)
+				{
+					identifierSet.add(sequence);
+				}
+			}
+		}
+		
+		if (cluster.isIdentityColumnDetectionEnabled())
+		{
+			if (cluster.getDialect().getIdentityColumnSupport() != null)
+			{
+				String table = lexicalAnalysis.getInsertTable();
+				
+				if (table != null)
+				{
+					TableProperties tableProperties = this.getDatabaseProperties().findTable(table);
+					
+					if (tableProperties == null)
+					{
+						throw new SQLException(this.messages.schemaLookupFailed(cluster, table));
+					}
+					
+					if (!tableProperties.getIdentityColumns().isEmpty())
+					{
+						identifierSet.add(tableProperties.getName().getDMLName());
+					}
+				}
+			}
+		}
+		
+		return identifierSet.isEmpty() ? Collections.<String>emptySet() : Collections.unmodifiableSet(identifierSet);
+	}
+
 	private DatabaseProperties getDatabaseProperties() throws SQLException
 	{
 		DatabaseCluster<Z, D> cluster = this.getDatabaseCluster();
@@ -160,7 +250,11 @@ public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> ex
 	@Override
 	public boolean isSelectForUpdate(String sql) throws SQLException
 	{
-		return this.getDatabaseProperties().supportsSelectForUpdate() ? this.getDatabaseCluster().getDialect().isSelectForUpdate(sql) : false;
+		if (!this.getDatabaseCluster().getSQLAnalysisCache().isEnabled())
+		{
+			return this.getDatabaseProperties().supportsSelectForUpdate() && this.getDatabaseCluster().getDialect().isSelectForUpdate(sql);
+		}
+		return this.analyze(sql).isSelectForUpdate() && this.getDatabaseProperties().supportsSelectForUpdate();
 	}
 
 	@Override
@@ -168,4 +262,18 @@ public abstract class AbstractSQLProxyFactory<Z, D extends Database<Z>, P, T> ex
 	{
 		return this.getDatabaseProperties().locatorsUpdateCopy();
 	}
+
+	private static class RecentAnalysis
+	{
+		final String sql;
+		final long generation;
+		final SQLAnalysis analysis;
+		
+		RecentAnalysis(String sql, long generation, SQLAnalysis analysis)
+		{
+			this.sql = sql;
+			this.generation = generation;
+			this.analysis = analysis;
+		}
+	}
 }
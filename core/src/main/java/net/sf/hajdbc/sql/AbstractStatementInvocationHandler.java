@@ -23,6 +23,7 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
@@ -33,6 +34,7 @@ import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.invocation.LockingInvocationStrategy;
 import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.util.StaticRegistry;
 import net.sf.hajdbc.util.reflect.Methods;
 
 /**
@@ -51,92 +53,154 @@ public abstract class AbstractStatementInvocationHandler<Z, D extends Database<Z
 	private static final Method executeQueryMethod = Methods.getMethod(Statement.class, "executeQuery", String.class);
 	private static final Method clearBatchMethod = Methods.getMethod(Statement.class, "clearBatch");
 	private static final Method executeBatchMethod = Methods.getMethod(Statement.class, "executeBatch");
+	private static final Method executeLargeBatchMethod = Methods.getMethod(Statement.class, "executeLargeBatch");
 	private static final Method getMoreResultsMethod = Methods.getMethod(Statement.class, "getMoreResults", Integer.TYPE);
 	private static final Method getResultSetMethod = Methods.getMethod(Statement.class, "getResultSet");
 	private static final Method addBatchMethod = Methods.getMethod(Statement.class, "addBatch", String.class);
 	private static final Method closeMethod = Methods.getMethod(Statement.class, "close");
 	
+	private enum StatementMethod
+	{
+		DRIVER_READ, DRIVER_WRITE, CLOSE, EXECUTE, EXECUTE_QUERY, EXECUTE_BATCH, GET_MORE_RESULTS, GET_RESULT_SET, ADD_BATCH, CLEAR_BATCH;
+	}
+	
+	private static final StaticRegistry<Method, StatementMethod> statementMethodRegistry = Methods.classify(Statement.class, AbstractStatementInvocationHandler::classify);
+	
+	private static StatementMethod classify(Method method)
+	{
+		if (driverReadMethodSet.contains(method)) return StatementMethod.DRIVER_READ;
+		if (driverWriteMethodSet.contains(method)) return StatementMethod.DRIVER_WRITE;
+		if (method.equals(closeMethod)) return StatementMethod.CLOSE;
+		if (executeMethodSet.contains(method)) return StatementMethod.EXECUTE;
+		if (method.equals(executeQueryMethod)) return StatementMethod.EXECUTE_QUERY;
+		if (method.equals(executeBatchMethod) || method.equals(executeLargeBatchMethod)) return StatementMethod.EXECUTE_BATCH;
+		if (method.equals(getMoreResultsMethod)) return StatementMethod.GET_MORE_RESULTS;
+		if (method.equals(getResultSetMethod)) return StatementMethod.GET_RESULT_SET;
+		if (method.equals(addBatchMethod)) return StatementMethod.ADD_BATCH;
+		if (method.equals(clearBatchMethod)) return StatementMethod.CLEAR_BATCH;
+		return null;
+	}
+	
 	public AbstractStatementInvocationHandler(Class<S> statementClass, F proxyFactory)
 	{
 		super(statementClass, proxyFactory, getConnectionMethod);
 	}
 
+	/**
+	 * If batch chunking is enabled, batched statements are only recorded, and are sent to each database upon {@link Statement#executeBatch()} or {@link Statement#executeLargeBatch()}.
+	 */
+	@SuppressWarnings("unchecked")
 	@Override
-	protected ProxyFactoryFactory<Z, D, S, SQLException, ?, ? extends Exception> getProxyFactoryFactory(S object, Method method, Object... parameters) throws SQLException
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
 	{
-		if (method.equals(executeQueryMethod) || method.equals(getResultSetMethod))
+		if ((this.getProxyFactory().getDatabaseCluster().getBatchChunkSize() > 0) && this.isBatchMethod(method))
 		{
-			return new ResultSetProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().getInputSinkRegistry());
+			Invoker<Z, D, S, Void, SQLException> invoker = this.getInvoker((S) proxy, method, args);
+			
+			// Other batch methods, e.g. registerOutParameter(...), are still invoked, then recorded
+			if (this.recordBatchStatement(invoker, method, args))
+			{
+				if (this.logger.isEnabled(Level.TRACE))
+				{
+					this.logger.log(Level.TRACE, "Recording batch method: {0}", invoker);
+				}
+				return null;
+			}
 		}
 		
-		return super.getProxyFactoryFactory(object, method, parameters);
+		return super.invoke(proxy, method, args);
 	}
 
 	@Override
-	protected InvocationStrategy getInvocationStrategy(S statement, Method method, Object... parameters) throws SQLException
+	protected ProxyFactoryFactory<Z, D, S, SQLException, ?, ? extends Exception> getProxyFactoryFactory(S object, Method method, InvocationStrategy strategy, Object[] parameters) throws SQLException
 	{
-		if (driverReadMethodSet.contains(method))
-		{
-			return InvocationStrategies.INVOKE_ON_ANY;
-		}
-		
-		if (driverWriteMethodSet.contains(method) || method.equals(closeMethod))
-		{
-			return InvocationStrategies.INVOKE_ON_EXISTING;
-		}
-		
-		if (executeMethodSet.contains(method))
-		{
-			List<Lock> locks = this.getProxyFactory().extractLocks((String) parameters[0]);
-			
-			return this.getProxyFactory().getTransactionContext().start(new LockingInvocationStrategy(InvocationStrategies.TRANSACTION_INVOKE_ON_ALL, locks), this.getProxyFactory().getParentProxy());
-		}
+		StatementMethod type = statementMethodRegistry.get(method);
 		
-		if (method.equals(executeQueryMethod))
+		if ((type == StatementMethod.EXECUTE_QUERY) || (type == StatementMethod.GET_RESULT_SET))
 		{
-			String sql = (String) parameters[0];
-			
-			List<Lock> locks = this.getProxyFactory().extractLocks(sql);
-			int concurrency = statement.getResultSetConcurrency();
-			boolean selectForUpdate = this.getProxyFactory().isSelectForUpdate(sql);
-			
-			if (locks.isEmpty() && (concurrency == ResultSet.CONCUR_READ_ONLY) && !selectForUpdate)
-			{
-				boolean repeatableReadSelect = (statement.getConnection().getTransactionIsolation() >= Connection.TRANSACTION_REPEATABLE_READ);
-				
-				return repeatableReadSelect ? InvocationStrategies.INVOKE_ON_PRIMARY : InvocationStrategies.INVOKE_ON_NEXT;
-			}
-			
-			InvocationStrategy strategy = InvocationStrategies.TRANSACTION_INVOKE_ON_ALL;
-			if (!locks.isEmpty())
-			{
-				strategy = new LockingInvocationStrategy(strategy, locks);
-			}
-			
-			return selectForUpdate ? this.getProxyFactory().getTransactionContext().start(strategy, this.getProxyFactory().getParentProxy()) : strategy;
-		}
-		
-		if (method.equals(executeBatchMethod))
-		{
-			return this.getProxyFactory().getTransactionContext().start(new LockingInvocationStrategy(InvocationStrategies.TRANSACTION_INVOKE_ON_ALL, this.getProxyFactory().getBatchLocks()), this.getProxyFactory().getParentProxy());
+			return new ResultSetProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().getInputSinkRegistry(), strategy);
 		}
 		
-		if (method.equals(getMoreResultsMethod))
-		{
-			if (parameters[0].equals(Statement.KEEP_CURRENT_RESULT))
-			{
-				return InvocationStrategies.INVOKE_ON_EXISTING;
-			}
-		}
+		return super.getProxyFactoryFactory(object, method, strategy, parameters);
+	}
+
+	@Override
+	protected InvocationStrategy getInvocationStrategy(S statement, Method method, Object... parameters) throws SQLException
+	{
+		StatementMethod type = statementMethodRegistry.get(method);
 		
-		if (method.equals(getResultSetMethod))
+		if (type != null)
 		{
-			if (statement.getResultSetConcurrency() == ResultSet.CONCUR_READ_ONLY)
+			switch (type)
 			{
-				return InvocationStrategies.INVOKE_ON_EXISTING;
+				case DRIVER_READ:
+				{
+					return InvocationStrategies.INVOKE_ON_ANY;
+				}
+				case DRIVER_WRITE:
+				case CLOSE:
+				{
+					return InvocationStrategies.INVOKE_ON_EXISTING;
+				}
+				case EXECUTE:
+				{
+					List<Lock> locks = this.getProxyFactory().extractLocks((String) parameters[0]);
+					
+					return this.getProxyFactory().getTransactionContext().start(new LockingInvocationStrategy(InvocationStrategies.TRANSACTION_INVOKE_ON_ALL, locks), this.getProxyFactory().getParentProxy());
+				}
+				case EXECUTE_QUERY:
+				{
+					String sql = (String) parameters[0];
+					
+					List<Lock> locks = this.getProxyFactory().extractLocks(sql);
+					int concurrency = statement.getResultSetConcurrency();
+					boolean selectForUpdate = this.getProxyFactory().isSelectForUpdate(sql);
+					
+					if (locks.isEmpty() && (concurrency == ResultSet.CONCUR_READ_ONLY) && !selectForUpdate)
+					{
+						if (statement.getConnection().getTransactionIsolation() >= Connection.TRANSACTION_REPEATABLE_READ)
+						{
+							// Repeatable reads use the primary database, unless within a read-only transaction pinned to some other database
+							return this.getProxyFactory().getTransactionContext().read(InvocationStrategies.INVOKE_ON_PRIMARY, this.getProxyFactory().getParentProxy());
+						}
+						
+						return this.getProxyFactory().getDatabaseCluster().getReadInvocationStrategy();
+					}
+					
+					InvocationStrategy strategy = InvocationStrategies.TRANSACTION_INVOKE_ON_ALL;
+					if (!locks.isEmpty())
+					{
+						strategy = new LockingInvocationStrategy(strategy, locks);
+					}
+					
+					return selectForUpdate ? this.getProxyFactory().getTransactionContext().start(strategy, this.getProxyFactory().getParentProxy()) : strategy;
+				}
+				case EXECUTE_BATCH:
+				{
+					return this.getProxyFactory().getTransactionContext().start(new LockingInvocationStrategy(InvocationStrategies.TRANSACTION_INVOKE_ON_ALL, this.getProxyFactory().getBatchLocks()), this.getProxyFactory().getParentProxy());
+				}
+				case GET_MORE_RESULTS:
+				{
+					if (parameters[0].equals(Statement.KEEP_CURRENT_RESULT))
+					{
+						return InvocationStrategies.INVOKE_ON_EXISTING;
+					}
+					break;
+				}
+				case GET_RESULT_SET:
+				{
+					if (statement.getResultSetConcurrency() == ResultSet.CONCUR_READ_ONLY)
+					{
+						return InvocationStrategies.INVOKE_ON_EXISTING;
+					}
+					
+					return InvocationStrategies.INVOKE_ON_ALL;
+				}
+				default:
+				{
+					break;
+				}
 			}
-
-			return InvocationStrategies.INVOKE_ON_ALL;
 		}
 		
 		return super.getInvocationStrategy(statement, method, parameters);
@@ -145,10 +209,36 @@ public abstract class AbstractStatementInvocationHandler<Z, D extends Database<Z
 	@Override
 	protected <R> Invoker<Z, D, S, R, SQLException> getInvoker(S proxy, Method method, Object... parameters) throws SQLException
 	{
-		if (method.equals(addBatchMethod) || method.equals(executeQueryMethod) || executeMethodSet.contains(method))
+		StatementMethod type = statementMethodRegistry.get(method);
+		
+		if ((type == StatementMethod.ADD_BATCH) || (type == StatementMethod.EXECUTE_QUERY) || (type == StatementMethod.EXECUTE))
 		{
 			parameters[0] = this.getProxyFactory().evaluate((String) parameters[0]);
 		}
+		else if (type == StatementMethod.EXECUTE_BATCH)
+		{
+			final int chunkSize = this.getProxyFactory().getDatabaseCluster().getBatchChunkSize();
+			
+			if (chunkSize > 0)
+			{
+				final BatchBuffer<Z, D, S> batch = this.getProxyFactory().getBatch();
+				
+				// Each database executes its chunks independently of the others
+				if (method.equals(executeLargeBatchMethod))
+				{
+					// Chunks are executed via executeBatch(), whose update counts are widened to the return type of executeLargeBatch()
+					@SuppressWarnings("unchecked")
+					Invoker<Z, D, S, R, SQLException> invoker = (database, statement) -> (R) Arrays.stream(batch.execute(database, statement, chunkSize)).asLongStream().toArray();
+					
+					return invoker;
+				}
+				
+				@SuppressWarnings("unchecked")
+				Invoker<Z, D, S, R, SQLException> invoker = (database, statement) -> (R) batch.execute(database, statement, chunkSize);
+				
+				return invoker;
+			}
+		}
 		
 		return super.getInvoker(proxy, method, parameters);
 	}
@@ -156,17 +246,21 @@ public abstract class AbstractStatementInvocationHandler<Z, D extends Database<Z
 	@Override
 	protected <R> void postInvoke(Invoker<Z, D, S, R, SQLException> invoker, S proxy, Method method, Object... parameters)
 	{
-		if (method.equals(addBatchMethod))
+		StatementMethod type = statementMethodRegistry.get(method);
+		
+		if (type == StatementMethod.EXECUTE)
 		{
-			this.getProxyFactory().addBatchSQL((String) parameters[0]);
+			this.getProxyFactory().getDatabaseCluster().getSQLAnalysisCache().invalidate((String) parameters[0]);
 		}
-		else if (method.equals(clearBatchMethod) || method.equals(executeBatchMethod))
+		else if ((type == StatementMethod.CLEAR_BATCH) || (type == StatementMethod.EXECUTE_BATCH))
 		{
+			if (this.logger.isEnabled(Level.TRACE))
+			{
+				this.logger.log(Level.TRACE, "Clearing recorded batch methods");
+			}
 			this.getProxyFactory().clearBatch();
-			this.logger.log(Level.TRACE, "Clearing recorded batch methods");
-			this.getProxyFactory().clearBatchInvokers();
 		}
-		else if (method.equals(closeMethod))
+		else if (type == StatementMethod.CLOSE)
 		{
 			try
 			{
@@ -176,15 +270,19 @@ public abstract class AbstractStatementInvocationHandler<Z, D extends Database<Z
 			{
 				this.logger.log(Level.WARN, e);
 			}
+			this.getProxyFactory().clearBatch();
 			this.getProxyFactory().remove();
 		}
 		
 		if (this.isBatchMethod(method))
 		{
-			this.logger.log(Level.TRACE, "Recording batch method: {0}", invoker);
-			this.getProxyFactory().addBatchInvoker(invoker);
+			if (this.logger.isEnabled(Level.TRACE))
+			{
+				this.logger.log(Level.TRACE, "Recording batch method: {0}", invoker);
+			}
+			this.recordBatchMethod(invoker, method, parameters);
 		}
-		else if (driverWriteMethodSet.contains(method))
+		else if (type == StatementMethod.DRIVER_WRITE)
 		{
 			this.getProxyFactory().record(invoker);
 		}
@@ -192,6 +290,37 @@ public abstract class AbstractStatementInvocationHandler<Z, D extends Database<Z
 
 	protected boolean isBatchMethod(Method method)
 	{
-		return method.equals(addBatchMethod);
+		return statementMethodRegistry.get(method) == StatementMethod.ADD_BATCH;
+	}
+
+	/**
+	 * Records the specified batch method invocation, so that it can be replayed against a lazily created statement.
+	 * @param invoker the invoker of a batch method
+	 * @param method a batch method
+	 * @param parameters the method invocation parameters
+	 */
+	protected void recordBatchMethod(Invoker<Z, D, S, ?, SQLException> invoker, Method method, Object... parameters)
+	{
+		if (!this.recordBatchStatement(invoker, method, parameters))
+		{
+			this.getProxyFactory().getBatch().addInvoker(invoker);
+		}
+	}
+
+	/**
+	 * Records the specified batch method invocation, if it adds a statement to the current batch.
+	 * @param invoker the invoker of a batch method
+	 * @param method a batch method
+	 * @param parameters the method invocation parameters
+	 * @return true, if the specified method is an addBatch(...) method, false otherwise
+	 */
+	protected boolean recordBatchStatement(Invoker<Z, D, S, ?, SQLException> invoker, Method method, Object... parameters)
+	{
+		if (statementMethodRegistry.get(method) == StatementMethod.ADD_BATCH)
+		{
+			this.getProxyFactory().getBatch().addStatement((String) parameters[0]);
+			return true;
+		}
+		return false;
 	}
 }
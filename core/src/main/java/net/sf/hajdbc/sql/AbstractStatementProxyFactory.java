@@ -20,7 +20,6 @@ package net.sf.hajdbc.sql;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
@@ -37,13 +36,13 @@ import net.sf.hajdbc.logging.Level;
  */
 public abstract class AbstractStatementProxyFactory<Z, D extends Database<Z>, S extends Statement> extends AbstractInputSinkRegistryProxyFactory<Z, D, Connection, S>
 {
-	private final List<Invoker<Z, D, S, ?, SQLException>> batchInvokers = new LinkedList<>();
-	private final List<String> batch = new LinkedList<>();
+	private final BatchBuffer<Z, D, S> batch;
 	
 	@SuppressWarnings("unchecked")
 	protected AbstractStatementProxyFactory(Connection parent, ProxyFactory<Z, D, Connection, SQLException> parentFactory, Invoker<Z, D, Connection, S, SQLException> invoker, Map<D, S> map, TransactionContext<Z, D> context)
 	{
 		super(parent, parentFactory, invoker, map, context, new InputSinkRegistryImpl<>((InputSinkStrategy<Object>) parentFactory.getDatabaseCluster().getInputSinkStrategy()));
+		this.batch = new BatchBuffer<>((InputSinkStrategy<Object>) parentFactory.getDatabaseCluster().getInputSinkStrategy(), this.getExceptionFactory());
 	}
 
 	@Override
@@ -54,15 +53,10 @@ public abstract class AbstractStatementProxyFactory<Z, D extends Database<Z>, S
 
 	public List<Lock> getBatchLocks() throws SQLException
 	{
-		return this.extractLocks(this.batch);
+		return this.extractLocks(this.batch.getStatements());
 	}
 	
-	public void addBatchSQL(String sql)
-	{
-		this.batch.add(sql);
-	}
-
-	public List<String> getBatch()
+	public BatchBuffer<Z, D, S> getBatch()
 	{
 		return this.batch;
 	}
@@ -72,28 +66,26 @@ public abstract class AbstractStatementProxyFactory<Z, D extends Database<Z>, S
 		this.batch.clear();
 	}
 	
-	public void addBatchInvoker(Invoker<Z, D, S, ?, SQLException> invoker)
-	{
-		this.batchInvokers.add(invoker);
-	}
-	
-	public void clearBatchInvokers()
-	{
-		this.batchInvokers.clear();
-	}
-	
 	@Override
 	public void replay(D database, S object) throws SQLException
 	{
 		super.replay(database, object);
 		
-		for (Invoker<Z, D, S, ?, SQLException> invoker: this.batchInvokers)
+		if (!this.batch.isEmpty())
 		{
-			this.logger.log(Level.TRACE, "Replaying {1}.{2} against database {0}", database, object.getClass().getName(), invoker);
-
+			this.logger.log(Level.TRACE, "Replaying batch against database {0}", database);
+			
 			try
 			{
-				invoker.invoke(database, object);
+				// Chunked batches are not sent to any database until executed
+				if (this.getDatabaseCluster().getBatchChunkSize() > 0)
+				{
+					this.batch.replayInvokers(database, object);
+				}
+				else
+				{
+					this.batch.replay(database, object);
+				}
 			}
 			catch (Throwable e)
 			{
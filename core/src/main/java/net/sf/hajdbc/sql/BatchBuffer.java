@@ -0,0 +1,1002 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.ExceptionFactory;
+import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.invocation.SimpleInvoker;
+import net.sf.hajdbc.io.InputSinkChannel;
+import net.sf.hajdbc.io.InputSinkStrategy;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.util.reflect.Methods;
+
+/**
+ * Records the pending batch of a statement proxy, so that it can be replayed against a lazily created statement, and so that its locks can be extracted.
+ * Batched SQL statements are recorded by reference to a table of distinct statements.
+ * Prepared statement parameters are recorded in columnar form, i.e. primitive arrays per parameter index, in fixed size chunks of rows.
+ * Complete chunks beyond a resident threshold are spilled to the input sink strategy of the cluster, if all of their values are serializable.
+ * @author Paul Ferraro
+ */
+public class BatchBuffer<Z, D extends Database<Z>, S extends Statement>
+{
+	static final int CHUNK_SIZE = 1024;
+	static final int RESIDENT_CHUNKS = 4;
+	
+	// Entry types, other than statement table indexes
+	private static final int ROW = -1;
+	private static final int INVOKER = -2;
+	private static final int ROW_INVOKER = -3;
+	
+	// Column setter identifiers, other than setter table indexes
+	private static final byte UNBOUND = 0;
+	private static final byte OPAQUE = -1;
+	
+	private static final Logger logger = LoggerFactory.getLogger(BatchBuffer.class);
+	
+	private final InputSinkStrategy<Object> strategy;
+	private final InputSinkChannel<InputStream, Object> channel;
+	private final ExceptionFactory<SQLException> exceptionFactory;
+	
+	private final List<String> statements = new ArrayList<>();
+	private final Map<String, Integer> statementIndexes = new HashMap<>();
+	private final List<Method> setters = new ArrayList<>();
+	// Direct forms of the setter table, or null, if a setter can only be invoked reflectively
+	private final List<Setter> directSetters = new ArrayList<>();
+	private final Map<Method, Byte> setterIds = new HashMap<>();
+	private final List<Invoker<Z, D, S, ?, SQLException>> invokers = new ArrayList<>();
+	// Sealed chunks, either resident or spilled
+	private final List<Object> chunks = new ArrayList<>();
+	private Chunk chunk = null;
+	private int residentChunks = 0;
+	private int[] entries = new int[16];
+	private int size = 0;
+	// Number of batched statements, i.e. excluding other invocations
+	private int batchSize = 0;
+	
+	/**
+	 * Constructs a new batch buffer.
+	 * @param strategy the strategy used to spill complete chunks, or null, if chunks should never spill
+	 * @param exceptionFactory an exception factory
+	 */
+	public BatchBuffer(InputSinkStrategy<Object> strategy, ExceptionFactory<SQLException> exceptionFactory)
+	{
+		this.strategy = strategy;
+		this.channel = (strategy != null) ? strategy.createInputStreamChannel() : null;
+		this.exceptionFactory = exceptionFactory;
+	}
+	
+	/**
+	 * Records a call to {@link Statement#addBatch(String)}.
+	 * @param sql a SQL statement
+	 */
+	public void addStatement(String sql)
+	{
+		Integer index = this.statementIndexes.get(sql);
+		
+		if (index == null)
+		{
+			index = this.statements.size();
+			this.statements.add(sql);
+			this.statementIndexes.put(sql, index);
+		}
+		
+		this.addEntry(index);
+	}
+	
+	/**
+	 * Records a call to {@link PreparedStatement#addBatch()} using the specified parameter bindings.
+	 * @param bindings the current parameter bindings of a prepared statement
+	 * @param invoker the addBatch() invoker, bound to the specified parameter bindings
+	 */
+	public void addRow(ParameterBindings<Z, D, ? extends PreparedStatement> bindings, Invoker<Z, D, S, ?, SQLException> invoker)
+	{
+		// Named parameters do not fit a columnar form
+		if (bindings.hasNamedBindings())
+		{
+			this.invokers.add(invoker);
+			this.addEntry(ROW_INVOKER);
+			return;
+		}
+		
+		if (this.chunk == null)
+		{
+			this.chunk = new Chunk();
+		}
+		
+		Chunk chunk = this.chunk;
+		int row = chunk.size;
+		
+		for (int index = 0; index < bindings.getSlotCount(); ++index)
+		{
+			Invoker<Z, D, ? extends PreparedStatement, ?, SQLException> binding = bindings.getSlot(index);
+			
+			if (binding != null)
+			{
+				chunk.bind(index, row, binding, this.setterId(binding));
+			}
+		}
+		
+		chunk.size += 1;
+		
+		if (chunk.size == CHUNK_SIZE)
+		{
+			this.chunks.add(this.seal(chunk));
+			this.chunk = null;
+		}
+		
+		this.addEntry(ROW);
+	}
+	
+	/**
+	 * Records any other batch related invocation, e.g. {@link java.sql.CallableStatement#registerOutParameter(int, int)}.
+	 * @param invoker an invoker
+	 */
+	public void addInvoker(Invoker<Z, D, S, ?, SQLException> invoker)
+	{
+		this.invokers.add(invoker);
+		this.addEntry(INVOKER);
+	}
+	
+	/**
+	 * Returns the distinct SQL statements of this batch.
+	 * @return a list of SQL statements
+	 */
+	public List<String> getStatements()
+	{
+		return Collections.unmodifiableList(this.statements);
+	}
+	
+	/**
+	 * Indicates whether this batch is empty.
+	 * @return true, if nothing was recorded, false otherwise
+	 */
+	public boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+	
+	/**
+	 * Replays this batch against the specified statement.
+	 * @param database a database
+	 * @param statement a statement of the specified database
+	 * @throws SQLException if the batch could not be replayed
+	 */
+	public void replay(D database, S statement) throws SQLException
+	{
+		this.process(database, statement, 0);
+	}
+	
+	/**
+	 * Replays only those invocations of this batch recorded via {@link #addInvoker(Invoker)} against the specified statement.
+	 * @param database a database
+	 * @param statement a statement of the specified database
+	 * @throws SQLException if an invocation failed
+	 */
+	public void replayInvokers(D database, S statement) throws SQLException
+	{
+		Iterator<Invoker<Z, D, S, ?, SQLException>> invokers = this.invokers.iterator();
+		
+		for (int i = 0; i < this.size; ++i)
+		{
+			int entry = this.entries[i];
+			
+			if (entry == INVOKER)
+			{
+				invokers.next().invoke(database, statement);
+			}
+			else if (entry == ROW_INVOKER)
+			{
+				invokers.next();
+			}
+		}
+	}
+	
+	/**
+	 * Sends the batched statements of this batch to the specified statement in chunks, executing each chunk in turn.
+	 * Invocations recorded via {@link #addInvoker(Invoker)} are assumed to have already been applied to the specified statement.
+	 * @param database a database
+	 * @param statement a statement of the specified database
+	 * @param chunkSize the maximum number of batched statements per chunk
+	 * @return the concatenated update counts of each chunk
+	 * @throws SQLException if a chunk could not be executed.  A {@link BatchUpdateException} includes the update counts of all previously executed chunks.
+	 */
+	public int[] execute(D database, S statement, int chunkSize) throws SQLException
+	{
+		return this.process(database, statement, chunkSize);
+	}
+	
+	/**
+	 * Replays this batch against the specified statement, executing it every chunkSize batched statements, if chunkSize is positive.
+	 */
+	private int[] process(D database, S statement, int chunkSize) throws SQLException
+	{
+		int[] counts = (chunkSize > 0) ? new int[this.batchSize] : null;
+		int executed = 0;
+		int pending = 0;
+		Iterator<Invoker<Z, D, S, ?, SQLException>> invokers = this.invokers.iterator();
+		int chunkIndex = 0;
+		Chunk chunk = null;
+		int row = 0;
+		
+		for (int i = 0; i < this.size; ++i)
+		{
+			int entry = this.entries[i];
+			
+			if (entry >= 0)
+			{
+				statement.addBatch(this.statements.get(entry));
+			}
+			else if (entry == ROW)
+			{
+				if ((chunk == null) || (row == chunk.size))
+				{
+					chunk = this.getChunk(chunkIndex++);
+					row = 0;
+				}
+				this.replay(chunk, row++, database, statement);
+				((PreparedStatement) statement).addBatch();
+			}
+			else if (entry == ROW_INVOKER)
+			{
+				invokers.next().invoke(database, statement);
+			}
+			else
+			{
+				Invoker<Z, D, S, ?, SQLException> invoker = invokers.next();
+				
+				// When executing in chunks, these were already applied when invoked
+				if (chunkSize == 0)
+				{
+					invoker.invoke(database, statement);
+				}
+				continue;
+			}
+			
+			pending += 1;
+			
+			if (pending == chunkSize)
+			{
+				executed = executeChunk(statement, counts, executed);
+				pending = 0;
+			}
+		}
+		
+		if ((chunkSize > 0) && (pending > 0))
+		{
+			executed = executeChunk(statement, counts, executed);
+		}
+		
+		return ((counts != null) && (executed < counts.length)) ? Arrays.copyOf(counts, executed) : counts;
+	}
+	
+	private static int executeChunk(Statement statement, int[] counts, int offset) throws SQLException
+	{
+		try
+		{
+			int[] chunkCounts = statement.executeBatch();
+			int length = Math.min(chunkCounts.length, counts.length - offset);
+			System.arraycopy(chunkCounts, 0, counts, offset, length);
+			return offset + length;
+		}
+		catch (BatchUpdateException e)
+		{
+			int[] chunkCounts = (e.getUpdateCounts() != null) ? e.getUpdateCounts() : new int[0];
+			int[] updateCounts = Arrays.copyOf(counts, offset + chunkCounts.length);
+			System.arraycopy(chunkCounts, 0, updateCounts, offset, chunkCounts.length);
+			throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(), updateCounts, e);
+		}
+	}
+	
+	/**
+	 * Discards this batch, releasing any spilled chunks.
+	 */
+	public void clear()
+	{
+		for (Object chunk: this.chunks)
+		{
+			if (!(chunk instanceof Chunk))
+			{
+				this.strategy.close(((SpilledChunk) chunk).sink);
+			}
+		}
+		this.chunks.clear();
+		this.chunk = null;
+		this.residentChunks = 0;
+		this.invokers.clear();
+		this.statements.clear();
+		this.statementIndexes.clear();
+		this.size = 0;
+		this.batchSize = 0;
+		if (this.entries.length > 16)
+		{
+			this.entries = new int[16];
+		}
+	}
+	
+	private void addEntry(int entry)
+	{
+		if (entry != INVOKER)
+		{
+			this.batchSize += 1;
+		}
+		if (this.size == this.entries.length)
+		{
+			this.entries = Arrays.copyOf(this.entries, this.size * 2);
+		}
+		this.entries[this.size++] = entry;
+	}
+	
+	private byte setterId(Invoker<?, ?, ?, ?, ?> binding)
+	{
+		if (binding instanceof SimpleInvoker)
+		{
+			Method method = ((SimpleInvoker<?, ?, ?, ?, ?>) binding).getMethod();
+			Object[] parameters = ((SimpleInvoker<?, ?, ?, ?, ?>) binding).getParameters();
+			
+			if ((parameters.length > 1) && (parameters[0] instanceof Integer))
+			{
+				Byte id = this.setterIds.get(method);
+				
+				if (id == null)
+				{
+					// Fall back to an opaque binding if the setter table is full
+					if (this.setters.size() == Byte.MAX_VALUE) return OPAQUE;
+					
+					this.setters.add(method);
+					this.directSetters.add(directSetter(method));
+					id = Byte.valueOf((byte) this.setters.size());
+					this.setterIds.put(method, id);
+				}
+				
+				return id.byteValue();
+			}
+		}
+		return OPAQUE;
+	}
+	
+	private Object seal(Chunk chunk)
+	{
+		if ((this.channel == null) || !chunk.spillable || (this.residentChunks < RESIDENT_CHUNKS))
+		{
+			this.residentChunks += 1;
+			return chunk;
+		}
+		
+		try
+		{
+			return new SpilledChunk(this.channel.write(new ChunkInputStream(chunk, this.setters)));
+		}
+		catch (IOException e)
+		{
+			logger.log(Level.WARN, e);
+			this.residentChunks += 1;
+			return chunk;
+		}
+	}
+	
+	private Chunk getChunk(int index) throws SQLException
+	{
+		Object chunk = (index < this.chunks.size()) ? this.chunks.get(index) : this.chunk;
+		
+		if (chunk instanceof Chunk)
+		{
+			return (Chunk) chunk;
+		}
+		
+		try (DataInputStream input = new DataInputStream(this.channel.read(((SpilledChunk) chunk).sink)))
+		{
+			return Chunk.readFrom(input, this.setters);
+		}
+		catch (IOException e)
+		{
+			throw this.exceptionFactory.createException(e);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void replay(Chunk chunk, int row, D database, S statement) throws SQLException
+	{
+		for (int index = 0; index < chunk.columns.length; ++index)
+		{
+			Column column = chunk.columns[index];
+			
+			if (column != null)
+			{
+				byte id = column.setters[row];
+				
+				if (id == OPAQUE)
+				{
+					((Invoker<Z, D, S, ?, SQLException>) column.objects[row]).invoke(database, statement);
+				}
+				else if (id != UNBOUND)
+				{
+					Object[] extras = (column.extras != null) ? column.extras[row] : null;
+					Setter setter = this.directSetters.get(id - 1);
+					
+					if ((setter != null) && (extras == null))
+					{
+						setter.set((PreparedStatement) statement, index, (column.primitives != null) ? column.primitives[row] : 0L, (column.objects != null) ? column.objects[row] : null);
+						continue;
+					}
+					
+					Method method = this.setters.get(id - 1);
+					Object[] parameters = new Object[(extras != null) ? extras.length + 2 : 2];
+					parameters[0] = index;
+					Class<?> type = method.getParameterTypes()[1];
+					parameters[1] = type.isPrimitive() ? decode(type, column.primitives[row]) : column.objects[row];
+					if (extras != null)
+					{
+						System.arraycopy(extras, 0, parameters, 2, extras.length);
+					}
+					Methods.<Object, SQLException>invoke(method, this.exceptionFactory, statement, parameters);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns a direct form of the specified setter of a prepared statement, which avoids reflection and boxing of primitive values.
+	 * @param method a setter method
+	 * @return a setter, or null, if the specified method can only be invoked reflectively
+	 */
+	private static Setter directSetter(Method method)
+	{
+		if (!method.getDeclaringClass().equals(PreparedStatement.class) || (method.getParameterTypes().length != 2)) return null;
+		
+		switch (method.getName())
+		{
+			case "setInt": return (statement, index, primitive, object) -> statement.setInt(index, (int) primitive);
+			case "setLong": return (statement, index, primitive, object) -> statement.setLong(index, primitive);
+			case "setBoolean": return (statement, index, primitive, object) -> statement.setBoolean(index, primitive != 0L);
+			case "setDouble": return (statement, index, primitive, object) -> statement.setDouble(index, Double.longBitsToDouble(primitive));
+			case "setFloat": return (statement, index, primitive, object) -> statement.setFloat(index, Float.intBitsToFloat((int) primitive));
+			case "setShort": return (statement, index, primitive, object) -> statement.setShort(index, (short) primitive);
+			case "setByte": return (statement, index, primitive, object) -> statement.setByte(index, (byte) primitive);
+			case "setNull": return (statement, index, primitive, object) -> statement.setNull(index, (int) primitive);
+			case "setString": return (statement, index, primitive, object) -> statement.setString(index, (String) object);
+			case "setNString": return (statement, index, primitive, object) -> statement.setNString(index, (String) object);
+			case "setBigDecimal": return (statement, index, primitive, object) -> statement.setBigDecimal(index, (BigDecimal) object);
+			case "setBytes": return (statement, index, primitive, object) -> statement.setBytes(index, (byte[]) object);
+			case "setDate": return (statement, index, primitive, object) -> statement.setDate(index, (java.sql.Date) object);
+			case "setTime": return (statement, index, primitive, object) -> statement.setTime(index, (java.sql.Time) object);
+			case "setTimestamp": return (statement, index, primitive, object) -> statement.setTimestamp(index, (java.sql.Timestamp) object);
+			case "setObject": return (statement, index, primitive, object) -> statement.setObject(index, object);
+			default: return null;
+		}
+	}
+	
+	/**
+	 * Applies a recorded parameter value to a prepared statement.
+	 */
+	private interface Setter
+	{
+		void set(PreparedStatement statement, int index, long primitive, Object object) throws SQLException;
+	}
+	
+	static long encode(Object value)
+	{
+		if (value instanceof Boolean) return ((Boolean) value).booleanValue() ? 1L : 0L;
+		if (value instanceof Character) return ((Character) value).charValue();
+		if (value instanceof Float) return Float.floatToRawIntBits(((Float) value).floatValue());
+		if (value instanceof Double) return Double.doubleToRawLongBits(((Double) value).doubleValue());
+		return ((Number) value).longValue();
+	}
+	
+	static Object decode(Class<?> type, long value)
+	{
+		if (type.equals(Integer.TYPE)) return Integer.valueOf((int) value);
+		if (type.equals(Long.TYPE)) return Long.valueOf(value);
+		if (type.equals(Boolean.TYPE)) return Boolean.valueOf(value != 0L);
+		if (type.equals(Double.TYPE)) return Double.valueOf(Double.longBitsToDouble(value));
+		if (type.equals(Float.TYPE)) return Float.valueOf(Float.intBitsToFloat((int) value));
+		if (type.equals(Short.TYPE)) return Short.valueOf((short) value);
+		if (type.equals(Byte.TYPE)) return Byte.valueOf((byte) value);
+		return Character.valueOf((char) value);
+	}
+	
+	private static class SpilledChunk
+	{
+		final Object sink;
+		
+		SpilledChunk(Object sink)
+		{
+			this.sink = sink;
+		}
+	}
+	
+	/**
+	 * Parameter values of a range of batched rows, by parameter index.
+	 */
+	private static class Chunk
+	{
+		Column[] columns = new Column[0];
+		int size = 0;
+		boolean spillable = true;
+		
+		void bind(int index, int row, Invoker<?, ?, ?, ?, ?> binding, byte id)
+		{
+			if (index >= this.columns.length)
+			{
+				this.columns = Arrays.copyOf(this.columns, index + 1);
+			}
+			Column column = this.columns[index];
+			if (column == null)
+			{
+				column = new Column();
+				this.columns[index] = column;
+			}
+			
+			column.setters[row] = id;
+			
+			if (id == OPAQUE)
+			{
+				column.objects()[row] = binding;
+				this.spillable = false;
+				return;
+			}
+			
+			SimpleInvoker<?, ?, ?, ?, ?> invoker = (SimpleInvoker<?, ?, ?, ?, ?>) binding;
+			Object[] parameters = invoker.getParameters();
+			
+			if (invoker.getMethod().getParameterTypes()[1].isPrimitive())
+			{
+				column.primitives()[row] = encode(parameters[1]);
+			}
+			else
+			{
+				column.objects()[row] = parameters[1];
+				this.spillable &= Values.isSerializable(parameters[1]);
+			}
+			
+			if (parameters.length > 2)
+			{
+				Object[] extras = Arrays.copyOfRange(parameters, 2, parameters.length);
+				column.extras()[row] = extras;
+				for (Object extra: extras)
+				{
+					this.spillable &= Values.isSerializable(extra);
+				}
+			}
+		}
+		
+		static void writeRow(DataOutputStream output, Column column, int row, List<Method> setters) throws IOException
+		{
+			byte id = column.setters[row];
+			if (id != UNBOUND)
+			{
+				if (setters.get(id - 1).getParameterTypes()[1].isPrimitive())
+				{
+					output.writeLong(column.primitives[row]);
+				}
+				else
+				{
+					Values.write(output, column.objects[row]);
+				}
+				Object[] extras = (column.extras != null) ? column.extras[row] : null;
+				output.writeInt((extras != null) ? extras.length : 0);
+				if (extras != null)
+				{
+					for (Object extra: extras)
+					{
+						Values.write(output, extra);
+					}
+				}
+			}
+		}
+		
+		static Chunk readFrom(DataInputStream input, List<Method> setters) throws IOException
+		{
+			Chunk chunk = new Chunk();
+			chunk.size = input.readInt();
+			chunk.columns = new Column[input.readInt()];
+			for (int index = 0; index < chunk.columns.length; ++index)
+			{
+				if (input.readBoolean())
+				{
+					Column column = new Column();
+					input.readFully(column.setters, 0, chunk.size);
+					for (int row = 0; row < chunk.size; ++row)
+					{
+						byte id = column.setters[row];
+						if (id != UNBOUND)
+						{
+							if (setters.get(id - 1).getParameterTypes()[1].isPrimitive())
+							{
+								column.primitives()[row] = input.readLong();
+							}
+							else
+							{
+								column.objects()[row] = Values.read(input);
+							}
+							int extras = input.readInt();
+							if (extras > 0)
+							{
+								Object[] values = new Object[extras];
+								for (int i = 0; i < extras; ++i)
+								{
+									values[i] = Values.read(input);
+								}
+								column.extras()[row] = values;
+							}
+						}
+					}
+					chunk.columns[index] = column;
+				}
+			}
+			return chunk;
+		}
+	}
+	
+	/**
+	 * Serializes a chunk as it is read, i.e. a single header or value at a time, so that a spilled chunk is streamed directly to its sink.
+	 * The serial form is read by {@link Chunk#readFrom(DataInputStream, List)}.
+	 */
+	private static class ChunkInputStream extends InputStream
+	{
+		private final Chunk chunk;
+		private final List<Method> setters;
+		private final Buffer buffer = new Buffer();
+		private final DataOutputStream output = new DataOutputStream(this.buffer);
+		private int position = 0;
+		// Next column to serialize, where -1 indicates the chunk header
+		private int column = -1;
+		// Next row of the current column to serialize, where -1 indicates the column header
+		private int row = -1;
+		
+		ChunkInputStream(Chunk chunk, List<Method> setters)
+		{
+			this.chunk = chunk;
+			this.setters = setters;
+		}
+		
+		@Override
+		public int read() throws IOException
+		{
+			return this.fill() ? (this.buffer.bytes()[this.position++] & 0xFF) : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException
+		{
+			if (length == 0) return 0;
+			if (!this.fill()) return -1;
+			
+			int count = Math.min(length, this.buffer.size() - this.position);
+			System.arraycopy(this.buffer.bytes(), this.position, bytes, offset, count);
+			this.position += count;
+			return count;
+		}
+		
+		private boolean fill() throws IOException
+		{
+			while (this.position == this.buffer.size())
+			{
+				if (this.column == this.chunk.columns.length) return false;
+				
+				this.buffer.reset();
+				this.position = 0;
+				this.next();
+			}
+			return true;
+		}
+		
+		private void next() throws IOException
+		{
+			Chunk chunk = this.chunk;
+			
+			if (this.column < 0)
+			{
+				this.output.writeInt(chunk.size);
+				this.output.writeInt(chunk.columns.length);
+				this.column = 0;
+				return;
+			}
+			
+			Column column = chunk.columns[this.column];
+			
+			if (this.row < 0)
+			{
+				this.output.writeBoolean(column != null);
+				if (column != null)
+				{
+					this.output.write(column.setters, 0, chunk.size);
+				}
+			}
+			else
+			{
+				Chunk.writeRow(this.output, column, this.row, this.setters);
+			}
+			
+			this.row += 1;
+			
+			if ((column == null) || (this.row == chunk.size))
+			{
+				this.column += 1;
+				this.row = -1;
+			}
+		}
+	}
+	
+	/**
+	 * Exposes the buffer of a byte array output stream, to avoid copying it.
+	 */
+	private static class Buffer extends ByteArrayOutputStream
+	{
+		byte[] bytes()
+		{
+			return this.buf;
+		}
+	}
+	
+	/**
+	 * Parameter values of a single parameter index within a chunk.
+	 * Value arrays are allocated only as needed.
+	 */
+	private static class Column
+	{
+		final byte[] setters = new byte[CHUNK_SIZE];
+		long[] primitives;
+		Object[] objects;
+		Object[][] extras;
+		
+		long[] primitives()
+		{
+			if (this.primitives == null)
+			{
+				this.primitives = new long[CHUNK_SIZE];
+			}
+			return this.primitives;
+		}
+		
+		Object[] objects()
+		{
+			if (this.objects == null)
+			{
+				this.objects = new Object[CHUNK_SIZE];
+			}
+			return this.objects;
+		}
+		
+		Object[][] extras()
+		{
+			if (this.extras == null)
+			{
+				this.extras = new Object[CHUNK_SIZE][];
+			}
+			return this.extras;
+		}
+	}
+	
+	/**
+	 * Serialization of the common parameter value types.
+	 */
+	private enum Values
+	{
+		NULL(null),
+		STRING(String.class),
+		BYTES(byte[].class),
+		BIG_DECIMAL(BigDecimal.class),
+		INTEGER(Integer.class),
+		LONG(Long.class),
+		SHORT(Short.class),
+		BYTE(Byte.class),
+		DOUBLE(Double.class),
+		FLOAT(Float.class),
+		BOOLEAN(Boolean.class),
+		DATE(java.sql.Date.class),
+		TIME(java.sql.Time.class),
+		TIMESTAMP(java.sql.Timestamp.class),
+		;
+		private final Class<?> valueClass;
+		
+		private Values(Class<?> valueClass)
+		{
+			this.valueClass = valueClass;
+		}
+		
+		static Values forValue(Object value)
+		{
+			if (value == null) return NULL;
+			Class<?> valueClass = value.getClass();
+			for (Values type: values())
+			{
+				if (valueClass.equals(type.valueClass)) return type;
+			}
+			return null;
+		}
+		
+		static boolean isSerializable(Object value)
+		{
+			return forValue(value) != null;
+		}
+		
+		static void write(DataOutputStream output, Object value) throws IOException
+		{
+			Values type = forValue(value);
+			output.writeByte(type.ordinal());
+			switch (type)
+			{
+				case NULL:
+				{
+					break;
+				}
+				case STRING:
+				{
+					String string = (String) value;
+					output.writeInt(string.length());
+					output.writeChars(string);
+					break;
+				}
+				case BYTES:
+				{
+					byte[] bytes = (byte[]) value;
+					output.writeInt(bytes.length);
+					output.write(bytes);
+					break;
+				}
+				case BIG_DECIMAL:
+				{
+					BigDecimal decimal = (BigDecimal) value;
+					byte[] bytes = decimal.unscaledValue().toByteArray();
+					output.writeInt(decimal.scale());
+					output.writeInt(bytes.length);
+					output.write(bytes);
+					break;
+				}
+				case INTEGER:
+				case SHORT:
+				case BYTE:
+				{
+					output.writeInt(((Number) value).intValue());
+					break;
+				}
+				case LONG:
+				{
+					output.writeLong((Long) value);
+					break;
+				}
+				case DOUBLE:
+				{
+					output.writeDouble((Double) value);
+					break;
+				}
+				case FLOAT:
+				{
+					output.writeFloat((Float) value);
+					break;
+				}
+				case BOOLEAN:
+				{
+					output.writeBoolean((Boolean) value);
+					break;
+				}
+				case DATE:
+				case TIME:
+				{
+					output.writeLong(((java.util.Date) value).getTime());
+					break;
+				}
+				case TIMESTAMP:
+				{
+					java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+					output.writeLong(timestamp.getTime());
+					output.writeInt(timestamp.getNanos());
+					break;
+				}
+			}
+		}
+		
+		static Object read(DataInputStream input) throws IOException
+		{
+			switch (values()[input.readByte()])
+			{
+				case STRING:
+				{
+					char[] chars = new char[input.readInt()];
+					for (int i = 0; i < chars.length; ++i)
+					{
+						chars[i] = input.readChar();
+					}
+					return new String(chars);
+				}
+				case BYTES:
+				{
+					byte[] bytes = new byte[input.readInt()];
+					input.readFully(bytes);
+					return bytes;
+				}
+				case BIG_DECIMAL:
+				{
+					int scale = input.readInt();
+					byte[] bytes = new byte[input.readInt()];
+					input.readFully(bytes);
+					return new BigDecimal(new BigInteger(bytes), scale);
+				}
+				case INTEGER:
+				{
+					return input.readInt();
+				}
+				case SHORT:
+				{
+					return (short) input.readInt();
+				}
+				case BYTE:
+				{
+					return (byte) input.readInt();
+				}
+				case LONG:
+				{
+					return input.readLong();
+				}
+				case DOUBLE:
+				{
+					return input.readDouble();
+				}
+				case FLOAT:
+				{
+					return input.readFloat();
+				}
+				case BOOLEAN:
+				{
+					return input.readBoolean();
+				}
+				case DATE:
+				{
+					return new java.sql.Date(input.readLong());
+				}
+				case TIME:
+				{
+					return new java.sql.Time(input.readLong());
+				}
+				case TIMESTAMP:
+				{
+					java.sql.Timestamp timestamp = new java.sql.Timestamp(input.readLong());
+					timestamp.setNanos(input.readInt());
+					return timestamp;
+				}
+				default:
+				{
+					return null;
+				}
+			}
+		}
+	}
+}
@@ -26,6 +26,7 @@ import java.util.Set;
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.invocation.InvocationStrategies;
 import net.sf.hajdbc.invocation.InvocationStrategy;
+import net.sf.hajdbc.util.StaticRegistry;
 import net.sf.hajdbc.util.reflect.Methods;
 
 /**
@@ -38,10 +39,25 @@ public class CallableStatementInvocationHandler<Z, D extends Database<Z>> extend
 	private static final Set<Method> registerOutParameterMethods = Methods.findMethods(CallableStatement.class, "registerOutParameter");
 	private static final Set<Method> setMethods = Methods.findMethods(CallableStatement.class, "set\\w+");
 	private static final Set<Method> driverReadMethods = Methods.findMethods(CallableStatement.class, "get\\w+", "wasNull");
+	static
 	{
 		driverReadMethods.removeAll(Methods.findMethods(PreparedStatement.class, "get\\w+"));
 	}
 	
+	private enum CallableStatementMethod
+	{
+		REGISTER_OUT_PARAMETER, DRIVER_READ;
+	}
+	
+	private static final StaticRegistry<Method, CallableStatementMethod> callableStatementMethodRegistry = Methods.classify(CallableStatement.class, CallableStatementInvocationHandler::classify);
+	
+	private static CallableStatementMethod classify(Method method)
+	{
+		if (registerOutParameterMethods.contains(method)) return CallableStatementMethod.REGISTER_OUT_PARAMETER;
+		if (driverReadMethods.contains(method)) return CallableStatementMethod.DRIVER_READ;
+		return null;
+	}
+	
 	public CallableStatementInvocationHandler(CallableStatementProxyFactory<Z, D> proxyFactory)
 	{
 		super(CallableStatement.class, proxyFactory, setMethods);
@@ -53,12 +69,14 @@ public class CallableStatementInvocationHandler<Z, D extends Database<Z>> extend
 	@Override
 	protected InvocationStrategy getInvocationStrategy(CallableStatement statement, Method method, Object... parameters) throws SQLException
 	{
-		if (registerOutParameterMethods.contains(method))
+		CallableStatementMethod type = callableStatementMethodRegistry.get(method);
+		
+		if (type == CallableStatementMethod.REGISTER_OUT_PARAMETER)
 		{
 			return InvocationStrategies.INVOKE_ON_EXISTING;
 		}
 		
-		if (driverReadMethods.contains(method))
+		if (type == CallableStatementMethod.DRIVER_READ)
 		{
 			return InvocationStrategies.INVOKE_ON_ANY;
 		}
@@ -72,7 +90,7 @@ public class CallableStatementInvocationHandler<Z, D extends Database<Z>> extend
 	@Override
 	protected boolean isBatchMethod(Method method)
 	{
-		return registerOutParameterMethods.contains(method) || super.isBatchMethod(method);
+		return (callableStatementMethodRegistry.get(method) == CallableStatementMethod.REGISTER_OUT_PARAMETER) || super.isBatchMethod(method);
 	}
 
 	/**
@@ -22,10 +22,9 @@ import java.lang.reflect.Proxy;
 import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.NClob;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Savepoint;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Set;
 
 import net.sf.hajdbc.Database;
@@ -65,10 +64,38 @@ public class ConnectionInvocationHandler<Z, D extends Database<Z>, P> extends Ch
 	private static final Method createNClobMethod = Methods.getMethod(Connection.class, "createNClob");
 	private static final Method createSQLXMLMethod = Methods.getMethod(Connection.class, "createSQLXML");
 	
-	private static final Set<Method> createLocatorMethodSet = new HashSet<>(Arrays.asList(createBlobMethod, createClobMethod, createNClobMethod, createSQLXMLMethod));
-	
 	private static final StaticRegistry<Method, Durability.Phase> phaseRegistry = new DurabilityPhaseRegistryBuilder().phase(Durability.Phase.COMMIT, commitMethod, setAutoCommitMethod).phase(Durability.Phase.ROLLBACK, rollbackMethod).build();
 	
+	private enum ConnectionMethod
+	{
+		DRIVER_READ, DATABASE_READ, GET_META_DATA, DRIVER_WRITE, CLOSE, CREATE_STATEMENT, PREPARE_STATEMENT, PREPARE_CALL, CREATE_ARRAY, CREATE_BLOB, CREATE_CLOB, CREATE_NCLOB, CREATE_SQLXML, SET_AUTO_COMMIT, END_TRANSACTION, RELEASE_SAVEPOINT, ROLLBACK_SAVEPOINT, SET_SAVEPOINT;
+	}
+	
+	private static final StaticRegistry<Method, ConnectionMethod> connectionMethodRegistry = Methods.classify(Connection.class, ConnectionInvocationHandler::classify);
+	
+	private static ConnectionMethod classify(Method method)
+	{
+		if (driverReadMethodSet.contains(method)) return ConnectionMethod.DRIVER_READ;
+		if (databaseReadMethodSet.contains(method)) return ConnectionMethod.DATABASE_READ;
+		if (method.equals(getMetaDataMethod)) return ConnectionMethod.GET_META_DATA;
+		if (driverWriterMethodSet.contains(method)) return ConnectionMethod.DRIVER_WRITE;
+		if (method.equals(closeMethod)) return ConnectionMethod.CLOSE;
+		if (createStatementMethodSet.contains(method)) return ConnectionMethod.CREATE_STATEMENT;
+		if (prepareStatementMethodSet.contains(method)) return ConnectionMethod.PREPARE_STATEMENT;
+		if (prepareCallMethodSet.contains(method)) return ConnectionMethod.PREPARE_CALL;
+		if (method.equals(createArrayMethod)) return ConnectionMethod.CREATE_ARRAY;
+		if (method.equals(createBlobMethod)) return ConnectionMethod.CREATE_BLOB;
+		if (method.equals(createClobMethod)) return ConnectionMethod.CREATE_CLOB;
+		if (method.equals(createNClobMethod)) return ConnectionMethod.CREATE_NCLOB;
+		if (method.equals(createSQLXMLMethod)) return ConnectionMethod.CREATE_SQLXML;
+		if (method.equals(setAutoCommitMethod)) return ConnectionMethod.SET_AUTO_COMMIT;
+		if (phaseRegistry.get(method) != null) return ConnectionMethod.END_TRANSACTION;
+		if (method.equals(releaseSavepointMethod)) return ConnectionMethod.RELEASE_SAVEPOINT;
+		if (method.equals(rollbackSavepointMethod)) return ConnectionMethod.ROLLBACK_SAVEPOINT;
+		if (setSavepointMethodSet.contains(method)) return ConnectionMethod.SET_SAVEPOINT;
+		return null;
+	}
+	
 	/**
 	 * Constructs a new ConnectionInvocationHandler
 	 * @param proxyFactory a factory for creating connection proxies
@@ -77,54 +104,99 @@ public class ConnectionInvocationHandler<Z, D extends Database<Z>, P> extends Ch
 	{
 		super(Connection.class, proxyFactory, null);
 	}
-	
+
+	/**
+	 * If enabled, prepared statements are reused from the statement cache of this connection.
+	 */
 	@Override
-	protected ProxyFactoryFactory<Z, D, Connection, SQLException, ?, ? extends Exception> getProxyFactoryFactory(Connection connection, Method method, Object... parameters) throws SQLException
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
 	{
-		if (createStatementMethodSet.contains(method))
-		{
-			return new StatementProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext());
-		}
-		if (prepareStatementMethodSet.contains(method))
-		{
-			String sql = (String) parameters[0];
-			return new PreparedStatementProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().extractLocks(sql), this.getProxyFactory().isSelectForUpdate(sql));
-		}
-		if (prepareCallMethodSet.contains(method))
-		{
-			String sql = (String) parameters[0];
-			return new CallableStatementProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().extractLocks(sql));
-		}
+		PreparedStatementCache<Z, D> cache = this.getProxyFactory().getPreparedStatementCache();
 		
-		if (setSavepointMethodSet.contains(method))
+		if ((cache != null) && (connectionMethodRegistry.get(method) == ConnectionMethod.PREPARE_STATEMENT))
 		{
-			return new SavepointProxyFactoryFactory<>();
+			Object key = cache.key(method, args);
+			PreparedStatementProxyFactory<Z, D> factory = cache.take(key);
+			
+			if (factory != null)
+			{
+				// Bindings of previous use were already cleared on release
+				return factory.createProxy();
+			}
+			
+			String sql = (String) args[0];
+			PreparedStatement statement = (PreparedStatement) super.invoke(proxy, method, args);
+			
+			// Statements whose SQL was evaluated (e.g. CURRENT_TIMESTAMP) are not reusable
+			if (sql.equals(args[0]))
+			{
+				@SuppressWarnings("unchecked")
+				PreparedStatementInvocationHandler<Z, D> handler = (PreparedStatementInvocationHandler<Z, D>) Proxy.getInvocationHandler(statement);
+				handler.getProxyFactory().setCacheKey(key);
+			}
+			
+			return statement;
 		}
 		
-		if (method.equals(getMetaDataMethod))
-		{
-			return new DatabaseMetaDataProxyFactoryFactory<>();
-		}
+		return super.invoke(proxy, method, args);
+	}
+	
+	@Override
+	protected ProxyFactoryFactory<Z, D, Connection, SQLException, ?, ? extends Exception> getProxyFactoryFactory(Connection connection, Method method, Object... parameters) throws SQLException
+	{
+		ConnectionMethod type = connectionMethodRegistry.get(method);
 		
-		if (method.equals(createArrayMethod))
+		if (type != null)
 		{
-			return new ArrayProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
-		}
-		if (method.equals(createBlobMethod))
-		{
-			return new BlobProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
-		}
-		if (method.equals(createClobMethod))
-		{
-			return new ClobProxyFactoryFactory<>(Clob.class, this.getProxyFactory().locatorsUpdateCopy());
-		}
-		if (method.equals(createNClobMethod))
-		{
-			return new ClobProxyFactoryFactory<>(NClob.class, this.getProxyFactory().locatorsUpdateCopy());
-		}
-		if (method.equals(createSQLXMLMethod))
-		{
-			return new SQLXMLProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
+			switch (type)
+			{
+				case CREATE_STATEMENT:
+				{
+					return new StatementProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext());
+				}
+				case PREPARE_STATEMENT:
+				{
+					String sql = (String) parameters[0];
+					return new PreparedStatementProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().extractLocks(sql), this.getProxyFactory().isSelectForUpdate(sql));
+				}
+				case PREPARE_CALL:
+				{
+					String sql = (String) parameters[0];
+					return new CallableStatementProxyFactoryFactory<>(this.getProxyFactory().getTransactionContext(), this.getProxyFactory().extractLocks(sql));
+				}
+				case SET_SAVEPOINT:
+				{
+					return new SavepointProxyFactoryFactory<>();
+				}
+				case GET_META_DATA:
+				{
+					return new DatabaseMetaDataProxyFactoryFactory<>();
+				}
+				case CREATE_ARRAY:
+				{
+					return new ArrayProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
+				}
+				case CREATE_BLOB:
+				{
+					return new BlobProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
+				}
+				case CREATE_CLOB:
+				{
+					return new ClobProxyFactoryFactory<>(Clob.class, this.getProxyFactory().locatorsUpdateCopy());
+				}
+				case CREATE_NCLOB:
+				{
+					return new ClobProxyFactoryFactory<>(NClob.class, this.getProxyFactory().locatorsUpdateCopy());
+				}
+				case CREATE_SQLXML:
+				{
+					return new SQLXMLProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
+				}
+				default:
+				{
+					break;
+				}
+			}
 		}
 		
 		return super.getProxyFactoryFactory(connection, method, parameters);
@@ -136,40 +208,63 @@ public class ConnectionInvocationHandler<Z, D extends Database<Z>, P> extends Ch
 	@Override
 	protected InvocationStrategy getInvocationStrategy(Connection connection, Method method, Object... parameters) throws SQLException
 	{
-		if (driverReadMethodSet.contains(method))
-		{
-			return InvocationStrategies.INVOKE_ON_ANY;
-		}
-		
-		if (databaseReadMethodSet.contains(method) || method.equals(getMetaDataMethod))
-		{
-			return InvocationStrategies.INVOKE_ON_NEXT;
-		}
-		
-		if (driverWriterMethodSet.contains(method) || method.equals(closeMethod) || createStatementMethodSet.contains(method))
-		{
-			return InvocationStrategies.INVOKE_ON_EXISTING;
-		}
+		ConnectionMethod type = connectionMethodRegistry.get(method);
 		
-		if (prepareStatementMethodSet.contains(method) || prepareCallMethodSet.contains(method) || createLocatorMethodSet.contains(method))
+		if (type != null)
 		{
-			return InvocationStrategies.INVOKE_ON_ALL;
-		}
-		
-		Durability.Phase phase = phaseRegistry.get(method);
-		if (phase != null)
-		{
-			return this.getProxyFactory().getTransactionContext().end(InvocationStrategies.END_TRANSACTION_INVOKE_ON_ALL, phase);
-		}
-		
-		if (method.equals(rollbackSavepointMethod) || method.equals(releaseSavepointMethod))
-		{
-			return InvocationStrategies.END_TRANSACTION_INVOKE_ON_ALL;
-		}
-		
-		if (setSavepointMethodSet.contains(method))
-		{
-			return InvocationStrategies.TRANSACTION_INVOKE_ON_ALL;
+			switch (type)
+			{
+				case DRIVER_READ:
+				{
+					return InvocationStrategies.INVOKE_ON_ANY;
+				}
+				case DATABASE_READ:
+				case GET_META_DATA:
+				{
+					return InvocationStrategies.INVOKE_ON_NEXT;
+				}
+				case DRIVER_WRITE:
+				case CLOSE:
+				{
+					return InvocationStrategies.INVOKE_ON_EXISTING;
+				}
+				case CREATE_STATEMENT:
+				{
+					// If enabled, statements for the remaining databases are created on demand via ProxyFactory.get(...)
+					return this.getProxyFactory().getDatabaseCluster().isLazyStatementCreationEnabled() ? InvocationStrategies.INVOKE_ON_PRIMARY : InvocationStrategies.INVOKE_ON_EXISTING;
+				}
+				case PREPARE_STATEMENT:
+				case PREPARE_CALL:
+				{
+					// Always prepare against at least 1 database, so that invalid SQL is still reported by prepareStatement(...)
+					return this.getProxyFactory().getDatabaseCluster().isLazyStatementCreationEnabled() ? InvocationStrategies.INVOKE_ON_PRIMARY : InvocationStrategies.INVOKE_ON_ALL;
+				}
+				case CREATE_BLOB:
+				case CREATE_CLOB:
+				case CREATE_NCLOB:
+				case CREATE_SQLXML:
+				{
+					return InvocationStrategies.INVOKE_ON_ALL;
+				}
+				case SET_AUTO_COMMIT:
+				case END_TRANSACTION:
+				{
+					return this.getProxyFactory().getTransactionContext().end(InvocationStrategies.END_TRANSACTION_INVOKE_ON_ALL, phaseRegistry.get(method));
+				}
+				case RELEASE_SAVEPOINT:
+				case ROLLBACK_SAVEPOINT:
+				{
+					return InvocationStrategies.END_TRANSACTION_INVOKE_ON_ALL;
+				}
+				case SET_SAVEPOINT:
+				{
+					return InvocationStrategies.TRANSACTION_INVOKE_ON_ALL;
+				}
+				default:
+				{
+					break;
+				}
+			}
 		}
 		
 		return super.getInvocationStrategy(connection, method, parameters);
@@ -181,22 +276,23 @@ public class ConnectionInvocationHandler<Z, D extends Database<Z>, P> extends Ch
 	@Override
 	protected <R> Invoker<Z, D, Connection, R, SQLException> getInvoker(Connection connection, Method method, Object... parameters) throws SQLException
 	{
-		if (method.equals(releaseSavepointMethod) || method.equals(rollbackSavepointMethod))
+		ConnectionMethod type = connectionMethodRegistry.get(method);
+		
+		if ((type == ConnectionMethod.RELEASE_SAVEPOINT) || (type == ConnectionMethod.ROLLBACK_SAVEPOINT))
 		{
 			return this.getInvoker(Savepoint.class, 0, connection, method, parameters);
 		}
 		
-		if (prepareStatementMethodSet.contains(method) || prepareCallMethodSet.contains(method))
+		if ((type == ConnectionMethod.PREPARE_STATEMENT) || (type == ConnectionMethod.PREPARE_CALL))
 		{
 			parameters[0] = this.getProxyFactory().evaluate((String) parameters[0]);
 		}
 
 		Invoker<Z, D, Connection, R, SQLException> invoker = super.getInvoker(connection, method, parameters);
 		
-		Durability.Phase phase = phaseRegistry.get(method);
-		if (phase != null)
+		if ((type == ConnectionMethod.SET_AUTO_COMMIT) || (type == ConnectionMethod.END_TRANSACTION))
 		{
-			return this.getProxyFactory().getTransactionContext().end(invoker, phase);
+			return this.getProxyFactory().getTransactionContext().end(invoker, phaseRegistry.get(method));
 		}
 		
 		return invoker;
@@ -206,16 +302,24 @@ public class ConnectionInvocationHandler<Z, D extends Database<Z>, P> extends Ch
 	@Override
 	protected <R> void postInvoke(Invoker<Z, D, Connection, R, SQLException> invoker, Connection proxy, Method method, Object... parameters)
 	{
-		if (driverWriterMethodSet.contains(method) || method.equals(setAutoCommitMethod))
+		ConnectionMethod type = connectionMethodRegistry.get(method);
+		
+		if ((type == ConnectionMethod.DRIVER_WRITE) || (type == ConnectionMethod.SET_AUTO_COMMIT))
 		{
 			this.getProxyFactory().record(invoker);
 		}
-		else if (method.equals(closeMethod))
+		else if (type == ConnectionMethod.CLOSE)
 		{
+			PreparedStatementCache<Z, D> cache = this.getProxyFactory().getPreparedStatementCache();
+			if (cache != null)
+			{
+				// Closing the connections also closes any cached statements
+				cache.clear();
+			}
 			this.getProxyFactory().getTransactionContext().close();
 			this.getProxyFactory().remove();
 		}
-		else if (method.equals(releaseSavepointMethod))
+		else if (type == ConnectionMethod.RELEASE_SAVEPOINT)
 		{
 			SavepointInvocationHandler<Z, D> handler = (SavepointInvocationHandler<Z, D>) Proxy.getInvocationHandler(parameters[0]);
 			this.getProxyFactory().removeChild(handler.getProxyFactory());
@@ -32,9 +32,22 @@ import net.sf.hajdbc.util.reflect.Proxies;
  */
 public class ConnectionProxyFactory<Z, D extends Database<Z>, P> extends AbstractSQLProxyFactory<Z, D, P, Connection>
 {
+	private final PreparedStatementCache<Z, D> preparedStatementCache;
+	
 	public ConnectionProxyFactory(P parentProxy, ProxyFactory<Z, D, P, SQLException> parent, Invoker<Z, D, P, Connection, SQLException> invoker, Map<D, Connection> map, TransactionContext<Z, D> context)
 	{
 		super(parentProxy, parent, invoker, map, context);
+		int cacheSize = this.getDatabaseCluster().getPreparedStatementCacheSize();
+		this.preparedStatementCache = (cacheSize > 0) ? new PreparedStatementCache<Z, D>(cacheSize) : null;
+	}
+
+	/**
+	 * Returns the cache of closed prepared statements of this connection.
+	 * @return a prepared statement cache, or null if prepared statement caching is disabled.
+	 */
+	public PreparedStatementCache<Z, D> getPreparedStatementCache()
+	{
+		return this.preparedStatementCache;
 	}
 
 	@Override
@@ -49,6 +62,21 @@ public class ConnectionProxyFactory<Z, D extends Database<Z>, P> extends Abstrac
 		return Proxies.createProxy(Connection.class, new ConnectionInvocationHandler<>(this));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * Closes any cached statements, rather than let them linger with one less database.
+	 */
+	@Override
+	public synchronized void close(D database)
+	{
+		if (this.preparedStatementCache != null)
+		{
+			this.preparedStatementCache.evict();
+		}
+		
+		super.close(database);
+	}
+
 	@Override
 	public void close(D database, Connection connection) throws SQLException
 	{
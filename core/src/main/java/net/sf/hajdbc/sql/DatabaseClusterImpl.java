@@ -27,6 +27,7 @@ import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 import javax.management.JMException;
@@ -43,12 +44,16 @@ import net.sf.hajdbc.TransactionMode;
 import net.sf.hajdbc.Version;
 import net.sf.hajdbc.balancer.Balancer;
 import net.sf.hajdbc.cache.DatabaseMetaDataCache;
+import net.sf.hajdbc.cache.SQLAnalysisCache;
 import net.sf.hajdbc.codec.Decoder;
 import net.sf.hajdbc.dialect.Dialect;
 import net.sf.hajdbc.distributed.CommandDispatcherFactory;
 import net.sf.hajdbc.durability.Durability;
 import net.sf.hajdbc.durability.InvocationEvent;
 import net.sf.hajdbc.durability.InvokerEvent;
+import net.sf.hajdbc.invocation.HedgedInvocationStrategy;
+import net.sf.hajdbc.invocation.InvocationStrategies;
+import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.io.InputSinkStrategy;
 import net.sf.hajdbc.lock.LockManager;
 import net.sf.hajdbc.lock.distributed.DistributedLockManager;
@@ -70,6 +75,7 @@ import net.sf.hajdbc.sync.SynchronizationContextImpl;
 import net.sf.hajdbc.tx.SimpleTransactionIdentifierFactory;
 import net.sf.hajdbc.tx.TransactionIdentifierFactory;
 import net.sf.hajdbc.tx.UUIDTransactionIdentifierFactory;
+import net.sf.hajdbc.util.concurrent.PartitionedExecutorService;
 import net.sf.hajdbc.util.concurrent.cron.CronExpression;
 import net.sf.hajdbc.util.concurrent.cron.CronThreadPoolExecutor;
 
@@ -90,6 +96,8 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 	private Dialect dialect;
 	private Durability<Z, D> durability;
 	private DatabaseMetaDataCache<Z, D> databaseMetaDataCache;
+	private SQLAnalysisCache sqlAnalysisCache;
+	private InvocationStrategy readInvocationStrategy;
 	private ExecutorService executor;
 	private Decoder decoder;
 	private CronThreadPoolExecutor cronExecutor;
@@ -290,6 +298,11 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		this.registrar.unregister(this, database);
 		
 		this.configuration.getDatabaseMap().remove(databaseId);
+		
+		if (this.executor instanceof PartitionedExecutorService)
+		{
+			((PartitionedExecutorService) this.executor).remove(database);
+		}
 
 		for (DatabaseClusterConfigurationListener<Z, D> listener: this.configurationListeners)
 		{
@@ -346,7 +359,7 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 	}
 
 	/**
-	 * Flushes this cluster's cache of DatabaseMetaData.
+	 * Flushes this cluster's cache of DatabaseMetaData, along with any SQL analysis derived from it.
 	 */
 	@ManagedOperation
 	@Description("Flushes this cluster's cache of database meta data")
@@ -360,6 +373,40 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		{
 			throw new IllegalStateException(e.toString(), e);
 		}
+		this.sqlAnalysisCache.flush();
+	}
+
+	/**
+	 * Returns the number of SQL analysis cache lookups that found a cached analysis.
+	 * @return a hit count
+	 */
+	@ManagedAttribute
+	@Description("The number of SQL analysis cache hits")
+	public long getSQLAnalysisCacheHits()
+	{
+		return this.sqlAnalysisCache.getHits();
+	}
+
+	/**
+	 * Returns the number of SQL analysis cache lookups that did not find a cached analysis.
+	 * @return a miss count
+	 */
+	@ManagedAttribute
+	@Description("The number of SQL analysis cache misses")
+	public long getSQLAnalysisCacheMisses()
+	{
+		return this.sqlAnalysisCache.getMisses();
+	}
+
+	/**
+	 * Returns the number of SQL statements whose analysis is currently cached.
+	 * @return the cache size
+	 */
+	@ManagedAttribute
+	@Description("The number of SQL statements in the analysis cache")
+	public int getSQLAnalysisCacheSize()
+	{
+		return this.sqlAnalysisCache.size();
 	}
 
 	/**
@@ -523,6 +570,16 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		return this.databaseMetaDataCache;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getSQLAnalysisCache()
+	 */
+	@Override
+	public SQLAnalysisCache getSQLAnalysisCache()
+	{
+		return this.sqlAnalysisCache;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.DatabaseCluster#getDialect()
@@ -661,6 +718,46 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		return this.configuration.isRandEvaluationEnabled();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#isLazyStatementCreationEnabled()
+	 */
+	@Override
+	public boolean isLazyStatementCreationEnabled()
+	{
+		return this.configuration.isLazyStatementCreationEnabled();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getPreparedStatementCacheSize()
+	 */
+	@Override
+	public int getPreparedStatementCacheSize()
+	{
+		return this.configuration.getPreparedStatementCacheSize();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getBatchChunkSize()
+	 */
+	@Override
+	public int getBatchChunkSize()
+	{
+		return this.configuration.getBatchChunkSize();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.DatabaseCluster#getReadInvocationStrategy()
+	 */
+	@Override
+	public InvocationStrategy getReadInvocationStrategy()
+	{
+		return this.readInvocationStrategy;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.DatabaseCluster#isSequenceDetectionEnabled()
@@ -703,6 +800,8 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		this.dialect = this.configuration.getDialectFactory().createDialect();
 		this.durability = this.configuration.getDurabilityFactory().createDurability(this);
 		this.executor = this.configuration.getExecutorProvider().getExecutor(this.configuration.getThreadFactory());
+		int hedgedReadDelay = this.configuration.getHedgedReadDelay();
+		this.readInvocationStrategy = (hedgedReadDelay > 0) ? new HedgedInvocationStrategy(hedgedReadDelay, TimeUnit.MILLISECONDS) : InvocationStrategies.INVOKE_ON_NEXT;
 		this.sinkSourceFactory = this.configuration.getInputSinkProvider().createInputSinkStrategy();
 		this.txIdentifierFactory = (dispatcherFactory != null) ? new UUIDTransactionIdentifierFactory() : new SimpleTransactionIdentifierFactory();
 
@@ -743,6 +842,7 @@ public class DatabaseClusterImpl<Z, D extends Database<Z>> implements DatabaseCl
 		}
 		
 		this.databaseMetaDataCache = this.configuration.getDatabaseMetaDataCacheFactory().createCache(this);
+		this.sqlAnalysisCache = new SQLAnalysisCache(this.configuration.getSQLAnalysisCacheSize());
 		
 		try
 		{
@@ -22,16 +22,26 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 
-import net.sf.hajdbc.ExecutorServiceProvider;
+import net.sf.hajdbc.IdentifiableExecutorServiceProvider;
 
 /**
  * @author paul
  *
  */
-public class DefaultExecutorServiceProvider implements ExecutorServiceProvider, Serializable
+public class DefaultExecutorServiceProvider implements IdentifiableExecutorServiceProvider, Serializable
 {
 	private static final long serialVersionUID = 5781743869682086889L;
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Identifiable#getId()
+	 */
+	@Override
+	public String getId()
+	{
+		return "default";
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.ExecutorServiceProvider#getExecutor(java.util.concurrent.ThreadFactory)
@@ -20,14 +20,12 @@ package net.sf.hajdbc.sql;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.ExceptionFactory;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.io.InputSinkChannel;
+import net.sf.hajdbc.io.InputSinkRegistry;
 import net.sf.hajdbc.util.reflect.Methods;
 
 /**
@@ -41,6 +39,12 @@ public class InputSinkRegistryInvocationHandler<Z, D extends Database<Z>, P, T,
 		super(proxyClass, proxyFactory, parentMethod);
 	}
 
+	@Override
+	protected InputSinkRegistry<Object> getInputSinkRegistry()
+	{
+		return this.getProxyFactory().getInputSinkRegistry();
+	}
+
 	@Override
 	protected <R, X> Invoker<Z, D, T, R, SQLException> getInvoker(Class<X> parameterClass, final int parameterIndex, T proxy, final Method method, final Object... parameters) throws SQLException
 	{
@@ -64,13 +68,14 @@ public class InputSinkRegistryInvocationHandler<Z, D extends Database<Z>, P, T,
 							@Override
 							public R invoke(D database, T object) throws SQLException
 							{
-								List<Object> parameterList = new ArrayList<>(Arrays.asList(parameters));
+								Object[] arguments = parameters.clone();
 								
 								try
 								{
-									parameterList.set(parameterIndex, channel.read(sink));
+									// Each database reads its own view of the sink
+									arguments[parameterIndex] = channel.read(sink);
 									
-									return Methods.<R, SQLException>invoke(method, exceptionFactory, object, parameterList.toArray());
+									return Methods.<R, SQLException>invoke(method, exceptionFactory, object, arguments);
 								}
 								catch (IOException e)
 								{
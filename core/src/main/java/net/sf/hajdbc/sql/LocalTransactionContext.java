@@ -20,15 +20,24 @@ package net.sf.hajdbc.sql;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.SortedMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.ExceptionFactory;
 import net.sf.hajdbc.ExceptionType;
+import net.sf.hajdbc.balancer.Balancer;
 import net.sf.hajdbc.durability.Durability;
 import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
 import net.sf.hajdbc.tx.TransactionIdentifierFactory;
+import net.sf.hajdbc.util.ArraySortedMap;
 
 /**
  * @author Paul Ferraro
@@ -37,10 +46,69 @@ import net.sf.hajdbc.tx.TransactionIdentifierFactory;
  */
 public class LocalTransactionContext<Z, D extends Database<Z>> implements TransactionContext<Z, D>
 {
+	static final Messages messages = MessagesFactory.getMessages();
+	static final Logger logger = LoggerFactory.getLogger(LocalTransactionContext.class);
+	
 	final Durability<Z, D> durability;
 	private final Lock lock;
 	private final TransactionIdentifierFactory<? extends Object> transactionIdFactory;
 	volatile Object transactionId;
+	private final AtomicReference<Database<?>> pinnedDatabase = new AtomicReference<>();
+	
+	// Reads of a read-only transaction cannot move to another database, so a failure fails the transaction
+	private final InvocationStrategy readOnlyStrategy = new InvocationStrategy()
+	{
+		@Override
+		public <ZZ, DD extends Database<ZZ>, T, R, E extends Exception> SortedMap<DD, R> invoke(ProxyFactory<ZZ, DD, T, E> factory, Invoker<ZZ, DD, T, R, E> invoker) throws E
+		{
+			DatabaseCluster<ZZ, DD> cluster = factory.getDatabaseCluster();
+			ExceptionFactory<E> exceptionFactory = factory.getExceptionFactory();
+			Balancer<ZZ, DD> balancer = cluster.getBalancer();
+			
+			DD database = LocalTransactionContext.this.pin(balancer);
+			
+			if (database == null)
+			{
+				throw exceptionFactory.createException(messages.noActiveDatabases(cluster));
+			}
+			
+			T object = balancer.contains(database) ? factory.get(database) : null;
+			
+			if (object == null)
+			{
+				throw exceptionFactory.createException(messages.pinnedDatabaseDeactivated(cluster, database));
+			}
+			
+			try
+			{
+				R result = balancer.invoke(invoker, database, object);
+				
+				SortedMap<DD, R> resultMap = new ArraySortedMap<>(1);
+				resultMap.put(database, result);
+				return resultMap;
+			}
+			catch (Exception e)
+			{
+				E exception = exceptionFactory.createException(e);
+				
+				if (balancer.contains(database) && exceptionFactory.indicatesFailure(exception, cluster.getDialect()))
+				{
+					if (cluster.deactivate(database, cluster.getStateManager()))
+					{
+						logger.log(Level.ERROR, exception, messages.deactivated(cluster, database));
+					}
+				}
+				
+				throw exception;
+			}
+		}
+
+		@Override
+		public boolean isSingleDatabase()
+		{
+			return true;
+		}
+	};
 	
 	/**
 	 * @param cluster
@@ -126,6 +194,53 @@ public class LocalTransactionContext<Z, D extends Database<Z>> implements Transa
 		};
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.sql.TransactionContext#read(net.sf.hajdbc.invocation.InvocationStrategy, java.sql.Connection)
+	 */
+	@Override
+	public InvocationStrategy read(InvocationStrategy strategy, Connection connection) throws SQLException
+	{
+		return (!connection.getAutoCommit() && connection.isReadOnly()) ? this.readOnlyStrategy : strategy;
+	}
+
+	/**
+	 * Returns the database to which the current read-only transaction is pinned, which may since have been deactivated.
+	 * If the transaction was not yet pinned, the balancer chooses its database.
+	 * @return a database, or null, if the transaction was not yet pinned and there are no active databases
+	 */
+	@SuppressWarnings("unchecked")
+	<ZZ, DD extends Database<ZZ>> DD pin(Balancer<ZZ, DD> balancer)
+	{
+		while (true)
+		{
+			DD database = (DD) this.pinnedDatabase.get();
+			
+			if (database != null) return database;
+			
+			DD next = balancer.next();
+			
+			if (next == null) return null;
+			
+			// Concurrent reads of the same transaction must agree on its database
+			if (this.pinnedDatabase.compareAndSet(null, next))
+			{
+				next.incrementReadOnlyTransactions();
+				return next;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.sql.TransactionContext#reset()
+	 */
+	@Override
+	public void reset()
+	{
+		this.pinnedDatabase.set(null);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.sql.TransactionContext#end(net.sf.hajdbc.invocation.InvocationStrategy, net.sf.hajdbc.durability.Durability.Phase)
@@ -133,6 +248,8 @@ public class LocalTransactionContext<Z, D extends Database<Z>> implements Transa
 	@Override
 	public InvocationStrategy end(final InvocationStrategy strategy, final Durability.Phase phase)
 	{
+		this.reset();
+		
 		if (this.transactionId == null) return strategy;
 
 		return new InvocationStrategy()
@@ -161,6 +278,8 @@ public class LocalTransactionContext<Z, D extends Database<Z>> implements Transa
 	@Override
 	public <T, R> Invoker<Z, D, T, R, SQLException> end(final Invoker<Z, D, T, R, SQLException> invoker, Durability.Phase phase)
 	{
+		this.reset();
+		
 		if (this.transactionId == null) return invoker;
 
 		return this.durability.getInvoker(invoker, phase, this.transactionId, ExceptionType.SQL.<SQLException>getExceptionFactory());
@@ -172,6 +291,8 @@ public class LocalTransactionContext<Z, D extends Database<Z>> implements Transa
 	@Override
 	public void close()
 	{
+		this.reset();
+		
 		// Tsk, tsk... User neglected to commit/rollback transaction
 		if (this.transactionId != null)
 		{
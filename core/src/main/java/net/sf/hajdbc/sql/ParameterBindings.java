@@ -0,0 +1,216 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.invocation.Invoker;
+
+/**
+ * Buffers the parameter bindings of a prepared statement proxy, so that they can be applied to each underlying statement in a single pass when the statement is executed or batched.
+ * Indexed parameters are held in a slot array indexed by parameter index; named parameters (i.e. of a callable statement) are held in insertion order.
+ * Only the last binding of a given parameter is retained.
+ * @author Paul Ferraro
+ */
+public class ParameterBindings<Z, D extends Database<Z>, S extends PreparedStatement>
+{
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private Invoker<Z, D, S, ?, SQLException>[] slots = createArray(INITIAL_CAPACITY);
+	private Map<String, Invoker<Z, D, S, ?, SQLException>> namedSlots = null;
+	private int bound = 0;
+	// Immutable view of the current bindings, shared by invokers until the next binding
+	private Invoker<Z, D, S, ?, SQLException>[] snapshot = null;
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static <Z, D extends Database<Z>, S> Invoker<Z, D, S, ?, SQLException>[] createArray(int size)
+	{
+		return new Invoker[size];
+	}
+	
+	/**
+	 * Binds the specified invoker to the specified parameter, replacing any previous binding.
+	 * @param parameter a parameter index, or a parameter name
+	 * @param invoker an invoker of a set*(...) method
+	 */
+	public void bind(Object parameter, Invoker<Z, D, S, ?, SQLException> invoker)
+	{
+		if (parameter instanceof Integer)
+		{
+			int index = (Integer) parameter;
+			
+			// Invalid indexes are left for the driver to reject
+			if (index >= 0)
+			{
+				if (index >= this.slots.length)
+				{
+					this.slots = Arrays.copyOf(this.slots, Math.max(this.slots.length * 2, index + 1));
+				}
+				if (this.slots[index] == null)
+				{
+					this.bound += 1;
+				}
+				this.slots[index] = invoker;
+				this.snapshot = null;
+				return;
+			}
+		}
+		
+		if (this.namedSlots == null)
+		{
+			this.namedSlots = new LinkedHashMap<>();
+		}
+		// Re-insert, so that bindings are applied in the order they were last made
+		if (this.namedSlots.remove(String.valueOf(parameter)) == null)
+		{
+			this.bound += 1;
+		}
+		this.namedSlots.put(String.valueOf(parameter), invoker);
+		this.snapshot = null;
+	}
+	
+	/**
+	 * Discards all parameter bindings.
+	 */
+	public void clear()
+	{
+		if (this.bound > 0)
+		{
+			Arrays.fill(this.slots, null);
+			this.namedSlots = null;
+			this.bound = 0;
+			this.snapshot = null;
+		}
+	}
+	
+	/**
+	 * Indicates whether any parameters are bound.
+	 * @return true, if no parameters are bound, false otherwise
+	 */
+	public boolean isEmpty()
+	{
+		return this.bound == 0;
+	}
+	
+	/**
+	 * Returns an invoker that applies the current parameter bindings to a statement before invoking the specified invoker.
+	 * Subsequent bindings do not affect the returned invoker.
+	 * @param invoker an invoker of an execute*(...) or addBatch() method
+	 * @return an invoker
+	 */
+	public <R> Invoker<Z, D, S, R, SQLException> bindTo(Invoker<Z, D, S, R, SQLException> invoker)
+	{
+		return (this.bound > 0) ? new BoundInvoker<>(this.snapshot(), invoker) : invoker;
+	}
+	
+	/**
+	 * Applies the current parameter bindings to the specified statement.
+	 * @param database a database
+	 * @param statement a statement of the specified database
+	 * @throws SQLException if a parameter could not be bound
+	 */
+	public void apply(D database, S statement) throws SQLException
+	{
+		if (this.bound > 0)
+		{
+			apply(this.snapshot(), database, statement);
+		}
+	}
+	
+	int getSlotCount()
+	{
+		return this.slots.length;
+	}
+	
+	Invoker<Z, D, S, ?, SQLException> getSlot(int index)
+	{
+		return this.slots[index];
+	}
+	
+	boolean hasNamedBindings()
+	{
+		return (this.namedSlots != null) && !this.namedSlots.isEmpty();
+	}
+	
+	private Invoker<Z, D, S, ?, SQLException>[] snapshot()
+	{
+		Invoker<Z, D, S, ?, SQLException>[] snapshot = this.snapshot;
+		
+		if (snapshot == null)
+		{
+			snapshot = createArray(this.bound);
+			int i = 0;
+			for (Invoker<Z, D, S, ?, SQLException> invoker: this.slots)
+			{
+				if (invoker != null)
+				{
+					snapshot[i++] = invoker;
+				}
+			}
+			if (this.namedSlots != null)
+			{
+				for (Invoker<Z, D, S, ?, SQLException> invoker: this.namedSlots.values())
+				{
+					snapshot[i++] = invoker;
+				}
+			}
+			this.snapshot = snapshot;
+		}
+		
+		return snapshot;
+	}
+	
+	static <Z, D extends Database<Z>, S> void apply(Invoker<Z, D, S, ?, SQLException>[] bindings, D database, S statement) throws SQLException
+	{
+		for (Invoker<Z, D, S, ?, SQLException> binding: bindings)
+		{
+			binding.invoke(database, statement);
+		}
+	}
+	
+	private static class BoundInvoker<Z, D extends Database<Z>, S, R> implements Invoker<Z, D, S, R, SQLException>
+	{
+		private final Invoker<Z, D, S, ?, SQLException>[] bindings;
+		private final Invoker<Z, D, S, R, SQLException> invoker;
+		
+		BoundInvoker(Invoker<Z, D, S, ?, SQLException>[] bindings, Invoker<Z, D, S, R, SQLException> invoker)
+		{
+			this.bindings = bindings;
+			this.invoker = invoker;
+		}
+		
+		@Override
+		public R invoke(D database, S statement) throws SQLException
+		{
+			apply(this.bindings, database, statement);
+			
+			return this.invoker.invoke(database, statement);
+		}
+
+		@Override
+		public String toString()
+		{
+			return this.invoker.toString();
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.ExceptionFactory;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.util.StaticRegistry;
+import net.sf.hajdbc.util.reflect.Methods;
+
+/**
+ * Lightweight invocation handler for a read-only result set that exists on a single database.
+ * Method invocations are delegated directly to the underlying result set, bypassing invocation strategies entirely.
+ * Only {@link ResultSet#close()}, {@link ResultSet#getStatement()}, and locator getters (e.g. {@link ResultSet#getBlob(int)}) are intercepted.
+ * The latter are handled by a full {@link ResultSetInvocationHandler}, created on demand.
+ * {@link Object#equals(Object)}, {@link Object#hashCode()}, and {@link Object#toString()} are handled by the proxy itself.
+ * As with the invocation strategies, the database is deactivated if a method fails with an exception that indicates a database failure.
+ * @author Paul Ferraro
+ */
+public class PassThroughResultSetInvocationHandler<Z, D extends Database<Z>, S extends Statement> implements InvocationHandler<Z, D, ResultSet, SQLException, ResultSetProxyFactory<Z, D, S>>
+{
+	private static final Messages messages = MessagesFactory.getMessages();
+	private static final Logger logger = LoggerFactory.getLogger(PassThroughResultSetInvocationHandler.class);
+
+	private static final Method equalsMethod = Methods.getMethod(Object.class, "equals", Object.class);
+	private static final Method hashCodeMethod = Methods.getMethod(Object.class, "hashCode");
+	private static final Method toStringMethod = Methods.getMethod(Object.class, "toString");
+	private static final Set<Method> locatorMethodSet = Methods.findMethods(ResultSet.class, "getArray", "getBlob", "getClob", "getNClob", "getRef", "getSQLXML");
+	private static final Method closeMethod = Methods.getMethod(ResultSet.class, "close");
+	private static final Method getStatementMethod = Methods.getMethod(ResultSet.class, "getStatement");
+
+	private enum PassThroughMethod
+	{
+		CLOSE, GET_STATEMENT, GET_LOCATOR;
+	}
+
+	private static final StaticRegistry<Method, PassThroughMethod> passThroughMethodRegistry = Methods.classify(ResultSet.class, PassThroughResultSetInvocationHandler::classify);
+
+	private static PassThroughMethod classify(Method method)
+	{
+		if (method.equals(closeMethod)) return PassThroughMethod.CLOSE;
+		if (method.equals(getStatementMethod)) return PassThroughMethod.GET_STATEMENT;
+		if (locatorMethodSet.contains(method)) return PassThroughMethod.GET_LOCATOR;
+		return null;
+	}
+
+	private final ResultSetProxyFactory<Z, D, S> factory;
+	private final D database;
+	private final ResultSet resultSet;
+	private volatile ResultSet proxy;
+
+	/**
+	 * @param factory a factory for creating result set proxies, containing a single result set
+	 */
+	public PassThroughResultSetInvocationHandler(ResultSetProxyFactory<Z, D, S> factory)
+	{
+		this.factory = factory;
+		Map.Entry<D, ResultSet> entry = factory.entries().iterator().next();
+		this.database = entry.getKey();
+		this.resultSet = entry.getValue();
+	}
+
+	@Override
+	public ResultSetProxyFactory<Z, D, S> getProxyFactory()
+	{
+		return this.factory;
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] parameters) throws Throwable
+	{
+		if (method.equals(equalsMethod))
+		{
+			return proxy == parameters[0];
+		}
+		if (method.equals(hashCodeMethod))
+		{
+			return System.identityHashCode(proxy);
+		}
+		if (method.equals(toStringMethod))
+		{
+			return ResultSet.class.getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+		}
+
+		PassThroughMethod type = passThroughMethodRegistry.get(method);
+
+		if (type != null)
+		{
+			switch (type)
+			{
+				case GET_STATEMENT:
+				{
+					return this.factory.getParentProxy();
+				}
+				case GET_LOCATOR:
+				{
+					// Locators require a proxy of their own
+					return Methods.invoke(method, this.factory.getExceptionFactory(), this.getResultSetProxy(), parameters);
+				}
+				case CLOSE:
+				{
+					this.invokeResultSet(method, parameters);
+					this.factory.remove();
+					return null;
+				}
+			}
+		}
+
+		return this.invokeResultSet(method, parameters);
+	}
+
+	private Object invokeResultSet(Method method, Object[] parameters) throws SQLException
+	{
+		ExceptionFactory<SQLException> exceptionFactory = this.factory.getExceptionFactory();
+		try
+		{
+			return Methods.invoke(method, exceptionFactory, this.resultSet, parameters);
+		}
+		catch (SQLException e)
+		{
+			DatabaseCluster<Z, D> cluster = this.factory.getDatabaseCluster();
+			// The result set cannot be recreated on another database, so the failure is still thrown to the caller
+			if (exceptionFactory.indicatesFailure(e, cluster.getDialect()) && cluster.deactivate(this.database, cluster.getStateManager()))
+			{
+				logger.log(Level.ERROR, e, messages.deactivated(cluster, this.database));
+			}
+			throw e;
+		}
+	}
+
+	private ResultSet getResultSetProxy()
+	{
+		ResultSet proxy = this.proxy;
+		if (proxy == null)
+		{
+			synchronized (this)
+			{
+				proxy = this.proxy;
+				if (proxy == null)
+				{
+					proxy = this.factory.createResultSetProxy();
+					this.proxy = proxy;
+				}
+			}
+		}
+		return proxy;
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+
+/**
+ * A bounded, least-recently-used cache of the closed prepared statements of a connection proxy.
+ * Each cached statement retains its underlying statement for each database, along with its analyzed locks, such that a subsequent prepareStatement(...) of the same SQL skips both the prepare and the analysis.
+ * @author Paul Ferraro
+ */
+public class PreparedStatementCache<Z, D extends Database<Z>>
+{
+	private static final Logger logger = LoggerFactory.getLogger(PreparedStatementCache.class);
+	
+	private final int capacity;
+	private final Map<Object, PreparedStatementProxyFactory<Z, D>> statements = new LinkedHashMap<>(16, 0.75f, true);
+	private boolean closed = false;
+	
+	public PreparedStatementCache(int capacity)
+	{
+		this.capacity = capacity;
+	}
+	
+	/**
+	 * Creates a cache key for the specified prepareStatement(...) invocation.
+	 * @param method a prepareStatement(...) method
+	 * @param parameters the method parameters, prior to any SQL evaluation
+	 * @return a cache key
+	 */
+	public Object key(Method method, Object... parameters)
+	{
+		return new Key(method, parameters);
+	}
+	
+	/**
+	 * Removes the cached statement for the specified key, if one exists.
+	 * @param key a cache key
+	 * @return a statement proxy factory, or null if no statement was cached
+	 */
+	public synchronized PreparedStatementProxyFactory<Z, D> take(Object key)
+	{
+		return this.statements.remove(key);
+	}
+	
+	/**
+	 * Caches the specified closed statement, evicting the least recently used statement, if necessary.
+	 * @param key a cache key
+	 * @param factory the proxy factory of a closed statement
+	 * @return true, if the statement was cached, false if it must be closed
+	 */
+	public boolean offer(Object key, PreparedStatementProxyFactory<Z, D> factory)
+	{
+		PreparedStatementProxyFactory<Z, D> evicted = null;
+		
+		synchronized (this)
+		{
+			if (this.closed) return false;
+			
+			PreparedStatementProxyFactory<Z, D> existing = this.statements.get(key);
+			
+			// The statement was already closed
+			if (existing == factory) return true;
+			// Only cache a single statement per key
+			if (existing != null) return false;
+			
+			this.statements.put(key, factory);
+			
+			if (this.statements.size() > this.capacity)
+			{
+				Iterator<PreparedStatementProxyFactory<Z, D>> eldest = this.statements.values().iterator();
+				evicted = eldest.next();
+				eldest.remove();
+			}
+		}
+		
+		if (evicted != null)
+		{
+			close(evicted);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Closes all cached statements, e.g. when a database is deactivated.
+	 * Statements in use are unaffected.
+	 */
+	public void evict()
+	{
+		for (PreparedStatementProxyFactory<Z, D> factory: this.drain(false))
+		{
+			close(factory);
+		}
+	}
+	
+	/**
+	 * Discards all cached statements, and disables any further caching.
+	 * Used when the connection is closed, since closing the underlying connections also closes their statements.
+	 */
+	public void clear()
+	{
+		this.drain(true);
+	}
+	
+	private synchronized List<PreparedStatementProxyFactory<Z, D>> drain(boolean close)
+	{
+		this.closed |= close;
+		
+		if (this.statements.isEmpty()) return Collections.emptyList();
+		
+		List<PreparedStatementProxyFactory<Z, D>> factories = new ArrayList<>(this.statements.values());
+		this.statements.clear();
+		return factories;
+	}
+	
+	private static <Z, D extends Database<Z>> void close(PreparedStatementProxyFactory<Z, D> factory)
+	{
+		// Detach from this cache, so that the statement is physically closed
+		factory.setCacheKey(null);
+		try
+		{
+			factory.createProxy().close();
+		}
+		catch (SQLException e)
+		{
+			logger.log(Level.WARN, e);
+		}
+	}
+	
+	private static class Key
+	{
+		private final Method method;
+		private final Object[] parameters;
+		private final int hashCode;
+		
+		Key(Method method, Object[] parameters)
+		{
+			this.method = method;
+			// Defensive copy, since the SQL parameter is replaced by its evaluated form
+			this.parameters = parameters.clone();
+			this.hashCode = 31 * method.hashCode() + Arrays.deepHashCode(this.parameters);
+		}
+
+		@Override
+		public boolean equals(Object object)
+		{
+			if (!(object instanceof Key)) return false;
+			Key key = (Key) object;
+			return this.method.equals(key.method) && Arrays.deepEquals(this.parameters, key.parameters);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return this.hashCode;
+		}
+	}
+}
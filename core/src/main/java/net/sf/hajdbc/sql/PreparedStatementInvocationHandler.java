@@ -19,6 +19,7 @@ package net.sf.hajdbc.sql;
 
 import java.lang.reflect.Method;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Set;
 
 import net.sf.hajdbc.Database;
@@ -31,9 +32,38 @@ import net.sf.hajdbc.util.reflect.Methods;
 public class PreparedStatementInvocationHandler<Z, D extends Database<Z>> extends AbstractPreparedStatementInvocationHandler<Z, D, PreparedStatement, PreparedStatementProxyFactory<Z, D>>
 {
 	private static final Set<Method> setMethods = Methods.findMethods(PreparedStatement.class, "set\\w+");
+	private static final Method closeMethod = Methods.getMethod(PreparedStatement.class, "close");
+	private static final Method isClosedMethod = Methods.getMethod(PreparedStatement.class, "isClosed");
+	
+	// Indicates whether this statement was returned to the statement cache, after which this proxy is unusable
+	private volatile boolean released = false;
 	
 	public PreparedStatementInvocationHandler(PreparedStatementProxyFactory<Z, D> proxyFactory)
 	{
 		super(PreparedStatement.class, proxyFactory, setMethods);
 	}
+
+	/**
+	 * If enabled, closing a statement returns it to the statement cache of its connection.
+	 * The underlying statements are then reused via a new proxy, thus this proxy behaves as if closed.
+	 */
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+	{
+		if (this.released && !method.getDeclaringClass().equals(Object.class))
+		{
+			if (method.equals(closeMethod)) return null;
+			if (method.equals(isClosedMethod)) return Boolean.TRUE;
+			
+			throw new SQLException(this.messages.closed(PreparedStatement.class));
+		}
+		
+		if (method.equals(closeMethod) && this.getProxyFactory().release())
+		{
+			this.released = true;
+			return null;
+		}
+		
+		return super.invoke(proxy, method, args);
+	}
 }
@@ -17,15 +17,18 @@
  */
 package net.sf.hajdbc.sql;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.logging.Level;
 import net.sf.hajdbc.util.reflect.Proxies;
 
 /**
@@ -34,9 +37,75 @@ import net.sf.hajdbc.util.reflect.Proxies;
  */
 public class PreparedStatementProxyFactory<Z, D extends Database<Z>> extends AbstractPreparedStatementProxyFactory<Z, D, PreparedStatement>
 {
+	private final PreparedStatementCache<Z, D> cache;
+	// Non-null if this statement is returned to the statement cache of its connection when closed
+	private volatile Object cacheKey = null;
+	
 	protected PreparedStatementProxyFactory(Connection parent, ProxyFactory<Z, D, Connection, SQLException> parentFactory, Invoker<Z, D, Connection, PreparedStatement, SQLException> invoker, Map<D, PreparedStatement> map, TransactionContext<Z, D> context, List<Lock> locks, boolean selectForUpdate)
 	{
 		super(parent, parentFactory, invoker, map, context, locks, selectForUpdate);
+		this.cache = (parentFactory instanceof ConnectionProxyFactory) ? ((ConnectionProxyFactory<Z, D, ?>) parentFactory).getPreparedStatementCache() : null;
+	}
+
+	public void setCacheKey(Object key)
+	{
+		this.cacheKey = key;
+	}
+
+	/**
+	 * Attempts to return this statement to the statement cache of its connection, in lieu of closing it.
+	 * Any open result sets are closed, and any batch and parameter bindings are discarded.
+	 * Statements whose driver settings were modified, e.g. via setFetchSize(...), are not cached, since a subsequent user would expect default settings.
+	 * @return true, if this statement was cached, false if it should be closed.
+	 */
+	public boolean release()
+	{
+		Object key = this.cacheKey;
+		
+		if ((this.cache == null) || (key == null) || this.isRecorded()) return false;
+		
+		// Discard driver-side bindings once, here, rather than each time this statement is taken from the cache
+		for (Map.Entry<D, PreparedStatement> entry: this.entries())
+		{
+			PreparedStatement statement = entry.getValue();
+			try
+			{
+				statement.clearParameters();
+				statement.clearBatch();
+			}
+			catch (SQLException e)
+			{
+				this.logger.log(Level.WARN, e);
+				return false;
+			}
+		}
+		
+		for (ChildProxyFactory<Z, D, PreparedStatement, SQLException, ?, ? extends Exception> child: this.children())
+		{
+			List<D> databases = new ArrayList<>();
+			for (Map.Entry<D, ?> entry: child.entries())
+			{
+				databases.add(entry.getKey());
+			}
+			for (D database: databases)
+			{
+				child.close(database);
+			}
+		}
+		this.removeChildren();
+		
+		try
+		{
+			this.getInputSinkRegistry().close();
+		}
+		catch (IOException e)
+		{
+			this.logger.log(Level.WARN, e);
+		}
+		this.clearBatch();
+		this.getParameterBindings().clear();
+		
+		return this.cache.offer(key, this);
 	}
 
 	@Override
@@ -29,6 +29,7 @@ import net.sf.hajdbc.Database;
 import net.sf.hajdbc.invocation.InvocationStrategies;
 import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.util.StaticRegistry;
 import net.sf.hajdbc.util.reflect.Methods;
 
 /**
@@ -52,6 +53,30 @@ public class ResultSetInvocationHandler<Z, D extends Database<Z>, S extends Stat
 	private static final Method closeMethod = Methods.getMethod(ResultSet.class, "close");
 	private static final Method getStatementMethod = Methods.getMethod(ResultSet.class, "getStatement");
 	
+	private enum ResultSetMethod
+	{
+		DRIVER_READ, DRIVER_WRITE, CLOSE, TRANSACTIONAL_WRITE, GET, GET_ARRAY, GET_BLOB, GET_CLOB, GET_NCLOB, GET_REF, GET_SQLXML, UPDATE;
+	}
+	
+	private static final StaticRegistry<Method, ResultSetMethod> resultSetMethodRegistry = Methods.classify(ResultSet.class, ResultSetInvocationHandler::classify);
+	
+	private static ResultSetMethod classify(Method method)
+	{
+		if (driverReadMethodSet.contains(method)) return ResultSetMethod.DRIVER_READ;
+		if (driverWriteMethodSet.contains(method)) return ResultSetMethod.DRIVER_WRITE;
+		if (method.equals(closeMethod)) return ResultSetMethod.CLOSE;
+		if (transactionalWriteMethodSet.contains(method)) return ResultSetMethod.TRANSACTIONAL_WRITE;
+		if (getArrayMethodSet.contains(method)) return ResultSetMethod.GET_ARRAY;
+		if (getBlobMethodSet.contains(method)) return ResultSetMethod.GET_BLOB;
+		if (getClobMethodSet.contains(method)) return ResultSetMethod.GET_CLOB;
+		if (getNClobMethodSet.contains(method)) return ResultSetMethod.GET_NCLOB;
+		if (getRefMethodSet.contains(method)) return ResultSetMethod.GET_REF;
+		if (getSQLXMLMethodSet.contains(method)) return ResultSetMethod.GET_SQLXML;
+		if (isGetMethod(method)) return ResultSetMethod.GET;
+		if (isUpdateMethod(method)) return ResultSetMethod.UPDATE;
+		return null;
+	}
+	
 	/**
 	 * @param factory a factory for creating result set proxies
 	 */
@@ -63,29 +88,41 @@ public class ResultSetInvocationHandler<Z, D extends Database<Z>, S extends Stat
 	@Override
 	protected ProxyFactoryFactory<Z, D, ResultSet, SQLException, ?, ? extends Exception> getProxyFactoryFactory(ResultSet object, Method method, Object... parameters) throws SQLException
 	{
-		if (getArrayMethodSet.contains(method))
-		{
-			return new ArrayProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
-		}
-		if (getBlobMethodSet.contains(method))
-		{
-			return new BlobProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
-		}
-		if (getClobMethodSet.contains(method))
-		{
-			return new ClobProxyFactoryFactory<>(Clob.class, this.getProxyFactory().locatorsUpdateCopy());
-		}
-		if (getNClobMethodSet.contains(method))
-		{
-			return new ClobProxyFactoryFactory<>(NClob.class, this.getProxyFactory().locatorsUpdateCopy());
-		}
-		if (getRefMethodSet.contains(method))
-		{
-			return new RefProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
-		}
-		if (getSQLXMLMethodSet.contains(method))
+		ResultSetMethod type = resultSetMethodRegistry.get(method);
+		
+		if (type != null)
 		{
-			return new SQLXMLProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
+			switch (type)
+			{
+				case GET_ARRAY:
+				{
+					return new ArrayProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
+				}
+				case GET_BLOB:
+				{
+					return new BlobProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
+				}
+				case GET_CLOB:
+				{
+					return new ClobProxyFactoryFactory<>(Clob.class, this.getProxyFactory().locatorsUpdateCopy());
+				}
+				case GET_NCLOB:
+				{
+					return new ClobProxyFactoryFactory<>(NClob.class, this.getProxyFactory().locatorsUpdateCopy());
+				}
+				case GET_REF:
+				{
+					return new RefProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
+				}
+				case GET_SQLXML:
+				{
+					return new SQLXMLProxyFactoryFactory<>(this.getProxyFactory().locatorsUpdateCopy());
+				}
+				default:
+				{
+					break;
+				}
+			}
 		}
 		
 		return super.getProxyFactoryFactory(object, method, parameters);
@@ -94,29 +131,34 @@ public class ResultSetInvocationHandler<Z, D extends Database<Z>, S extends Stat
 	@Override
 	protected InvocationStrategy getInvocationStrategy(ResultSet resultSet, Method method, Object... parameters) throws SQLException
 	{
-		if (driverReadMethodSet.contains(method))
-		{
-			return InvocationStrategies.INVOKE_ON_ANY;
-		}
-		
-		if (driverWriteMethodSet.contains(method) || method.equals(closeMethod))
-		{
-			return InvocationStrategies.INVOKE_ON_EXISTING;
-		}
+		ResultSetMethod type = resultSetMethodRegistry.get(method);
 		
-		if (transactionalWriteMethodSet.contains(method))
+		if (type != null)
 		{
-			return this.getProxyFactory().getTransactionContext().start(InvocationStrategies.TRANSACTION_INVOKE_ON_ALL, this.getProxyFactory().getParentProxy().getConnection());
-		}
-		
-		if (isGetMethod(method))
-		{
-			return InvocationStrategies.INVOKE_ON_ANY;
-		}
-		
-		if (isUpdateMethod(method))
-		{
-			return InvocationStrategies.INVOKE_ON_EXISTING;
+			switch (type)
+			{
+				case DRIVER_READ:
+				case GET:
+				case GET_ARRAY:
+				case GET_BLOB:
+				case GET_CLOB:
+				case GET_NCLOB:
+				case GET_REF:
+				case GET_SQLXML:
+				{
+					return InvocationStrategies.INVOKE_ON_ANY;
+				}
+				case DRIVER_WRITE:
+				case CLOSE:
+				case UPDATE:
+				{
+					return InvocationStrategies.INVOKE_ON_EXISTING;
+				}
+				case TRANSACTIONAL_WRITE:
+				{
+					return this.getProxyFactory().getTransactionContext().start(InvocationStrategies.TRANSACTION_INVOKE_ON_ALL, this.getProxyFactory().getParentProxy().getConnection());
+				}
+			}
 		}
 		
 		return super.getInvocationStrategy(resultSet, method, parameters);
@@ -125,7 +167,7 @@ public class ResultSetInvocationHandler<Z, D extends Database<Z>, S extends Stat
 	@Override
 	protected <R> Invoker<Z, D, ResultSet, R, SQLException> getInvoker(ResultSet results, final Method method, final Object... parameters) throws SQLException
 	{
-		if (isUpdateMethod(method) && (parameters.length > 1))
+		if ((resultSetMethodRegistry.get(method) == ResultSetMethod.UPDATE) && (parameters.length > 1))
 		{
 			return this.getInvoker(method.getParameterTypes()[1], 1, results, method, parameters);
 		}
@@ -136,12 +178,14 @@ public class ResultSetInvocationHandler<Z, D extends Database<Z>, S extends Stat
 	@Override
 	protected <R> void postInvoke(Invoker<Z, D, ResultSet, R, SQLException> invoker, ResultSet results, Method method, Object... parameters)
 	{
-		if (method.equals(closeMethod))
+		ResultSetMethod type = resultSetMethodRegistry.get(method);
+		
+		if (type == ResultSetMethod.CLOSE)
 		{
 			this.getProxyFactory().remove();
 		}
 		
-		if (driverWriteMethodSet.contains(method) || isUpdateMethod(method))
+		if ((type == ResultSetMethod.DRIVER_WRITE) || (type == ResultSetMethod.UPDATE))
 		{
 			this.getProxyFactory().addInvoker(invoker);
 		}
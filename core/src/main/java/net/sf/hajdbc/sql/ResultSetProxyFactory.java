@@ -24,8 +24,10 @@ import java.sql.Statement;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import net.sf.hajdbc.Database;
+import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.io.InputSinkRegistry;
 import net.sf.hajdbc.util.reflect.Proxies;
@@ -37,10 +39,13 @@ import net.sf.hajdbc.util.reflect.Proxies;
 public class ResultSetProxyFactory<Z, D extends Database<Z>, S extends Statement> extends AbstractInputSinkRegistryProxyFactory<Z, D, S, ResultSet>
 {
 	private List<Invoker<Z, D, ResultSet, ?, SQLException>> invokers = new LinkedList<>();
+	// The strategy that produced the result sets of this factory
+	private final InvocationStrategy strategy;
 	
-	public ResultSetProxyFactory(S statementProxy, ProxyFactory<Z, D, S, SQLException> statementFactory, Invoker<Z, D, S, ResultSet, SQLException> invoker, Map<D, ResultSet> map, TransactionContext<Z, D> context, InputSinkRegistry<Object> sinkRegistry)
+	public ResultSetProxyFactory(S statementProxy, ProxyFactory<Z, D, S, SQLException> statementFactory, Invoker<Z, D, S, ResultSet, SQLException> invoker, Map<D, ResultSet> map, TransactionContext<Z, D> context, InputSinkRegistry<Object> sinkRegistry, InvocationStrategy strategy)
 	{
 		super(statementProxy, statementFactory, invoker, map, context, sinkRegistry);
+		this.strategy = strategy;
 	}
 
 	public void addInvoker(Invoker<Z, D, ResultSet, ?, SQLException> invoker)
@@ -79,9 +84,39 @@ public class ResultSetProxyFactory<Z, D extends Database<Z>, S extends Statement
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * Read-only result sets produced by a single database strategy (e.g. {@link net.sf.hajdbc.invocation.InvocationStrategies#INVOKE_ON_NEXT}) use a lightweight pass-through proxy.
+	 * Result sets of any other strategy keep the full proxy, even if only a single database remains active.
+	 */
 	@Override
 	public ResultSet createProxy()
+	{
+		if (this.isPassThrough())
+		{
+			return Proxies.createProxy(ResultSet.class, new PassThroughResultSetInvocationHandler<>(this));
+		}
+		return this.createResultSetProxy();
+	}
+
+	ResultSet createResultSetProxy()
 	{
 		return Proxies.createProxy(ResultSet.class, new ResultSetInvocationHandler<>(this));
 	}
+
+	private boolean isPassThrough()
+	{
+		if ((this.strategy == null) || !this.strategy.isSingleDatabase()) return false;
+		
+		Set<Map.Entry<D, ResultSet>> entries = this.entries();
+		if (entries.size() != 1) return false;
+		try
+		{
+			return entries.iterator().next().getValue().getConcurrency() == ResultSet.CONCUR_READ_ONLY;
+		}
+		catch (SQLException e)
+		{
+			return false;
+		}
+	}
 }
@@ -23,6 +23,7 @@ import java.sql.Statement;
 import java.util.Map;
 
 import net.sf.hajdbc.Database;
+import net.sf.hajdbc.invocation.InvocationStrategy;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.io.InputSinkRegistry;
 
@@ -34,16 +35,23 @@ public class ResultSetProxyFactoryFactory<Z, D extends Database<Z>, S extends St
 {
 	private final TransactionContext<Z, D> context;
 	private final InputSinkRegistry<Object> sinkRegistry;
+	private final InvocationStrategy strategy;
 	
-	public ResultSetProxyFactoryFactory(TransactionContext<Z, D> context, InputSinkRegistry<Object> sinkRegistry)
+	/**
+	 * @param context a transaction context
+	 * @param sinkRegistry an input sink registry
+	 * @param strategy the strategy that produced the result sets
+	 */
+	public ResultSetProxyFactoryFactory(TransactionContext<Z, D> context, InputSinkRegistry<Object> sinkRegistry, InvocationStrategy strategy)
 	{
 		this.context = context;
 		this.sinkRegistry = sinkRegistry;
+		this.strategy = strategy;
 	}
 	
 	@Override
 	public ProxyFactory<Z, D, ResultSet, SQLException> createProxyFactory(S statementProxy, ProxyFactory<Z, D, S, SQLException> statementFactory, Invoker<Z, D, S, ResultSet, SQLException> invoker, Map<D, ResultSet> results)
 	{
-		return new ResultSetProxyFactory<>(statementProxy, statementFactory, invoker, results, this.context, this.sinkRegistry);
+		return new ResultSetProxyFactory<>(statementProxy, statementFactory, invoker, results, this.context, this.sinkRegistry, this.strategy);
 	}
 }
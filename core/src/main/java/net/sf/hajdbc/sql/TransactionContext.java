@@ -53,6 +53,28 @@ public interface TransactionContext<Z, D extends Database<Z>> extends AutoClosea
 	 */
 	<T, R> Invoker<Z, D, T, R, SQLException> start(Invoker<Z, D, T, R, SQLException> invoker, Connection connection) throws SQLException;
 
+	/**
+	 * Decorates the specified invocation strategy, used for reads requiring a consistent snapshot, with read-only transaction logic.
+	 * Reads within a read-only transaction are pinned to a single database, chosen by the balancer at the start of the transaction.
+	 * By default, reads are not pinned.
+	 * @param strategy the invocation strategy used outside of a read-only transaction
+	 * @param connection
+	 * @return the decorated invocation strategy
+	 * @throws SQLException
+	 */
+	default InvocationStrategy read(InvocationStrategy strategy, Connection connection) throws SQLException
+	{
+		return strategy;
+	}
+
+	/**
+	 * Releases the database to which a read-only transaction was pinned.
+	 * Used where a transaction completes without {@link #end(InvocationStrategy, Durability.Phase)}, i.e. when a pooled connection is reused, or when a global transaction completes.
+	 */
+	default void reset()
+	{
+	}
+
 	/**
 	 * Decorates the specified invocation strategy with end transaction logic.
 	 * @param strategy
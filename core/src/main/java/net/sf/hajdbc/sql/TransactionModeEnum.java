@@ -41,7 +41,7 @@ public enum TransactionModeEnum implements TransactionMode
 	@Override
 	public ExecutorService getTransactionExecutor(ExecutorService executor, boolean end)
 	{
-		return this.synchronous ? new SynchronousExecutor(executor, end) : executor;
+		return this.synchronous ? new SynchronousExecutor(executor, end, true) : executor;
 	}
 
 	@Override
@@ -0,0 +1,141 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import net.sf.hajdbc.IdentifiableExecutorServiceProvider;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.util.concurrent.PartitionedExecutorService;
+
+/**
+ * Executor service provider that executes each task in a new virtual thread.
+ * Requires JDK 21 or later; on older JVMs, falls back to a cached pool of platform threads.
+ * A custom thread factory of the cluster configuration, e.g. <code>Thread.ofVirtual().name("ha-jdbc-", 0).factory()</code>, is honored, and creates the thread of each task instead.
+ * The number of tasks concurrently executing against a given database can be limited via the <em>maxConcurrency</em> property.
+ * @author Paul Ferraro
+ */
+public class VirtualThreadExecutorServiceProvider implements IdentifiableExecutorServiceProvider, Serializable
+{
+	private static final long serialVersionUID = -5393226620474781958L;
+
+	static final Logger logger = LoggerFactory.getLogger(VirtualThreadExecutorServiceProvider.class);
+	static final Messages messages = MessagesFactory.getMessages();
+
+	private static final Method factoryMethod = findFactoryMethod("newVirtualThreadPerTaskExecutor");
+	private static final Method threadFactoryMethod = findFactoryMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+	private static final Class<?> defaultThreadFactoryClass = Executors.defaultThreadFactory().getClass();
+
+	private int maxConcurrency = 0;
+
+	private static Method findFactoryMethod(String name, Class<?>... types)
+	{
+		try
+		{
+			return Executors.class.getMethod(name, types);
+		}
+		catch (NoSuchMethodException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the maximum number of concurrently executing tasks per database, or 0, if unlimited.
+	 * @return a concurrency limit
+	 */
+	public int getMaxConcurrency()
+	{
+		return this.maxConcurrency;
+	}
+
+	/**
+	 * Sets the maximum number of concurrently executing tasks per database.
+	 * @param maxConcurrency a concurrency limit, or 0, if unlimited
+	 */
+	public void setMaxConcurrency(int maxConcurrency)
+	{
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.Identifiable#getId()
+	 */
+	@Override
+	public String getId()
+	{
+		return "virtual";
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.ExecutorServiceProvider#getExecutor(java.util.concurrent.ThreadFactory)
+	 */
+	@Override
+	public ExecutorService getExecutor(ThreadFactory threadFactory)
+	{
+		ExecutorService executor = createExecutor(threadFactory);
+		return (this.maxConcurrency > 0) ? new PartitionedExecutorService(executor, this.maxConcurrency) : executor;
+	}
+
+	private static ExecutorService createExecutor(ThreadFactory threadFactory)
+	{
+		if (factoryMethod == null)
+		{
+			logger.log(Level.WARN, messages.virtualThreadsNotSupported());
+			return Executors.newCachedThreadPool(threadFactory);
+		}
+		try
+		{
+			// The default thread factory creates platform threads, so only a custom thread factory is honored
+			if ((threadFactory != null) && !threadFactory.getClass().equals(defaultThreadFactoryClass))
+			{
+				return (ExecutorService) threadFactoryMethod.invoke(null, threadFactory);
+			}
+			return (ExecutorService) factoryMethod.invoke(null);
+		}
+		catch (IllegalAccessException e)
+		{
+			throw new IllegalStateException(e);
+		}
+		catch (InvocationTargetException e)
+		{
+			throw new IllegalStateException(e.getTargetException());
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.ExecutorServiceProvider#release(java.util.concurrent.ExecutorService)
+	 */
+	@Override
+	public void release(ExecutorService executor)
+	{
+		executor.shutdown();
+	}
+}
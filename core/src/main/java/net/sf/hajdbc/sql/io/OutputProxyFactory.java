@@ -28,9 +28,23 @@ import net.sf.hajdbc.Database;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.sql.AbstractChildProxyFactory;
 import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.util.SystemProperties;
 
 /**
  * Base proxy factory for IO proxies.
+ * Writes to IO proxies are coalesced into a local buffer, and only fanned out to each database when the buffer fills, or on flush or close.
+ * The following system properties are supported:
+ * <table>
+ * 	<tr>
+ * 		<th>Property</th>
+ * 		<th>Default</th>
+ * 	</tr>
+ * 	<tr>
+ * 		<td>ha-jdbc.output.buffer-size</td>
+ * 		<td>8192</td>
+ * 	</tr>
+ * </table>
+ * A buffer size of 0 disables coalescing.
  * @author Paul Ferraro
  * @param <Z> connection source
  * @param <D> database
@@ -39,6 +53,10 @@ import net.sf.hajdbc.sql.ProxyFactory;
  */
 public abstract class OutputProxyFactory<Z, D extends Database<Z>, P, T extends Closeable> extends AbstractChildProxyFactory<Z, D, P, SQLException, T, IOException>
 {
+	static final String BUFFER_SIZE = "ha-jdbc.output.buffer-size";
+	
+	private static final int bufferSize = Integer.parseInt(SystemProperties.getSystemProperty(BUFFER_SIZE, "8192"));
+	
 	private List<Invoker<Z, D, T, ?, IOException>> invokers = new LinkedList<>();
 	
 	protected OutputProxyFactory(P parentProxy, ProxyFactory<Z, D, P, SQLException> parent, Invoker<Z, D, P, T, SQLException> invoker, Map<D, T> map)
@@ -46,6 +64,15 @@ public abstract class OutputProxyFactory<Z, D extends Database<Z>, P, T extends
 		super(parentProxy, parent, invoker, map, IOException.class);
 	}
 
+	/**
+	 * Returns the size of the local buffer used to coalesce writes.
+	 * @return a number of bytes or characters
+	 */
+	public int getBufferSize()
+	{
+		return bufferSize;
+	}
+
 	@Override
 	public void close(D database, T object) throws IOException
 	{
@@ -19,13 +19,17 @@ package net.sf.hajdbc.sql.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.invocation.InvocationStrategies;
 import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
 
 /**
- * Static proxy for OutputStreams
+ * Static proxy for OutputStreams.
+ * Writes are coalesced into a local buffer, which is written to each database concurrently, in a single invocation.
  * @author Paul Ferraro
  * @param <Z> connection source
  * @param <D> database
@@ -33,101 +37,145 @@ import net.sf.hajdbc.invocation.Invoker;
  */
 public class OutputStreamProxy<Z, D extends Database<Z>, P> extends OutputStream
 {
+	private static final Messages messages = MessagesFactory.getMessages();
+	
 	private final OutputStreamProxyFactory<Z, D, P> factory;
+	private final byte[] buffer;
+	private int count = 0;
+	private volatile boolean closed = false;
 	
 	public OutputStreamProxy(OutputStreamProxyFactory<Z, D, P> factory)
 	{
 		this.factory = factory;
+		this.buffer = new byte[factory.getBufferSize()];
 	}
 
 	@Override
-	public void write(final byte[] b, final int off, final int len) throws IOException
+	public void write(byte[] b, int off, int len) throws IOException
 	{
-		OutputStreamInvoker<Z, D> invoker = new OutputStreamInvoker<Z, D>()
+		this.ensureOpen();
+		if ((off < 0) || (len < 0) || (len > b.length - off))
 		{
-			@Override
-			public Void invoke(D database, OutputStream output) throws IOException
-			{
-				output.write(b, off, len);
-				return null;
-			}
-		};
-		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
-		
-		this.factory.record(invoker);
+			throw new IndexOutOfBoundsException();
+		}
+		if (len >= this.buffer.length)
+		{
+			// Too large to buffer, write through
+			this.flushBuffer();
+			this.send(Arrays.copyOfRange(b, off, off + len));
+			return;
+		}
+		if (len > this.buffer.length - this.count)
+		{
+			this.flushBuffer();
+		}
+		System.arraycopy(b, off, this.buffer, this.count, len);
+		this.count += len;
 	}
 
 	@Override
-	public void write(final byte[] b) throws IOException
+	public void write(byte[] b) throws IOException
 	{
-		OutputStreamInvoker<Z, D> invoker = new OutputStreamInvoker<Z, D>()
+		this.write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		this.ensureOpen();
+		if (this.buffer.length == 0)
 		{
-			@Override
-			public Void invoke(D database, OutputStream output) throws IOException
-			{
-				output.write(b);
-				return null;
-			}
-		};
-		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
-		
-		this.factory.record(invoker);
+			this.send(new byte[] { (byte) b });
+			return;
+		}
+		if (this.count == this.buffer.length)
+		{
+			this.flushBuffer();
+		}
+		this.buffer[this.count++] = (byte) b;
 	}
 
 	@Override
-	public void write(final int b) throws IOException
+	public void flush() throws IOException
 	{
+		this.ensureOpen();
+		this.flushBuffer();
+		
 		OutputStreamInvoker<Z, D> invoker = new OutputStreamInvoker<Z, D>()
 		{
 			@Override
 			public Void invoke(D database, OutputStream output) throws IOException
 			{
-				output.write(b);
+				output.flush();
 				return null;
 			}
 		};
 		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
+		InvocationStrategies.CONCURRENT_INVOKE_ON_EXISTING.invoke(this.factory, invoker);
 		
 		this.factory.record(invoker);
 	}
 
 	@Override
-	public void flush() throws IOException
+	public void close() throws IOException
 	{
+		if (this.closed) return;
+		
+		this.closed = true;
+		this.flushBuffer();
+		
 		OutputStreamInvoker<Z, D> invoker = new OutputStreamInvoker<Z, D>()
 		{
 			@Override
 			public Void invoke(D database, OutputStream output) throws IOException
 			{
-				output.flush();
+				output.close();
 				return null;
 			}
 		};
 		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
+		InvocationStrategies.CONCURRENT_INVOKE_ON_EXISTING.invoke(this.factory, invoker);
 		
-		this.factory.record(invoker);
+		this.factory.remove();
 	}
 
-	@Override
-	public void close() throws IOException
+	private void ensureOpen() throws IOException
+	{
+		if (this.closed)
+		{
+			throw new IOException(messages.closed(OutputStream.class));
+		}
+	}
+
+	private void flushBuffer() throws IOException
+	{
+		if (this.count > 0)
+		{
+			byte[] bytes = Arrays.copyOf(this.buffer, this.count);
+			this.count = 0;
+			this.send(bytes);
+		}
+	}
+
+	/**
+	 * Writes the specified bytes to each database.
+	 * The bytes are retained for replay, so must not be modified afterwards.
+	 */
+	private void send(final byte[] bytes) throws IOException
 	{
 		OutputStreamInvoker<Z, D> invoker = new OutputStreamInvoker<Z, D>()
 		{
 			@Override
 			public Void invoke(D database, OutputStream output) throws IOException
 			{
-				output.close();
+				output.write(bytes);
 				return null;
 			}
 		};
 		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
+		InvocationStrategies.CONCURRENT_INVOKE_ON_EXISTING.invoke(this.factory, invoker);
 		
-		this.factory.remove();
+		this.factory.record(invoker);
 	}
 
 	private interface OutputStreamInvoker<Z, D extends Database<Z>> extends Invoker<Z, D, OutputStream, Void, IOException>
@@ -19,13 +19,17 @@ package net.sf.hajdbc.sql.io;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
 
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.invocation.InvocationStrategies;
 import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
 
 /**
  * Static proxy for writers.
+ * Writes are coalesced into a local buffer, which is written to each database concurrently, in a single invocation.
  * @author Paul Ferraro
  * @param <Z> connection source
  * @param <D> database
@@ -33,194 +37,197 @@ import net.sf.hajdbc.invocation.Invoker;
  */
 public class WriterProxy<Z, D extends Database<Z>, P> extends Writer
 {
+	private static final Messages messages = MessagesFactory.getMessages();
+	
 	private final WriterProxyFactory<Z, D, P> factory;
+	private final char[] buffer;
+	private int count = 0;
+	private volatile boolean closed = false;
 	
 	public WriterProxy(WriterProxyFactory<Z, D, P> factory)
 	{
 		this.factory = factory;
+		this.buffer = new char[factory.getBufferSize()];
 	}
 	
 	@Override
-	public void write(final int c) throws IOException
+	public void write(int c) throws IOException
 	{
-		WriterInvoker<Z, D, Void> invoker = new WriterInvoker<Z, D, Void>()
+		this.ensureOpen();
+		if (this.buffer.length == 0)
 		{
-			@Override
-			public Void invoke(D database, Writer writer) throws IOException
-			{
-				writer.write(c);
-				return null;
-			}
-		};
-		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
-		
-		this.factory.record(invoker);
+			this.send(new char[] { (char) c });
+			return;
+		}
+		if (this.count == this.buffer.length)
+		{
+			this.flushBuffer();
+		}
+		this.buffer[this.count++] = (char) c;
 	}
 
 	@Override
-	public void write(final char[] cbuf) throws IOException
+	public void write(char[] cbuf) throws IOException
 	{
-		WriterInvoker<Z, D, Void> invoker = new WriterInvoker<Z, D, Void>()
-		{
-			@Override
-			public Void invoke(D database, Writer writer) throws IOException
-			{
-				writer.write(cbuf);
-				return null;
-			}
-		};
-		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
-		
-		this.factory.record(invoker);
+		this.write(cbuf, 0, cbuf.length);
 	}
 
 	@Override
-	public void write(final String str) throws IOException
+	public void write(String str) throws IOException
 	{
-		WriterInvoker<Z, D, Void> invoker = new WriterInvoker<Z, D, Void>()
-		{
-			@Override
-			public Void invoke(D database, Writer writer) throws IOException
-			{
-				writer.write(str);
-				return null;
-			}
-		};
-		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
-		
-		this.factory.record(invoker);
+		this.write(str, 0, str.length());
 	}
 
 	@Override
-	public void write(final String str, final int off, final int len) throws IOException
+	public void write(String str, int off, int len) throws IOException
 	{
-		WriterInvoker<Z, D, Void> invoker = new WriterInvoker<Z, D, Void>()
+		this.ensureOpen();
+		if ((off < 0) || (len < 0) || (len > str.length() - off))
 		{
-			@Override
-			public Void invoke(D database, Writer writer) throws IOException
-			{
-				writer.write(str, off, len);
-				return null;
-			}
-		};
-		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
-		
-		this.factory.record(invoker);
+			throw new IndexOutOfBoundsException();
+		}
+		if (len >= this.buffer.length)
+		{
+			// Too large to buffer, write through
+			this.flushBuffer();
+			char[] chars = new char[len];
+			str.getChars(off, off + len, chars, 0);
+			this.send(chars);
+			return;
+		}
+		if (len > this.buffer.length - this.count)
+		{
+			this.flushBuffer();
+		}
+		str.getChars(off, off + len, this.buffer, this.count);
+		this.count += len;
 	}
 
 	@Override
-	public Writer append(final CharSequence csq) throws IOException
+	public Writer append(CharSequence csq) throws IOException
 	{
-		WriterInvoker<Z, D, Writer> invoker = new WriterInvoker<Z, D, Writer>()
-		{
-			@Override
-			public Writer invoke(D database, Writer writer) throws IOException
-			{
-				return writer.append(csq);
-			}
-		};
-		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
-		
-		this.factory.record(invoker);
-		
+		this.write(String.valueOf(csq));
 		return this;
 	}
 
 	@Override
-	public Writer append(final CharSequence csq, final int start, final int end) throws IOException
+	public Writer append(CharSequence csq, int start, int end) throws IOException
 	{
-		WriterInvoker<Z, D, Writer> invoker = new WriterInvoker<Z, D, Writer>()
-		{
-			@Override
-			public Writer invoke(D database, Writer writer) throws IOException
-			{
-				return writer.append(csq, start, end);
-			}
-		};
-		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
-		
-		this.factory.record(invoker);
-		
+		this.write(((csq != null) ? csq : "null").subSequence(start, end).toString());
 		return this;
 	}
 
 	@Override
-	public Writer append(final char c) throws IOException
+	public Writer append(char c) throws IOException
 	{
-		WriterInvoker<Z, D, Writer> invoker = new WriterInvoker<Z, D, Writer>()
-		{
-			@Override
-			public Writer invoke(D database, Writer writer) throws IOException
-			{
-				return writer.append(c);
-			}
-		};
-		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
-		
-		this.factory.record(invoker);
-		
+		this.write(c);
 		return this;
 	}
 
 	@Override
-	public void write(final char[] cbuf, final int off, final int len) throws IOException
+	public void write(char[] cbuf, int off, int len) throws IOException
+	{
+		this.ensureOpen();
+		if ((off < 0) || (len < 0) || (len > cbuf.length - off))
+		{
+			throw new IndexOutOfBoundsException();
+		}
+		if (len >= this.buffer.length)
+		{
+			// Too large to buffer, write through
+			this.flushBuffer();
+			this.send(Arrays.copyOfRange(cbuf, off, off + len));
+			return;
+		}
+		if (len > this.buffer.length - this.count)
+		{
+			this.flushBuffer();
+		}
+		System.arraycopy(cbuf, off, this.buffer, this.count, len);
+		this.count += len;
+	}
+
+	@Override
+	public void flush() throws IOException
 	{
+		this.ensureOpen();
+		this.flushBuffer();
+		
 		WriterInvoker<Z, D, Void> invoker = new WriterInvoker<Z, D, Void>()
 		{
 			@Override
 			public Void invoke(D database, Writer writer) throws IOException
 			{
-				writer.write(cbuf, off, len);
+				writer.flush();
 				return null;
 			}
 		};
 		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
+		InvocationStrategies.CONCURRENT_INVOKE_ON_EXISTING.invoke(this.factory, invoker);
 		
 		this.factory.record(invoker);
 	}
 
 	@Override
-	public void flush() throws IOException
+	public void close() throws IOException
 	{
+		if (this.closed) return;
+		
+		this.closed = true;
+		this.flushBuffer();
+		
 		WriterInvoker<Z, D, Void> invoker = new WriterInvoker<Z, D, Void>()
 		{
 			@Override
 			public Void invoke(D database, Writer writer) throws IOException
 			{
-				writer.flush();
+				writer.close();
 				return null;
 			}
 		};
 		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
+		InvocationStrategies.CONCURRENT_INVOKE_ON_EXISTING.invoke(this.factory, invoker);
 		
-		this.factory.record(invoker);
+		this.factory.remove();
 	}
 
-	@Override
-	public void close() throws IOException
+	private void ensureOpen() throws IOException
+	{
+		if (this.closed)
+		{
+			throw new IOException(messages.closed(Writer.class));
+		}
+	}
+
+	private void flushBuffer() throws IOException
+	{
+		if (this.count > 0)
+		{
+			char[] chars = Arrays.copyOf(this.buffer, this.count);
+			this.count = 0;
+			this.send(chars);
+		}
+	}
+
+	/**
+	 * Writes the specified characters to each database.
+	 * The characters are retained for replay, so must not be modified afterwards.
+	 */
+	private void send(final char[] chars) throws IOException
 	{
 		WriterInvoker<Z, D, Void> invoker = new WriterInvoker<Z, D, Void>()
 		{
 			@Override
 			public Void invoke(D database, Writer writer) throws IOException
 			{
-				writer.close();
+				writer.write(chars);
 				return null;
 			}
 		};
 		
-		InvocationStrategies.INVOKE_ON_EXISTING.invoke(this.factory, invoker);
+		InvocationStrategies.CONCURRENT_INVOKE_ON_EXISTING.invoke(this.factory, invoker);
 		
-		this.factory.remove();
+		this.factory.record(invoker);
 	}
 
 	private interface WriterInvoker<Z, D extends Database<Z>, R> extends Invoker<Z, D, Writer, R, IOException>
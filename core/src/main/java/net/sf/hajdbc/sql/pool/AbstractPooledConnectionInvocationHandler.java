@@ -94,6 +94,11 @@ public abstract class AbstractPooledConnectionInvocationHandler<Z, D extends Dat
 		{
 			this.getProxyFactory().remove();
 		}
+		else if (method.equals(getConnectionMethod))
+		{
+			// The new logical connection reuses the transaction context of this pooled connection
+			this.getProxyFactory().getTransactionContext().reset();
+		}
 		else if (method.equals(addConnectionEventListenerMethod))
 		{
 			this.getProxyFactory().addConnectionEventListener((ConnectionEventListener) parameters[0], invoker);
@@ -22,13 +22,15 @@ import java.sql.SQLException;
 
 import javax.sql.rowset.serial.SerialArray;
 
+import net.sf.hajdbc.io.InputSinkRegistry;
+
 /**
  * @author Paul Ferraro
  */
 public class SerialArrayFactory implements SerialLocatorFactory<Array>
 {
 	@Override
-	public Array createSerial(Array array) throws SQLException
+	public <S> Array createSerial(Array array, InputSinkRegistry<S> registry) throws SQLException
 	{
 		return new SerialArray(array);
 	}
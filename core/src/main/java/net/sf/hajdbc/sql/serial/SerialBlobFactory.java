@@ -17,20 +17,41 @@
  */
 package net.sf.hajdbc.sql.serial;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Blob;
 import java.sql.SQLException;
 
 import javax.sql.rowset.serial.SerialBlob;
 
+import net.sf.hajdbc.io.InputSinkChannel;
+import net.sf.hajdbc.io.InputSinkRegistry;
+
 /**
- * 
+ * Creates serial blobs.
+ * If an input sink registry is available, the blob content is streamed into an input sink, otherwise it is read into memory.
  * @author Paul Ferraro
  */
 public class SerialBlobFactory implements SerialLocatorFactory<Blob>
 {
 	@Override
-	public Blob createSerial(Blob blob) throws SQLException
+	public <S> Blob createSerial(Blob blob, InputSinkRegistry<S> registry) throws SQLException
 	{
-		return new SerialBlob(blob);
+		InputSinkChannel<InputStream, S> channel = (registry != null) ? registry.get(InputStream.class) : null;
+		
+		if (channel == null)
+		{
+			return new SerialBlob(blob);
+		}
+		
+		long length = blob.length();
+		try
+		{
+			return new SinkBlob<>(channel, channel.consume(blob.getBinaryStream()), length);
+		}
+		catch (IOException e)
+		{
+			throw new SQLException(e);
+		}
 	}
 }
@@ -17,20 +17,41 @@
  */
 package net.sf.hajdbc.sql.serial;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.sql.Clob;
 import java.sql.SQLException;
 
 import javax.sql.rowset.serial.SerialClob;
 
+import net.sf.hajdbc.io.InputSinkChannel;
+import net.sf.hajdbc.io.InputSinkRegistry;
+
 /**
- * 
+ * Creates serial clobs.
+ * If an input sink registry is available, the clob content is streamed into an input sink, otherwise it is read into memory.
  * @author Paul Ferraro
  */
 public class SerialClobFactory implements SerialLocatorFactory<Clob>
 {
 	@Override
-	public Clob createSerial(Clob clob) throws SQLException
+	public <S> Clob createSerial(Clob clob, InputSinkRegistry<S> registry) throws SQLException
 	{
-		return new SerialClob(clob);
+		InputSinkChannel<Reader, S> channel = (registry != null) ? registry.get(Reader.class) : null;
+		
+		if (channel == null)
+		{
+			return new SerialClob(clob);
+		}
+		
+		long length = clob.length();
+		try
+		{
+			return new SinkClob<>(channel, channel.consume(clob.getCharacterStream()), length);
+		}
+		catch (IOException e)
+		{
+			throw new SQLException(e);
+		}
 	}
 }
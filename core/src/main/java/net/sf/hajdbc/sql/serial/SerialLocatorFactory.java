@@ -19,6 +19,8 @@ package net.sf.hajdbc.sql.serial;
 
 import java.sql.SQLException;
 
+import net.sf.hajdbc.io.InputSinkRegistry;
+
 /**
  * Factory for creating serialized forms of SQL locator-based objects
  * @author Paul Ferraro
@@ -26,5 +28,12 @@ import java.sql.SQLException;
  */
 public interface SerialLocatorFactory<O>
 {
-	O createSerial(O object) throws SQLException;
+	/**
+	 * Creates a serial form of the specified locator, that can be read by each database.
+	 * @param object a locator
+	 * @param registry a registry of input sinks, into which locator content may be streamed, or null, if the content must be held in memory
+	 * @return a serial form of the specified locator
+	 * @throws SQLException if the locator could not be read
+	 */
+	<S> O createSerial(O object, InputSinkRegistry<S> registry) throws SQLException;
 }
\ No newline at end of file
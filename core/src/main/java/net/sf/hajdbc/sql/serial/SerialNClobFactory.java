@@ -17,23 +17,43 @@
  */
 package net.sf.hajdbc.sql.serial;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.sql.NClob;
 import java.sql.SQLException;
 
 import javax.sql.rowset.serial.SerialClob;
 
+import net.sf.hajdbc.io.InputSinkChannel;
+import net.sf.hajdbc.io.InputSinkRegistry;
 import net.sf.hajdbc.util.reflect.Proxies;
 import net.sf.hajdbc.util.reflect.SimpleInvocationHandler;
 
 /**
- * 
+ * Creates serial nclobs.
+ * If an input sink registry is available, the nclob content is streamed into an input sink, otherwise it is read into memory.
  * @author Paul Ferraro
  */
 public class SerialNClobFactory implements SerialLocatorFactory<NClob>
 {
 	@Override
-	public NClob createSerial(NClob clob) throws SQLException
+	public <S> NClob createSerial(NClob clob, InputSinkRegistry<S> registry) throws SQLException
 	{
-		return Proxies.createProxy(NClob.class, new SimpleInvocationHandler(new SerialClob(clob)));
+		InputSinkChannel<Reader, S> channel = (registry != null) ? registry.get(Reader.class) : null;
+		
+		if (channel == null)
+		{
+			return Proxies.createProxy(NClob.class, new SimpleInvocationHandler(new SerialClob(clob)));
+		}
+		
+		long length = clob.length();
+		try
+		{
+			return new SinkNClob<>(channel, channel.consume(clob.getCharacterStream()), length);
+		}
+		catch (IOException e)
+		{
+			throw new SQLException(e);
+		}
 	}
 }
@@ -22,6 +22,8 @@ import java.sql.SQLException;
 
 import javax.sql.rowset.serial.SerialRef;
 
+import net.sf.hajdbc.io.InputSinkRegistry;
+
 /**
  * 
  * @author Paul Ferraro
@@ -29,7 +31,7 @@ import javax.sql.rowset.serial.SerialRef;
 public class SerialRefFactory implements SerialLocatorFactory<Ref>
 {
 	@Override
-	public Ref createSerial(Ref ref) throws SQLException
+	public <S> Ref createSerial(Ref ref, InputSinkRegistry<S> registry) throws SQLException
 	{
 		return new SerialRef(ref);
 	}
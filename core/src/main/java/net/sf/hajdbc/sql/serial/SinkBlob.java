@@ -0,0 +1,143 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql.serial;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Arrays;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+
+/**
+ * Read-only serial form of a {@link Blob}, whose content is held by an input sink.
+ * Each call to {@link #getBinaryStream()} reads a fresh stream from the sink.
+ * The sink is owned by its registry, thus {@link #free()} is a no-op.
+ * @author Paul Ferraro
+ * @param <S> sink type
+ */
+public class SinkBlob<S> implements Blob
+{
+	private final InputSinkChannel<InputStream, S> channel;
+	private final S sink;
+	private final long length;
+	
+	public SinkBlob(InputSinkChannel<InputStream, S> channel, S sink, long length)
+	{
+		this.channel = channel;
+		this.sink = sink;
+		this.length = length;
+	}
+
+	@Override
+	public long length()
+	{
+		return this.length;
+	}
+
+	@Override
+	public byte[] getBytes(long pos, int length) throws SQLException
+	{
+		if ((pos < 1) || (length < 0))
+		{
+			throw new SQLException(String.format("pos = %d, length = %d", pos, length));
+		}
+		
+		int count = (int) Math.max(Math.min(length, this.length - pos + 1), 0);
+		byte[] bytes = new byte[count];
+		
+		try (InputStream input = this.getBinaryStream())
+		{
+			int read = SinkReads.read(input::skip, (offset, len) -> input.read(bytes, offset, len), pos, count);
+			return (read < count) ? Arrays.copyOf(bytes, read) : bytes;
+		}
+		catch (IOException e)
+		{
+			throw new SQLException(e);
+		}
+	}
+
+	@Override
+	public InputStream getBinaryStream() throws SQLException
+	{
+		try
+		{
+			return this.channel.read(this.sink);
+		}
+		catch (IOException e)
+		{
+			throw new SQLException(e);
+		}
+	}
+
+	@Override
+	public InputStream getBinaryStream(long pos, long length) throws SQLException
+	{
+		if (length > Integer.MAX_VALUE)
+		{
+			throw new SQLException(String.format("length = %d", length));
+		}
+		return new ByteArrayInputStream(this.getBytes(pos, (int) length));
+	}
+
+	@Override
+	public long position(byte[] pattern, long start) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public long position(Blob pattern, long start) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int setBytes(long pos, byte[] bytes) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int setBytes(long pos, byte[] bytes, int offset, int len) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public OutputStream setBinaryStream(long pos) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public void truncate(long len) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public void free()
+	{
+		// Sink is closed by its registry
+	}
+}
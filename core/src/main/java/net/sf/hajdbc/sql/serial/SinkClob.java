@@ -0,0 +1,182 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql.serial;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+
+/**
+ * Read-only serial form of a {@link Clob}, whose content is held by an input sink.
+ * Each call to {@link #getCharacterStream()} reads a fresh reader from the sink.
+ * The sink is owned by its registry, thus {@link #free()} is a no-op.
+ * @author Paul Ferraro
+ * @param <S> sink type
+ */
+public class SinkClob<S> implements Clob
+{
+	private final InputSinkChannel<Reader, S> channel;
+	private final S sink;
+	private final long length;
+	
+	public SinkClob(InputSinkChannel<Reader, S> channel, S sink, long length)
+	{
+		this.channel = channel;
+		this.sink = sink;
+		this.length = length;
+	}
+
+	@Override
+	public long length()
+	{
+		return this.length;
+	}
+
+	@Override
+	public String getSubString(long pos, int length) throws SQLException
+	{
+		if ((pos < 1) || (length < 0))
+		{
+			throw new SQLException(String.format("pos = %d, length = %d", pos, length));
+		}
+		
+		int count = (int) Math.max(Math.min(length, this.length - pos + 1), 0);
+		char[] chars = new char[count];
+		
+		try (Reader reader = this.getCharacterStream())
+		{
+			int read = SinkReads.read(reader::skip, (offset, len) -> reader.read(chars, offset, len), pos, count);
+			return new String(chars, 0, read);
+		}
+		catch (IOException e)
+		{
+			throw new SQLException(e);
+		}
+	}
+
+	@Override
+	public Reader getCharacterStream() throws SQLException
+	{
+		try
+		{
+			return this.channel.read(this.sink);
+		}
+		catch (IOException e)
+		{
+			throw new SQLException(e);
+		}
+	}
+
+	@Override
+	public Reader getCharacterStream(long pos, long length) throws SQLException
+	{
+		if (length > Integer.MAX_VALUE)
+		{
+			throw new SQLException(String.format("length = %d", length));
+		}
+		return new StringReader(this.getSubString(pos, (int) length));
+	}
+
+	@Override
+	public InputStream getAsciiStream() throws SQLException
+	{
+		return new AsciiInputStream(this.getCharacterStream());
+	}
+
+	@Override
+	public long position(String pattern, long start) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public long position(Clob pattern, long start) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int setString(long pos, String str) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public int setString(long pos, String str, int offset, int len) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public OutputStream setAsciiStream(long pos) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public Writer setCharacterStream(long pos) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public void truncate(long len) throws SQLException
+	{
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	@Override
+	public void free()
+	{
+		// Sink is closed by its registry
+	}
+	
+	/**
+	 * Encodes characters as ASCII, replacing unmappable characters with '?'.
+	 */
+	private static class AsciiInputStream extends InputStream
+	{
+		private final Reader reader;
+		
+		AsciiInputStream(Reader reader)
+		{
+			this.reader = reader;
+		}
+		
+		@Override
+		public int read() throws IOException
+		{
+			int c = this.reader.read();
+			return (c < 0) ? -1 : ((c < 0x80) ? c : '?');
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			this.reader.close();
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql.serial;
+
+import java.io.Reader;
+import java.sql.NClob;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+
+/**
+ * Read-only serial form of a {@link NClob}, whose content is held by an input sink.
+ * @author Paul Ferraro
+ * @param <S> sink type
+ */
+public class SinkNClob<S> extends SinkClob<S> implements NClob
+{
+	public SinkNClob(InputSinkChannel<Reader, S> channel, S sink, long length)
+	{
+		super(channel, sink, length);
+	}
+}
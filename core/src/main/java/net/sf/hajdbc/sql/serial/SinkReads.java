@@ -0,0 +1,78 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql.serial;
+
+import java.io.IOException;
+
+/**
+ * Positioned reads shared by the sink-backed LOBs.
+ * @author Paul Ferraro
+ */
+final class SinkReads
+{
+	interface Skip
+	{
+		long skip(long count) throws IOException;
+	}
+	
+	interface Read
+	{
+		int read(int offset, int length) throws IOException;
+	}
+	
+	/**
+	 * Skips to the specified 1-based position, then reads up to the specified number of elements into the target of the specified read.
+	 * @param skip skips elements of the source
+	 * @param read reads elements of the source into the target, at the specified offset
+	 * @param position the 1-based position of the first element to read
+	 * @param count the number of elements to read
+	 * @return the number of elements read, which is less than count only if the source was exhausted
+	 * @throws IOException if the source could not be read
+	 */
+	static int read(Skip skip, Read read, long position, int count) throws IOException
+	{
+		if (count == 0) return 0;
+		
+		long remaining = position - 1;
+		while (remaining > 0)
+		{
+			long skipped = skip.skip(remaining);
+			if (skipped <= 0)
+			{
+				// A source may skip nothing before its end, so read a single element instead
+				if (read.read(0, 1) < 0) return 0;
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+		
+		int offset = 0;
+		while (offset < count)
+		{
+			int result = read.read(offset, count - offset);
+			if (result < 0) break;
+			offset += result;
+		}
+		return offset;
+	}
+	
+	private SinkReads()
+	{
+		// Hide
+	}
+}
@@ -44,7 +44,7 @@ public class XAConnectionInvocationHandler extends AbstractPooledConnectionInvoc
 	{
 		if (method.equals(getXAResource))
 		{
-			return new XAResourceProxyFactoryFactory();
+			return new XAResourceProxyFactoryFactory(this.getProxyFactory().getTransactionContext());
 		}
 		
 		return super.getProxyFactoryFactory(object, method, parameters);
@@ -191,5 +191,10 @@ public class XAResourceInvocationHandler extends ChildInvocationHandler<XADataSo
 		{
 			this.getProxyFactory().record(invoker);
 		}
+		else if (endTransactionMethodSet.contains(method))
+		{
+			// The global transaction completed without ending the transaction context of the connection
+			this.getProxyFactory().getTransactionContext().reset();
+		}
 	}
 }
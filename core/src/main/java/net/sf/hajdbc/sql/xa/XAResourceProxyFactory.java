@@ -28,6 +28,7 @@ import javax.transaction.xa.XAResource;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.sql.AbstractChildProxyFactory;
 import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.sql.TransactionContext;
 import net.sf.hajdbc.util.reflect.Proxies;
 
 /**
@@ -36,9 +37,21 @@ import net.sf.hajdbc.util.reflect.Proxies;
  */
 public class XAResourceProxyFactory extends AbstractChildProxyFactory<XADataSource, XADataSourceDatabase, XAConnection, SQLException, XAResource, XAException>
 {
-	public XAResourceProxyFactory(XAConnection parent, ProxyFactory<XADataSource, XADataSourceDatabase, XAConnection, SQLException> parentMap, Invoker<XADataSource, XADataSourceDatabase, XAConnection, XAResource, SQLException> invoker, Map<XADataSourceDatabase, XAResource> map)
+	private final TransactionContext<XADataSource, XADataSourceDatabase> context;
+	
+	public XAResourceProxyFactory(XAConnection parent, ProxyFactory<XADataSource, XADataSourceDatabase, XAConnection, SQLException> parentMap, Invoker<XADataSource, XADataSourceDatabase, XAConnection, XAResource, SQLException> invoker, Map<XADataSourceDatabase, XAResource> map, TransactionContext<XADataSource, XADataSourceDatabase> context)
 	{
 		super(parent, parentMap, invoker, map, XAException.class);
+		this.context = context;
+	}
+
+	/**
+	 * Returns the transaction context of the XA connection of this resource.
+	 * @return a transaction context
+	 */
+	public TransactionContext<XADataSource, XADataSourceDatabase> getTransactionContext()
+	{
+		return this.context;
 	}
 
 	@Override
@@ -28,15 +28,23 @@ import javax.transaction.xa.XAResource;
 import net.sf.hajdbc.invocation.Invoker;
 import net.sf.hajdbc.sql.ProxyFactory;
 import net.sf.hajdbc.sql.ProxyFactoryFactory;
+import net.sf.hajdbc.sql.TransactionContext;
 
 /**
  * @author Paul Ferraro
  */
 public class XAResourceProxyFactoryFactory implements ProxyFactoryFactory<XADataSource, XADataSourceDatabase, XAConnection, SQLException, XAResource, XAException>
 {
+	private final TransactionContext<XADataSource, XADataSourceDatabase> context;
+	
+	public XAResourceProxyFactoryFactory(TransactionContext<XADataSource, XADataSourceDatabase> context)
+	{
+		this.context = context;
+	}
+	
 	@Override
 	public ProxyFactory<XADataSource, XADataSourceDatabase, XAResource, XAException> createProxyFactory(XAConnection parentProxy, ProxyFactory<XADataSource, XADataSourceDatabase, XAConnection, SQLException> parent, Invoker<XADataSource, XADataSourceDatabase, XAConnection, XAResource, SQLException> invoker, Map<XADataSourceDatabase, XAResource> resources)
 	{
-		return new XAResourceProxyFactory(parentProxy, parent, invoker, resources);
+		return new XAResourceProxyFactory(parentProxy, parent, invoker, resources, this.context);
 	}
 }
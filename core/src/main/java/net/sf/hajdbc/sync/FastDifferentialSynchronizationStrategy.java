@@ -17,24 +17,95 @@
  */
 package net.sf.hajdbc.sync;
 
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
 import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.ExceptionType;
 import net.sf.hajdbc.SynchronizationStrategy;
+import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.UniqueConstraint;
+import net.sf.hajdbc.dialect.Dialect;
+import net.sf.hajdbc.logging.Level;
+import net.sf.hajdbc.logging.Logger;
+import net.sf.hajdbc.logging.LoggerFactory;
+import net.sf.hajdbc.messages.Messages;
+import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.util.Objects;
+import net.sf.hajdbc.util.Strings;
 
 /**
- * Work in progress...
+ * Synchronization strategy that only transfers the rows of primary key ranges whose checksums differ between two databases.
+ * Checksums are computed by each database server, thus only a handful of values are transferred per range.
+ * This strategy is best used when there are <em>few</em> differences between the active database and the inactive database (i.e. barely out of sync).
+ * The following algorithm is used:
+ * <ol>
+ *  <li>Drop the foreign keys on the inactive database (to avoid integrity constraint violations)</li>
+ *  <li>For each database table:
+ *   <ol>
+ *    <li>Drop the unique constraints on the table (to avoid integrity constraint violations)</li>
+ *    <li>Find the primary key range spanning the rows of both databases</li>
+ *    <li>Compare the row count and checksum of the range on each database:
+ *     <ol>
+ *      <li>If they match, the range is already synchronized</li>
+ *      <li>If the range contains few rows on the active database, delete the range from the inactive database, and copy the range from the active database</li>
+ *      <li>Otherwise, split the range in half, and compare each half</li>
+ *     </ol>
+ *    </li>
+ *    <li>Re-create the unique constraints on the table (to avoid integrity constraint violations)</li>
+ *   </ol>
+ *  </li>
+ *  <li>Re-create the foreign keys on the inactive database</li>
+ *  <li>Synchronize sequences</li>
+ * </ol>
+ * The following tables are synchronized using the {@link DifferentialSynchronizationStrategy} instead:
+ * <ul>
+ *  <li>Tables without a single integral primary key column, i.e. an integer type, or an exact numeric type with a scale of 0, whose values fit in a long</li>
+ *  <li>Tables with large object columns</li>
+ *  <li>Tables whose checksums the dialect cannot compute, e.g. if unsupported, or if a row exceeds the input limit of its hash function</li>
+ * </ul>
  * @author Paul Ferraro
  */
-public class FastDifferentialSynchronizationStrategy implements SynchronizationStrategy
+public class FastDifferentialSynchronizationStrategy implements SynchronizationStrategy, TableSynchronizationStrategy
 {
 	private static final long serialVersionUID = 2556031934309008750L;
 
+	static Messages messages = MessagesFactory.getMessages();
+	static Logger logger = LoggerFactory.getLogger(FastDifferentialSynchronizationStrategy.class);
+
+	private final SynchronizationStrategy strategy = new PerTableSynchronizationStrategy(this);
+	private final DifferentialSynchronizationStrategy fallbackStrategy = new DifferentialSynchronizationStrategy();
+	private int fetchSize = 0;
+	private int maxBatchSize = 100;
+	private int maxRangeSize = 1000;
+
 	@Override
 	public String getId()
 	{
 		return "delta";
 	}
 
+	@Override
+	public <Z, D extends Database<Z>> void synchronize(SynchronizationContext<Z, D> context) throws SQLException
+	{
+		this.strategy.synchronize(context);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.SynchronizationStrategy#init(net.sf.hajdbc.DatabaseCluster)
@@ -42,25 +113,503 @@ public class FastDifferentialSynchronizationStrategy implements SynchronizationS
 	@Override
 	public <Z, D extends Database<Z>> void init(DatabaseCluster<Z, D> cluster)
 	{
-//		"UPDATE changes.table SET new_flag = $1 WHERE id = NEW.id;";
-//		"INSERT INTO changes.table (id, new_flag) SELECT NEW.id, $1 WHERE NOT EXISTS (SELECT 1 FROM changes.table WHERE id = NEW.id);";
+		this.strategy.init(cluster);
 	}
 
 	/**
 	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.SynchronizationStrategy#synchronize(net.sf.hajdbc.sync.SynchronizationContext)
+	 * @see net.sf.hajdbc.SynchronizationStrategy#destroy(net.sf.hajdbc.DatabaseCluster)
 	 */
 	@Override
-	public <Z, D extends Database<Z>> void synchronize(SynchronizationContext<Z, D> context)
+	public <Z, D extends Database<Z>> void destroy(DatabaseCluster<Z, D> cluster)
+	{
+		this.strategy.destroy(cluster);
+	}
+
+	@Override
+	public <Z, D extends Database<Z>> void dropConstraints(SynchronizationContext<Z, D> context) throws SQLException
+	{
+		this.fallbackStrategy.dropConstraints(context);
+	}
+
+	@Override
+	public <Z, D extends Database<Z>> void restoreConstraints(SynchronizationContext<Z, D> context) throws SQLException
 	{
+		this.fallbackStrategy.restoreConstraints(context);
 	}
 
 	/**
 	 * {@inheritDoc}
-	 * @see net.sf.hajdbc.SynchronizationStrategy#destroy(net.sf.hajdbc.DatabaseCluster)
+	 * @see net.sf.hajdbc.sync.TableSynchronizationStrategy#synchronize(net.sf.hajdbc.sync.SynchronizationContext, net.sf.hajdbc.TableProperties)
 	 */
 	@Override
-	public <Z, D extends Database<Z>> void destroy(DatabaseCluster<Z, D> cluster)
+	public <Z, D extends Database<Z>> void synchronize(SynchronizationContext<Z, D> context, TableProperties table) throws SQLException
+	{
+		String tableName = table.getName().getDMLName();
+		
+		UniqueConstraint primaryKey = table.getPrimaryKey();
+		
+		if (primaryKey == null)
+		{
+			throw new SQLException(messages.primaryKeyRequired(this, table));
+		}
+		
+		List<String> primaryKeyColumns = primaryKey.getColumnList();
+		
+		Collection<String> columns = table.getColumns();
+		
+		// List of columns for select statement - starting with primary key
+		List<String> allColumns = new ArrayList<>(columns.size());
+		allColumns.addAll(primaryKeyColumns);
+		for (String column: columns)
+		{
+			if (!primaryKeyColumns.contains(column))
+			{
+				allColumns.add(column);
+			}
+		}
+		
+		Dialect dialect = context.getDialect();
+		String checksum = dialect.getChecksumSQL(allColumns);
+		
+		int[] types = new int[allColumns.size()];
+		for (int i = 0; i < types.length; ++i)
+		{
+			types[i] = dialect.getColumnType(table.getColumnProperties(allColumns.get(i)));
+		}
+		
+		Connection targetConnection = context.getConnection(context.getTargetDatabase());
+		Connection sourceConnection = context.getConnection(context.getSourceDatabase());
+		
+		if ((checksum == null) || (primaryKeyColumns.size() != 1) || hasLargeObjects(types) || !isIntegral(sourceConnection, tableName, primaryKeyColumns.get(0), types[0]))
+		{
+			this.fallback(context, table);
+			return;
+		}
+		
+		if (!this.synchronize(context, table, checksum, allColumns, types))
+		{
+			// Nothing was modified yet, but discard any failed statement
+			context.getSynchronizationSupport().rollback(sourceConnection);
+			context.getSynchronizationSupport().rollback(targetConnection);
+			this.fallback(context, table);
+		}
+	}
+	
+	private <Z, D extends Database<Z>> void fallback(SynchronizationContext<Z, D> context, TableProperties table) throws SQLException
+	{
+		logger.log(Level.DEBUG, "Key ranges of {0} cannot be compared by checksum, using {1} strategy", table.getName().getDMLName(), this.fallbackStrategy.getId());
+		this.fallbackStrategy.synchronize(context, table);
+	}
+	
+	/**
+	 * Synchronizes the specified table by comparing the checksums of its key ranges.
+	 * @return true, if the table was synchronized, false if its key range or checksums could not be computed, in which case the target was not modified
+	 */
+	private <Z, D extends Database<Z>> boolean synchronize(SynchronizationContext<Z, D> context, TableProperties table, String checksum, List<String> allColumns, int[] types) throws SQLException
+	{
+		String tableName = table.getName().getDMLName();
+		String key = allColumns.get(0);
+		String range = String.format("%s BETWEEN ? AND ?", key);
+		
+		final String boundsSQL = String.format("SELECT MIN(%s), MAX(%s) FROM %s", key, key, tableName);
+		final String checksumSQL = String.format("SELECT COUNT(*), %s FROM %s WHERE %s", checksum, tableName, range);
+		String selectSQL = String.format("SELECT %s FROM %s WHERE %s", Strings.join(allColumns, Strings.PADDED_COMMA), tableName, range);
+		String deleteSQL = String.format("DELETE FROM %s WHERE %s", tableName, range);
+		String insertSQL = String.format("INSERT INTO %s (%s) VALUES (%s)", tableName, Strings.join(allColumns, Strings.PADDED_COMMA), Strings.join(Collections.nCopies(allColumns.size(), Strings.QUESTION), Strings.PADDED_COMMA)); //$NON-NLS-1$
+		
+		Connection targetConnection = context.getConnection(context.getTargetDatabase());
+		Connection sourceConnection = context.getConnection(context.getSourceDatabase());
+		
+		logger.log(Level.DEBUG, boundsSQL);
+		logger.log(Level.DEBUG, checksumSQL);
+		
+		try (final PreparedStatement targetBoundsStatement = targetConnection.prepareStatement(boundsSQL);
+				final PreparedStatement targetChecksumStatement = targetConnection.prepareStatement(checksumSQL);
+				PreparedStatement sourceBoundsStatement = sourceConnection.prepareStatement(boundsSQL);
+				PreparedStatement sourceChecksumStatement = sourceConnection.prepareStatement(checksumSQL))
+		{
+			Future<Bounds> futureTargetBounds = context.getExecutor().submit(new Callable<Bounds>()
+			{
+				@Override
+				public Bounds call() throws SQLException
+				{
+					return bounds(targetBoundsStatement);
+				}
+			});
+			
+			Bounds sourceBounds = bounds(sourceBoundsStatement);
+			Bounds targetBounds = futureTargetBounds.get();
+			
+			// Both tables are empty
+			if ((sourceBounds == null) && (targetBounds == null)) return true;
+			
+			Range span = ((sourceBounds == null) ? targetBounds : (targetBounds == null) ? sourceBounds : sourceBounds.union(targetBounds)).toRange();
+			
+			// Key values exceed the range of a long
+			if (span == null) return false;
+			
+			Deque<Range> ranges = new ArrayDeque<>();
+			ranges.push(span);
+			
+			logger.log(Level.DEBUG, selectSQL);
+			logger.log(Level.DEBUG, deleteSQL);
+			logger.log(Level.DEBUG, insertSQL);
+			
+			try (PreparedStatement selectStatement = sourceConnection.prepareStatement(selectSQL);
+					PreparedStatement deleteStatement = targetConnection.prepareStatement(deleteSQL);
+					PreparedStatement insertStatement = targetConnection.prepareStatement(insertSQL))
+			{
+				selectStatement.setFetchSize(this.fetchSize);
+				
+				int insertCount = 0;
+				int deleteCount = 0;
+				boolean initial = true;
+				
+				while (!ranges.isEmpty())
+				{
+					final Range current = ranges.pop();
+					
+					Future<Checksum> futureTargetChecksum = context.getExecutor().submit(new Callable<Checksum>()
+					{
+						@Override
+						public Checksum call() throws SQLException
+						{
+							return checksum(targetChecksumStatement, current);
+						}
+					});
+					
+					Checksum sourceChecksum;
+					Checksum targetChecksum;
+					try
+					{
+						try
+						{
+							sourceChecksum = checksum(sourceChecksumStatement, current);
+						}
+						finally
+						{
+							// Target statement must not be closed while it still executes
+							targetChecksum = await(futureTargetChecksum);
+						}
+					}
+					catch (SQLException e)
+					{
+						// The initial range spans every row, so a row whose checksum cannot be computed fails here, before the target is modified
+						if (!initial) throw e;
+						
+						logger.log(Level.DEBUG, e, "Checksum of {0} failed", tableName);
+						return false;
+					}
+					initial = false;
+					
+					if (sourceChecksum.equals(targetChecksum)) continue;
+					
+					if ((sourceChecksum.count <= this.maxRangeSize) || (current.lower == current.upper))
+					{
+						// Replace range on target - rows of the target range are not transferred
+						deleteStatement.setLong(1, current.lower);
+						deleteStatement.setLong(2, current.upper);
+						deleteCount += deleteStatement.executeUpdate();
+						
+						if (sourceChecksum.count > 0)
+						{
+							insertCount += this.copy(context, current, selectStatement, insertStatement, types);
+						}
+					}
+					else
+					{
+						// Unsigned arithmetic avoids overflow for ranges wider than Long.MAX_VALUE
+						long middle = current.lower + ((current.upper - current.lower) >>> 1);
+						ranges.push(new Range(middle + 1, current.upper));
+						ranges.push(new Range(current.lower, middle));
+					}
+				}
+				
+				logger.log(Level.INFO, messages.insertCount(table, insertCount));
+				logger.log(Level.INFO, messages.deleteCount(table, deleteCount));
+				
+				return true;
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new SQLException(e);
+		}
+		catch (ExecutionException e)
+		{
+			throw ExceptionType.SQL.<SQLException>getExceptionFactory().createException(e.getCause());
+		}
+	}
+	
+	private <Z, D extends Database<Z>> int copy(SynchronizationContext<Z, D> context, Range range, PreparedStatement selectStatement, PreparedStatement insertStatement, int[] types) throws SQLException
+	{
+		selectStatement.setLong(1, range.lower);
+		selectStatement.setLong(2, range.upper);
+		
+		int count = 0;
+		
+		try (ResultSet resultSet = selectStatement.executeQuery())
+		{
+			while (resultSet.next())
+			{
+				insertStatement.clearParameters();
+				
+				for (int i = 1; i <= types.length; ++i)
+				{
+					int type = types[i - 1];
+					
+					Object object = context.getSynchronizationSupport().getObject(resultSet, i, type);
+					
+					if (resultSet.wasNull())
+					{
+						insertStatement.setNull(i, type);
+					}
+					else
+					{
+						insertStatement.setObject(i, object, type);
+					}
+				}
+				
+				insertStatement.addBatch();
+				
+				count += 1;
+				
+				if ((count % this.maxBatchSize) == 0)
+				{
+					insertStatement.executeBatch();
+					insertStatement.clearBatch();
+				}
+			}
+		}
+		
+		if ((count % this.maxBatchSize) > 0)
+		{
+			insertStatement.executeBatch();
+			insertStatement.clearBatch();
+		}
+		
+		return count;
+	}
+	
+	static Bounds bounds(PreparedStatement statement) throws SQLException
+	{
+		try (ResultSet resultSet = statement.executeQuery())
+		{
+			resultSet.next();
+			// Read as decimals, since exact numeric keys may exceed the range of a long
+			BigDecimal lower = resultSet.getBigDecimal(1);
+			// Aggregates of an empty table are null
+			return (lower == null) ? null : new Bounds(lower, resultSet.getBigDecimal(2));
+		}
+	}
+	
+	/**
+	 * Waits for the checksum computed by the specified task.
+	 * Any exception of the task is unwrapped.
+	 */
+	private static Checksum await(Future<Checksum> future) throws SQLException
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new SQLException(e);
+		}
+		catch (ExecutionException e)
+		{
+			throw ExceptionType.SQL.<SQLException>getExceptionFactory().createException(e.getCause());
+		}
+	}
+	
+	static Checksum checksum(PreparedStatement statement, Range range) throws SQLException
+	{
+		statement.setLong(1, range.lower);
+		statement.setLong(2, range.upper);
+		
+		try (ResultSet resultSet = statement.executeQuery())
+		{
+			resultSet.next();
+			return new Checksum(resultSet.getLong(1), resultSet.getObject(2));
+		}
+	}
+	
+	/**
+	 * Indicates whether the values of the specified key column can be bisected as longs.
+	 * The scale of exact numeric columns is not available from the column properties, so it is read from the result set meta data of the column.
+	 */
+	private static boolean isIntegral(Connection connection, String table, String column, int type) throws SQLException
+	{
+		switch (type)
+		{
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+			case Types.BIGINT:
+			{
+				return true;
+			}
+			case Types.NUMERIC:
+			case Types.DECIMAL:
+			{
+				try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(String.format("SELECT %s FROM %s WHERE 0=1", column, table)))
+				{
+					return resultSet.getMetaData().getScale(1) == 0;
+				}
+			}
+			default:
+			{
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * Large objects cannot be hashed by some dialects, e.g. Oracle's ORA_HASH.
+	 */
+	private static boolean hasLargeObjects(int[] types)
+	{
+		for (int type: types)
+		{
+			switch (type)
+			{
+				case Types.BLOB:
+				case Types.CLOB:
+				case Types.NCLOB:
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * The minimum and maximum primary key values of a table.
+	 */
+	static class Bounds
+	{
+		private static final BigDecimal MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+		private static final BigDecimal MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+		
+		final BigDecimal lower;
+		final BigDecimal upper;
+		
+		Bounds(BigDecimal lower, BigDecimal upper)
+		{
+			this.lower = lower;
+			this.upper = upper;
+		}
+		
+		Bounds union(Bounds bounds)
+		{
+			return new Bounds(this.lower.min(bounds.lower), this.upper.max(bounds.upper));
+		}
+		
+		/**
+		 * Returns the range spanned by these bounds, or null, if these bounds exceed the range of a long.
+		 */
+		Range toRange()
+		{
+			return ((this.lower.compareTo(MIN) < 0) || (this.upper.compareTo(MAX) > 0)) ? null : new Range(this.lower.longValue(), this.upper.longValue());
+		}
+	}
+	
+	/**
+	 * An inclusive range of primary key values.
+	 */
+	static class Range
+	{
+		final long lower;
+		final long upper;
+		
+		Range(long lower, long upper)
+		{
+			this.lower = lower;
+			this.upper = upper;
+		}
+	}
+	
+	/**
+	 * The row count and checksum of a range.
+	 */
+	static class Checksum
+	{
+		final long count;
+		final Object value;
+		
+		Checksum(long count, Object value)
+		{
+			this.count = count;
+			this.value = value;
+		}
+
+		@Override
+		public boolean equals(Object object)
+		{
+			if (!(object instanceof Checksum)) return false;
+			Checksum checksum = (Checksum) object;
+			return (this.count == checksum.count) && Objects.equals(this.value, checksum.value);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (int) this.count;
+		}
+	}
+
+	/**
+	 * @return the fetchSize.
+	 */
+	public int getFetchSize()
+	{
+		return this.fetchSize;
+	}
+
+	/**
+	 * @param fetchSize the fetchSize to set.
+	 */
+	public void setFetchSize(int fetchSize)
+	{
+		this.fetchSize = fetchSize;
+		this.fallbackStrategy.setFetchSize(fetchSize);
+	}
+
+	/**
+	 * @return Returns the maxBatchSize.
+	 */
+	public int getMaxBatchSize()
+	{
+		return this.maxBatchSize;
+	}
+
+	/**
+	 * @param maxBatchSize The maxBatchSize to set.
+	 */
+	public void setMaxBatchSize(int maxBatchSize)
+	{
+		this.maxBatchSize = maxBatchSize;
+		this.fallbackStrategy.setMaxBatchSize(maxBatchSize);
+	}
+
+	/**
+	 * @return the maximum number of rows in a range that is copied, rather than split.
+	 */
+	public int getMaxRangeSize()
+	{
+		return this.maxRangeSize;
+	}
+
+	/**
+	 * @param maxRangeSize the maximum number of rows in a range that is copied, rather than split.
+	 */
+	public void setMaxRangeSize(int maxRangeSize)
 	{
+		this.maxRangeSize = maxRangeSize;
 	}
 }
@@ -0,0 +1,525 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * Compact sorted map backed by parallel arrays of keys and values.
+ * Intended for the small, short-lived maps of per-database results created by each invocation, for which the per-entry overhead of a {@link java.util.TreeMap} dominates.
+ * Lookups use a binary search; insertion of keys in ascending order, the common case, appends without shifting.
+ * Iteration over {@link #keySet()} and {@link #values()} does not allocate map entries.
+ * This implementation is not thread-safe.
+ * @author Paul Ferraro
+ * @param <K> the map key type
+ * @param <V> the map value type
+ */
+public class ArraySortedMap<K, V> extends AbstractMap<K, V> implements SortedMap<K, V>
+{
+	private static final Object[] EMPTY = new Object[0];
+	private static final int DEFAULT_CAPACITY = 4;
+
+	private final Comparator<? super K> comparator;
+	private Object[] keys;
+	private Object[] values;
+	private int size = 0;
+
+	public ArraySortedMap()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	public ArraySortedMap(int capacity)
+	{
+		this(null, capacity);
+	}
+
+	public ArraySortedMap(Comparator<? super K> comparator, int capacity)
+	{
+		this.comparator = comparator;
+		this.keys = (capacity > 0) ? new Object[capacity] : EMPTY;
+		this.values = (capacity > 0) ? new Object[capacity] : EMPTY;
+	}
+
+	@SuppressWarnings("unchecked")
+	private int compare(Object key1, Object key2)
+	{
+		Comparator<? super K> comparator = (this.comparator != null) ? this.comparator : Collections.<K>naturalComparator();
+		return comparator.compare((K) key1, (K) key2);
+	}
+
+	/**
+	 * Returns the index of the first key that is not less than the specified key.
+	 */
+	int lowerBound(Object key)
+	{
+		int low = 0;
+		int high = this.size;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (this.compare(this.keys[middle], key) < 0)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int indexOf(Object key)
+	{
+		if (key == null) throw new NullPointerException();
+		int index = this.lowerBound(key);
+		return ((index < this.size) && (this.compare(this.keys[index], key) == 0)) ? index : -(index + 1);
+	}
+
+	@SuppressWarnings("unchecked")
+	K keyAt(int index)
+	{
+		return (K) this.keys[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	V valueAt(int index)
+	{
+		return (V) this.values[index];
+	}
+
+	V removeAt(int index)
+	{
+		V value = this.valueAt(index);
+		int moved = this.size - index - 1;
+		if (moved > 0)
+		{
+			System.arraycopy(this.keys, index + 1, this.keys, index, moved);
+			System.arraycopy(this.values, index + 1, this.values, index, moved);
+		}
+		this.size -= 1;
+		this.keys[this.size] = null;
+		this.values[this.size] = null;
+		return value;
+	}
+
+	private void insertAt(int index, K key, V value)
+	{
+		if (this.size == this.keys.length)
+		{
+			int capacity = Math.max(DEFAULT_CAPACITY, this.size * 2);
+			this.keys = Arrays.copyOf(this.keys, capacity);
+			this.values = Arrays.copyOf(this.values, capacity);
+		}
+		int moved = this.size - index;
+		if (moved > 0)
+		{
+			System.arraycopy(this.keys, index, this.keys, index + 1, moved);
+			System.arraycopy(this.values, index, this.values, index + 1, moved);
+		}
+		this.keys[index] = key;
+		this.values[index] = value;
+		this.size += 1;
+	}
+
+	@Override
+	public int size()
+	{
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key)
+	{
+		return this.indexOf(key) >= 0;
+	}
+
+	@Override
+	public V get(Object key)
+	{
+		int index = this.indexOf(key);
+		return (index >= 0) ? this.valueAt(index) : null;
+	}
+
+	@Override
+	public V put(K key, V value)
+	{
+		if (key == null) throw new NullPointerException();
+		// Optimize for keys inserted in ascending order
+		if ((this.size == 0) || (this.compare(this.keys[this.size - 1], key) < 0))
+		{
+			this.insertAt(this.size, key, value);
+			return null;
+		}
+		int index = this.indexOf(key);
+		if (index >= 0)
+		{
+			V old = this.valueAt(index);
+			this.values[index] = value;
+			return old;
+		}
+		this.insertAt(-(index + 1), key, value);
+		return null;
+	}
+
+	@Override
+	public V remove(Object key)
+	{
+		int index = this.indexOf(key);
+		return (index >= 0) ? this.removeAt(index) : null;
+	}
+
+	@Override
+	public void clear()
+	{
+		Arrays.fill(this.keys, 0, this.size, null);
+		Arrays.fill(this.values, 0, this.size, null);
+		this.size = 0;
+	}
+
+	@Override
+	public Comparator<? super K> comparator()
+	{
+		return this.comparator;
+	}
+
+	@Override
+	public K firstKey()
+	{
+		return new SubMap(null, null).firstKey();
+	}
+
+	@Override
+	public K lastKey()
+	{
+		return new SubMap(null, null).lastKey();
+	}
+
+	@Override
+	public SortedMap<K, V> subMap(K fromKey, K toKey)
+	{
+		if ((fromKey == null) || (toKey == null)) throw new NullPointerException();
+		if (this.compare(fromKey, toKey) > 0) throw new IllegalArgumentException();
+		return new SubMap(fromKey, toKey);
+	}
+
+	@Override
+	public SortedMap<K, V> headMap(K toKey)
+	{
+		if (toKey == null) throw new NullPointerException();
+		return new SubMap(null, toKey);
+	}
+
+	@Override
+	public SortedMap<K, V> tailMap(K fromKey)
+	{
+		if (fromKey == null) throw new NullPointerException();
+		return new SubMap(fromKey, null);
+	}
+
+	@Override
+	public Set<K> keySet()
+	{
+		return new SubMap(null, null).keySet();
+	}
+
+	@Override
+	public Collection<V> values()
+	{
+		return new SubMap(null, null).values();
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet()
+	{
+		return new SubMap(null, null).entrySet();
+	}
+
+	/**
+	 * View of a range of keys of this map.  A null bound indicates that range is unbounded.
+	 */
+	private class SubMap extends AbstractMap<K, V> implements SortedMap<K, V>
+	{
+		private final K fromKey;
+		private final K toKey;
+
+		SubMap(K fromKey, K toKey)
+		{
+			this.fromKey = fromKey;
+			this.toKey = toKey;
+		}
+
+		int low()
+		{
+			return (this.fromKey != null) ? ArraySortedMap.this.lowerBound(this.fromKey) : 0;
+		}
+
+		int high()
+		{
+			return (this.toKey != null) ? ArraySortedMap.this.lowerBound(this.toKey) : ArraySortedMap.this.size;
+		}
+
+		boolean inRange(Object key)
+		{
+			return ((this.fromKey == null) || (ArraySortedMap.this.compare(key, this.fromKey) >= 0)) && ((this.toKey == null) || (ArraySortedMap.this.compare(key, this.toKey) < 0));
+		}
+
+		boolean inClosedRange(Object key)
+		{
+			return ((this.fromKey == null) || (ArraySortedMap.this.compare(key, this.fromKey) >= 0)) && ((this.toKey == null) || (ArraySortedMap.this.compare(key, this.toKey) <= 0));
+		}
+
+		@Override
+		public int size()
+		{
+			return Math.max(this.high() - this.low(), 0);
+		}
+
+		@Override
+		public boolean isEmpty()
+		{
+			return this.size() == 0;
+		}
+
+		@Override
+		public boolean containsKey(Object key)
+		{
+			return this.inRange(key) && ArraySortedMap.this.containsKey(key);
+		}
+
+		@Override
+		public V get(Object key)
+		{
+			return this.inRange(key) ? ArraySortedMap.this.get(key) : null;
+		}
+
+		@Override
+		public V put(K key, V value)
+		{
+			if (!this.inRange(key)) throw new IllegalArgumentException();
+			return ArraySortedMap.this.put(key, value);
+		}
+
+		@Override
+		public V remove(Object key)
+		{
+			return this.inRange(key) ? ArraySortedMap.this.remove(key) : null;
+		}
+
+		@Override
+		public Comparator<? super K> comparator()
+		{
+			return ArraySortedMap.this.comparator;
+		}
+
+		@Override
+		public K firstKey()
+		{
+			if (this.isEmpty()) throw new NoSuchElementException();
+			return ArraySortedMap.this.keyAt(this.low());
+		}
+
+		@Override
+		public K lastKey()
+		{
+			if (this.isEmpty()) throw new NoSuchElementException();
+			return ArraySortedMap.this.keyAt(this.high() - 1);
+		}
+
+		@Override
+		public SortedMap<K, V> subMap(K fromKey, K toKey)
+		{
+			if (!this.inClosedRange(fromKey) || !this.inClosedRange(toKey) || (ArraySortedMap.this.compare(fromKey, toKey) > 0)) throw new IllegalArgumentException();
+			return new SubMap(fromKey, toKey);
+		}
+
+		@Override
+		public SortedMap<K, V> headMap(K toKey)
+		{
+			if (!this.inClosedRange(toKey)) throw new IllegalArgumentException();
+			return new SubMap(this.fromKey, toKey);
+		}
+
+		@Override
+		public SortedMap<K, V> tailMap(K fromKey)
+		{
+			if (!this.inClosedRange(fromKey)) throw new IllegalArgumentException();
+			return new SubMap(fromKey, this.toKey);
+		}
+
+		@Override
+		public Set<K> keySet()
+		{
+			return new AbstractSet<K>()
+			{
+				@Override
+				public Iterator<K> iterator()
+				{
+					return new RangeIterator<K>(SubMap.this.low(), SubMap.this.high())
+					{
+						@Override
+						K get(int index)
+						{
+							return ArraySortedMap.this.keyAt(index);
+						}
+					};
+				}
+
+				@Override
+				public int size()
+				{
+					return SubMap.this.size();
+				}
+
+				@Override
+				public boolean contains(Object key)
+				{
+					return SubMap.this.containsKey(key);
+				}
+			};
+		}
+
+		@Override
+		public Collection<V> values()
+		{
+			return new AbstractCollection<V>()
+			{
+				@Override
+				public Iterator<V> iterator()
+				{
+					return new RangeIterator<V>(SubMap.this.low(), SubMap.this.high())
+					{
+						@Override
+						V get(int index)
+						{
+							return ArraySortedMap.this.valueAt(index);
+						}
+					};
+				}
+
+				@Override
+				public int size()
+				{
+					return SubMap.this.size();
+				}
+			};
+		}
+
+		@Override
+		public Set<Map.Entry<K, V>> entrySet()
+		{
+			return new AbstractSet<Map.Entry<K, V>>()
+			{
+				@Override
+				public Iterator<Map.Entry<K, V>> iterator()
+				{
+					return new RangeIterator<Map.Entry<K, V>>(SubMap.this.low(), SubMap.this.high())
+					{
+						@Override
+						Map.Entry<K, V> get(int index)
+						{
+							return new WriteThroughEntry(ArraySortedMap.this.keyAt(index), ArraySortedMap.this.valueAt(index));
+						}
+					};
+				}
+
+				@Override
+				public int size()
+				{
+					return SubMap.this.size();
+				}
+			};
+		}
+	}
+
+	/**
+	 * Iterates over a range of indexes of this map.
+	 */
+	private abstract class RangeIterator<E> implements Iterator<E>
+	{
+		private int index;
+		private int end;
+		private int last = -1;
+
+		RangeIterator(int start, int end)
+		{
+			this.index = start;
+			this.end = end;
+		}
+
+		abstract E get(int index);
+
+		@Override
+		public boolean hasNext()
+		{
+			return this.index < this.end;
+		}
+
+		@Override
+		public E next()
+		{
+			if (!this.hasNext()) throw new NoSuchElementException();
+			this.last = this.index++;
+			return this.get(this.last);
+		}
+
+		@Override
+		public void remove()
+		{
+			if (this.last < 0) throw new IllegalStateException();
+			ArraySortedMap.this.removeAt(this.last);
+			this.index = this.last;
+			this.end -= 1;
+			this.last = -1;
+		}
+	}
+
+	private class WriteThroughEntry extends AbstractMap.SimpleEntry<K, V>
+	{
+		private static final long serialVersionUID = -1466563339335548939L;
+
+		WriteThroughEntry(K key, V value)
+		{
+			super(key, value);
+		}
+
+		@Override
+		public V setValue(V value)
+		{
+			ArraySortedMap.this.put(this.getKey(), value);
+			return super.setValue(value);
+		}
+	}
+}
@@ -19,6 +19,10 @@ package net.sf.hajdbc.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedExceptionAction;
 
@@ -57,4 +61,54 @@ public class Files
 
 		Security.run(action);
 	}
+	
+	/**
+	 * Releases the specified memory mapping immediately, rather than when the buffer is garbage collected.
+	 * Without this, a mapped file cannot be deleted on some platforms, and otherwise retains its disk space until then.
+	 * The buffer, and any view of it, must not be accessed afterwards.
+	 * @param buffer a mapped byte buffer
+	 * @return true, if the mapping was released, false if this JVM does not support explicit unmapping
+	 */
+	public static boolean unmap(final MappedByteBuffer buffer)
+	{
+		PrivilegedAction<Boolean> action = new PrivilegedAction<Boolean>()
+		{
+			@Override
+			public Boolean run()
+			{
+				try
+				{
+					// Java 9+
+					Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+					try
+					{
+						Method method = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+						Field field = unsafeClass.getDeclaredField("theUnsafe");
+						field.setAccessible(true);
+						method.invoke(field.get(null), buffer);
+						return true;
+					}
+					catch (NoSuchMethodException e)
+					{
+						// Java 8
+						Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+						cleanerMethod.setAccessible(true);
+						Object cleaner = cleanerMethod.invoke(buffer);
+						if (cleaner == null) return false;
+						Method cleanMethod = cleaner.getClass().getMethod("clean");
+						cleanMethod.setAccessible(true);
+						cleanMethod.invoke(cleaner);
+						return true;
+					}
+				}
+				catch (ReflectiveOperationException | RuntimeException e)
+				{
+					// Mapping will be released when the buffer is garbage collected
+					return false;
+				}
+			}
+		};
+		
+		return Security.run(action);
+	}
 }
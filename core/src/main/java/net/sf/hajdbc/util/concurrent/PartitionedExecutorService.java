@@ -0,0 +1,235 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.concurrent;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor service decorator that limits the number of concurrently executing tasks per partition.
+ * Tasks that do not implement {@link PartitionedTask} are not limited.
+ * 
+ * @author Paul Ferraro
+ */
+public class PartitionedExecutorService extends AbstractExecutorService
+{
+	private final ExecutorService executor;
+	private final int maxConcurrency;
+	private final ConcurrentMap<Object, Semaphore> semaphores = new ConcurrentHashMap<>();
+	
+	/**
+	 * Creates a new partitioned executor service
+	 * @param executor the executor to which tasks are delegated
+	 * @param maxConcurrency the maximum number of concurrently executing tasks per partition
+	 */
+	public PartitionedExecutorService(ExecutorService executor, int maxConcurrency)
+	{
+		if (maxConcurrency <= 0) throw new IllegalArgumentException(Integer.toString(maxConcurrency));
+		
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.Executor#execute(java.lang.Runnable)
+	 */
+	@Override
+	public void execute(final Runnable task)
+	{
+		if (task instanceof PartitionedTask)
+		{
+			this.executor.execute(new PartitionedRunnable(task, this.getSemaphore(((PartitionedTask) task).getPartition())));
+		}
+		else
+		{
+			this.executor.execute(task);
+		}
+	}
+
+	/**
+	 * Runs the specified task in the caller thread, subject to the concurrency limit of the specified partition.
+	 * If interrupted while waiting for the partition, the task is not run, and is cancelled if it is a {@link Future}.
+	 * @param task a task
+	 * @param partition the partition of the task
+	 */
+	public void run(Runnable task, Object partition)
+	{
+		new PartitionedRunnable(task, this.getSemaphore(partition)).run();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.AbstractExecutorService#newTaskFor(java.util.concurrent.Callable)
+	 */
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Callable<T> task)
+	{
+		return (task instanceof PartitionedTask) ? new PartitionedFutureTask<>(task, ((PartitionedTask) task).getPartition()) : super.newTaskFor(task);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see java.util.concurrent.AbstractExecutorService#newTaskFor(java.lang.Runnable, java.lang.Object)
+	 */
+	@Override
+	protected <T> RunnableFuture<T> newTaskFor(Runnable task, T result)
+	{
+		return (task instanceof PartitionedTask) ? new PartitionedFutureTask<>(task, result, ((PartitionedTask) task).getPartition()) : super.newTaskFor(task, result);
+	}
+
+	/**
+	 * Discards the concurrency limit of the specified partition, e.g. of a database removed from its cluster.
+	 * Tasks of this partition that are already executing are unaffected.
+	 * @param partition a partition
+	 */
+	public void remove(Object partition)
+	{
+		this.semaphores.remove(partition);
+	}
+
+	private Semaphore getSemaphore(Object partition)
+	{
+		Semaphore semaphore = this.semaphores.get(partition);
+		if (semaphore == null)
+		{
+			semaphore = new Semaphore(this.maxConcurrency);
+			Semaphore existing = this.semaphores.putIfAbsent(partition, semaphore);
+			if (existing != null)
+			{
+				semaphore = existing;
+			}
+		}
+		return semaphore;
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#shutdown()
+	 */
+	@Override
+	public void shutdown()
+	{
+		this.executor.shutdown();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#shutdownNow()
+	 */
+	@Override
+	public List<Runnable> shutdownNow()
+	{
+		return this.executor.shutdownNow();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#isShutdown()
+	 */
+	@Override
+	public boolean isShutdown()
+	{
+		return this.executor.isShutdown();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#isTerminated()
+	 */
+	@Override
+	public boolean isTerminated()
+	{
+		return this.executor.isTerminated();
+	}
+
+	/**
+	 * @see java.util.concurrent.ExecutorService#awaitTermination(long, java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public boolean awaitTermination(long time, TimeUnit unit) throws InterruptedException
+	{
+		return this.executor.awaitTermination(time, unit);
+	}
+	
+	private static class PartitionedRunnable implements Runnable
+	{
+		private final Runnable task;
+		private final Semaphore semaphore;
+		
+		PartitionedRunnable(Runnable task, Semaphore semaphore)
+		{
+			this.task = task;
+			this.semaphore = semaphore;
+		}
+
+		@Override
+		public void run()
+		{
+			try
+			{
+				this.semaphore.acquire();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				if (this.task instanceof Future)
+				{
+					((Future<?>) this.task).cancel(false);
+				}
+				return;
+			}
+			try
+			{
+				this.task.run();
+			}
+			finally
+			{
+				this.semaphore.release();
+			}
+		}
+	}
+	
+	private static class PartitionedFutureTask<T> extends FutureTask<T> implements PartitionedTask
+	{
+		private final Object partition;
+		
+		PartitionedFutureTask(Callable<T> task, Object partition)
+		{
+			super(task);
+			this.partition = partition;
+		}
+		
+		PartitionedFutureTask(Runnable task, T result, Object partition)
+		{
+			super(task, result);
+			this.partition = partition;
+		}
+
+		@Override
+		public Object getPartition()
+		{
+			return this.partition;
+		}
+	}
+}
@@ -38,6 +38,7 @@ import net.sf.hajdbc.util.Reversed;
 
 /**
  * Executor service that executes tasks in the caller thread.
+ * In caller-runs mode, the caller thread also executes the last of the tasks that would otherwise be submitted to the underlying executor.
  * 
  * @author Paul Ferraro
  */
@@ -45,6 +46,7 @@ public class SynchronousExecutor extends AbstractExecutorService
 {
 	private final ExecutorService executor;
 	private final boolean reverse;
+	private final boolean callerRuns;
 	
 	public SynchronousExecutor(ExecutorService executor)
 	{
@@ -52,9 +54,15 @@ public class SynchronousExecutor extends AbstractExecutorService
 	}
 	
 	public SynchronousExecutor(ExecutorService executor, boolean reverse)
+	{
+		this(executor, reverse, false);
+	}
+	
+	public SynchronousExecutor(ExecutorService executor, boolean reverse, boolean callerRuns)
 	{
 		this.executor = executor;
 		this.reverse = reverse;
+		this.callerRuns = callerRuns;
 	}
 	
 	/**
@@ -191,7 +199,9 @@ public class SynchronousExecutor extends AbstractExecutorService
 			}
 			else
 			{
-				Future<T> future = this.executor.submit(task);
+				// In caller-runs mode, execute the last of the parallel tasks in the caller thread, instead of waiting idly
+				boolean last = this.reverse ? (remaining == 1) : (remaining == 0);
+				Future<T> future = (this.callerRuns && last) ? new EagerFuture<>(task) : this.executor.submit(task);
 				if (this.reverse)
 				{
 					futures.addFirst(future);
@@ -0,0 +1,154 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.ref;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe set that weakly references its elements, compared by identity.
+ * This differs from a set backed by a {@link java.util.WeakHashMap}, which compares its elements via {@link Object#equals(Object)} and {@link Object#hashCode()}.
+ * The two are only equivalent for elements that do not override these methods, e.g. proxy factories.
+ * Operations never lock the set.
+ * Garbage collected elements are purged upon modification.
+ * Iteration is weakly consistent, i.e. never throws {@link java.util.ConcurrentModificationException}, and skips garbage collected elements.
+ * @author Paul Ferraro
+ * @param <E> the set element type
+ */
+public class ConcurrentWeakSet<E> extends AbstractSet<E>
+{
+	private final ConcurrentMap<Reference<E>, Boolean> map = new ConcurrentHashMap<>();
+	private final ReferenceQueue<E> queue = new ReferenceQueue<>();
+	
+	@Override
+	public boolean add(E element)
+	{
+		this.purge();
+		return this.map.putIfAbsent(new IdentityWeakReference<>(element, this.queue), Boolean.TRUE) == null;
+	}
+
+	@Override
+	public boolean remove(Object element)
+	{
+		this.purge();
+		return this.map.remove(new IdentityWeakReference<>(element, null)) != null;
+	}
+
+	@Override
+	public boolean contains(Object element)
+	{
+		return this.map.containsKey(new IdentityWeakReference<>(element, null));
+	}
+
+	@Override
+	public void clear()
+	{
+		this.map.clear();
+		this.purge();
+	}
+
+	@Override
+	public int size()
+	{
+		this.purge();
+		return this.map.size();
+	}
+
+	@Override
+	public Iterator<E> iterator()
+	{
+		final Iterator<Reference<E>> references = this.map.keySet().iterator();
+		
+		return new Iterator<E>()
+		{
+			private E next = this.advance();
+			
+			private E advance()
+			{
+				while (references.hasNext())
+				{
+					E element = references.next().get();
+					if (element != null) return element;
+				}
+				return null;
+			}
+			
+			@Override
+			public boolean hasNext()
+			{
+				return this.next != null;
+			}
+
+			@Override
+			public E next()
+			{
+				E element = this.next;
+				if (element == null)
+				{
+					throw new NoSuchElementException();
+				}
+				this.next = this.advance();
+				return element;
+			}
+		};
+	}
+
+	private void purge()
+	{
+		Reference<? extends E> reference = this.queue.poll();
+		while (reference != null)
+		{
+			this.map.remove(reference);
+			reference = this.queue.poll();
+		}
+	}
+	
+	private static class IdentityWeakReference<T> extends WeakReference<T>
+	{
+		private final int hashCode;
+		
+		@SuppressWarnings("unchecked")
+		IdentityWeakReference(Object referent, ReferenceQueue<? super T> queue)
+		{
+			super((T) referent, queue);
+			this.hashCode = System.identityHashCode(referent);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object object)
+		{
+			if (this == object) return true;
+			if (!(object instanceof IdentityWeakReference)) return false;
+			Object referent = this.get();
+			// Cleared references are only equal to themselves
+			return (referent != null) && (referent == ((IdentityWeakReference<?>) object).get());
+		}
+	}
+}
@@ -20,13 +20,18 @@ package net.sf.hajdbc.util.reflect;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 import net.sf.hajdbc.ExceptionFactory;
+import net.sf.hajdbc.util.SimpleStaticRegistry;
+import net.sf.hajdbc.util.StaticRegistry;
 
 /**
  * @author Paul Ferraro
@@ -87,6 +92,30 @@ public final class Methods
 		return new HashSet<>(list);
 	}
 	
+	/**
+	 * Classifies the public methods of the specified class, once, into an immutable registry.
+	 * Methods for which the classifier returns null are omitted, i.e. the registry will return null for them.
+	 * @param sourceClass the class whose methods to classify
+	 * @param classifier a function that returns the classification of a given method, or null if the method is not classified
+	 * @return a registry of method classifications
+	 */
+	public static <K> StaticRegistry<Method, K> classify(Class<?> sourceClass, Function<Method, K> classifier)
+	{
+		Map<Method, K> classifications = new HashMap<>();
+		
+		for (Method method: sourceClass.getMethods())
+		{
+			K classification = classifier.apply(method);
+			
+			if (classification != null)
+			{
+				classifications.put(method, classification);
+			}
+		}
+		
+		return new SimpleStaticRegistry<>(classifications);
+	}
+	
 	/**
 	 * Helper method for {@link Class#getMethod(String, Class...)} where method is known to exist.
 	 * @param sourceClass the class from which to find methods
@@ -29,6 +29,7 @@ public interface Constants
 	final String ALLOW_EMPTY_CLUSTER = "allow-empty-cluster";
 	final String AUTO_ACTIVATE_SCHEDULE = "auto-activate-schedule";
 	final String BALANCER = "balancer";
+	final String BATCH_CHUNK_SIZE = "batch-chunk-size";
 	final String CLUSTER = "cluster";
 	final String DATABASE = "database";
 	final String DEFAULT_SYNC = "default-sync";
@@ -41,9 +42,12 @@ public interface Constants
 	final String EVAL_CURRENT_TIME = "eval-current-time";
 	final String EVAL_CURRENT_TIMESTAMP = "eval-current-timestamp";
 	final String EVAL_RAND = "eval-rand";
+	final String EXECUTOR = "executor";
 	final String FAILURE_DETECT_SCHEDULE = "failure-detect-schedule";
+	final String HEDGED_READ_DELAY = "hedged-read-delay";
 	final String ID = "id";
 	final String INPUT_SINK = "input-sink";
+	final String LAZY_STATEMENTS = "lazy-statements";
 	@Deprecated final String LOCAL = "local";
 	final String LOCALITY = "locality";
 	final String LOCATION = "location";
@@ -51,7 +55,9 @@ public interface Constants
 	final String META_DATA_CACHE = "meta-data-cache";
 	final String NAME = "name";
 	final String PASSWORD = "password";
+	final String PREPARED_STATEMENT_CACHE_SIZE = "prepared-statement-cache-size";
 	final String PROPERTY = "property";
+	final String SQL_ANALYSIS_CACHE_SIZE = "sql-analysis-cache-size";
 	final String STATE = "state";
 	final String SYNC = "sync";
 	final String TRANSACTION_MODE = "transaction-mode";
@@ -84,6 +84,12 @@ public class DatabaseClusterConfigurationReader_3_0<Z, D extends Database<Z>, B
 					read(reader, builder.lock(id));
 					break;
 				}
+				case EXECUTOR:
+				{
+					String id = requireAttributeValue(reader, ID, "default");
+					read(reader, builder.executor(id));
+					break;
+				}
 				case CLUSTER:
 				{
 					readCluster(reader, builder);
@@ -145,6 +151,31 @@ public class DatabaseClusterConfigurationReader_3_0<Z, D extends Database<Z>, B
 					builder.transactionMode(TransactionModeEnum.valueOf(value.toUpperCase(Locale.ENGLISH)));
 					break;
 				}
+				case SQL_ANALYSIS_CACHE_SIZE:
+				{
+					builder.sqlAnalysisCacheSize(Integer.parseInt(value));
+					break;
+				}
+				case BATCH_CHUNK_SIZE:
+				{
+					builder.batchChunkSize(Integer.parseInt(value));
+					break;
+				}
+				case HEDGED_READ_DELAY:
+				{
+					builder.hedgedReadDelay(Integer.parseInt(value));
+					break;
+				}
+				case LAZY_STATEMENTS:
+				{
+					builder.lazyStatements(Boolean.parseBoolean(value));
+					break;
+				}
+				case PREPARED_STATEMENT_CACHE_SIZE:
+				{
+					builder.preparedStatementCacheSize(Integer.parseInt(value));
+					break;
+				}
 				case AUTO_ACTIVATE_SCHEDULE:
 				{
 					builder.autoActivateSchedule(value);
@@ -44,7 +44,9 @@ import net.sf.hajdbc.DatabaseBuilder;
 import net.sf.hajdbc.DatabaseClusterConfiguration;
 import net.sf.hajdbc.DatabaseClusterConfigurationBuilder;
 import net.sf.hajdbc.DatabaseClusterConfigurationFactory;
+import net.sf.hajdbc.ExecutorServiceProvider;
 import net.sf.hajdbc.Identifiable;
+import net.sf.hajdbc.IdentifiableExecutorServiceProvider;
 import net.sf.hajdbc.SynchronizationStrategy;
 import net.sf.hajdbc.Version;
 import net.sf.hajdbc.logging.Level;
@@ -52,6 +54,7 @@ import net.sf.hajdbc.logging.Logger;
 import net.sf.hajdbc.logging.LoggerFactory;
 import net.sf.hajdbc.messages.Messages;
 import net.sf.hajdbc.messages.MessagesFactory;
+import net.sf.hajdbc.sql.DefaultExecutorServiceProvider;
 import net.sf.hajdbc.util.SystemProperties;
 
 /**
@@ -213,11 +216,18 @@ public class XMLDatabaseClusterConfigurationFactory<Z, D extends Database<Z>> im
 			}
 			write(writer, STATE, config.getStateManagerFactory());
 			write(writer, LOCK, config.getLockManagerFactory());
+			ExecutorServiceProvider executorProvider = config.getExecutorProvider();
+			// The default executor is implied, and an executor without an identifier cannot be read back
+			if ((executorProvider instanceof IdentifiableExecutorServiceProvider) && !(executorProvider instanceof DefaultExecutorServiceProvider))
+			{
+				write(writer, EXECUTOR, (IdentifiableExecutorServiceProvider) executorProvider);
+			}
 			writer.writeStartElement(CLUSTER);
 			{
 				writeAttribute(writer, ALLOW_EMPTY_CLUSTER, config.isEmptyClusterAllowed());
 				writeAttribute(writer, AUTO_ACTIVATE_SCHEDULE, config.getAutoActivationExpression());
 				writeAttribute(writer, BALANCER, config.getBalancerFactory());
+				writeAttribute(writer, BATCH_CHUNK_SIZE, Integer.valueOf(config.getBatchChunkSize()));
 				writeAttribute(writer, DEFAULT_SYNC, config.getDefaultSynchronizationStrategy());
 				writeAttribute(writer, DETECT_IDENTITY_COLUMNS, config.isIdentityColumnDetectionEnabled());
 				writeAttribute(writer, DETECT_SEQUENCES, config.isSequenceDetectionEnabled());
@@ -228,8 +238,12 @@ public class XMLDatabaseClusterConfigurationFactory<Z, D extends Database<Z>> im
 				writeAttribute(writer, EVAL_CURRENT_TIMESTAMP, config.isCurrentTimestampEvaluationEnabled());
 				writeAttribute(writer, EVAL_RAND, config.isRandEvaluationEnabled());
 				writeAttribute(writer, FAILURE_DETECT_SCHEDULE, config.getFailureDetectionExpression());
+				writeAttribute(writer, HEDGED_READ_DELAY, Integer.valueOf(config.getHedgedReadDelay()));
 				writeAttribute(writer, INPUT_SINK, config.getInputSinkProvider());
+				writeAttribute(writer, LAZY_STATEMENTS, config.isLazyStatementCreationEnabled());
 				writeAttribute(writer, META_DATA_CACHE, config.getDatabaseMetaDataCacheFactory());
+				writeAttribute(writer, PREPARED_STATEMENT_CACHE_SIZE, Integer.valueOf(config.getPreparedStatementCacheSize()));
+				writeAttribute(writer, SQL_ANALYSIS_CACHE_SIZE, Integer.valueOf(config.getSQLAnalysisCacheSize()));
 				writeAttribute(writer, TRANSACTION_MODE, config.getTransactionMode());
 				for (D database: config.getDatabaseMap().values())
 				{
@@ -0,0 +1,128 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.cache;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class SQLAnalysisCacheTest
+{
+	private final SQLAnalysis analysis = new SQLAnalysis(Collections.<String>emptySet(), false, null);
+
+	@Test
+	public void get()
+	{
+		SQLAnalysisCache cache = new SQLAnalysisCache(2);
+		
+		Assert.assertNull(cache.get("SELECT 1"));
+		cache.put("SELECT 1", this.analysis);
+		Assert.assertSame(this.analysis, cache.get("SELECT 1"));
+		
+		Assert.assertEquals(1L, cache.getHits());
+		Assert.assertEquals(1L, cache.getMisses());
+	}
+
+	@Test
+	public void evict()
+	{
+		SQLAnalysisCache cache = new SQLAnalysisCache(2);
+		
+		cache.put("SELECT 1", this.analysis);
+		cache.put("SELECT 2", this.analysis);
+		// Access makes "SELECT 1" the most recently used
+		cache.get("SELECT 1");
+		cache.put("SELECT 3", this.analysis);
+		
+		Assert.assertEquals(2, cache.size());
+		Assert.assertNotNull(cache.get("SELECT 1"));
+		Assert.assertNull(cache.get("SELECT 2"));
+		Assert.assertNotNull(cache.get("SELECT 3"));
+	}
+
+	@Test
+	public void invalidate()
+	{
+		SQLAnalysisCache cache = new SQLAnalysisCache(2);
+		
+		cache.put("SELECT 1", this.analysis);
+		cache.invalidate("INSERT INTO foo VALUES (1)");
+		Assert.assertEquals(1, cache.size());
+		
+		cache.invalidate(" alter table foo add column bar int");
+		Assert.assertEquals(0, cache.size());
+		
+		cache.put("SELECT 1", this.analysis);
+		cache.put("DROP TABLE foo", this.analysis);
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void disabled()
+	{
+		SQLAnalysisCache cache = new SQLAnalysisCache(0);
+		
+		cache.put("SELECT 1", this.analysis);
+		Assert.assertNull(cache.get("SELECT 1"));
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void segmented()
+	{
+		SQLAnalysisCache cache = new SQLAnalysisCache(100);
+		
+		for (int i = 0; i < 1000; ++i)
+		{
+			cache.put("SELECT " + i, this.analysis);
+		}
+		
+		// Each segment evicts independently, but the total never exceeds the maximum size
+		Assert.assertTrue(cache.size() <= 100);
+		Assert.assertTrue(cache.size() > 0);
+		Assert.assertNotNull(cache.get("SELECT 999"));
+		
+		cache.flush();
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void generation()
+	{
+		SQLAnalysisCache cache = new SQLAnalysisCache(2);
+		long generation = cache.getGeneration();
+		
+		cache.put("SELECT 1", this.analysis);
+		cache.invalidate("SELECT 1");
+		Assert.assertEquals(generation, cache.getGeneration());
+		
+		cache.invalidate("TRUNCATE TABLE foo");
+		Assert.assertNotEquals(generation, cache.getGeneration());
+	}
+
+	@Test
+	public void enabled()
+	{
+		Assert.assertTrue(new SQLAnalysisCache(1).isEnabled());
+		Assert.assertFalse(new SQLAnalysisCache(0).isEnabled());
+	}
+}
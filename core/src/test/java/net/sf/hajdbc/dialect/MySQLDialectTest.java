@@ -18,6 +18,7 @@
 package net.sf.hajdbc.dialect;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -74,6 +75,16 @@ public class MySQLDialectTest extends StandardDialectTest
 		assertEquals("ALTER TABLE table ADD CONSTRAINT name FOREIGN KEY (column1, column2) REFERENCES foreign_table (foreign_column1, foreign_column2) ON DELETE CASCADE ON UPDATE RESTRICT", result);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getChecksumSQL()
+	 */
+	@Override
+	public void getChecksumSQL()
+	{
+		assertEquals("SUM(CAST(CONV(SUBSTRING(MD5(CONCAT_WS(',', QUOTE(id), QUOTE(name))), 1, 15), 16, 10) AS UNSIGNED))", this.dialect.getChecksumSQL(Arrays.asList("id", "name")));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getDropForeignKeyConstraintSQL()
@@ -226,4 +237,16 @@ public class MySQLDialectTest extends StandardDialectTest
 		assertEquals("SELECT LOCALTIME FROM test", this.dialect.evaluateCurrentTimestamp("SELECT LOCALTIME FROM test", timestamp));
 		assertEquals("SELECT 1 FROM test", this.dialect.evaluateCurrentTimestamp("SELECT 1 FROM test", timestamp));
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#isSelectForUpdate()
+	 */
+	@Override
+	public void isSelectForUpdate() throws SQLException
+	{
+		super.isSelectForUpdate();
+		
+		assertTrue(this.dialect.isSelectForUpdate("SELECT * FROM test WHERE name = 'O\\'Brien' FOR UPDATE"));
+	}
 }
@@ -163,6 +163,16 @@ public class OracleDialectTest extends StandardDialectTest
 		assertEquals("TRUNCATE TABLE table", result);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getChecksumSQL()
+	 */
+	@Override
+	public void getChecksumSQL()
+	{
+		assertEquals("SUM(ORA_HASH(id || '|' || name))", this.dialect.getChecksumSQL(Arrays.asList("id", "name")));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.dialect.StandardDialectTest#parseSequence()
@@ -23,6 +23,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -108,6 +109,16 @@ public class PostgreSQLDialectTest extends StandardDialectTest
 		assertEquals("TRUNCATE TABLE table", result);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getChecksumSQL()
+	 */
+	@Override
+	public void getChecksumSQL()
+	{
+		assertEquals("SUM(('x' || SUBSTR(MD5(ROW(id, name)::TEXT), 1, 15))::BIT(60)::BIGINT)", this.dialect.getChecksumSQL(Arrays.asList("id", "name")));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.dialect.StandardDialectTest#getNextSequenceValueSQL()
@@ -205,4 +216,18 @@ public class PostgreSQLDialectTest extends StandardDialectTest
 		assertEquals("SELECT RAND() FROM test", this.dialect.evaluateRand("SELECT RAND() FROM test"));
 		assertEquals("SELECT OPERANDOM() FROM test", this.dialect.evaluateRand("SELECT OPERANDOM() FROM test"));
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.dialect.StandardDialectTest#isSelectForUpdate()
+	 */
+	@Override
+	public void isSelectForUpdate() throws SQLException
+	{
+		super.isSelectForUpdate();
+		
+		assertFalse(this.dialect.isSelectForUpdate("SELECT $$ FOR UPDATE $$ FROM test"));
+		assertFalse(this.dialect.isSelectForUpdate("SELECT $body$ O'Brien FOR UPDATE $body$ FROM test"));
+		assertTrue(this.dialect.isSelectForUpdate("SELECT $$O'Brien$$ FROM test WHERE id = $1 FOR UPDATE"));
+	}
 }
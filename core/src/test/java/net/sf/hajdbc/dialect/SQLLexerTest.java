@@ -0,0 +1,114 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.dialect;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class SQLLexerTest
+{
+	private final SQLLexer lexer = createLexer(false, false);
+
+	private static SQLLexer createLexer(boolean backslashEscapes, boolean dollarQuotes)
+	{
+		return new SQLLexer(Collections.singletonList("FOR UPDATE"), Collections.singletonList(SequenceSyntax.prefix("NEXT VALUE FOR")), Collections.singletonList(SQLFunction.keyword("CURRENT_DATE")), Collections.singletonList(SQLFunction.keywordWithPrecision("CURRENT_TIME")), Collections.singletonList(SQLFunction.keywordWithPrecision("CURRENT_TIMESTAMP")), Collections.singletonList(SQLFunction.call("RAND")), backslashEscapes, dollarQuotes);
+	}
+
+	@Test
+	public void ignoresLiteralsAndComments()
+	{
+		LexicalAnalysis analysis = this.lexer.analyze("SELECT 'CURRENT_DATE', \"CURRENT_DATE\" FROM t -- CURRENT_DATE\n WHERE note = 'FOR UPDATE' /* RAND() NEXT VALUE FOR s */");
+		
+		assertFalse(analysis.isSelectForUpdate());
+		assertNull(analysis.getSequence());
+		assertFalse(analysis.contains(EnumSet.allOf(SQLFunction.Type.class)));
+	}
+
+	@Test
+	public void selectForUpdate()
+	{
+		assertTrue(this.lexer.analyze("SELECT * FROM t WHERE x = 'it''s' FOR UPDATE").isSelectForUpdate());
+		assertFalse(this.lexer.analyze("UPDATE t SET x = 1").isSelectForUpdate());
+	}
+
+	@Test
+	public void backslashEscapes()
+	{
+		SQLLexer lexer = createLexer(true, false);
+		
+		assertTrue(lexer.analyze("SELECT * FROM t WHERE name = 'O\\'Brien' FOR UPDATE").isSelectForUpdate());
+		assertTrue(lexer.analyze("SELECT * FROM t WHERE path = 'C:\\\\' FOR UPDATE").isSelectForUpdate());
+		assertTrue(lexer.analyze("SELECT * FROM t WHERE name = \"O\\\"Brien\" FOR UPDATE").isSelectForUpdate());
+		assertFalse(lexer.analyze("SELECT * FROM t WHERE note = 'it\\'s FOR UPDATE'").isSelectForUpdate());
+		assertFalse(lexer.analyze("SELECT * FROM t WHERE note = 'it\\\\'' FOR UPDATE'").isSelectForUpdate());
+		
+		// Standard SQL does not escape quotes using a backslash
+		assertTrue(this.lexer.analyze("SELECT * FROM t WHERE path = 'C:\\' FOR UPDATE").isSelectForUpdate());
+	}
+
+	@Test
+	public void dollarQuotes()
+	{
+		SQLLexer lexer = createLexer(false, true);
+		
+		assertFalse(lexer.analyze("SELECT $$ FOR UPDATE $$ FROM t").isSelectForUpdate());
+		assertFalse(lexer.analyze("SELECT $body$ O'Brien $$ FOR UPDATE $body$ FROM t").isSelectForUpdate());
+		assertFalse(lexer.analyze("SELECT $$CURRENT_DATE$$, $x$RAND()$x$ FROM t").contains(EnumSet.allOf(SQLFunction.Type.class)));
+		assertTrue(lexer.analyze("SELECT $$O'Brien$$ FROM t FOR UPDATE").isSelectForUpdate());
+		assertTrue(lexer.analyze("SELECT * FROM t WHERE a = $1 AND b = $2 FOR UPDATE").isSelectForUpdate());
+		assertTrue(lexer.analyze("SELECT a$b FROM t FOR UPDATE").isSelectForUpdate());
+		assertFalse(lexer.analyze("SELECT $$ FROM t FOR UPDATE").isSelectForUpdate());
+		
+		// Dollar quoting is not standard SQL
+		assertFalse(this.lexer.analyze("SELECT $$ O'Brien $$ FROM t FOR UPDATE").isSelectForUpdate());
+	}
+
+	@Test
+	public void insertTable()
+	{
+		assertEquals("\"Schema\".\"Table\"", this.lexer.analyze("INSERT INTO \"Schema\".\"Table\" (a) VALUES (1)").getInsertTable());
+		assertEquals("s.t", this.lexer.analyze("insert s.t values (1)").getInsertTable());
+		assertNull(this.lexer.analyze("SELECT 'INSERT INTO t' FROM u").getInsertTable());
+	}
+
+	@Test
+	public void sequence()
+	{
+		assertEquals("s.seq", this.lexer.analyze("SELECT NEXT VALUE FOR s.seq FROM t").getSequence());
+	}
+
+	@Test
+	public void functions()
+	{
+		LexicalAnalysis analysis = this.lexer.analyze("SELECT CURRENT_TIME(3), RAND() FROM t");
+		
+		assertTrue(analysis.contains(EnumSet.of(SQLFunction.Type.CURRENT_TIME)));
+		assertTrue(analysis.contains(EnumSet.of(SQLFunction.Type.RAND)));
+		assertFalse(analysis.contains(EnumSet.of(SQLFunction.Type.CURRENT_DATE, SQLFunction.Type.CURRENT_TIMESTAMP)));
+		assertEquals(2, analysis.getFunctionCount());
+		assertEquals("CURRENT_TIME(3)", analysis.getSQL().substring(analysis.getFunctionStart(0), analysis.getFunctionEnd(0)));
+		assertEquals("RAND()", analysis.getSQL().substring(analysis.getFunctionStart(1), analysis.getFunctionEnd(1)));
+	}
+}
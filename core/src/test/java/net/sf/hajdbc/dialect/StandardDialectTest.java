@@ -282,6 +282,12 @@ public class StandardDialectTest
 		assertEquals("DELETE FROM table", result);
 	}
 
+	@Test
+	public void getChecksumSQL()
+	{
+		assertNull(this.dialect.getChecksumSQL(Arrays.asList("id", "name")));
+	}
+
 	@Test
 	public void isSelectForUpdate() throws SQLException
 	{
@@ -394,6 +400,7 @@ public class StandardDialectTest
 		assertTrue(Pattern.matches("SELECT ((0\\.\\d+)|([1-9]\\.\\d+E\\-\\d+)) FROM test", this.dialect.evaluateRand("SELECT RAND ( ) FROM test")));
 		assertEquals("SELECT RAND FROM test", this.dialect.evaluateRand("SELECT RAND FROM test"));
 		assertEquals("SELECT OPERAND() FROM test", this.dialect.evaluateRand("SELECT OPERAND() FROM test"));
+		assertEquals("SELECT RAND(1) FROM test", this.dialect.evaluateRand("SELECT RAND(1) FROM test"));
 		assertEquals("SELECT 1 FROM test", this.dialect.evaluateRand("SELECT 1 FROM test"));
 	}
 
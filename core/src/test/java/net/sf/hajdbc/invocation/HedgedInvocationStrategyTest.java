@@ -0,0 +1,351 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.invocation;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.balancer.Balancer;
+import net.sf.hajdbc.balancer.simple.SimpleBalancer;
+import net.sf.hajdbc.dialect.Dialect;
+import net.sf.hajdbc.sql.ProxyFactory;
+import net.sf.hajdbc.sql.SQLExceptionFactory;
+import net.sf.hajdbc.state.StateManager;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class HedgedInvocationStrategyTest
+{
+	@SuppressWarnings("unchecked")
+	private final DatabaseCluster<Void, MockDatabase> cluster = mock(DatabaseCluster.class);
+	@SuppressWarnings("unchecked")
+	private final ProxyFactory<Void, MockDatabase, Statement, SQLException> factory = mock(ProxyFactory.class);
+	private final Dialect dialect = mock(Dialect.class);
+	private final StateManager stateManager = mock(StateManager.class);
+	private final Statement statement1 = mock(Statement.class);
+	private final Statement statement2 = mock(Statement.class);
+	private final MockDatabase database1 = new MockDatabase("db1", 2);
+	private final MockDatabase database2 = new MockDatabase("db2", 1);
+	private final Balancer<Void, MockDatabase> balancer = new SimpleBalancer<>(new TreeSet<>(Arrays.asList(this.database1, this.database2)));
+	private final List<MockDatabase> invoked = Collections.synchronizedList(new ArrayList<MockDatabase>());
+	private ExecutorService executor = Executors.newCachedThreadPool();
+
+	public HedgedInvocationStrategyTest()
+	{
+		when(this.factory.getDatabaseCluster()).thenReturn(this.cluster);
+		when(this.factory.getExceptionFactory()).thenReturn(new SQLExceptionFactory());
+		when(this.factory.get(this.database1)).thenReturn(this.statement1);
+		when(this.factory.get(this.database2)).thenReturn(this.statement2);
+		when(this.cluster.getBalancer()).thenReturn(this.balancer);
+		when(this.cluster.getExecutor()).thenReturn(this.executor);
+		when(this.cluster.getDialect()).thenReturn(this.dialect);
+		when(this.cluster.getStateManager()).thenReturn(this.stateManager);
+	}
+
+	@After
+	public void destroy()
+	{
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void winner() throws SQLException
+	{
+		Object result = new Object();
+		
+		SortedMap<MockDatabase, Object> results = new HedgedInvocationStrategy(10, TimeUnit.SECONDS).invoke(this.factory, (database, statement) ->
+		{
+			this.invoked.add(database);
+			return result;
+		});
+		
+		assertEquals(Collections.singleton(this.database1), results.keySet());
+		assertSame(result, results.get(this.database1));
+		assertEquals(Collections.singletonList(this.database1), this.invoked);
+		verify(this.statement1, never()).cancel();
+		verify(this.statement2, never()).cancel();
+	}
+
+	@Test
+	public void loser() throws Exception
+	{
+		Object result = new Object();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch closed = new CountDownLatch(1);
+		
+		try
+		{
+			SortedMap<MockDatabase, Object> results = new HedgedInvocationStrategy(10, TimeUnit.MILLISECONDS).invoke(this.factory, (database, statement) ->
+			{
+				if (database == this.database1)
+				{
+					started.countDown();
+					await(release);
+					AutoCloseable resultSet = closed::countDown;
+					return resultSet;
+				}
+				await(started);
+				return result;
+			});
+			
+			assertEquals(Collections.singleton(this.database2), results.keySet());
+			assertSame(result, results.get(this.database2));
+			
+			// The slow invocation was cancelled
+			verify(this.statement1).cancel();
+			verify(this.statement2, never()).cancel();
+		}
+		finally
+		{
+			release.countDown();
+		}
+		
+		// The result of the losing invocation is discarded
+		assertTrue(closed.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void fallback() throws SQLException
+	{
+		Object result = new Object();
+		SQLException failure = new SQLException();
+		CountDownLatch started = new CountDownLatch(1);
+		FailureExceptionFactory exceptionFactory = new FailureExceptionFactory(failure);
+		when(this.factory.getExceptionFactory()).thenReturn(exceptionFactory);
+		
+		SortedMap<MockDatabase, Object> results = new HedgedInvocationStrategy(10, TimeUnit.MILLISECONDS).invoke(this.factory, (database, statement) ->
+		{
+			if (database == this.database1)
+			{
+				await(started);
+				throw failure;
+			}
+			started.countDown();
+			// Respond only after the failure of the other invocation was handled
+			await(exceptionFactory.handled);
+			return result;
+		});
+		
+		assertEquals(Collections.singleton(this.database2), results.keySet());
+		assertSame(result, results.get(this.database2));
+		verify(this.cluster).deactivate(this.database1, this.stateManager);
+		verify(this.statement1, never()).cancel();
+		verify(this.statement2, never()).cancel();
+	}
+
+	@Test
+	public void cancel() throws SQLException
+	{
+		SQLException exception = new SQLException();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		
+		try
+		{
+			new HedgedInvocationStrategy(10, TimeUnit.MILLISECONDS).invoke(this.factory, (database, statement) ->
+			{
+				if (database == this.database1)
+				{
+					await(started);
+					throw exception;
+				}
+				started.countDown();
+				await(release);
+				return null;
+			});
+			fail();
+		}
+		catch (SQLException e)
+		{
+			assertSame(exception, e);
+			
+			// The other invocation was cancelled, despite the exception
+			verify(this.statement2).cancel();
+			verify(this.cluster, never()).deactivate(this.database1, this.stateManager);
+		}
+		finally
+		{
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void cancelPending() throws Exception
+	{
+		CountDownLatch submitted = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger tasks = new AtomicInteger();
+		
+		// Holds the second task until released
+		this.executor.shutdownNow();
+		this.executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>())
+		{
+			@Override
+			protected void beforeExecute(Thread thread, Runnable task)
+			{
+				if (tasks.incrementAndGet() > 1)
+				{
+					submitted.countDown();
+					try
+					{
+						release.await();
+					}
+					catch (InterruptedException e)
+					{
+						thread.interrupt();
+					}
+				}
+			}
+		};
+		when(this.cluster.getExecutor()).thenReturn(this.executor);
+		
+		Object result = new Object();
+		
+		try
+		{
+			SortedMap<MockDatabase, Object> results = new HedgedInvocationStrategy(10, TimeUnit.MILLISECONDS).invoke(this.factory, (database, statement) ->
+			{
+				this.invoked.add(database);
+				await(submitted);
+				return result;
+			});
+			
+			assertEquals(Collections.singleton(this.database1), results.keySet());
+		}
+		finally
+		{
+			release.countDown();
+		}
+		
+		this.executor.shutdown();
+		assertTrue(this.executor.awaitTermination(5, TimeUnit.SECONDS));
+		
+		// The other invocation was cancelled before it started
+		assertEquals(2, tasks.get());
+		assertEquals(Collections.singletonList(this.database1), this.invoked);
+		verify(this.statement1, never()).cancel();
+		verify(this.statement2, never()).cancel();
+	}
+
+	@Test
+	public void interrupt() throws Exception
+	{
+		CountDownLatch started = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicReference<SQLException> exception = new AtomicReference<>();
+		
+		Thread thread = new Thread(() ->
+		{
+			try
+			{
+				new HedgedInvocationStrategy(10, TimeUnit.MILLISECONDS).invoke(this.factory, (database, statement) ->
+				{
+					started.countDown();
+					await(release);
+					return null;
+				});
+			}
+			catch (SQLException e)
+			{
+				exception.set(e);
+			}
+		});
+		
+		try
+		{
+			thread.start();
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			
+			thread.interrupt();
+			thread.join(5000);
+			
+			assertFalse(thread.isAlive());
+			assertNotNull(exception.get());
+			assertTrue(exception.get().getCause() instanceof InterruptedException);
+			verify(this.statement1).cancel();
+			verify(this.statement2).cancel();
+		}
+		finally
+		{
+			release.countDown();
+		}
+	}
+
+	private static void await(CountDownLatch latch) throws SQLException
+	{
+		try
+		{
+			if (!latch.await(5, TimeUnit.SECONDS))
+			{
+				throw new SQLException("Timeout");
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new SQLException(e);
+		}
+	}
+
+	/**
+	 * Exception factory that treats a specific exception as a failure.
+	 */
+	private static class FailureExceptionFactory extends SQLExceptionFactory
+	{
+		private static final long serialVersionUID = -2469829532407124567L;
+		
+		final CountDownLatch handled = new CountDownLatch(1);
+		private final SQLException failure;
+		
+		FailureExceptionFactory(SQLException failure)
+		{
+			this.failure = failure;
+		}
+
+		@Override
+		public boolean indicatesFailure(SQLException exception, Dialect dialect)
+		{
+			this.handled.countDown();
+			return exception == this.failure;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.invocation;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.hajdbc.ExceptionType;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.util.reflect.Methods;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class SimpleInvokerTest
+{
+	private static final int INVOCATIONS = 100000;
+	
+	private final MockDatabase database = new MockDatabase("1");
+	
+	@Test
+	public void invoke() throws SQLException
+	{
+		Method method = Methods.getMethod(List.class, "size");
+		Invoker<Void, MockDatabase, List<?>, Integer, SQLException> invoker = new SimpleInvoker<>(method, new Object[0], ExceptionType.SQL.<SQLException>getExceptionFactory());
+		
+		assertEquals(Integer.valueOf(2), invoker.invoke(this.database, Arrays.asList(1, 2)));
+	}
+	
+	/**
+	 * Verifies that a steady-state {@link SimpleInvoker} invocation does not allocate, e.g. via log statements of disabled levels.
+	 * This does not cover invocation strategies, which still allocate a task and future per database when invoking multiple databases.
+	 */
+	@Test
+	public void allocation() throws SQLException
+	{
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+		
+		Method method = Methods.getMethod(List.class, "isEmpty");
+		Invoker<Void, MockDatabase, List<?>, Boolean, SQLException> invoker = new SimpleInvoker<>(method, new Object[0], ExceptionType.SQL.<SQLException>getExceptionFactory());
+		List<?> list = Collections.emptyList();
+		
+		// Warm up, so that reflective access is compiled
+		for (int i = 0; i < INVOCATIONS; ++i)
+		{
+			invoker.invoke(this.database, list);
+		}
+		
+		long threadId = Thread.currentThread().getId();
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		
+		for (int i = 0; i < INVOCATIONS; ++i)
+		{
+			invoker.invoke(this.database, list);
+		}
+		
+		long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+		
+		// Tolerate incidental allocation (e.g. by the measurement itself), but not per-invocation allocation
+		assertTrue(String.format("Allocated %d bytes over %d invocations", allocated, INVOCATIONS), allocated < INVOCATIONS);
+	}
+}
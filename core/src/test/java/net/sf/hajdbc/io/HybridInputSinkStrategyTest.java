@@ -0,0 +1,13 @@
+package net.sf.hajdbc.io;
+
+import net.sf.hajdbc.io.hybrid.HybridInputSinkStrategy;
+import net.sf.hajdbc.io.hybrid.HybridSink;
+
+public class HybridInputSinkStrategyTest extends InputSinkStrategyTest<HybridSink>
+{
+	public HybridInputSinkStrategyTest()
+	{
+		// Spans multiple segments, but below threshold
+		super(new HybridInputSinkStrategy(Short.MAX_VALUE * 4, 1024, 16));
+	}
+}
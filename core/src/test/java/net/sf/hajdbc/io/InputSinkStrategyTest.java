@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -65,4 +66,46 @@ public abstract class InputSinkStrategyTest<S>
 			Assert.assertArrayEquals(expected, result);
 		}
 	}
+	
+	@Test
+	public void testConsume() throws IOException
+	{
+		byte[] expected = new byte[Short.MAX_VALUE];
+		
+		this.random.nextBytes(expected);
+		
+		final AtomicBoolean closed = new AtomicBoolean(false);
+		InputSinkChannel<InputStream, S> channel = this.strategy.createInputStreamChannel();
+		
+		S sink = channel.consume(new ByteArrayInputStream(expected)
+		{
+			@Override
+			public void close()
+			{
+				closed.set(true);
+			}
+		});
+		
+		try (InputStream input = channel.read(sink))
+		{
+			byte[] result = new byte[Short.MAX_VALUE];
+			int offset = 0;
+			while (offset < result.length)
+			{
+				int read = input.read(result, offset, result.length - offset);
+				if (read < 0) break;
+				offset += read;
+			}
+			
+			Assert.assertArrayEquals(expected, result);
+			Assert.assertEquals(-1, input.read());
+		}
+		finally
+		{
+			this.strategy.close(sink);
+		}
+		
+		// Source is closed once consumed
+		Assert.assertTrue(closed.get());
+	}
 }
@@ -0,0 +1,13 @@
+package net.sf.hajdbc.io;
+
+import net.sf.hajdbc.io.hybrid.HybridInputSinkStrategy;
+import net.sf.hajdbc.io.hybrid.HybridSink;
+
+public class SpilledHybridInputSinkStrategyTest extends InputSinkStrategyTest<HybridSink>
+{
+	public SpilledHybridInputSinkStrategyTest()
+	{
+		// Exceeds threshold
+		super(new HybridInputSinkStrategy(4096, 1024, 16));
+	}
+}
@@ -0,0 +1,161 @@
+package net.sf.hajdbc.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.sf.hajdbc.io.tee.TeeInputSinkStrategy;
+import net.sf.hajdbc.io.tee.TeeSink;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TeeInputSinkStrategyTest extends InputSinkStrategyTest<TeeSink>
+{
+	private final TeeInputSinkStrategy strategy = new TeeInputSinkStrategy();
+	
+	public TeeInputSinkStrategyTest()
+	{
+		super(new TeeInputSinkStrategy());
+	}
+	
+	@Test
+	public void testConcurrentReaders() throws Exception
+	{
+		final byte[] expected = new byte[Short.MAX_VALUE * 4];
+		new Random().nextBytes(expected);
+		
+		final InputSinkChannel<InputStream, TeeSink> channel = this.strategy.createInputStreamChannel();
+		final TeeSink sink = channel.write(new BufferedInputStream(new ByteArrayInputStream(expected)));
+		try
+		{
+			// Source is streamed lazily
+			Assert.assertEquals(0, sink.size());
+			
+			ExecutorService executor = Executors.newFixedThreadPool(3);
+			try
+			{
+				Callable<byte[]> task = new Callable<byte[]>()
+				{
+					@Override
+					public byte[] call() throws IOException
+					{
+						return read(channel.read(sink));
+					}
+				};
+				Future<byte[]> future1 = executor.submit(task);
+				Future<byte[]> future2 = executor.submit(task);
+				Future<byte[]> future3 = executor.submit(task);
+				
+				Assert.assertArrayEquals(expected, future1.get());
+				Assert.assertArrayEquals(expected, future2.get());
+				Assert.assertArrayEquals(expected, future3.get());
+			}
+			finally
+			{
+				executor.shutdown();
+			}
+			
+			Assert.assertTrue(sink.isComplete());
+			
+			// Late readers replay from the sink
+			Assert.assertArrayEquals(expected, read(channel.read(sink)));
+		}
+		finally
+		{
+			this.strategy.close(sink);
+		}
+	}
+	
+	@Test
+	public void testReaderRoundTrip() throws IOException
+	{
+		String expected = "ASCII, \u00e9\u00e8, \u4e2d\u6587, \ud83d\ude00";
+		
+		InputSinkChannel<Reader, TeeSink> channel = this.strategy.createReaderChannel();
+		TeeSink sink = channel.write(new BufferedReader(new StringReader(expected)));
+		try
+		{
+			Assert.assertEquals(expected, read(channel.read(sink)));
+			Assert.assertEquals(expected, read(channel.read(sink)));
+		}
+		finally
+		{
+			this.strategy.close(sink);
+		}
+	}
+	
+	@Test
+	public void testSourceFailure() throws IOException
+	{
+		InputStream source = new FilterInputStream(new ByteArrayInputStream(new byte[0]))
+		{
+			@Override
+			public int read(byte[] bytes, int offset, int length) throws IOException
+			{
+				throw new IOException();
+			}
+		};
+		
+		InputSinkChannel<InputStream, TeeSink> channel = this.strategy.createInputStreamChannel();
+		TeeSink sink = channel.write(source);
+		try
+		{
+			// Every reader must see the failure, not a truncated stream
+			for (int i = 0; i < 2; ++i)
+			{
+				try
+				{
+					read(channel.read(sink));
+					Assert.fail();
+				}
+				catch (IOException e)
+				{
+					// Expected
+				}
+			}
+		}
+		finally
+		{
+			this.strategy.close(sink);
+		}
+	}
+	
+	static byte[] read(InputStream input) throws IOException
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1000];
+		int read = input.read(buffer);
+		while (read >= 0)
+		{
+			output.write(buffer, 0, read);
+			read = input.read(buffer);
+		}
+		return output.toByteArray();
+	}
+	
+	static String read(Reader reader) throws IOException
+	{
+		StringBuilder builder = new StringBuilder();
+		char[] buffer = new char[3];
+		int read = reader.read(buffer);
+		while (read >= 0)
+		{
+			builder.append(buffer, 0, read);
+			read = reader.read(buffer);
+		}
+		return builder.toString();
+	}
+}
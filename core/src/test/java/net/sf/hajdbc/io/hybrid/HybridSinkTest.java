@@ -0,0 +1,240 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.io.hybrid;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import net.sf.hajdbc.io.InputSinkChannel;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class HybridSinkTest
+{
+	private static final int THRESHOLD = 4096;
+	private static final int SEGMENT_SIZE = 1024;
+	
+	private final Random random = new Random();
+	private final HybridInputSinkStrategy strategy = new HybridInputSinkStrategy(THRESHOLD, SEGMENT_SIZE, 16);
+	
+	@Test
+	public void threshold() throws IOException
+	{
+		InputSinkChannel<InputStream, HybridSink> channel = this.strategy.createInputStreamChannel();
+		
+		byte[] expected = this.createBytes(THRESHOLD);
+		HybridSink sink = channel.write(new ByteArrayInputStream(expected));
+		try
+		{
+			assertFalse(sink.isSpilled());
+			assertEquals(THRESHOLD, sink.size());
+			assertArrayEquals(expected, read(channel.read(sink)));
+		}
+		finally
+		{
+			this.strategy.close(sink);
+		}
+		
+		expected = this.createBytes(THRESHOLD + 1);
+		sink = channel.write(new ByteArrayInputStream(expected));
+		try
+		{
+			assertTrue(sink.isSpilled());
+			assertEquals(THRESHOLD + 1, sink.size());
+			assertArrayEquals(expected, read(channel.read(sink)));
+		}
+		finally
+		{
+			this.strategy.close(sink);
+		}
+	}
+	
+	@Test
+	public void readerThreshold() throws IOException
+	{
+		InputSinkChannel<Reader, HybridSink> channel = this.strategy.createReaderChannel();
+		
+		// ASCII characters encode to a single byte
+		char[] expected = new char[THRESHOLD];
+		Arrays.fill(expected, 'x');
+		HybridSink sink = channel.write(new CharArrayReader(expected));
+		try
+		{
+			assertFalse(sink.isSpilled());
+			assertEquals(THRESHOLD, sink.size());
+		}
+		finally
+		{
+			this.strategy.close(sink);
+		}
+		
+		expected = new char[THRESHOLD + 1];
+		Arrays.fill(expected, 'x');
+		sink = channel.write(new CharArrayReader(expected));
+		try
+		{
+			assertTrue(sink.isSpilled());
+			assertEquals(THRESHOLD + 1, sink.size());
+		}
+		finally
+		{
+			this.strategy.close(sink);
+		}
+	}
+	
+	@Test
+	public void mapped() throws IOException
+	{
+		InputSinkChannel<InputStream, HybridSink> channel = this.strategy.createInputStreamChannel();
+		
+		byte[] expected = this.createBytes(THRESHOLD * 2);
+		HybridSink sink = channel.write(new ByteArrayInputStream(expected));
+		
+		assertTrue(sink.isSpilled());
+		
+		// Each reader reads from its own view of the mapping
+		try (InputStream input1 = channel.read(sink); InputStream input2 = channel.read(sink))
+		{
+			assertEquals(expected[0], (byte) input1.read());
+			assertArrayEquals(expected, read(input2));
+			assertArrayEquals(Arrays.copyOfRange(expected, 1, expected.length), read(input1));
+		}
+		
+		this.strategy.close(sink);
+		
+		try
+		{
+			channel.read(sink);
+			fail();
+		}
+		catch (IOException e)
+		{
+			// Expected
+		}
+	}
+	
+	@Test
+	public void closeWhileReading() throws IOException
+	{
+		InputSinkChannel<InputStream, HybridSink> channel = this.strategy.createInputStreamChannel();
+		
+		byte[] expected = this.createBytes(THRESHOLD * 2);
+		HybridSink sink = channel.write(new ByteArrayInputStream(expected));
+		
+		assertTrue(sink.isSpilled());
+		
+		// The mapping outlives the sink until its last reader is closed
+		try (InputStream input = channel.read(sink))
+		{
+			assertEquals(expected[0], (byte) input.read());
+			
+			this.strategy.close(sink);
+			
+			assertArrayEquals(Arrays.copyOfRange(expected, 1, expected.length), read(input));
+		}
+	}
+	
+	@Test
+	public void reuse() throws IOException
+	{
+		InputSinkChannel<InputStream, HybridSink> channel = this.strategy.createInputStreamChannel();
+		
+		HybridSink sink = channel.write(new ByteArrayInputStream(this.createBytes(SEGMENT_SIZE * 2 + 1)));
+		this.strategy.close(sink);
+		
+		// Segments of the closed sink are reused, and must not leak its content
+		byte[] expected = this.createBytes(SEGMENT_SIZE / 2);
+		sink = channel.write(new ByteArrayInputStream(expected));
+		try
+		{
+			assertEquals(expected.length, sink.size());
+			assertArrayEquals(expected, read(channel.read(sink)));
+		}
+		finally
+		{
+			this.strategy.close(sink);
+		}
+
+	}
+	
+	@Test
+	public void poolSize()
+	{
+		HybridInputSinkStrategy strategy = new HybridInputSinkStrategy(THRESHOLD, SEGMENT_SIZE, 2);
+		
+		ByteBuffer segment1 = strategy.acquire();
+		ByteBuffer segment2 = strategy.acquire();
+		ByteBuffer segment3 = strategy.acquire();
+		
+		segment1.put((byte) 1);
+		
+		strategy.release(segment1);
+		strategy.release(segment2);
+		// Exceeds pool size, so is discarded
+		strategy.release(segment3);
+		
+		ByteBuffer segment = strategy.acquire();
+		assertSame(segment1, segment);
+		// Released segments are cleared
+		assertEquals(0, segment.position());
+		assertEquals(SEGMENT_SIZE, segment.remaining());
+		
+		assertSame(segment2, strategy.acquire());
+		
+		segment = strategy.acquire();
+		assertNotSame(segment1, segment);
+		assertNotSame(segment2, segment);
+		assertNotSame(segment3, segment);
+		assertTrue(segment.isDirect());
+	}
+	
+	private byte[] createBytes(int size)
+	{
+		byte[] bytes = new byte[size];
+		this.random.nextBytes(bytes);
+		return bytes;
+	}
+	
+	private static byte[] read(InputStream input) throws IOException
+	{
+		try (InputStream in = input)
+		{
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			byte[] buffer = new byte[SEGMENT_SIZE];
+			int read = in.read(buffer);
+			while (read >= 0)
+			{
+				output.write(buffer, 0, read);
+				read = in.read(buffer);
+			}
+			return output.toByteArray();
+		}
+	}
+}
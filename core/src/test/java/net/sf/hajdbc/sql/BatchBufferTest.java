@@ -0,0 +1,229 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.invocation.SimpleInvoker;
+import net.sf.hajdbc.io.InputSinkStrategy;
+import net.sf.hajdbc.io.simple.SimpleInputSinkStrategy;
+import net.sf.hajdbc.util.reflect.Methods;
+import net.sf.hajdbc.util.reflect.Proxies;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class BatchBufferTest
+{
+	private static final Method setIntMethod = Methods.getMethod(PreparedStatement.class, "setInt", Integer.TYPE, Integer.TYPE);
+	private static final Method setStringMethod = Methods.getMethod(PreparedStatement.class, "setString", Integer.TYPE, String.class);
+	private static final Method setNullMethod = Methods.getMethod(PreparedStatement.class, "setNull", Integer.TYPE, Integer.TYPE);
+	private static final Method setDoubleMethod = Methods.getMethod(PreparedStatement.class, "setDouble", Integer.TYPE, Double.TYPE);
+	private static final Method setBooleanMethod = Methods.getMethod(PreparedStatement.class, "setBoolean", Integer.TYPE, Boolean.TYPE);
+	private static final Method setBigDecimalMethod = Methods.getMethod(PreparedStatement.class, "setBigDecimal", Integer.TYPE, BigDecimal.class);
+	private static final Method setTimestampMethod = Methods.getMethod(PreparedStatement.class, "setTimestamp", Integer.TYPE, Timestamp.class);
+	private static final Method setObjectMethod = Methods.getMethod(PreparedStatement.class, "setObject", Integer.TYPE, Object.class, Integer.TYPE);
+	
+	private final SQLExceptionFactory exceptionFactory = new SQLExceptionFactory();
+	private final List<List<Object>> invocations = new ArrayList<>();
+	private final PreparedStatement statement = Proxies.createProxy(PreparedStatement.class, (proxy, method, args) ->
+	{
+		List<Object> invocation = new ArrayList<>();
+		invocation.add(method.getName());
+		if (args != null)
+		{
+			invocation.addAll(Arrays.asList(args));
+		}
+		this.invocations.add(invocation);
+		if (method.getName().equals("addBatch"))
+		{
+			this.pending += 1;
+		}
+		else if (method.getName().equals("executeBatch"))
+		{
+			int[] counts = new int[this.pending];
+			Arrays.fill(counts, 1);
+			this.pending = 0;
+			if (this.invocations.size() > this.failAfter)
+			{
+				throw new BatchUpdateException(new int[] { 1 });
+			}
+			return counts;
+		}
+		return null;
+	});
+	private int pending = 0;
+	private int failAfter = Integer.MAX_VALUE;
+	
+	@Test
+	public void statements() throws SQLException
+	{
+		BatchBuffer<Void, Database<Void>, PreparedStatement> batch = new BatchBuffer<>(null, this.exceptionFactory);
+		
+		assertTrue(batch.isEmpty());
+		
+		batch.addStatement("INSERT INTO a VALUES (1)");
+		batch.addStatement("INSERT INTO b VALUES (1)");
+		batch.addStatement("INSERT INTO a VALUES (1)");
+		
+		assertFalse(batch.isEmpty());
+		assertEquals(Arrays.asList("INSERT INTO a VALUES (1)", "INSERT INTO b VALUES (1)"), batch.getStatements());
+		
+		batch.replay(null, this.statement);
+		
+		assertEquals(Arrays.asList(Arrays.asList("addBatch", "INSERT INTO a VALUES (1)"), Arrays.asList("addBatch", "INSERT INTO b VALUES (1)"), Arrays.asList("addBatch", "INSERT INTO a VALUES (1)")), this.invocations);
+		
+		batch.clear();
+		
+		assertTrue(batch.isEmpty());
+		assertTrue(batch.getStatements().isEmpty());
+	}
+	
+	@Test
+	public void execute() throws SQLException
+	{
+		BatchBuffer<Void, Database<Void>, PreparedStatement> batch = new BatchBuffer<>(null, this.exceptionFactory);
+		
+		for (int i = 0; i < 5; ++i)
+		{
+			batch.addStatement("INSERT INTO a VALUES (" + i + ")");
+		}
+		
+		int[] counts = batch.execute(null, this.statement, 2);
+		
+		assertTrue(Arrays.equals(new int[] { 1, 1, 1, 1, 1 }, counts));
+		assertEquals(8, this.invocations.size());
+		assertEquals(Arrays.<Object>asList("executeBatch"), this.invocations.get(2));
+		assertEquals(Arrays.<Object>asList("executeBatch"), this.invocations.get(5));
+		assertEquals(Arrays.<Object>asList("executeBatch"), this.invocations.get(7));
+		
+		// Fail the second chunk
+		this.invocations.clear();
+		this.failAfter = 3;
+		
+		try
+		{
+			batch.execute(null, this.statement, 2);
+			fail();
+		}
+		catch (BatchUpdateException e)
+		{
+			assertTrue(Arrays.equals(new int[] { 1, 1, 1 }, e.getUpdateCounts()));
+		}
+	}
+	
+	@Test
+	public void residentRows() throws SQLException
+	{
+		this.rows(new BatchBuffer<Void, Database<Void>, PreparedStatement>(null, this.exceptionFactory));
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void spilledRows() throws SQLException
+	{
+		this.rows(new BatchBuffer<Void, Database<Void>, PreparedStatement>((InputSinkStrategy<Object>) (InputSinkStrategy<?>) new SimpleInputSinkStrategy(), this.exceptionFactory));
+	}
+	
+	private void rows(BatchBuffer<Void, Database<Void>, PreparedStatement> batch) throws SQLException
+	{
+		int rows = (BatchBuffer.RESIDENT_CHUNKS + 2) * BatchBuffer.CHUNK_SIZE + 1;
+		ParameterBindings<Void, Database<Void>, PreparedStatement> bindings = new ParameterBindings<>();
+		Invoker<Void, Database<Void>, PreparedStatement, Void, SQLException> addBatch = (database, statement) -> null;
+		
+		for (int i = 0; i < rows; ++i)
+		{
+			bindings.bind(1, new SimpleInvoker<Void, Database<Void>, PreparedStatement, Void, SQLException>(setIntMethod, new Object[] { 1, i }, this.exceptionFactory));
+			if ((i % 2) == 0)
+			{
+				bindings.bind(2, new SimpleInvoker<Void, Database<Void>, PreparedStatement, Void, SQLException>(setStringMethod, new Object[] { 2, "row" + i }, this.exceptionFactory));
+			}
+			else
+			{
+				bindings.bind(2, new SimpleInvoker<Void, Database<Void>, PreparedStatement, Void, SQLException>(setNullMethod, new Object[] { 2, Types.VARCHAR }, this.exceptionFactory));
+			}
+			batch.addRow(bindings, addBatch);
+		}
+		
+		batch.replay(null, this.statement);
+		
+		assertEquals(rows * 3, this.invocations.size());
+		
+		for (int i = 0; i < rows; ++i)
+		{
+			assertEquals(Arrays.<Object>asList("setInt", 1, i), this.invocations.get(i * 3));
+			assertEquals(((i % 2) == 0) ? Arrays.<Object>asList("setString", 2, "row" + i) : Arrays.<Object>asList("setNull", 2, Types.VARCHAR), this.invocations.get(i * 3 + 1));
+			assertEquals(Arrays.<Object>asList("addBatch"), this.invocations.get(i * 3 + 2));
+		}
+		
+		batch.clear();
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void spilledTypes() throws SQLException
+	{
+		BatchBuffer<Void, Database<Void>, PreparedStatement> batch = new BatchBuffer<>((InputSinkStrategy<Object>) (InputSinkStrategy<?>) new SimpleInputSinkStrategy(), this.exceptionFactory);
+		int rows = (BatchBuffer.RESIDENT_CHUNKS + 1) * BatchBuffer.CHUNK_SIZE;
+		ParameterBindings<Void, Database<Void>, PreparedStatement> bindings = new ParameterBindings<>();
+		Invoker<Void, Database<Void>, PreparedStatement, Void, SQLException> addBatch = (database, statement) -> null;
+		
+		for (int i = 0; i < rows; ++i)
+		{
+			bindings.bind(1, new SimpleInvoker<Void, Database<Void>, PreparedStatement, Void, SQLException>(setDoubleMethod, new Object[] { 1, i / 2d }, this.exceptionFactory));
+			bindings.bind(2, new SimpleInvoker<Void, Database<Void>, PreparedStatement, Void, SQLException>(setBooleanMethod, new Object[] { 2, (i % 2) == 0 }, this.exceptionFactory));
+			bindings.bind(3, new SimpleInvoker<Void, Database<Void>, PreparedStatement, Void, SQLException>(setBigDecimalMethod, new Object[] { 3, BigDecimal.valueOf(i, 2) }, this.exceptionFactory));
+			bindings.bind(4, new SimpleInvoker<Void, Database<Void>, PreparedStatement, Void, SQLException>(setTimestampMethod, new Object[] { 4, new Timestamp(i) }, this.exceptionFactory));
+			// Setters with additional arguments are invoked reflectively
+			bindings.bind(5, new SimpleInvoker<Void, Database<Void>, PreparedStatement, Void, SQLException>(setObjectMethod, new Object[] { 5, "row" + i, Types.VARCHAR }, this.exceptionFactory));
+			batch.addRow(bindings, addBatch);
+		}
+		
+		batch.replay(null, this.statement);
+		
+		assertEquals(rows * 6, this.invocations.size());
+		
+		// Verify the rows of the last chunk, which was spilled
+		for (int i = BatchBuffer.RESIDENT_CHUNKS * BatchBuffer.CHUNK_SIZE; i < rows; ++i)
+		{
+			assertEquals(Arrays.<Object>asList("setDouble", 1, i / 2d), this.invocations.get(i * 6));
+			assertEquals(Arrays.<Object>asList("setBoolean", 2, (i % 2) == 0), this.invocations.get(i * 6 + 1));
+			assertEquals(Arrays.<Object>asList("setBigDecimal", 3, BigDecimal.valueOf(i, 2)), this.invocations.get(i * 6 + 2));
+			assertEquals(Arrays.<Object>asList("setTimestamp", 4, new Timestamp(i)), this.invocations.get(i * 6 + 3));
+			assertEquals(Arrays.<Object>asList("setObject", 5, "row" + i, Types.VARCHAR), this.invocations.get(i * 6 + 4));
+			assertEquals(Arrays.<Object>asList("addBatch"), this.invocations.get(i * 6 + 5));
+		}
+		
+		batch.clear();
+	}
+}
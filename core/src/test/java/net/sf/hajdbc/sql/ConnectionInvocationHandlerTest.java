@@ -0,0 +1,126 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.balancer.simple.SimpleBalancer;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class ConnectionInvocationHandlerTest
+{
+	private final DatabaseCluster<Void, MockDatabase> cluster = MockProxyFactories.mockCluster();
+	private final ProxyFactory<Void, MockDatabase, Object, SQLException> parentFactory = MockProxyFactories.mockParentFactory(this.cluster);
+	private final Connection connection1 = mock(Connection.class);
+	private final Connection connection2 = mock(Connection.class);
+	private final Statement statement1 = mock(Statement.class);
+	private final Statement statement2 = mock(Statement.class);
+	private final MockDatabase database1 = new MockDatabase("db1", 2);
+	private final MockDatabase database2 = new MockDatabase("db2", 1);
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	public ConnectionInvocationHandlerTest() throws SQLException
+	{
+		when(this.cluster.getBalancer()).thenReturn(new SimpleBalancer<>(new TreeSet<>(Arrays.asList(this.database1, this.database2))));
+		when(this.cluster.getExecutor()).thenReturn(this.executor);
+		when(this.connection1.createStatement()).thenReturn(this.statement1);
+		when(this.connection2.createStatement()).thenReturn(this.statement2);
+	}
+
+	@After
+	public void destroy()
+	{
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void createStatement() throws SQLException
+	{
+		Statement statement = this.createConnection().createStatement();
+		
+		// Statements are created eagerly on every database
+		verify(this.connection1).createStatement();
+		verify(this.connection2).createStatement();
+		
+		statement.setFetchSize(10);
+		
+		verify(this.statement1).setFetchSize(10);
+		verify(this.statement2).setFetchSize(10);
+	}
+
+	@Test
+	public void createStatementLazily() throws SQLException
+	{
+		when(this.cluster.isLazyStatementCreationEnabled()).thenReturn(true);
+		
+		Statement statement = this.createConnection().createStatement();
+		
+		// Statement is only created on the primary database
+		verify(this.connection1).createStatement();
+		verify(this.connection2, never()).createStatement();
+		
+		statement.setFetchSize(10);
+		statement.setMaxRows(100);
+		
+		verify(this.statement1).setFetchSize(10);
+		verify(this.statement1).setMaxRows(100);
+		verify(this.connection2, never()).createStatement();
+		
+		// Invocation on all databases creates the missing statement, and replays the recorded settings
+		statement.closeOnCompletion();
+		
+		verify(this.statement1).closeOnCompletion();
+		verify(this.connection2).createStatement();
+		verify(this.statement2).setFetchSize(10);
+		verify(this.statement2).setMaxRows(100);
+		verify(this.statement2).closeOnCompletion();
+		
+		// Subsequent invocations use the existing statements
+		statement.closeOnCompletion();
+		
+		verify(this.connection1, times(1)).createStatement();
+		verify(this.connection2, times(1)).createStatement();
+		verify(this.statement2, times(2)).closeOnCompletion();
+	}
+
+	private Connection createConnection()
+	{
+		Map<MockDatabase, Connection> connections = new TreeMap<>();
+		connections.put(this.database1, this.connection1);
+		connections.put(this.database2, this.connection2);
+		
+		return new ConnectionProxyFactory<>(null, this.parentFactory, null, connections, null).createProxy();
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.locks.Lock;
+
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.ExceptionType;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.balancer.Balancer;
+import net.sf.hajdbc.balancer.roundrobin.RoundRobinBalancerFactory;
+import net.sf.hajdbc.durability.Durability;
+import net.sf.hajdbc.invocation.InvocationStrategies;
+import net.sf.hajdbc.invocation.InvocationStrategy;
+import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.lock.LockManager;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class LocalTransactionContextTest
+{
+	private final MockDatabase db1 = new MockDatabase("1");
+	private final MockDatabase db2 = new MockDatabase("2");
+	private final Balancer<Void, MockDatabase> balancer = new RoundRobinBalancerFactory().createBalancer(new HashSet<>(Arrays.asList(this.db1, this.db2)));
+	private final Connection connection = mock(Connection.class);
+	private final LocalTransactionContext<Void, MockDatabase> context;
+	
+	@SuppressWarnings("unchecked")
+	public LocalTransactionContextTest()
+	{
+		DatabaseCluster<Void, MockDatabase> cluster = mock(DatabaseCluster.class);
+		LockManager lockManager = mock(LockManager.class);
+		
+		when(cluster.getLockManager()).thenReturn(lockManager);
+		when(lockManager.readLock(null)).thenReturn(mock(Lock.class));
+		
+		this.context = new LocalTransactionContext<>(cluster);
+	}
+	
+	@Test
+	public void read() throws SQLException
+	{
+		InvocationStrategy strategy = InvocationStrategies.INVOKE_ON_PRIMARY;
+		
+		when(this.connection.getAutoCommit()).thenReturn(true);
+		when(this.connection.isReadOnly()).thenReturn(true);
+		
+		assertSame(strategy, this.context.read(strategy, this.connection));
+		
+		when(this.connection.getAutoCommit()).thenReturn(false);
+		when(this.connection.isReadOnly()).thenReturn(false);
+		
+		assertSame(strategy, this.context.read(strategy, this.connection));
+		
+		when(this.connection.isReadOnly()).thenReturn(true);
+		
+		assertNotSame(strategy, this.context.read(strategy, this.connection));
+	}
+	
+	@Test
+	public void pin()
+	{
+		// All reads of a read-only transaction use the same database
+		MockDatabase database = this.context.pin(this.balancer);
+		
+		assertSame(database, this.context.pin(this.balancer));
+		assertSame(database, this.context.pin(this.balancer));
+		assertEquals(1, database.getReadOnlyTransactions());
+		
+		// The next transaction is pinned by the balancer anew
+		this.context.end(InvocationStrategies.END_TRANSACTION_INVOKE_ON_ALL, Durability.Phase.COMMIT);
+		
+		MockDatabase next = this.context.pin(this.balancer);
+		
+		assertNotSame(database, next);
+		assertEquals(1, next.getReadOnlyTransactions());
+		
+		// The pin is released when the context is reused without ending the transaction
+		this.context.reset();
+		
+		assertSame(database, this.context.pin(this.balancer));
+		assertEquals(2, database.getReadOnlyTransactions());
+		
+		// If the pinned database is deactivated, the transaction remains pinned to it
+		this.balancer.remove(database);
+		
+		assertSame(database, this.context.pin(this.balancer));
+		assertEquals(2, database.getReadOnlyTransactions());
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void readDeactivated() throws SQLException
+	{
+		DatabaseCluster<Void, MockDatabase> cluster = mock(DatabaseCluster.class);
+		ProxyFactory<Void, MockDatabase, Connection, SQLException> factory = mock(ProxyFactory.class);
+		Invoker<Void, MockDatabase, Connection, Boolean, SQLException> invoker = mock(Invoker.class);
+		
+		when(factory.getDatabaseCluster()).thenReturn(cluster);
+		when(factory.getExceptionFactory()).thenReturn(ExceptionType.SQL.<SQLException>getExceptionFactory());
+		when(cluster.getBalancer()).thenReturn(this.balancer);
+		when(this.connection.getAutoCommit()).thenReturn(false);
+		when(this.connection.isReadOnly()).thenReturn(true);
+		
+		InvocationStrategy strategy = this.context.read(InvocationStrategies.INVOKE_ON_NEXT, this.connection);
+		MockDatabase database = this.context.pin(this.balancer);
+		
+		this.balancer.remove(database);
+		
+		// Reads of the transaction must not move to another database
+		try
+		{
+			strategy.invoke(factory, invoker);
+			fail();
+		}
+		catch (SQLException e)
+		{
+			verify(factory, never()).get(database);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.mockito.Mockito.*;
+
+import java.sql.SQLException;
+
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.io.InputSinkStrategy;
+import net.sf.hajdbc.io.simple.SimpleInputSinkStrategy;
+
+/**
+ * Mocks shared by the proxy factory and invocation handler tests.
+ * @author Paul Ferraro
+ */
+public final class MockProxyFactories
+{
+	/**
+	 * Creates a mock cluster that is active, and that sinks input streams in memory.
+	 * @return a mock database cluster
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static DatabaseCluster<Void, MockDatabase> mockCluster()
+	{
+		DatabaseCluster<Void, MockDatabase> cluster = mock(DatabaseCluster.class);
+		when(cluster.isActive()).thenReturn(true);
+		when(cluster.getInputSinkStrategy()).thenReturn((InputSinkStrategy) new SimpleInputSinkStrategy());
+		return cluster;
+	}
+	
+	/**
+	 * Creates a mock parent proxy factory of the specified cluster.
+	 * @param cluster a database cluster
+	 * @return a mock proxy factory
+	 */
+	@SuppressWarnings("unchecked")
+	public static <P> ProxyFactory<Void, MockDatabase, P, SQLException> mockParentFactory(DatabaseCluster<Void, MockDatabase> cluster)
+	{
+		ProxyFactory<Void, MockDatabase, P, SQLException> factory = mock(ProxyFactory.class);
+		when(factory.getDatabaseCluster()).thenReturn(cluster);
+		return factory;
+	}
+	
+	private MockProxyFactories()
+	{
+		// Hide
+	}
+}
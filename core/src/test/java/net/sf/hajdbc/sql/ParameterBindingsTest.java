@@ -0,0 +1,95 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.hajdbc.Database;
+import net.sf.hajdbc.invocation.Invoker;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class ParameterBindingsTest
+{
+	private final List<String> applied = new ArrayList<>();
+	
+	private <R> Invoker<Void, Database<Void>, PreparedStatement, R, SQLException> invoker(final String name)
+	{
+		return (database, statement) ->
+		{
+			this.applied.add(name);
+			return null;
+		};
+	}
+	
+	@Test
+	public void bindTo() throws SQLException
+	{
+		ParameterBindings<Void, Database<Void>, PreparedStatement> bindings = new ParameterBindings<>();
+		Invoker<Void, Database<Void>, PreparedStatement, Object, SQLException> execute = this.invoker("execute");
+		
+		assertTrue(bindings.isEmpty());
+		assertSame(execute, bindings.bindTo(execute));
+		
+		bindings.bind(2, this.invoker("b"));
+		bindings.bind(1, this.invoker("a"));
+		bindings.bind(2, this.invoker("c"));
+		bindings.bind(40, this.invoker("d"));
+		
+		assertFalse(bindings.isEmpty());
+		
+		Invoker<Void, Database<Void>, PreparedStatement, Object, SQLException> bound = bindings.bindTo(execute);
+		
+		// Subsequent bindings must not affect an existing bound invoker
+		bindings.bind(3, this.invoker("e"));
+		
+		bound.invoke(null, null);
+		
+		assertEquals(Arrays.asList("a", "c", "d", "execute"), this.applied);
+		
+		this.applied.clear();
+		bindings.apply(null, null);
+		
+		assertEquals(Arrays.asList("a", "c", "e", "d"), this.applied);
+	}
+	
+	@Test
+	public void clear() throws SQLException
+	{
+		ParameterBindings<Void, Database<Void>, PreparedStatement> bindings = new ParameterBindings<>();
+		
+		bindings.bind(1, this.invoker("a"));
+		bindings.bind("name", this.invoker("b"));
+		bindings.clear();
+		
+		assertTrue(bindings.isEmpty());
+		
+		bindings.apply(null, null);
+		
+		assertTrue(this.applied.isEmpty());
+	}
+}
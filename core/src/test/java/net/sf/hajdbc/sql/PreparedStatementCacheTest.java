@@ -0,0 +1,147 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.util.reflect.Methods;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class PreparedStatementCacheTest
+{
+	private static final Method prepareStatementMethod = Methods.getMethod(Connection.class, "prepareStatement", String.class);
+	private static final Method prepareStatementKeysMethod = Methods.getMethod(Connection.class, "prepareStatement", String.class, String[].class);
+	
+	private final PreparedStatementCache<Void, MockDatabase> cache = new PreparedStatementCache<>(2);
+	
+	@Test
+	public void take()
+	{
+		PreparedStatementProxyFactory<Void, MockDatabase> factory = mockFactory();
+		
+		assertNull(this.cache.take(this.cache.key(prepareStatementMethod, "SELECT 1")));
+		
+		assertTrue(this.cache.offer(this.cache.key(prepareStatementMethod, "SELECT 1"), factory));
+		
+		assertNull(this.cache.take(this.cache.key(prepareStatementMethod, "SELECT 2")));
+		assertSame(factory, this.cache.take(this.cache.key(prepareStatementMethod, "SELECT 1")));
+		// Cached statements are only taken once
+		assertNull(this.cache.take(this.cache.key(prepareStatementMethod, "SELECT 1")));
+		
+		// Array parameters are compared by value
+		assertTrue(this.cache.offer(this.cache.key(prepareStatementKeysMethod, "INSERT", new String[] { "id" }), factory));
+		assertSame(factory, this.cache.take(this.cache.key(prepareStatementKeysMethod, "INSERT", new String[] { "id" })));
+	}
+	
+	@Test
+	public void offer()
+	{
+		PreparedStatementProxyFactory<Void, MockDatabase> factory1 = mockFactory();
+		PreparedStatementProxyFactory<Void, MockDatabase> factory2 = mockFactory();
+		Object key = this.cache.key(prepareStatementMethod, "SELECT 1");
+		
+		assertTrue(this.cache.offer(key, factory1));
+		// Closing a cached statement again is a no-op
+		assertTrue(this.cache.offer(key, factory1));
+		// Only 1 statement is cached per key
+		assertFalse(this.cache.offer(key, factory2));
+		
+		assertSame(factory1, this.cache.take(key));
+	}
+	
+	@Test
+	public void evictEldest() throws SQLException
+	{
+		PreparedStatementProxyFactory<Void, MockDatabase> factory1 = mockFactory();
+		PreparedStatementProxyFactory<Void, MockDatabase> factory2 = mockFactory();
+		PreparedStatementProxyFactory<Void, MockDatabase> factory3 = mockFactory();
+		Object key1 = this.cache.key(prepareStatementMethod, "SELECT 1");
+		Object key2 = this.cache.key(prepareStatementMethod, "SELECT 2");
+		Object key3 = this.cache.key(prepareStatementMethod, "SELECT 3");
+		
+		assertTrue(this.cache.offer(key1, factory1));
+		assertTrue(this.cache.offer(key2, factory2));
+		
+		// Promote key1, such that key2 is least recently used
+		this.cache.offer(key1, factory1);
+		
+		assertTrue(this.cache.offer(key3, factory3));
+		
+		verify(factory2).setCacheKey(null);
+		verify(factory2.createProxy()).close();
+		verify(factory1, never()).setCacheKey(null);
+		
+		assertNull(this.cache.take(key2));
+		assertSame(factory1, this.cache.take(key1));
+		assertSame(factory3, this.cache.take(key3));
+	}
+	
+	@Test
+	public void evict() throws SQLException
+	{
+		PreparedStatementProxyFactory<Void, MockDatabase> factory = mockFactory();
+		Object key = this.cache.key(prepareStatementMethod, "SELECT 1");
+		
+		assertTrue(this.cache.offer(key, factory));
+		
+		this.cache.evict();
+		
+		verify(factory).setCacheKey(null);
+		verify(factory.createProxy()).close();
+		assertNull(this.cache.take(key));
+		
+		// Caching resumes after eviction
+		assertTrue(this.cache.offer(key, factory));
+	}
+	
+	@Test
+	public void clear() throws SQLException
+	{
+		PreparedStatementProxyFactory<Void, MockDatabase> factory = mockFactory();
+		Object key = this.cache.key(prepareStatementMethod, "SELECT 1");
+		
+		assertTrue(this.cache.offer(key, factory));
+		
+		this.cache.clear();
+		
+		// Statements were closed along with their connection
+		verify(factory.createProxy(), never()).close();
+		assertNull(this.cache.take(key));
+		assertFalse(this.cache.offer(key, factory));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static PreparedStatementProxyFactory<Void, MockDatabase> mockFactory()
+	{
+		PreparedStatementProxyFactory<Void, MockDatabase> factory = mock(PreparedStatementProxyFactory.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		when(factory.createProxy()).thenReturn(statement);
+		return factory;
+	}
+}
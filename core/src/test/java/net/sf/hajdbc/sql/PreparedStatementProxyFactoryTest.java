@@ -0,0 +1,111 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.balancer.simple.SimpleBalancer;
+import net.sf.hajdbc.util.reflect.Methods;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class PreparedStatementProxyFactoryTest
+{
+	private static final Method prepareStatementMethod = Methods.getMethod(Connection.class, "prepareStatement", String.class);
+	
+	private final DatabaseCluster<Void, MockDatabase> cluster = MockProxyFactories.mockCluster();
+	private final ProxyFactory<Void, MockDatabase, Object, SQLException> parentFactory = MockProxyFactories.mockParentFactory(this.cluster);
+	private final Connection connection = mock(Connection.class);
+	private final PreparedStatement statement = mock(PreparedStatement.class);
+	private final MockDatabase database = new MockDatabase("db1");
+	private final ConnectionProxyFactory<Void, MockDatabase, Object> connectionFactory;
+	private final PreparedStatementProxyFactory<Void, MockDatabase> factory;
+	private final Object key;
+
+	public PreparedStatementProxyFactoryTest()
+	{
+		when(this.cluster.getBalancer()).thenReturn(new SimpleBalancer<>(Collections.singleton(this.database)));
+		when(this.cluster.getPreparedStatementCacheSize()).thenReturn(2);
+		
+		this.connectionFactory = new ConnectionProxyFactory<>(null, this.parentFactory, null, Collections.singletonMap(this.database, this.connection), null);
+		this.factory = new PreparedStatementProxyFactory<>(null, this.connectionFactory, null, Collections.singletonMap(this.database, this.statement), null, Collections.emptyList(), false);
+		this.key = this.connectionFactory.getPreparedStatementCache().key(prepareStatementMethod, "SELECT 1");
+		this.factory.setCacheKey(this.key);
+	}
+
+	@Test
+	public void release() throws SQLException
+	{
+		PreparedStatement proxy = this.factory.createProxy();
+		
+		proxy.close();
+		
+		// Underlying statement is cached, rather than closed
+		verify(this.statement, never()).close();
+		// Driver-side bindings are discarded
+		verify(this.statement).clearParameters();
+		verify(this.statement).clearBatch();
+		assertSame(this.factory, this.connectionFactory.getPreparedStatementCache().take(this.key));
+		
+		// The released proxy behaves as if closed
+		assertTrue(proxy.isClosed());
+		try
+		{
+			proxy.executeQuery();
+			fail();
+		}
+		catch (SQLException e)
+		{
+			verify(this.statement, never()).executeQuery();
+		}
+		proxy.close();
+		verify(this.statement, never()).close();
+		
+		// A reused statement is accessed via a new proxy
+		PreparedStatement reused = this.factory.createProxy();
+		
+		assertNotSame(proxy, reused);
+		assertFalse(reused.isClosed());
+		verify(this.statement).isClosed();
+	}
+
+	@Test
+	public void releaseModified() throws SQLException
+	{
+		PreparedStatement proxy = this.factory.createProxy();
+		
+		proxy.setFetchSize(10);
+		proxy.close();
+		
+		// Statements with modified driver settings are closed, rather than cached
+		verify(this.statement).close();
+		assertNull(this.connectionFactory.getPreparedStatementCache().take(this.key));
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.dialect.Dialect;
+import net.sf.hajdbc.invocation.InvocationStrategies;
+import net.sf.hajdbc.invocation.InvocationStrategy;
+import net.sf.hajdbc.state.StateManager;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class ResultSetProxyFactoryTest
+{
+	private final DatabaseCluster<Void, MockDatabase> cluster = MockProxyFactories.mockCluster();
+	private final ProxyFactory<Void, MockDatabase, Statement, SQLException> statementFactory = MockProxyFactories.mockParentFactory(this.cluster);
+	private final Dialect dialect = mock(Dialect.class);
+	private final StateManager stateManager = mock(StateManager.class);
+	private final Statement statement = mock(Statement.class);
+	private final MockDatabase database1 = new MockDatabase("db1");
+	private final MockDatabase database2 = new MockDatabase("db2");
+
+	public ResultSetProxyFactoryTest()
+	{
+		when(this.cluster.getDialect()).thenReturn(this.dialect);
+		when(this.cluster.getStateManager()).thenReturn(this.stateManager);
+	}
+
+	@Test
+	public void passThrough() throws SQLException
+	{
+		ResultSet resultSet = mock(ResultSet.class);
+		when(resultSet.getConcurrency()).thenReturn(ResultSet.CONCUR_READ_ONLY);
+		
+		ResultSet proxy = this.createFactory(this.database1, resultSet).createProxy();
+		
+		assertTrue(Proxy.getInvocationHandler(proxy) instanceof PassThroughResultSetInvocationHandler);
+		
+		when(resultSet.getString(1)).thenReturn("value");
+		assertEquals("value", proxy.getString(1));
+		assertSame(this.statement, proxy.getStatement());
+	}
+
+	@Test
+	public void updatable() throws SQLException
+	{
+		ResultSet resultSet = mock(ResultSet.class);
+		when(resultSet.getConcurrency()).thenReturn(ResultSet.CONCUR_UPDATABLE);
+		
+		ResultSet proxy = this.createFactory(this.database1, resultSet).createProxy();
+		
+		assertTrue(Proxy.getInvocationHandler(proxy) instanceof ResultSetInvocationHandler);
+	}
+
+	@Test
+	public void singleRemainingDatabase() throws SQLException
+	{
+		ResultSet resultSet = mock(ResultSet.class);
+		when(resultSet.getConcurrency()).thenReturn(ResultSet.CONCUR_READ_ONLY);
+		
+		// A result set of a strategy that invokes on all databases keeps the full proxy, even if only 1 database was active
+		ResultSet proxy = this.createFactory(this.database1, resultSet, InvocationStrategies.TRANSACTION_INVOKE_ON_ALL).createProxy();
+		
+		assertTrue(Proxy.getInvocationHandler(proxy) instanceof ResultSetInvocationHandler);
+	}
+
+	@Test
+	public void multipleDatabases() throws SQLException
+	{
+		ResultSet resultSet1 = mock(ResultSet.class);
+		ResultSet resultSet2 = mock(ResultSet.class);
+		when(resultSet1.getConcurrency()).thenReturn(ResultSet.CONCUR_READ_ONLY);
+		when(resultSet2.getConcurrency()).thenReturn(ResultSet.CONCUR_READ_ONLY);
+		Map<MockDatabase, ResultSet> map = new TreeMap<>();
+		map.put(this.database1, resultSet1);
+		map.put(this.database2, resultSet2);
+		
+		ResultSet proxy = new ResultSetProxyFactory<>(this.statement, this.statementFactory, null, map, null, null, InvocationStrategies.TRANSACTION_INVOKE_ON_ALL).createProxy();
+		
+		assertTrue(Proxy.getInvocationHandler(proxy) instanceof ResultSetInvocationHandler);
+	}
+
+	@Test
+	public void objectMethods() throws SQLException
+	{
+		ResultSet resultSet = mock(ResultSet.class);
+		when(resultSet.getConcurrency()).thenReturn(ResultSet.CONCUR_READ_ONLY);
+		
+		ResultSet proxy = this.createFactory(this.database1, resultSet).createProxy();
+		ResultSet otherProxy = this.createFactory(this.database1, resultSet).createProxy();
+		
+		// Handled by the proxy, rather than by the underlying result set
+		assertTrue(proxy.equals(proxy));
+		assertFalse(proxy.equals(otherProxy));
+		assertFalse(proxy.equals(resultSet));
+		assertEquals(System.identityHashCode(proxy), proxy.hashCode());
+		assertNotNull(proxy.toString());
+	}
+
+	@Test
+	public void failure() throws SQLException
+	{
+		ResultSet resultSet = mock(ResultSet.class);
+		SQLException exception = new SQLException();
+		when(resultSet.getConcurrency()).thenReturn(ResultSet.CONCUR_READ_ONLY);
+		when(resultSet.next()).thenThrow(exception);
+		when(this.dialect.indicatesFailure(exception)).thenReturn(true);
+		when(this.cluster.deactivate(this.database1, this.stateManager)).thenReturn(true);
+		
+		ResultSet proxy = this.createFactory(this.database1, resultSet).createProxy();
+		
+		try
+		{
+			proxy.next();
+			fail();
+		}
+		catch (SQLException e)
+		{
+			assertSame(exception, e);
+		}
+		
+		verify(this.cluster).deactivate(this.database1, this.stateManager);
+	}
+
+	@Test
+	public void nonFailure() throws SQLException
+	{
+		ResultSet resultSet = mock(ResultSet.class);
+		SQLException exception = new SQLException();
+		when(resultSet.getConcurrency()).thenReturn(ResultSet.CONCUR_READ_ONLY);
+		when(resultSet.next()).thenThrow(exception);
+		when(this.dialect.indicatesFailure(exception)).thenReturn(false);
+		
+		ResultSet proxy = this.createFactory(this.database1, resultSet).createProxy();
+		
+		try
+		{
+			proxy.next();
+			fail();
+		}
+		catch (SQLException e)
+		{
+			assertSame(exception, e);
+		}
+		
+		verify(this.cluster, never()).deactivate(this.database1, this.stateManager);
+	}
+
+	private ResultSetProxyFactory<Void, MockDatabase, Statement> createFactory(MockDatabase database, ResultSet resultSet)
+	{
+		return this.createFactory(database, resultSet, InvocationStrategies.INVOKE_ON_NEXT);
+	}
+
+	private ResultSetProxyFactory<Void, MockDatabase, Statement> createFactory(MockDatabase database, ResultSet resultSet, InvocationStrategy strategy)
+	{
+		Map<MockDatabase, ResultSet> map = new TreeMap<>();
+		map.put(database, resultSet);
+		return new ResultSetProxyFactory<>(this.statement, this.statementFactory, null, map, null, null, strategy);
+	}
+}
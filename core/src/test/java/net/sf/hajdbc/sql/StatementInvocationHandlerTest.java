@@ -0,0 +1,123 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.util.reflect.Methods;
+import net.sf.hajdbc.util.reflect.Proxies;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class StatementInvocationHandlerTest
+{
+	private static final Method addBatchMethod = Methods.getMethod(Statement.class, "addBatch", String.class);
+	private static final Method executeBatchMethod = Methods.getMethod(Statement.class, "executeBatch");
+	private static final Method executeLargeBatchMethod = Methods.getMethod(Statement.class, "executeLargeBatch");
+	
+	private final DatabaseCluster<Void, MockDatabase> cluster = MockProxyFactories.mockCluster();
+	private final ProxyFactory<Void, MockDatabase, Connection, SQLException> connectionFactory = MockProxyFactories.mockParentFactory(this.cluster);
+	private final MockDatabase database = new MockDatabase("db1");
+	private final List<String> invocations = new ArrayList<>();
+	private final Statement statement = Proxies.createProxy(Statement.class, (proxy, method, args) ->
+	{
+		this.invocations.add(method.getName());
+		if (method.getName().equals("addBatch"))
+		{
+			this.pending += 1;
+		}
+		else if (method.getName().equals("executeBatch"))
+		{
+			int[] counts = new int[this.pending];
+			Arrays.fill(counts, 1);
+			this.pending = 0;
+			return counts;
+		}
+		else if (method.getName().equals("executeLargeBatch"))
+		{
+			throw new AssertionError();
+		}
+		return null;
+	});
+	private int pending = 0;
+	private final StatementProxyFactory<Void, MockDatabase> factory;
+	private final StatementInvocationHandler<Void, MockDatabase> handler;
+
+	public StatementInvocationHandlerTest()
+	{
+		when(this.cluster.getBatchChunkSize()).thenReturn(2);
+		
+		this.factory = new StatementProxyFactory<>(null, this.connectionFactory, null, Collections.singletonMap(this.database, this.statement), null);
+		this.handler = new StatementInvocationHandler<>(this.factory);
+	}
+
+	@Test
+	public void executeBatch() throws Throwable
+	{
+		int[] counts = this.execute(executeBatchMethod);
+		
+		assertArrayEquals(new int[] { 1, 1, 1 }, counts);
+	}
+
+	@Test
+	public void executeLargeBatch() throws Throwable
+	{
+		long[] counts = this.execute(executeLargeBatchMethod);
+		
+		assertArrayEquals(new long[] { 1L, 1L, 1L }, counts);
+	}
+
+	private <R> R execute(Method method) throws Throwable
+	{
+		for (int i = 0; i < 3; ++i)
+		{
+			assertNull(this.handler.invoke(this.statement, addBatchMethod, new Object[] { "INSERT INTO test VALUES (" + i + ")" }));
+		}
+		
+		// Batched statements are recorded, but not yet sent to the database
+		assertTrue(this.invocations.isEmpty());
+		assertFalse(this.factory.getBatch().isEmpty());
+		
+		Invoker<Void, MockDatabase, Statement, R, SQLException> invoker = this.handler.getInvoker(this.statement, method);
+		R result = invoker.invoke(this.database, this.statement);
+		
+		assertEquals(Arrays.asList("addBatch", "addBatch", "executeBatch", "addBatch", "executeBatch"), this.invocations);
+		
+		this.handler.postInvoke(invoker, this.statement, method);
+		
+		assertTrue(this.factory.getBatch().isEmpty());
+		
+		return result;
+	}
+}
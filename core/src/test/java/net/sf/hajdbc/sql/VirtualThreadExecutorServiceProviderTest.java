@@ -0,0 +1,71 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class VirtualThreadExecutorServiceProviderTest
+{
+	@Test
+	public void threadFactory() throws InterruptedException, ExecutionException
+	{
+		final AtomicInteger threads = new AtomicInteger();
+		final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+		ThreadFactory factory = new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable task)
+			{
+				threads.incrementAndGet();
+				return defaultFactory.newThread(task);
+			}
+		};
+		
+		VirtualThreadExecutorServiceProvider provider = new VirtualThreadExecutorServiceProvider();
+		provider.setMaxConcurrency(2);
+		ExecutorService executor = provider.getExecutor(factory);
+		try
+		{
+			executor.submit(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+				}
+			}).get();
+			
+			// A custom thread factory is honored
+			assertEquals(1, threads.get());
+		}
+		finally
+		{
+			provider.release(executor);
+		}
+	}
+}
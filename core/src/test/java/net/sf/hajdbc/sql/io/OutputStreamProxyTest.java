@@ -0,0 +1,221 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql.io;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.balancer.simple.SimpleBalancer;
+import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.sql.ProxyFactory;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class OutputStreamProxyTest
+{
+	private final MockDatabase db1 = new MockDatabase("1");
+	private final MockDatabase db2 = new MockDatabase("2");
+	private final CountingOutputStream output1 = new CountingOutputStream();
+	private final CountingOutputStream output2 = new CountingOutputStream();
+	private final OutputStreamProxyFactory<Void, MockDatabase, Object> factory;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	
+	@SuppressWarnings("unchecked")
+	public OutputStreamProxyTest()
+	{
+		DatabaseCluster<Void, MockDatabase> cluster = mock(DatabaseCluster.class);
+		ProxyFactory<Void, MockDatabase, Object, SQLException> parent = mock(ProxyFactory.class);
+		when(parent.getDatabaseCluster()).thenReturn(cluster);
+		when(cluster.getBalancer()).thenReturn(new SimpleBalancer<>(new TreeSet<>(Arrays.asList(this.db1, this.db2))));
+		when(cluster.getExecutor()).thenReturn(this.executor);
+		
+		Map<MockDatabase, OutputStream> outputs = new TreeMap<>();
+		outputs.put(this.db1, this.output1);
+		outputs.put(this.db2, this.output2);
+		this.factory = new OutputStreamProxyFactory<>(new Object(), parent, mock(Invoker.class), outputs);
+	}
+	
+	@After
+	public void destroy()
+	{
+		this.executor.shutdownNow();
+	}
+	
+	@Test
+	public void coalesce() throws IOException
+	{
+		byte[] expected = new byte[this.factory.getBufferSize() + 1];
+		for (int i = 0; i < expected.length; ++i)
+		{
+			expected[i] = (byte) i;
+		}
+		
+		OutputStream proxy = this.factory.createProxy();
+		
+		for (int i = 0; i < expected.length - 1; ++i)
+		{
+			proxy.write(expected[i]);
+		}
+		
+		// Nothing written until buffer is full
+		assertEquals(0, this.output1.writes);
+		assertEquals(0, this.output2.writes);
+		
+		proxy.write(expected, expected.length - 1, 1);
+		
+		assertEquals(1, this.output1.writes);
+		assertEquals(1, this.output2.writes);
+		
+		proxy.flush();
+		
+		assertEquals(2, this.output1.writes);
+		assertEquals(2, this.output2.writes);
+		assertArrayEquals(expected, this.output1.toByteArray());
+		assertArrayEquals(expected, this.output2.toByteArray());
+		
+		// Flushed writes are replayed against new databases
+		CountingOutputStream output = new CountingOutputStream();
+		this.factory.replay(new MockDatabase("3"), output);
+		
+		assertArrayEquals(expected, output.toByteArray());
+	}
+	
+	@Test
+	public void writeThrough() throws IOException
+	{
+		byte[] expected = new byte[this.factory.getBufferSize()];
+		
+		OutputStream proxy = this.factory.createProxy();
+		
+		proxy.write(1);
+		proxy.write(expected);
+		
+		// Pending buffer is written first, followed by the oversized write
+		assertEquals(2, this.output1.writes);
+		assertEquals(2, this.output2.writes);
+		assertEquals(expected.length + 1, this.output1.size());
+		assertEquals(expected.length + 1, this.output2.size());
+		
+		// Caller may reuse its buffer
+		expected[0] = 1;
+		CountingOutputStream output = new CountingOutputStream();
+		this.factory.replay(new MockDatabase("3"), output);
+		
+		assertEquals(0, output.toByteArray()[1]);
+	}
+	
+	@Test
+	public void close() throws IOException
+	{
+		OutputStream proxy = this.factory.createProxy();
+		
+		proxy.write(1);
+		proxy.close();
+		
+		assertArrayEquals(new byte[] { 1 }, this.output1.toByteArray());
+		assertArrayEquals(new byte[] { 1 }, this.output2.toByteArray());
+		assertTrue(this.output1.closed);
+		assertTrue(this.output2.closed);
+		
+		// Closing again has no effect
+		proxy.close();
+		
+		try
+		{
+			proxy.write(2);
+			fail();
+		}
+		catch (IOException e)
+		{
+			// Expected
+		}
+		try
+		{
+			proxy.write(new byte[] { 2 });
+			fail();
+		}
+		catch (IOException e)
+		{
+			// Expected
+		}
+		try
+		{
+			proxy.flush();
+			fail();
+		}
+		catch (IOException e)
+		{
+			// Expected
+		}
+		
+		assertArrayEquals(new byte[] { 1 }, this.output1.toByteArray());
+		assertEquals(1, this.output1.writes);
+	}
+	
+	@Test
+	public void concurrent() throws IOException
+	{
+		OutputStream proxy = this.factory.createProxy();
+		
+		proxy.write(1);
+		proxy.flush();
+		
+		// Primary database is written by the caller, while the remaining databases are written via the executor
+		assertSame(Thread.currentThread(), this.output1.thread);
+		assertNotNull(this.output2.thread);
+		assertNotSame(Thread.currentThread(), this.output2.thread);
+	}
+	
+	static class CountingOutputStream extends ByteArrayOutputStream
+	{
+		int writes = 0;
+		boolean closed = false;
+		volatile Thread thread = null;
+		
+		@Override
+		public void write(byte[] b, int off, int len)
+		{
+			this.writes += 1;
+			this.thread = Thread.currentThread();
+			super.write(b, off, len);
+		}
+
+		@Override
+		public void close()
+		{
+			this.closed = true;
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql.io;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.sf.hajdbc.DatabaseCluster;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.balancer.simple.SimpleBalancer;
+import net.sf.hajdbc.invocation.Invoker;
+import net.sf.hajdbc.sql.ProxyFactory;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class WriterProxyTest
+{
+	private final MockDatabase db1 = new MockDatabase("1");
+	private final MockDatabase db2 = new MockDatabase("2");
+	private final CountingWriter writer1 = new CountingWriter();
+	private final CountingWriter writer2 = new CountingWriter();
+	private final WriterProxyFactory<Void, MockDatabase, Object> factory;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	
+	@SuppressWarnings("unchecked")
+	public WriterProxyTest()
+	{
+		DatabaseCluster<Void, MockDatabase> cluster = mock(DatabaseCluster.class);
+		ProxyFactory<Void, MockDatabase, Object, SQLException> parent = mock(ProxyFactory.class);
+		when(parent.getDatabaseCluster()).thenReturn(cluster);
+		when(cluster.getBalancer()).thenReturn(new SimpleBalancer<>(new TreeSet<>(Arrays.asList(this.db1, this.db2))));
+		when(cluster.getExecutor()).thenReturn(this.executor);
+		
+		Map<MockDatabase, Writer> writers = new TreeMap<>();
+		writers.put(this.db1, this.writer1);
+		writers.put(this.db2, this.writer2);
+		this.factory = new WriterProxyFactory<>(new Object(), parent, mock(Invoker.class), writers);
+	}
+	
+	@After
+	public void destroy()
+	{
+		this.executor.shutdownNow();
+	}
+	
+	@Test
+	public void coalesce() throws IOException
+	{
+		Writer proxy = this.factory.createProxy();
+		
+		proxy.write('a');
+		proxy.write("bcd", 1, 2);
+		proxy.write(new char[] { 'e', 'f' }, 1, 1);
+		proxy.append("gh").append("xijx", 1, 3).append('k').append(null);
+		
+		// Nothing written until flush
+		assertEquals(0, this.writer1.writes);
+		assertEquals(0, this.writer2.writes);
+		
+		proxy.flush();
+		
+		String expected = "acdfghijknull";
+		
+		assertEquals(1, this.writer1.writes);
+		assertEquals(1, this.writer2.writes);
+		assertEquals(expected, this.writer1.toString());
+		assertEquals(expected, this.writer2.toString());
+		
+		CountingWriter writer = new CountingWriter();
+		this.factory.replay(new MockDatabase("3"), writer);
+		
+		assertEquals(expected, writer.toString());
+	}
+	
+	@Test
+	public void writeThrough() throws IOException
+	{
+		char[] chars = new char[this.factory.getBufferSize()];
+		
+		Writer proxy = this.factory.createProxy();
+		
+		proxy.write('a');
+		proxy.write(new String(chars));
+		
+		assertEquals(2, this.writer1.writes);
+		assertEquals(2, this.writer2.writes);
+		assertEquals(chars.length + 1, this.writer1.size());
+		assertEquals(chars.length + 1, this.writer2.size());
+		
+		proxy.close();
+	}
+	
+	@Test
+	public void concurrent() throws IOException
+	{
+		Writer proxy = this.factory.createProxy();
+		
+		proxy.write('a');
+		proxy.flush();
+		
+		// Primary database is written by the caller, while the remaining databases are written via the executor
+		assertSame(Thread.currentThread(), this.writer1.thread);
+		assertNotNull(this.writer2.thread);
+		assertNotSame(Thread.currentThread(), this.writer2.thread);
+	}
+	
+	@Test
+	public void close() throws IOException
+	{
+		Writer proxy = this.factory.createProxy();
+		
+		proxy.write('a');
+		proxy.close();
+		
+		assertEquals("a", this.writer1.toString());
+		assertEquals("a", this.writer2.toString());
+		assertTrue(this.writer1.closed);
+		assertTrue(this.writer2.closed);
+		
+		// Closing again has no effect
+		proxy.close();
+		
+		try
+		{
+			proxy.write('b');
+			fail();
+		}
+		catch (IOException e)
+		{
+			// Expected
+		}
+		try
+		{
+			proxy.write("b");
+			fail();
+		}
+		catch (IOException e)
+		{
+			// Expected
+		}
+		try
+		{
+			proxy.flush();
+			fail();
+		}
+		catch (IOException e)
+		{
+			// Expected
+		}
+		
+		assertEquals("a", this.writer1.toString());
+		assertEquals(1, this.writer1.writes);
+	}
+	
+	static class CountingWriter extends CharArrayWriter
+	{
+		int writes = 0;
+		boolean closed = false;
+		volatile Thread thread = null;
+		
+		@Override
+		public void write(char[] c, int off, int len)
+		{
+			this.writes += 1;
+			this.thread = Thread.currentThread();
+			super.write(c, off, len);
+		}
+
+		@Override
+		public void close()
+		{
+			this.closed = true;
+		}
+	}
+}
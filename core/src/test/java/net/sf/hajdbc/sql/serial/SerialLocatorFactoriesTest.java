@@ -0,0 +1,139 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sql.serial;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.NClob;
+import java.sql.SQLException;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+import net.sf.hajdbc.io.InputSinkRegistry;
+import net.sf.hajdbc.io.InputSinkRegistryImpl;
+import net.sf.hajdbc.io.hybrid.HybridInputSinkStrategy;
+import net.sf.hajdbc.io.hybrid.HybridSink;
+import net.sf.hajdbc.util.reflect.Proxies;
+import net.sf.hajdbc.util.reflect.SimpleInvocationHandler;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class SerialLocatorFactoriesTest
+{
+	@Test
+	public void blob() throws SQLException, IOException
+	{
+		byte[] expected = new byte[Short.MAX_VALUE];
+		for (int i = 0; i < expected.length; ++i)
+		{
+			expected[i] = (byte) i;
+		}
+		SerialLocatorFactory<Blob> factory = SerialLocatorFactories.find(Blob.class);
+		
+		try (InputSinkRegistry<HybridSink> registry = new InputSinkRegistryImpl<>(new HybridInputSinkStrategy()))
+		{
+			Blob blob = factory.createSerial(new SerialBlob(expected), registry);
+			
+			assertTrue(blob instanceof SinkBlob);
+			assertEquals(expected.length, blob.length());
+			
+			// Each database reads its own stream
+			for (int i = 0; i < 2; ++i)
+			{
+				try (InputStream input = blob.getBinaryStream())
+				{
+					byte[] result = new byte[expected.length];
+					int offset = 0;
+					int read = input.read(result);
+					while (read > 0)
+					{
+						offset += read;
+						read = input.read(result, offset, result.length - offset);
+					}
+					assertArrayEquals(expected, result);
+				}
+			}
+			
+			assertArrayEquals(new byte[] { 9, 10, 11 }, blob.getBytes(10, 3));
+			assertEquals(1, blob.getBytes(expected.length, 3).length);
+		}
+		
+		// Without a registry, blob is held in memory
+		assertTrue(factory.createSerial(new SerialBlob(expected), null) instanceof SerialBlob);
+	}
+	
+	@Test
+	public void clob() throws SQLException, IOException
+	{
+		String expected = "ASCII, \u00e9\u00e8, \u4e2d\u6587";
+		SerialLocatorFactory<Clob> factory = SerialLocatorFactories.find(Clob.class);
+		
+		try (InputSinkRegistry<HybridSink> registry = new InputSinkRegistryImpl<>(new HybridInputSinkStrategy()))
+		{
+			Clob clob = factory.createSerial(new SerialClob(expected.toCharArray()), registry);
+			
+			assertTrue(clob instanceof SinkClob);
+			assertEquals(expected.length(), clob.length());
+			assertEquals(expected, read(clob.getCharacterStream()));
+			assertEquals(expected, read(clob.getCharacterStream()));
+			assertEquals("ASCII", clob.getSubString(1, 5));
+			assertEquals("\u4e2d\u6587", clob.getSubString(expected.length() - 1, 10));
+		}
+	}
+	
+	@Test
+	public void nclob() throws SQLException, IOException
+	{
+		String expected = "nclob";
+		SerialLocatorFactory<NClob> factory = SerialLocatorFactories.find(NClob.class);
+		NClob source = Proxies.createProxy(NClob.class, new SimpleInvocationHandler(new SerialClob(expected.toCharArray())));
+		
+		try (InputSinkRegistry<HybridSink> registry = new InputSinkRegistryImpl<>(new HybridInputSinkStrategy()))
+		{
+			NClob clob = factory.createSerial(source, registry);
+			
+			assertTrue(clob instanceof SinkNClob);
+			assertEquals(expected, read(clob.getCharacterStream()));
+		}
+	}
+	
+	private static String read(Reader reader) throws IOException
+	{
+		try (Reader input = reader)
+		{
+			StringBuilder builder = new StringBuilder();
+			char[] buffer = new char[4];
+			int read = input.read(buffer);
+			while (read >= 0)
+			{
+				builder.append(buffer, 0, read);
+				read = input.read(buffer);
+			}
+			return builder.toString();
+		}
+	}
+}
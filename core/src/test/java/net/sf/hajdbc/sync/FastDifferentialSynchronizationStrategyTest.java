@@ -0,0 +1,550 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.sync;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.sf.hajdbc.ColumnProperties;
+import net.sf.hajdbc.MockDatabase;
+import net.sf.hajdbc.QualifiedName;
+import net.sf.hajdbc.TableProperties;
+import net.sf.hajdbc.UniqueConstraint;
+import net.sf.hajdbc.dialect.Dialect;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Synchronizes between in-memory fake databases, each containing a single table "t" with an "id" primary key and a "name" column.
+ * @author Paul Ferraro
+ */
+public class FastDifferentialSynchronizationStrategyTest
+{
+	private static final String SELECT_ORDERED = "SELECT id, name FROM t ORDER BY id";
+	private static final String DELETE_RANGE = "DELETE FROM t WHERE id BETWEEN ? AND ?";
+	
+	private final MockDatabase sourceDatabase = new MockDatabase("source");
+	private final MockDatabase targetDatabase = new MockDatabase("target");
+	private final FakeDatabase source = new FakeDatabase();
+	private final FakeDatabase target = new FakeDatabase();
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+	@SuppressWarnings("unchecked")
+	private final SynchronizationContext<Void, MockDatabase> context = mock(SynchronizationContext.class);
+	private final Dialect dialect = mock(Dialect.class);
+	private final TableProperties table = mock(TableProperties.class);
+	private final ColumnProperties idProperties = mock(ColumnProperties.class);
+	private final ColumnProperties nameProperties = mock(ColumnProperties.class);
+	private final FastDifferentialSynchronizationStrategy strategy = new FastDifferentialSynchronizationStrategy();
+	
+	public FastDifferentialSynchronizationStrategyTest() throws SQLException
+	{
+		QualifiedName name = mock(QualifiedName.class);
+		UniqueConstraint primaryKey = mock(UniqueConstraint.class);
+		SynchronizationSupport support = (SynchronizationSupport) Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class<?>[] { SynchronizationSupport.class }, new InvocationHandler()
+		{
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws SQLException
+			{
+				return method.getName().equals("getObject") ? ((ResultSet) args[0]).getObject((Integer) args[1]) : null;
+			}
+		});
+		
+		when(name.getDMLName()).thenReturn("t");
+		when(primaryKey.getColumnList()).thenReturn(Arrays.asList("id"));
+		when(this.table.getName()).thenReturn(name);
+		when(this.table.getPrimaryKey()).thenReturn(primaryKey);
+		when(this.table.getColumns()).thenReturn(Arrays.asList("id", "name"));
+		when(this.table.getColumnProperties("id")).thenReturn(this.idProperties);
+		when(this.table.getColumnProperties("name")).thenReturn(this.nameProperties);
+		when(this.dialect.getChecksumSQL(Arrays.asList("id", "name"))).thenReturn("CHECKSUM");
+		when(this.dialect.getColumnType(this.idProperties)).thenReturn(Types.BIGINT);
+		when(this.dialect.getColumnType(this.nameProperties)).thenReturn(Types.VARCHAR);
+		when(this.context.getSourceDatabase()).thenReturn(this.sourceDatabase);
+		when(this.context.getTargetDatabase()).thenReturn(this.targetDatabase);
+		when(this.context.getConnection(this.sourceDatabase)).thenReturn(this.source.getConnection());
+		when(this.context.getConnection(this.targetDatabase)).thenReturn(this.target.getConnection());
+		when(this.context.getDialect()).thenReturn(this.dialect);
+		when(this.context.getExecutor()).thenReturn(this.executor);
+		when(this.context.getSynchronizationSupport()).thenReturn(support);
+		
+		this.strategy.setMaxRangeSize(100);
+	}
+	
+	@After
+	public void destroy()
+	{
+		this.executor.shutdownNow();
+	}
+	
+	@Test
+	public void empty() throws SQLException
+	{
+		this.strategy.synchronize(this.context, this.table);
+		
+		assertTrue(this.target.rows.isEmpty());
+		// Only the key bounds were queried
+		assertEquals(Collections.singletonList("SELECT MIN(id), MAX(id) FROM t"), this.source.executed);
+		assertEquals(Collections.singletonList("SELECT MIN(id), MAX(id) FROM t"), this.target.executed);
+	}
+	
+	@Test
+	public void sourceOnly() throws SQLException
+	{
+		for (long i = 0; i < 1000; ++i)
+		{
+			this.source.put(i, "v" + i);
+		}
+		
+		this.strategy.synchronize(this.context, this.table);
+		
+		assertEquals(this.source.rows, this.target.rows);
+		assertFalse(this.target.executed.contains(SELECT_ORDERED));
+	}
+	
+	@Test
+	public void targetOnly() throws SQLException
+	{
+		for (long i = 0; i < 1000; ++i)
+		{
+			this.target.put(i, "v" + i);
+		}
+		
+		this.strategy.synchronize(this.context, this.table);
+		
+		assertTrue(this.target.rows.isEmpty());
+		assertFalse(this.target.executed.contains(SELECT_ORDERED));
+	}
+	
+	@Test
+	public void drift() throws SQLException
+	{
+		Random random = new Random(1);
+		for (long i = -5000; i < 15000; i += 1 + random.nextInt(3))
+		{
+			this.source.put(i, "v" + i);
+		}
+		this.target.rows.putAll(this.source.rows);
+		
+		// Updates, deletes and inserts, including at both ends of the signed long key space
+		this.target.put(-4000, "stale");
+		this.target.rows.remove(this.target.rows.ceilingKey(BigInteger.valueOf(7000)));
+		this.target.put(Long.MIN_VALUE, "min");
+		this.target.put(999999, "extra");
+		this.source.put(Long.MAX_VALUE, "max");
+		this.source.rows.remove(this.source.rows.firstKey());
+		
+		this.strategy.synchronize(this.context, this.table);
+		
+		assertEquals(this.source.rows, this.target.rows);
+		assertFalse(this.target.executed.contains(SELECT_ORDERED));
+		// Only rows of differing ranges are transferred
+		assertTrue(String.valueOf(this.source.selected), this.source.selected < this.source.rows.size() / 10);
+	}
+	
+	@Test
+	public void numeric() throws SQLException
+	{
+		when(this.dialect.getColumnType(this.idProperties)).thenReturn(Types.NUMERIC);
+		
+		this.source.put(1, "a");
+		this.source.put(2, "b");
+		this.target.put(2, "c");
+		this.target.put(3, "d");
+		
+		this.strategy.synchronize(this.context, this.table);
+		
+		assertEquals(this.source.rows, this.target.rows);
+		assertFalse(this.target.executed.contains(SELECT_ORDERED));
+	}
+	
+	@Test
+	public void fractionalNumeric() throws SQLException
+	{
+		when(this.dialect.getColumnType(this.idProperties)).thenReturn(Types.NUMERIC);
+		this.source.scale = 2;
+		this.target.scale = 2;
+		
+		this.source.put(1, "a");
+		this.source.put(2, "b");
+		this.target.put(2, "b");
+		this.target.put(3, "d");
+		
+		this.strategy.synchronize(this.context, this.table);
+		
+		this.assertFallback();
+	}
+	
+	@Test
+	public void overflow() throws SQLException
+	{
+		when(this.dialect.getColumnType(this.idProperties)).thenReturn(Types.DECIMAL);
+		
+		this.source.put(1, "a");
+		this.target.put(1, "a");
+		// Exceeds the range of a long
+		this.target.rows.put(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE), "extra");
+		
+		this.strategy.synchronize(this.context, this.table);
+		
+		this.assertFallback();
+	}
+	
+	@Test
+	public void largeObject() throws SQLException
+	{
+		when(this.dialect.getColumnType(this.nameProperties)).thenReturn(Types.CLOB);
+		
+		this.source.put(1, "a");
+		this.target.put(2, "b");
+		
+		this.strategy.synchronize(this.context, this.table);
+		
+		this.assertFallback();
+	}
+	
+	@Test
+	public void checksumFailure() throws SQLException
+	{
+		this.target.checksumFailure = true;
+		
+		this.source.put(1, "a");
+		this.source.put(2, "b");
+		this.target.put(2, "b");
+		this.target.put(3, "d");
+		
+		this.strategy.synchronize(this.context, this.table);
+		
+		this.assertFallback();
+	}
+	
+	private void assertFallback()
+	{
+		assertEquals(this.source.rows, this.target.rows);
+		assertTrue(this.target.executed.contains(SELECT_ORDERED));
+		assertFalse(this.target.executed.contains(DELETE_RANGE));
+	}
+	
+	static Object invokeDefault(Method method)
+	{
+		Class<?> type = method.getReturnType();
+		if (type == boolean.class) return Boolean.FALSE;
+		if (type == int.class) return Integer.valueOf(0);
+		if (type == long.class) return Long.valueOf(0);
+		return null;
+	}
+	
+	static BigInteger key(Object value)
+	{
+		if (value instanceof BigInteger) return (BigInteger) value;
+		if (value instanceof BigDecimal) return ((BigDecimal) value).toBigInteger();
+		return BigInteger.valueOf(((Number) value).longValue());
+	}
+	
+	static <T> T proxy(Class<T> targetClass, InvocationHandler handler)
+	{
+		return targetClass.cast(Proxy.newProxyInstance(FastDifferentialSynchronizationStrategyTest.class.getClassLoader(), new Class<?>[] { targetClass }, handler));
+	}
+	
+	/**
+	 * A database containing a single table, keyed by arbitrary precision integers.
+	 * Checksums are sums of row hash codes.
+	 */
+	static class FakeDatabase
+	{
+		final TreeMap<BigInteger, String> rows = new TreeMap<>();
+		// SQL of every executed query or update
+		final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+		volatile int scale = 0;
+		volatile boolean checksumFailure = false;
+		volatile int selected = 0;
+		
+		void put(long key, String value)
+		{
+			this.rows.put(BigInteger.valueOf(key), value);
+		}
+		
+		Connection getConnection()
+		{
+			return proxy(Connection.class, new InvocationHandler()
+			{
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args)
+				{
+					switch (method.getName())
+					{
+						case "prepareStatement":
+						{
+							return FakeDatabase.this.prepareStatement((String) args[0]);
+						}
+						case "createStatement":
+						{
+							return FakeDatabase.this.createStatement();
+						}
+						default:
+						{
+							return invokeDefault(method);
+						}
+					}
+				}
+			});
+		}
+		
+		Statement createStatement()
+		{
+			return proxy(Statement.class, new InvocationHandler()
+			{
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws SQLException
+				{
+					if (!method.getName().equals("executeQuery")) return invokeDefault(method);
+					
+					String sql = (String) args[0];
+					FakeDatabase.this.executed.add(sql);
+					
+					if (sql.equals("SELECT id FROM t WHERE 0=1"))
+					{
+						return FakeDatabase.this.createMetaDataResultSet();
+					}
+					if (sql.equals(SELECT_ORDERED))
+					{
+						return createResultSet(FakeDatabase.this.select(FakeDatabase.this.rows));
+					}
+					throw new SQLException(sql);
+				}
+			});
+		}
+		
+		PreparedStatement prepareStatement(final String sql)
+		{
+			final Map<Integer, Object> parameters = new HashMap<>();
+			final List<Object[]> batch = new ArrayList<>();
+			
+			return proxy(PreparedStatement.class, new InvocationHandler()
+			{
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws SQLException
+				{
+					switch (method.getName())
+					{
+						case "setLong":
+						case "setObject":
+						{
+							parameters.put((Integer) args[0], args[1]);
+							return null;
+						}
+						case "setNull":
+						{
+							parameters.put((Integer) args[0], null);
+							return null;
+						}
+						case "clearParameters":
+						{
+							parameters.clear();
+							return null;
+						}
+						case "addBatch":
+						{
+							batch.add(new Object[] { parameters.get(1), parameters.get(2) });
+							return null;
+						}
+						case "clearBatch":
+						{
+							batch.clear();
+							return null;
+						}
+						case "executeBatch":
+						{
+							FakeDatabase.this.executed.add(sql);
+							int[] result = new int[batch.size()];
+							for (Object[] row: batch)
+							{
+								FakeDatabase.this.update(sql, row);
+							}
+							batch.clear();
+							return result;
+						}
+						case "executeUpdate":
+						{
+							FakeDatabase.this.executed.add(sql);
+							if (!sql.equals(DELETE_RANGE)) throw new SQLException(sql);
+							SortedMap<BigInteger, String> range = FakeDatabase.this.range(parameters);
+							int count = range.size();
+							range.clear();
+							return count;
+						}
+						case "executeQuery":
+						{
+							FakeDatabase.this.executed.add(sql);
+							return FakeDatabase.this.query(sql, parameters);
+						}
+						default:
+						{
+							return invokeDefault(method);
+						}
+					}
+				}
+			});
+		}
+		
+		void update(String sql, Object[] row) throws SQLException
+		{
+			if (sql.equals("INSERT INTO t (id, name) VALUES (?, ?)"))
+			{
+				if (this.rows.put(key(row[0]), (String) row[1]) != null)
+				{
+					throw new SQLException("Duplicate key " + row[0]);
+				}
+			}
+			else if (sql.equals("DELETE FROM t WHERE id = ?"))
+			{
+				this.rows.remove(key(row[0]));
+			}
+			else
+			{
+				throw new SQLException(sql);
+			}
+		}
+		
+		ResultSet query(String sql, Map<Integer, Object> parameters) throws SQLException
+		{
+			if (sql.equals("SELECT MIN(id), MAX(id) FROM t"))
+			{
+				return createResultSet(Collections.singletonList(this.rows.isEmpty() ? new Object[] { null, null } : new Object[] { this.rows.firstKey(), this.rows.lastKey() }));
+			}
+			if (sql.equals("SELECT COUNT(*), CHECKSUM FROM t WHERE id BETWEEN ? AND ?"))
+			{
+				if (this.checksumFailure) throw new SQLException(sql);
+				
+				SortedMap<BigInteger, String> range = this.range(parameters);
+				long checksum = 0;
+				for (Map.Entry<BigInteger, String> entry: range.entrySet())
+				{
+					checksum += (entry.getKey() + "|" + entry.getValue()).hashCode();
+				}
+				return createResultSet(Collections.singletonList(new Object[] { Long.valueOf(range.size()), range.isEmpty() ? null : Long.valueOf(checksum) }));
+			}
+			if (sql.equals("SELECT id, name FROM t WHERE id BETWEEN ? AND ?"))
+			{
+				List<Object[]> result = this.select(this.range(parameters));
+				this.selected += result.size();
+				return createResultSet(result);
+			}
+			throw new SQLException(sql);
+		}
+		
+		SortedMap<BigInteger, String> range(Map<Integer, Object> parameters)
+		{
+			return this.rows.subMap(key(parameters.get(1)), true, key(parameters.get(2)), true);
+		}
+		
+		List<Object[]> select(SortedMap<BigInteger, String> range)
+		{
+			List<Object[]> result = new ArrayList<>(range.size());
+			for (Map.Entry<BigInteger, String> entry: range.entrySet())
+			{
+				result.add(new Object[] { entry.getKey(), entry.getValue() });
+			}
+			return result;
+		}
+		
+		ResultSet createMetaDataResultSet()
+		{
+			final ResultSetMetaData metaData = proxy(ResultSetMetaData.class, new InvocationHandler()
+			{
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args)
+				{
+					return method.getName().equals("getScale") ? Integer.valueOf(FakeDatabase.this.scale) : invokeDefault(method);
+				}
+			});
+			return proxy(ResultSet.class, new InvocationHandler()
+			{
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args)
+				{
+					return method.getName().equals("getMetaData") ? metaData : invokeDefault(method);
+				}
+			});
+		}
+		
+		static ResultSet createResultSet(final List<Object[]> rows)
+		{
+			return proxy(ResultSet.class, new InvocationHandler()
+			{
+				private int index = -1;
+				private boolean wasNull = false;
+				
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args)
+				{
+					switch (method.getName())
+					{
+						case "next":
+						{
+							this.index += 1;
+							return Boolean.valueOf(this.index < rows.size());
+						}
+						case "wasNull":
+						{
+							return Boolean.valueOf(this.wasNull);
+						}
+						case "getObject":
+						case "getLong":
+						case "getBigDecimal":
+						{
+							Object value = rows.get(this.index)[(Integer) args[0] - 1];
+							this.wasNull = (value == null);
+							if (method.getName().equals("getLong")) return Long.valueOf((value != null) ? ((Number) value).longValue() : 0L);
+							if (method.getName().equals("getBigDecimal")) return (value != null) ? new BigDecimal(key(value)) : null;
+							return value;
+						}
+						default:
+						{
+							return invokeDefault(method);
+						}
+					}
+				}
+			});
+		}
+	}
+}
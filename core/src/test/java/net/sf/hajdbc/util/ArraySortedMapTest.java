@@ -0,0 +1,123 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class ArraySortedMapTest
+{
+	@Test
+	public void test()
+	{
+		Random random = new Random(0);
+		SortedMap<Integer, Integer> expected = new TreeMap<>();
+		SortedMap<Integer, Integer> map = new ArraySortedMap<>(0);
+		
+		for (int i = 0; i < 1000; ++i)
+		{
+			Integer key = random.nextInt(16);
+			Integer value = random.nextInt();
+			switch (random.nextInt(3))
+			{
+				case 0:
+				case 1:
+				{
+					Assert.assertEquals(expected.put(key, value), map.put(key, value));
+					break;
+				}
+				default:
+				{
+					Assert.assertEquals(expected.remove(key), map.remove(key));
+					break;
+				}
+			}
+			verify(expected, map);
+			
+			Integer bound = random.nextInt(16);
+			verify(expected.headMap(bound), map.headMap(bound));
+			verify(expected.tailMap(bound), map.tailMap(bound));
+			verify(expected.subMap(Math.min(key, bound), Math.max(key, bound)), map.subMap(Math.min(key, bound), Math.max(key, bound)));
+		}
+	}
+	
+	@Test
+	public void iteratorRemove()
+	{
+		SortedMap<Integer, Integer> expected = new TreeMap<>();
+		SortedMap<Integer, Integer> map = new ArraySortedMap<>();
+		for (int i = 0; i < 10; ++i)
+		{
+			expected.put(i, i);
+			map.put(i, i);
+		}
+		
+		Iterator<Map.Entry<Integer, Integer>> entries = map.entrySet().iterator();
+		while (entries.hasNext())
+		{
+			if ((entries.next().getKey() % 2) == 0)
+			{
+				entries.remove();
+			}
+		}
+		Iterator<Integer> keys = expected.keySet().iterator();
+		while (keys.hasNext())
+		{
+			if ((keys.next() % 2) == 0)
+			{
+				keys.remove();
+			}
+		}
+		verify(expected, map);
+		
+		map.tailMap(5).keySet().clear();
+		expected.tailMap(5).keySet().clear();
+		verify(expected, map);
+	}
+	
+	private static void verify(SortedMap<Integer, Integer> expected, SortedMap<Integer, Integer> map)
+	{
+		Assert.assertEquals(expected, map);
+		Assert.assertEquals(expected.size(), map.size());
+		Assert.assertEquals(expected.isEmpty(), map.isEmpty());
+		Assert.assertEquals(expected.hashCode(), map.hashCode());
+		Assert.assertEquals(expected.toString(), map.toString());
+		Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+		Assert.assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+		if (!expected.isEmpty())
+		{
+			Assert.assertEquals(expected.firstKey(), map.firstKey());
+			Assert.assertEquals(expected.lastKey(), map.lastKey());
+		}
+		for (int i = -1; i < 17; ++i)
+		{
+			Assert.assertEquals(expected.containsKey(i), map.containsKey(i));
+			Assert.assertEquals(expected.get(i), map.get(i));
+		}
+	}
+}
@@ -0,0 +1,259 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class PartitionedExecutorServiceTest
+{
+	@Test
+	public void test() throws InterruptedException, ExecutionException
+	{
+		ExecutorService service = Executors.newCachedThreadPool();
+		try
+		{
+			ExecutorService executor = new PartitionedExecutorService(service, 2);
+			List<Task> tasks = new ArrayList<>();
+			AtomicInteger maxConcurrency1 = new AtomicInteger();
+			AtomicInteger maxConcurrency2 = new AtomicInteger();
+			Task.Partition partition1 = new Task.Partition(maxConcurrency1);
+			Task.Partition partition2 = new Task.Partition(maxConcurrency2);
+			for (int i = 0; i < 10; ++i)
+			{
+				tasks.add(new Task(partition1));
+				tasks.add(new Task(partition2));
+			}
+			
+			for (Future<Integer> future: executor.invokeAll(tasks))
+			{
+				future.get();
+			}
+			
+			// Make sure no more than 2 tasks executed concurrently per partition
+			Assert.assertTrue(maxConcurrency1.get() <= 2);
+			Assert.assertTrue(maxConcurrency2.get() <= 2);
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+	
+	@Test
+	public void run() throws Exception
+	{
+		ExecutorService service = Executors.newCachedThreadPool();
+		try
+		{
+			PartitionedExecutorService executor = new PartitionedExecutorService(service, 1);
+			final AtomicInteger maxConcurrency = new AtomicInteger();
+			final Task.Partition partition = new Task.Partition(maxConcurrency);
+			final CountDownLatch started = new CountDownLatch(1);
+			final CountDownLatch release = new CountDownLatch(1);
+			
+			// Occupy the only permit of the partition
+			Future<Integer> future = executor.submit(new Task(partition)
+			{
+				@Override
+				public Integer call() throws Exception
+				{
+					started.countDown();
+					release.await();
+					return super.call();
+				}
+			});
+			Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+			
+			service.submit(new Callable<Void>()
+			{
+				@Override
+				public Void call() throws InterruptedException
+				{
+					Thread.sleep(100);
+					release.countDown();
+					return null;
+				}
+			});
+			
+			// Caller thread must wait for the permit
+			FutureTask<Integer> task = new FutureTask<>(new Task(partition));
+			executor.run(task, partition);
+			
+			Assert.assertEquals(0, release.getCount());
+			Assert.assertEquals(1, task.get().intValue());
+			Assert.assertEquals(1, future.get().intValue());
+			Assert.assertEquals(1, maxConcurrency.get());
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+
+	@Test
+	public void runInterrupted() throws Exception
+	{
+		ExecutorService service = Executors.newCachedThreadPool();
+		try
+		{
+			PartitionedExecutorService executor = new PartitionedExecutorService(service, 1);
+			Task.Partition partition = new Task.Partition(new AtomicInteger());
+			final CountDownLatch started = new CountDownLatch(1);
+			final CountDownLatch release = new CountDownLatch(1);
+			
+			executor.submit(new Task(partition)
+			{
+				@Override
+				public Integer call() throws Exception
+				{
+					started.countDown();
+					release.await();
+					return super.call();
+				}
+			});
+			Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+			
+			FutureTask<Integer> task = new FutureTask<>(new Task(partition));
+			Thread.currentThread().interrupt();
+			try
+			{
+				executor.run(task, partition);
+				
+				Assert.assertTrue(Thread.interrupted());
+				Assert.assertTrue(task.isCancelled());
+			}
+			finally
+			{
+				release.countDown();
+			}
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+	
+	@Test
+	public void remove() throws Exception
+	{
+		ExecutorService service = Executors.newCachedThreadPool();
+		try
+		{
+			PartitionedExecutorService executor = new PartitionedExecutorService(service, 1);
+			Task.Partition partition = new Task.Partition(new AtomicInteger());
+			final CountDownLatch started = new CountDownLatch(1);
+			final CountDownLatch release = new CountDownLatch(1);
+			
+			// Occupy the only permit of the partition
+			executor.submit(new Task(partition)
+			{
+				@Override
+				public Integer call() throws Exception
+				{
+					started.countDown();
+					release.await();
+					return super.call();
+				}
+			});
+			Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+			
+			executor.remove(partition);
+			
+			try
+			{
+				// A removed partition starts over with a new concurrency limit
+				FutureTask<Integer> task = new FutureTask<>(new Task(partition));
+				executor.run(task, partition);
+				
+				Assert.assertEquals(1, release.getCount());
+				Assert.assertTrue(task.isDone());
+			}
+			finally
+			{
+				release.countDown();
+			}
+		}
+		finally
+		{
+			service.shutdown();
+		}
+	}
+	
+	private static class Task implements Callable<Integer>, PartitionedTask
+	{
+		static class Partition
+		{
+			final AtomicInteger concurrency = new AtomicInteger();
+			final AtomicInteger maxConcurrency;
+			
+			Partition(AtomicInteger maxConcurrency)
+			{
+				this.maxConcurrency = maxConcurrency;
+			}
+		}
+		
+		private final Partition partition;
+		
+		Task(Partition partition)
+		{
+			this.partition = partition;
+		}
+
+		@Override
+		public Object getPartition()
+		{
+			return this.partition;
+		}
+
+		@Override
+		public Integer call() throws Exception
+		{
+			int concurrency = this.partition.concurrency.incrementAndGet();
+			try
+			{
+				int max = this.partition.maxConcurrency.get();
+				while ((concurrency > max) && !this.partition.maxConcurrency.compareAndSet(max, concurrency))
+				{
+					max = this.partition.maxConcurrency.get();
+				}
+				Thread.sleep(10);
+				return concurrency;
+			}
+			finally
+			{
+				this.partition.concurrency.decrementAndGet();
+			}
+		}
+	}
+}
@@ -49,7 +49,24 @@ public class SynchronousExecutorTest
 		this.test(Arrays.asList(1, 100, 100), true);
 	}
 
+	@Test
+	public void callerRuns() throws InterruptedException, ExecutionException
+	{
+		this.test(Arrays.asList(100, 1, 1), false, true);
+	}
+
+	@Test
+	public void reverseCallerRuns() throws InterruptedException, ExecutionException
+	{
+		this.test(Arrays.asList(1, 100, 100), true, true);
+	}
+
 	public void test(List<Integer> sleeps, boolean reverse) throws InterruptedException, ExecutionException
+	{
+		this.test(sleeps, reverse, false);
+	}
+
+	public void test(List<Integer> sleeps, boolean reverse, boolean callerRuns) throws InterruptedException, ExecutionException
 	{
 		ExecutorService service = Executors.newCachedThreadPool();
 		try
@@ -63,7 +80,7 @@ public class SynchronousExecutorTest
 				expected.add(i);
 			}
 			
-			List<Future<Integer>> futures = new SynchronousExecutor(service, reverse).invokeAll(tasks);
+			List<Future<Integer>> futures = new SynchronousExecutor(service, reverse, callerRuns).invokeAll(tasks);
 			
 			List<Integer> results = new ArrayList<>(tasks.size());
 			for (Future<Integer> future: futures)
@@ -75,6 +92,11 @@ public class SynchronousExecutorTest
 			
 			// Make sure 1st task finished first, or last if reversed
 			Assert.assertEquals(0, order.get(reverse ? 2 : 0).intValue());
+			
+			// Make sure 1st task, and last parallel task if caller-runs, executed in the caller thread
+			Thread caller = Thread.currentThread();
+			Assert.assertSame(caller, tasks.get(0).thread);
+			Assert.assertEquals(callerRuns, tasks.get(reverse ? 1 : 2).thread == caller);
 		}
 		finally
 		{
@@ -87,6 +109,7 @@ public class SynchronousExecutorTest
 		private final int index;
 		private final long sleep;
 		private final List<Integer> order;
+		volatile Thread thread;
 		
 		Task(int index, long sleep, List<Integer> order)
 		{
@@ -98,6 +121,7 @@ public class SynchronousExecutorTest
 		@Override
 		public Integer call() throws Exception
 		{
+			this.thread = Thread.currentThread();
 			try
 			{
 				Thread.sleep(this.sleep);
@@ -0,0 +1,139 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.ref;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class ConcurrentWeakSetTest
+{
+	@Test
+	public void identity()
+	{
+		Set<String> set = new ConcurrentWeakSet<>();
+		String value = new String("value");
+		String equalValue = new String("value");
+		
+		Assert.assertTrue(set.add(value));
+		Assert.assertFalse(set.add(value));
+		Assert.assertTrue(set.contains(value));
+		// Elements are compared by identity
+		Assert.assertFalse(set.contains(equalValue));
+		Assert.assertFalse(set.remove(equalValue));
+		Assert.assertTrue(set.add(equalValue));
+		Assert.assertEquals(2, set.size());
+		
+		Assert.assertTrue(set.remove(value));
+		Assert.assertFalse(set.contains(value));
+		Assert.assertEquals(1, set.size());
+		
+		set.clear();
+		Assert.assertTrue(set.isEmpty());
+	}
+	
+	@Test
+	public void iterator()
+	{
+		Set<Object> set = new ConcurrentWeakSet<>();
+		List<Object> elements = new ArrayList<>();
+		for (int i = 0; i < 10; ++i)
+		{
+			Object element = new Object();
+			elements.add(element);
+			set.add(element);
+		}
+		
+		int count = 0;
+		for (Object element: set)
+		{
+			// Modification during iteration is permitted
+			set.remove(element);
+			count += 1;
+		}
+		Assert.assertEquals(10, count);
+		Assert.assertTrue(set.isEmpty());
+		
+		Iterator<Object> iterator = set.iterator();
+		Assert.assertFalse(iterator.hasNext());
+	}
+	
+	@Test
+	public void concurrent() throws Exception
+	{
+		final Set<Object> set = new ConcurrentWeakSet<>();
+		final List<Object> retained = new ArrayList<>();
+		for (int i = 0; i < 100; ++i)
+		{
+			retained.add(new Object());
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int i = 0; i < 4; ++i)
+			{
+				futures.add(executor.submit(new Callable<Void>()
+				{
+					@Override
+					public Void call()
+					{
+						for (int j = 0; j < 1000; ++j)
+						{
+							Object transientElement = new Object();
+							set.add(transientElement);
+							set.add(retained.get(j % retained.size()));
+							for (Object element: set)
+							{
+								Assert.assertNotNull(element);
+							}
+							set.remove(transientElement);
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future: futures)
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		
+		Assert.assertEquals(retained.size(), set.size());
+		for (Object element: retained)
+		{
+			Assert.assertTrue(set.contains(element));
+		}
+	}
+}
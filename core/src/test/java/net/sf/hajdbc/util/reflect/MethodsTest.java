@@ -0,0 +1,55 @@
+/*
+ * HA-JDBC: High-Availability JDBC
+ * Copyright (C) 2012  Paul Ferraro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.hajdbc.util.reflect;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.function.Function;
+
+import net.sf.hajdbc.util.StaticRegistry;
+
+import org.junit.Test;
+
+/**
+ * @author Paul Ferraro
+ */
+public class MethodsTest
+{
+	@Test
+	public void classify()
+	{
+		StaticRegistry<Method, String> registry = Methods.classify(PreparedStatement.class, new Function<Method, String>()
+		{
+			@Override
+			public String apply(Method method)
+			{
+				return method.getName().startsWith("set") ? "set" : null;
+			}
+		});
+		
+		assertEquals("set", registry.get(Methods.getMethod(PreparedStatement.class, "setInt", Integer.TYPE, Integer.TYPE)));
+		// Inherited methods are classified
+		assertEquals("set", registry.get(Methods.getMethod(Statement.class, "setFetchSize", Integer.TYPE)));
+		assertNull(registry.get(Methods.getMethod(PreparedStatement.class, "executeQuery")));
+		// Methods of other classes are not classified
+		assertNull(registry.get(Methods.getMethod(Object.class, "toString")));
+	}
+}
@@ -35,6 +35,7 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import javax.sql.DataSource;
 import javax.xml.transform.stream.StreamResult;
@@ -44,6 +45,7 @@ import net.sf.hajdbc.Database;
 import net.sf.hajdbc.DatabaseBuilder;
 import net.sf.hajdbc.DatabaseClusterConfiguration;
 import net.sf.hajdbc.DatabaseClusterConfigurationBuilder;
+import net.sf.hajdbc.ExecutorServiceProvider;
 import net.sf.hajdbc.Locality;
 import net.sf.hajdbc.MockDataSource;
 import net.sf.hajdbc.MockDriver;
@@ -54,9 +56,12 @@ import net.sf.hajdbc.dialect.StandardDialectFactory;
 import net.sf.hajdbc.durability.coarse.CoarseDurabilityFactory;
 import net.sf.hajdbc.sql.DataSourceDatabase;
 import net.sf.hajdbc.sql.DataSourceDatabaseClusterConfigurationBuilder;
+import net.sf.hajdbc.sql.DefaultExecutorServiceProvider;
 import net.sf.hajdbc.sql.DriverDatabase;
 import net.sf.hajdbc.sql.DriverDatabaseClusterConfigurationBuilder;
+import net.sf.hajdbc.sql.SimpleExecutorServiceProvider;
 import net.sf.hajdbc.sql.TransactionModeEnum;
+import net.sf.hajdbc.sql.VirtualThreadExecutorServiceProvider;
 import net.sf.hajdbc.state.StateManagerFactory;
 import net.sf.hajdbc.state.sql.SQLStateManagerFactory;
 import net.sf.hajdbc.sync.DifferentialSynchronizationStrategy;
@@ -111,6 +116,74 @@ public class XMLDatabaseClusterConfigurationFactoryTest
 		assertEquals("db2", ((MockDataSource) db2.getConnectionSource()).getName());
 	}
 	
+	@Test
+	public void exportExecutor() throws SQLException
+	{
+		String xml = export(new DataSourceDatabaseClusterConfigurationBuilder(), "<executor id=\"virtual\"><property name=\"maxConcurrency\">4</property></executor>");
+		assertTrue(xml, xml.contains("<executor id=\"virtual\">"));
+		
+		ExecutorServiceProvider executorProvider = read(new DataSourceDatabaseClusterConfigurationBuilder(), xml).getExecutorProvider();
+		assertTrue(executorProvider instanceof VirtualThreadExecutorServiceProvider);
+		assertEquals(4, ((VirtualThreadExecutorServiceProvider) executorProvider).getMaxConcurrency());
+	}
+	
+	@Test
+	public void exportDefaultExecutor() throws SQLException
+	{
+		String xml = export(new DataSourceDatabaseClusterConfigurationBuilder(), "");
+		assertFalse(xml, xml.contains("<executor"));
+		
+		assertTrue(read(new DataSourceDatabaseClusterConfigurationBuilder(), xml).getExecutorProvider() instanceof DefaultExecutorServiceProvider);
+	}
+	
+	@Test
+	public void exportSimpleExecutor() throws SQLException
+	{
+		DataSourceDatabaseClusterConfigurationBuilder builder = new DataSourceDatabaseClusterConfigurationBuilder();
+		builder.executor(new SimpleExecutorServiceProvider(mock(ExecutorService.class)));
+		
+		String xml = export(builder, "");
+		assertFalse(xml, xml.contains("<executor"));
+		
+		assertTrue(read(new DataSourceDatabaseClusterConfigurationBuilder(), xml).getExecutorProvider() instanceof DefaultExecutorServiceProvider);
+	}
+	
+	/**
+	 * Reads a minimal configuration containing the specified executor element, and exports it.
+	 */
+	private static String export(DataSourceDatabaseClusterConfigurationBuilder configurationBuilder, String executor) throws SQLException
+	{
+		StringBuilder builder = new StringBuilder();
+		builder.append("<?xml version=\"1.0\"?>");
+		builder.append("<ha-jdbc xmlns=\"").append(Namespace.CURRENT_VERSION.getURI()).append("\">");
+		builder.append("\t<sync id=\"diff\"/>");
+		builder.append("\t").append(executor);
+		builder.append("\t<cluster default-sync=\"diff\">");
+		builder.append(String.format("\t\t<database id=\"db1\" location=\"%s\"><property name=\"name\">db1</property></database>", MockDataSource.class.getName()));
+		builder.append("\t</cluster>");
+		builder.append("</ha-jdbc>");
+		
+		DatabaseClusterConfiguration<DataSource, DataSourceDatabase> configuration = read(configurationBuilder, builder.toString());
+		
+		XMLStreamFactory streamFactory = mock(XMLStreamFactory.class);
+		StringWriter writer = new StringWriter();
+		
+		when(streamFactory.createResult()).thenReturn(new StreamResult(writer));
+		
+		new XMLDatabaseClusterConfigurationFactory<DataSource, DataSourceDatabase>(streamFactory).export(configuration);
+		
+		return writer.toString();
+	}
+	
+	private static DatabaseClusterConfiguration<DataSource, DataSourceDatabase> read(DataSourceDatabaseClusterConfigurationBuilder configurationBuilder, String xml) throws SQLException
+	{
+		XMLStreamFactory streamFactory = mock(XMLStreamFactory.class);
+		
+		when(streamFactory.createSource()).thenReturn(new StreamSource(new StringReader(xml)));
+		
+		return new XMLDatabaseClusterConfigurationFactory<DataSource, DataSourceDatabase>(streamFactory).createConfiguration(configurationBuilder);
+	}
+	
 	private static <Z, D extends Database<Z>, B extends DatabaseBuilder<Z, D>> DatabaseClusterConfiguration<Z, D> createConfiguration(DatabaseClusterConfigurationBuilder<Z, D, B> configurationBuilder, String location1, String location2, Map.Entry<String, String> property1, Map.Entry<String, String> property2) throws SQLException
 	{
 		StringBuilder builder = new StringBuilder();
@@ -118,6 +191,7 @@ public class XMLDatabaseClusterConfigurationFactoryTest
 		builder.append("<ha-jdbc xmlns=\"").append(Namespace.CURRENT_VERSION.getURI()).append("\">");
 		builder.append("\t<sync id=\"diff\"><property name=\"fetchSize\">100</property><property name=\"maxBatchSize\">100</property></sync>");
 		builder.append("\t<state id=\"sql\"><property name=\"urlPattern\">jdbc:h2:{0}</property><property name=\"minIdle\">1</property></state>");
+		builder.append("\t<executor id=\"virtual\"><property name=\"maxConcurrency\">4</property></executor>");
 		builder.append("\t<cluster default-sync=\"diff\">");
 		builder.append(String.format("\t\t<database id=\"db1\" location=\"%s\">", location1));
 		builder.append(String.format("\t\t\t<property name=\"%s\">%s</property>", property1.getKey(), property1.getValue()));
@@ -165,8 +239,13 @@ public class XMLDatabaseClusterConfigurationFactoryTest
 		assertEquals(StandardDialectFactory.class, configuration.getDialectFactory().getClass());
 		assertEquals(CoarseDurabilityFactory.class, configuration.getDurabilityFactory().getClass());
 		assertSame(TransactionModeEnum.SERIAL, configuration.getTransactionMode());
+		assertEquals(1000, configuration.getSQLAnalysisCacheSize());
+		assertEquals(0, configuration.getBatchChunkSize());
+		assertEquals(0, configuration.getHedgedReadDelay());
 		
-		assertNotNull(configuration.getExecutorProvider());
+		ExecutorServiceProvider executorProvider = configuration.getExecutorProvider();
+		assertTrue(executorProvider instanceof VirtualThreadExecutorServiceProvider);
+		assertEquals(4, ((VirtualThreadExecutorServiceProvider) executorProvider).getMaxConcurrency());
 		
 		assertNull(configuration.getAutoActivationExpression());
 		assertNull(configuration.getFailureDetectionExpression());
@@ -175,6 +254,8 @@ public class XMLDatabaseClusterConfigurationFactoryTest
 		assertFalse(configuration.isCurrentTimeEvaluationEnabled());
 		assertFalse(configuration.isCurrentTimestampEvaluationEnabled());
 		assertFalse(configuration.isIdentityColumnDetectionEnabled());
+		assertFalse(configuration.isLazyStatementCreationEnabled());
+		assertEquals(0, configuration.getPreparedStatementCacheSize());
 		assertFalse(configuration.isRandEvaluationEnabled());
 		assertFalse(configuration.isSequenceDetectionEnabled());
 		
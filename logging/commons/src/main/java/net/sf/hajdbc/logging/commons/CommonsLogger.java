@@ -36,6 +36,42 @@ public class CommonsLogger extends AbstractLogger
 		this.log = LogFactory.getLog(targetClass);
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.logging.Logger#isEnabled(net.sf.hajdbc.logging.Level)
+	 */
+	@Override
+	public boolean isEnabled(Level level)
+	{
+		switch (level)
+		{
+			case ERROR:
+			{
+				return this.log.isErrorEnabled();
+			}
+			case WARN:
+			{
+				return this.log.isWarnEnabled();
+			}
+			case INFO:
+			{
+				return this.log.isInfoEnabled();
+			}
+			case DEBUG:
+			{
+				return this.log.isDebugEnabled();
+			}
+			case TRACE:
+			{
+				return this.log.isTraceEnabled();
+			}
+			default:
+			{
+				return false;
+			}
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.logging.Logger#log(net.sf.hajdbc.logging.Level, java.lang.Throwable, java.lang.String, java.lang.Object[])
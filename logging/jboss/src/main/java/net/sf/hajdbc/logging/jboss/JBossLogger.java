@@ -47,6 +47,16 @@ public class JBossLogger extends AbstractLogger
 		this.logger = Logger.getLogger(targetClass);
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.logging.Logger#isEnabled(net.sf.hajdbc.logging.Level)
+	 */
+	@Override
+	public boolean isEnabled(Level level)
+	{
+		return this.logger.isEnabled(levels.get(level));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.logging.Logger#log(net.sf.hajdbc.logging.Level, java.lang.Throwable, java.lang.String, java.lang.Object[])
@@ -35,6 +35,42 @@ public class SLF4JLogger extends AbstractLogger
 		this.logger = LoggerFactory.getLogger(targetClass);
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * @see net.sf.hajdbc.logging.Logger#isEnabled(net.sf.hajdbc.logging.Level)
+	 */
+	@Override
+	public boolean isEnabled(Level level)
+	{
+		switch (level)
+		{
+			case ERROR:
+			{
+				return this.logger.isErrorEnabled();
+			}
+			case WARN:
+			{
+				return this.logger.isWarnEnabled();
+			}
+			case INFO:
+			{
+				return this.logger.isInfoEnabled();
+			}
+			case DEBUG:
+			{
+				return this.logger.isDebugEnabled();
+			}
+			case TRACE:
+			{
+				return this.logger.isTraceEnabled();
+			}
+			default:
+			{
+				return false;
+			}
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * @see net.sf.hajdbc.logging.Logger#log(net.sf.hajdbc.logging.Level, java.lang.Throwable, java.lang.String, java.lang.Object[])